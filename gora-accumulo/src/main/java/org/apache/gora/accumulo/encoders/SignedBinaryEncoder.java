@@ -18,93 +18,80 @@ package org.apache.gora.accumulo.encoders;
 
 import java.io.IOException;
 
+import org.apache.gora.util.OrderedBytes;
+
 /**
  * This class transforms this bits within a primitive type so that 
  * the bit representation sorts correctly lexographicaly. Primarily 
  * it does some simple transformations so that negative numbers sort 
- * before positive numbers, when compared lexographically.
+ * before positive numbers, when compared lexographically. The numbers
+ * are encoded like the keys of {@link OrderedBytes}.
  */
 public class SignedBinaryEncoder extends BinaryEncoder {
 
   @Override
   public byte[] encodeShort(short s, byte[] ret) throws IOException{
-    s = (short)((s & 0xffff) ^ 0x8000);
-    return super.encodeShort(s, ret);
+    OrderedBytes.putShort(ret, 0, s);
+    return ret;
   }
 
   @Override
   public short decodeShort(byte[] a) throws IOException{
-    short s = super.decodeShort(a);
-    s = (short)((s & 0xffff) ^ 0x8000);
-    return s;
+    checkLength(a, 2);
+    return OrderedBytes.toShort(a, 0);
   }
 
   @Override
   public byte[] encodeInt(int i, byte[] ret) throws IOException{
-    i = i ^ 0x80000000;
-    return super.encodeInt(i, ret);
+    OrderedBytes.putInt(ret, 0, i);
+    return ret;
   }
 
   @Override
   public int decodeInt(byte[] a) throws IOException{
-    int i = super.decodeInt(a);
-    i = i ^ 0x80000000;
-    return i;
+    checkLength(a, 4);
+    return OrderedBytes.toInt(a, 0);
   }
 
   @Override
   public byte[] encodeLong(long l, byte[] ret) throws IOException{
-    l = l ^ 0x8000000000000000L;
-    return super.encodeLong(l, ret);
+    OrderedBytes.putLong(ret, 0, l);
+    return ret;
   }
 
   @Override
   public long decodeLong(byte[] a) throws IOException {
-    long l = super.decodeLong(a);
-    l = l ^ 0x8000000000000000L;
-    return l;
+    checkLength(a, 8);
+    return OrderedBytes.toLong(a, 0);
   }
 
   @Override
   public byte[] encodeDouble(double d, byte[] ret) throws IOException {
-    long l = Double.doubleToRawLongBits(d);
-    if(l < 0)
-      l = ~l;
-    else
-      l = l ^ 0x8000000000000000L;
-    return super.encodeLong(l,ret);
+    OrderedBytes.putDouble(ret, 0, d);
+    return ret;
   }
 
   @Override
   public double decodeDouble(byte[] a) throws IOException{
-    long l = super.decodeLong(a);
-    if(l < 0)
-      l = l ^ 0x8000000000000000L;
-    else
-      l = ~l;
-    return Double.longBitsToDouble(l);
+    checkLength(a, 8);
+    return OrderedBytes.toDouble(a, 0);
   }
 
   @Override
   public byte[] encodeFloat(float f, byte[] ret) throws IOException {
-    int i = Float.floatToRawIntBits(f);
-    if(i < 0)
-      i = ~i;
-    else
-      i = i ^ 0x80000000;
-
-    return super.encodeInt(i, ret);
-
+    OrderedBytes.putFloat(ret, 0, f);
+    return ret;
   }
 
   @Override
   public float decodeFloat(byte[] a) throws IOException{
-    int i = super.decodeInt(a);
-    if(i < 0)
-      i = i ^ 0x80000000;
-    else
-      i = ~i;
-    return Float.intBitsToFloat(i);
+    checkLength(a, 4);
+    return OrderedBytes.toFloat(a, 0);
   }
 
+  private static void checkLength(byte[] a, int length) throws IOException {
+    if (a.length < length) {
+      throw new IOException("Expected " + length + " bytes, got " + a.length);
+    }
+  }
 }
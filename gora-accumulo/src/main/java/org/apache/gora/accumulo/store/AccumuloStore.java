@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -89,6 +90,7 @@ import org.apache.gora.accumulo.encoders.BinaryEncoder;
 import org.apache.gora.accumulo.encoders.Encoder;
 import org.apache.gora.accumulo.query.AccumuloQuery;
 import org.apache.gora.accumulo.query.AccumuloResult;
+import org.apache.gora.persistency.Persistent;
 import org.apache.gora.persistency.impl.DirtyListWrapper;
 import org.apache.gora.persistency.impl.DirtyMapWrapper;
 import org.apache.gora.persistency.impl.PersistentBase;
@@ -101,6 +103,7 @@ import org.apache.gora.store.impl.DataStoreBase;
 import org.apache.gora.util.AvroUtils;
 import org.apache.gora.util.GoraException;
 import org.apache.gora.util.IOUtils;
+import org.apache.gora.util.OrderedBytes;
 import org.apache.hadoop.io.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -231,6 +234,8 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
         return (K) new String(val, "UTF-8");
       } else if (clazz.equals(Utf8.class)) {
         return (K) new Utf8(val);
+      } else if (Persistent.class.isAssignableFrom(clazz)) {
+        return OrderedBytes.fromBytes(clazz, val);
       }
 
       throw new IllegalArgumentException(UNKOWN + clazz.getName());
@@ -328,6 +333,9 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
         return encoder.encodeDouble((Double) o);
       } else if (o instanceof Enum) {
         return encoder.encodeInt(((Enum<?>) o).ordinal());
+      } else if (o instanceof Persistent) {
+        // composite keys, written field by field in order
+        return OrderedBytes.toBytes(o);
       }
     } catch (IOException ioe) {
       throw new RuntimeException(ioe);
@@ -931,6 +939,9 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
 
       //hadoop expects hostnames, accumulo keeps track of IPs... so need to convert
       HashMap<String,String> hostNameCache = new HashMap<>();
+      // composite keys are not partitioned at the tablet boundaries, the key
+      // following the previous end row of a tablet has no encoding
+      boolean compositeKey = Persistent.class.isAssignableFrom(getKeyClass());
 
       for (Entry<String,Map<KeyExtent,List<Range>>> entry : binnedRanges.entrySet()) {
         String ip = entry.getKey().split(":", 2)[0];
@@ -940,6 +951,9 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
           location = inetAddress.getHostName();
           hostNameCache.put(ip, location);
         }
+        if (compositeKey) {
+          continue;
+        }
 
         Map<KeyExtent,List<Range>> tablets = entry.getValue();
         for (KeyExtent ke : tablets.keySet()) {
@@ -967,6 +981,13 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
         }
       }
 
+      if (compositeKey) {
+        PartitionQueryImpl<K, T> pqi = new PartitionQueryImpl<>(query, query.getStartKey(),
+            query.getEndKey(), new HashSet<>(hostNameCache.values()).toArray(new String[0]));
+        pqi.setConf(getConf());
+        ret.add(pqi);
+      }
+
       return ret;
     } catch (Exception e) {
       throw new GoraException(e);
@@ -992,7 +1013,7 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
       return fromBytes(encoder, clazz, encoder.lastPossibleKey(8, er));
     } else if (clazz.equals(String.class)) {
       throw new UnsupportedOperationException();
-    } else if (clazz.equals(Utf8.class)) {
+    } else if (clazz.equals(Utf8.class) || Persistent.class.isAssignableFrom(clazz)) {
       return fromBytes(encoder, clazz, er);
     }
 
@@ -1020,6 +1041,10 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
       throw new UnsupportedOperationException();
     } else if (clazz.equals(Utf8.class)) {
       return fromBytes(encoder, clazz, Arrays.copyOf(per, per.length + 1));
+    } else if (Persistent.class.isAssignableFrom(clazz)) {
+      // the key following an encoded composite key has no encoding,
+      // getPartitions does not split composite keys at the tablets
+      throw new UnsupportedOperationException();
     }
 
     throw new IllegalArgumentException(UNKOWN + clazz.getName());
@@ -1038,6 +1063,7 @@ public class AccumuloStore<K,T extends PersistentBase> extends DataStoreBase<K,T
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try {
       if (batchWriter != null) {
         batchWriter.close();
@@ -19,7 +19,9 @@ package org.apache.gora.aerospike.store;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -50,6 +52,7 @@ import com.aerospike.client.Bin;
 import com.aerospike.client.Key;
 import com.aerospike.client.Record;
 import com.aerospike.client.Value;
+import com.aerospike.client.policy.BatchPolicy;
 import com.aerospike.client.policy.ClientPolicy;
 import com.aerospike.client.query.RecordSet;
 import com.aerospike.client.query.Statement;
@@ -196,6 +199,52 @@ public class AerospikeStore<K, T extends PersistentBase> extends DataStoreBase<K
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * All records are read with a single batch request, using the client's default
+   * batch policy.
+   *
+   * @param keys   the keys of the objects
+   * @param fields the fields required in the objects. Pass null, to retrieve all fields
+   * @return the objects found, by key
+   */
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    try {
+      fields = getFieldsToQuery(fields);
+      List<K> keyList = new ArrayList<>(keys);
+      Record[] records = aerospikeClient.get((BatchPolicy) null, getAerospikeKeys(keyList), fields);
+
+      Map<K, T> objects = new LinkedHashMap<>();
+      for (int i = 0; i < records.length; i++) {
+        if (records[i] != null) {
+          objects.put(keyList.get(i), createPersistentInstance(records[i], fields));
+        }
+      }
+      return objects;
+    } catch (GoraException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    try {
+      List<K> keyList = new ArrayList<>(keys);
+      boolean[] exists = aerospikeClient.exists((BatchPolicy) null, getAerospikeKeys(keyList));
+
+      Map<K, Boolean> existsMap = new LinkedHashMap<>();
+      for (int i = 0; i < exists.length; i++) {
+        existsMap.put(keyList.get(i), exists[i]);
+      }
+      return existsMap;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
   /**
    * Method to insert the persistent objects with the given key to the aerospike database server.
    * In writing the records, the policy defined in the mapping file is used to decide on the
@@ -398,6 +447,7 @@ public class AerospikeStore<K, T extends PersistentBase> extends DataStoreBase<K
    */
   @Override
   public void close() {
+    closeAsyncExecutor();
     aerospikeClient.close();
     LOG.info("Aerospike Gora datastore destroyed successfully.");
   }
@@ -420,6 +470,20 @@ public class AerospikeStore<K, T extends PersistentBase> extends DataStoreBase<K
             aerospikeParameters.getAerospikeMapping().getSet(), keyValue);
   }
 
+  /**
+   * Method to get the aerospike keys of several persistent keys
+   *
+   * @param keys persistent keys
+   * @return aerospike keys for the records, in the same order
+   */
+  private Key[] getAerospikeKeys(List<K> keys) {
+    Key[] recordKeys = new Key[keys.size()];
+    for (int i = 0; i < recordKeys.length; i++) {
+      recordKeys[i] = getAerospikeKey(keys.get(i));
+    }
+    return recordKeys;
+  }
+
   /**
    * Method to get the value serializable in database from the Avro persistent object
    *
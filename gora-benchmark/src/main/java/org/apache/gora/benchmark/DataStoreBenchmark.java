@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.gora.GoraTestDriver;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.store.FileBackedDataStore;
+import org.apache.gora.util.ClassLoadingUtils;
+import org.apache.gora.util.GoraException;
+import org.apache.gora.util.ReflectionUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileUtil;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Base class of the benchmarks. Creates the store under test for every
+ * trial, parameterized by record shape, batch size and data set size, and
+ * starts the embedded mini cluster the store needs, if any.
+ *
+ * <p>Stores are configured by <code>gora-benchmark.properties</code>. Entries
+ * prefixed with <code>gora.benchmark.conf.</code> are copied into the Hadoop
+ * {@link Configuration}, and <code>gora.benchmark.testdriver.&lt;store&gt;</code>
+ * names the {@link GoraTestDriver} started before the store is created.</p>
+ *
+ * <p>Scores are the average time of one invocation, which works on a whole
+ * batch of <code>batchSize</code> rows.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class DataStoreBenchmark {
+
+  public static final String PROPERTIES_FILE = "gora-benchmark.properties";
+
+  public static final String VERSION_KEY = "gora.benchmark.version";
+  public static final String CONF_PREFIX = "gora.benchmark.conf.";
+  public static final String TEST_DRIVER_PREFIX = "gora.benchmark.testdriver.";
+
+  public static final String MEM_STORE = "org.apache.gora.memory.store.MemStore";
+  public static final String DATA_FILE_AVRO_STORE = "org.apache.gora.avro.store.DataFileAvroStore";
+  public static final String LUCENE_STORE = "org.apache.gora.lucene.store.LuceneStore";
+
+  @Param({"PAGEVIEW", "CINODE"})
+  public RecordShape shape;
+
+  @Param({"1", "100"})
+  public int batchSize;
+
+  @Param({"10000"})
+  public int rows;
+
+  protected DataStore<String, PersistentBase> store;
+
+  /** Keys of the data set, ordered as the rows */
+  protected String[] keys;
+
+  /** Records of the data set, one per key */
+  protected PersistentBase[] records;
+
+  private Properties properties;
+  private Configuration conf;
+  private GoraTestDriver testDriver;
+  private File directory;
+
+  /**
+   * Returns the class name of the store under test.
+   * @return the value of the <code>storeClass</code> parameter.
+   */
+  protected abstract String getStoreClass();
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkParams params) throws Exception {
+    if (batchSize > rows) {
+      throw new IllegalArgumentException("batchSize " + batchSize + " > rows " + rows);
+    }
+    properties = loadProperties();
+    String testDriverClass = properties.getProperty(TEST_DRIVER_PREFIX + getStoreClass());
+    if (testDriverClass != null) {
+      testDriver = (GoraTestDriver) ReflectionUtils.newInstance(testDriverClass);
+      testDriver.setUpClass();
+      conf = testDriver.getConfiguration();
+    } else {
+      conf = new Configuration();
+    }
+    for (String name : properties.stringPropertyNames()) {
+      if (name.startsWith(CONF_PREFIX)) {
+        conf.set(name.substring(CONF_PREFIX.length()), properties.getProperty(name));
+      }
+    }
+    directory = Files.createTempDirectory("gora-benchmark").toFile();
+    String path = new File(directory, shape.name().toLowerCase(Locale.ROOT)).getPath();
+    properties.setProperty("gora.datastore." + DataStoreFactory.INPUT_PATH, path);
+    properties.setProperty("gora.datastore." + DataStoreFactory.OUTPUT_PATH, path);
+
+    keys = new String[rows];
+    records = new PersistentBase[rows];
+    Random random = new Random(rows);
+    for (int i = 0; i < rows; i++) {
+      keys[i] = key(i);
+      records[i] = shape.newRecord(i, random);
+    }
+    store = createDataStore();
+    store.createSchema();
+    prepare(params);
+  }
+
+  /**
+   * Prepares the store for the benchmark, after it was created.
+   * @param params the parameters of the trial.
+   * @throws Exception if the store could not be prepared.
+   */
+  protected void prepare(BenchmarkParams params) throws Exception {
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    try {
+      if (store != null) {
+        // file backed stores are removed with the temporary directory
+        if (!(store instanceof FileBackedDataStore)) {
+          store.deleteSchema();
+        }
+        store.close();
+      }
+    } finally {
+      store = null;
+      if (testDriver != null) {
+        testDriver.tearDownClass();
+        testDriver = null;
+      }
+      if (directory != null) {
+        FileUtil.fullyDelete(directory);
+        directory = null;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected DataStore<String, PersistentBase> createDataStore() throws GoraException {
+    try {
+      Class<? extends DataStore<String, PersistentBase>> storeClass =
+          (Class<? extends DataStore<String, PersistentBase>>) ClassLoadingUtils
+          .loadClass(getStoreClass());
+      return DataStoreFactory.createDataStore(storeClass, String.class,
+          (Class<PersistentBase>) shape.getPersistentClass(), conf, properties);
+    } catch (ClassNotFoundException e) {
+      throw new GoraException("Store " + getStoreClass() + " is not on the classpath,"
+          + " build gora-benchmark with its profile", e);
+    }
+  }
+
+  /**
+   * Writes the whole data set and makes it readable. File backed stores
+   * are reopened, as they only read what was written by a closed store.
+   * @throws GoraException if the data set could not be written.
+   */
+  protected void load() throws GoraException {
+    for (int i = 0; i < rows; i++) {
+      store.put(keys[i], records[i]);
+    }
+    store.flush();
+    if (store instanceof FileBackedDataStore) {
+      store.close();
+      store = createDataStore();
+    }
+  }
+
+  /**
+   * Fails the trial if the store under test does not support several
+   * writing threads.
+   * @param params the parameters of the trial.
+   */
+  protected void checkConcurrentWriters(BenchmarkParams params) {
+    if (params.getThreads() > 1 && store instanceof FileBackedDataStore) {
+      throw new IllegalStateException(getStoreClass() + " supports a single writer only");
+    }
+  }
+
+  /**
+   * Returns the key of a row. Keys are zero padded so that they sort as
+   * the row indexes and ranges of rows are ranges of keys.
+   * @param index the row index.
+   * @return the key.
+   */
+  public static String key(int index) {
+    String digits = Integer.toString(index);
+    return "row0000000000".substring(0, 13 - digits.length()) + digits;
+  }
+
+  /**
+   * Loads <code>gora-benchmark.properties</code> from the classpath.
+   * @return the benchmark properties.
+   * @throws IOException if the file could not be read.
+   */
+  public static Properties loadProperties() throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = DataStoreBenchmark.class.getClassLoader()
+        .getResourceAsStream(PROPERTIES_FILE)) {
+      if (in == null) {
+        throw new IOException(PROPERTIES_FILE + " not found on the classpath");
+      }
+      properties.load(in);
+    }
+    return properties;
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.query.Query;
+import org.apache.gora.util.GoraException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Measures the deletion of a key range of <code>batchSize</code> rows. The
+ * range is written again, outside of the measurement, before every
+ * invocation. DataFileAvroStore is left out as it does not support deletes.
+ */
+public class DeleteByQueryBenchmark extends DataStoreBenchmark {
+
+  @Param({MEM_STORE, LUCENE_STORE})
+  public String storeClass;
+
+  @Override
+  protected String getStoreClass() {
+    return storeClass;
+  }
+
+  @Override
+  protected void prepare(BenchmarkParams params) throws GoraException {
+    load();
+  }
+
+  /**
+   * The rows deleted by the next invocation of a thread.
+   */
+  @State(Scope.Thread)
+  public static class Range {
+
+    int start;
+    int end;
+
+    @Setup(Level.Invocation)
+    public void refill(DeleteByQueryBenchmark benchmark, KeyCursor cursor)
+        throws GoraException {
+      start = cursor.nextBatch(benchmark.batchSize, benchmark.rows);
+      end = Math.min(start + benchmark.batchSize, benchmark.rows);
+      for (int row = start; row < end; row++) {
+        benchmark.store.put(benchmark.keys[row], benchmark.records[row]);
+      }
+      benchmark.store.flush();
+    }
+  }
+
+  @Benchmark
+  public long deleteByQuery(Range range) throws GoraException {
+    Query<String, PersistentBase> query = store.newQuery();
+    query.setStartKey(keys[range.start]);
+    query.setEndKey(keys[range.end - 1]);
+    return store.deleteByQuery(query);
+  }
+}
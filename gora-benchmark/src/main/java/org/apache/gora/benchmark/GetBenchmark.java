@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.gora.util.GoraException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Measures random reads of single rows and of
+ * {@link org.apache.gora.store.DataStore#getAll(java.util.Collection, String[])}
+ * batches. DataFileAvroStore is left out as it has no indexed retrieval.
+ */
+public class GetBenchmark extends DataStoreBenchmark {
+
+  @Param({MEM_STORE, LUCENE_STORE})
+  public String storeClass;
+
+  @Override
+  protected String getStoreClass() {
+    return storeClass;
+  }
+
+  @Override
+  protected void prepare(BenchmarkParams params) throws GoraException {
+    load();
+  }
+
+  @Benchmark
+  public void get(KeyCursor cursor, Blackhole blackhole) throws GoraException {
+    for (int i = 0; i < batchSize; i++) {
+      blackhole.consume(store.get(keys[cursor.nextRandom(rows)]));
+    }
+  }
+
+  @Benchmark
+  public void getAll(KeyCursor cursor, Blackhole blackhole) throws GoraException {
+    List<String> batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(keys[cursor.nextRandom(rows)]);
+    }
+    blackhole.consume(store.getAll(batch, null));
+  }
+}
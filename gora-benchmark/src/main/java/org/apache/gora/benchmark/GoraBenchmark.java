@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the benchmarks once per thread count and writes the results of each
+ * run as JSON to <code>gora-benchmark-&lt;version&gt;-t&lt;threads&gt;.json</code>,
+ * so that runs of different releases can be compared.
+ *
+ * <p>Usage: <code>GoraBenchmark [-threadCounts 1,4,16] [JMH options]</code>.
+ * The thread counts default to 1; JMH options, such as <code>-p</code> to
+ * restrict the parameters, <code>-t</code> or <code>-rff</code>, are passed
+ * through and take precedence.</p>
+ */
+public class GoraBenchmark {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GoraBenchmark.class);
+
+  public static final String THREAD_COUNTS_OPTION = "-threadCounts";
+
+  public static void main(String[] args) throws Exception {
+    String threadCounts = "1";
+    List<String> jmhArgs = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (THREAD_COUNTS_OPTION.equals(args[i]) && i + 1 < args.length) {
+        threadCounts = args[++i];
+      } else {
+        jmhArgs.add(args[i]);
+      }
+    }
+    String[] jmhArgArray = jmhArgs.toArray(new String[jmhArgs.size()]);
+    CommandLineOptions options = new CommandLineOptions(jmhArgArray);
+    if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+        || options.shouldListProfilers() || options.shouldListResultFormats()) {
+      Main.main(jmhArgArray);
+      return;
+    }
+    String version = DataStoreBenchmark.loadProperties()
+        .getProperty(DataStoreBenchmark.VERSION_KEY, "unknown");
+
+    for (String threadCount : threadCounts.split(",")) {
+      if (threadCount.trim().isEmpty()) {
+        continue;
+      }
+      int threads = Integer.parseInt(threadCount.trim());
+      ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+      if (!options.getThreads().hasValue()) {
+        builder.threads(threads);
+      }
+      if (!options.getResult().hasValue()) {
+        builder.result("gora-benchmark-" + version + "-t" + threads + ".json");
+      }
+      if (!options.getResultFormat().hasValue()) {
+        builder.resultFormat(ResultFormatType.JSON);
+      }
+      LOG.info("Running Gora {} benchmarks with {} thread(s)", version, threads);
+      new Runner(builder.build()).run();
+    }
+  }
+}
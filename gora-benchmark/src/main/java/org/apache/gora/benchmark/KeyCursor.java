@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Hands out the batches of row indexes worked on by one benchmark thread.
+ * Threads walk interleaved batches, so concurrent writers do not update
+ * the same rows until the data set wraps around.
+ */
+@State(Scope.Thread)
+public class KeyCursor {
+
+  private int thread;
+  private int threadCount;
+  private long batch;
+  private Random random;
+
+  @Setup
+  public void setUp(ThreadParams params) {
+    thread = params.getThreadIndex();
+    threadCount = params.getThreadCount();
+    random = new Random(thread);
+  }
+
+  /**
+   * Returns the first row of the next batch of this thread.
+   * @param batchSize the rows per batch.
+   * @param rows the size of the data set.
+   * @return a row index in [0, rows).
+   */
+  public int nextBatch(int batchSize, int rows) {
+    long start = (batch++ * threadCount + thread) * batchSize;
+    return (int) (start % rows);
+  }
+
+  /**
+   * Returns a random row.
+   * @param rows the size of the data set.
+   * @return a row index in [0, rows).
+   */
+  public int nextRandom(int rows) {
+    return random.nextInt(rows);
+  }
+}
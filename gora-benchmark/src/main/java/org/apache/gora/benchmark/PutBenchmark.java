@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.util.GoraException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Measures writes: single puts, {@link org.apache.gora.store.DataStore#putAll(Map)}
+ * and puts followed by a flush.
+ */
+public class PutBenchmark extends DataStoreBenchmark {
+
+  @Param({MEM_STORE, DATA_FILE_AVRO_STORE, LUCENE_STORE})
+  public String storeClass;
+
+  @Override
+  protected String getStoreClass() {
+    return storeClass;
+  }
+
+  @Override
+  protected void prepare(BenchmarkParams params) {
+    checkConcurrentWriters(params);
+  }
+
+  @Benchmark
+  public void put(KeyCursor cursor) throws GoraException {
+    putBatch(cursor.nextBatch(batchSize, rows));
+  }
+
+  @Benchmark
+  public void putAll(KeyCursor cursor) throws GoraException {
+    int start = cursor.nextBatch(batchSize, rows);
+    Map<String, PersistentBase> batch = new LinkedHashMap<>();
+    for (int i = 0; i < batchSize; i++) {
+      int row = (start + i) % rows;
+      batch.put(keys[row], records[row]);
+    }
+    store.putAll(batch);
+  }
+
+  @Benchmark
+  public void flush(KeyCursor cursor) throws GoraException {
+    putBatch(cursor.nextBatch(batchSize, rows));
+    store.flush();
+  }
+
+  private void putBatch(int start) throws GoraException {
+    for (int i = 0; i < batchSize; i++) {
+      int row = (start + i) % rows;
+      store.put(keys[row], records[row]);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import java.util.Random;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.goraci.generated.CINode;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.tutorial.log.generated.Pageview;
+
+/**
+ * The records written by the benchmarks: the wide, string heavy
+ * {@link Pageview} of the tutorial and the narrow, numeric {@link CINode}
+ * of GoraCI.
+ */
+public enum RecordShape {
+
+  PAGEVIEW(Pageview.class) {
+    @Override
+    public PersistentBase newRecord(long index, Random random) {
+      Pageview pageview = new Pageview();
+      pageview.setUrl(new Utf8("/wiki/page" + random.nextInt(100000)));
+      pageview.setTimestamp(index);
+      pageview.setIp(new Utf8("10.0." + random.nextInt(256) + "." + random.nextInt(256)));
+      pageview.setHttpMethod(new Utf8("GET"));
+      pageview.setHttpStatusCode(200);
+      pageview.setResponseSize(random.nextInt(65536));
+      pageview.setReferrer(new Utf8("http://gora.apache.org/current/tutorial.html"));
+      pageview.setUserAgent(new Utf8("Mozilla/5.0 (X11; Linux x86_64; rv:60.0) Gecko/20100101"));
+      return pageview;
+    }
+  },
+
+  CINODE(CINode.class) {
+    @Override
+    public PersistentBase newRecord(long index, Random random) {
+      CINode node = new CINode();
+      node.setPrev(random.nextLong());
+      node.setClient(new Utf8("client" + random.nextInt(16)));
+      node.setCount(index);
+      return node;
+    }
+  };
+
+  private final Class<? extends PersistentBase> persistentClass;
+
+  RecordShape(Class<? extends PersistentBase> persistentClass) {
+    this.persistentClass = persistentClass;
+  }
+
+  public Class<? extends PersistentBase> getPersistentClass() {
+    return persistentClass;
+  }
+
+  /**
+   * Creates the record stored under the given index.
+   * @param index the index of the record in the data set.
+   * @param random the source of the field values.
+   * @return a new record, all fields dirty.
+   */
+  public abstract PersistentBase newRecord(long index, Random random);
+}
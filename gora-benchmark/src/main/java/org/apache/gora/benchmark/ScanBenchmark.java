@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.benchmark;
+
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.util.GoraException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Measures scans of <code>batchSize</code> rows, and of the whole data set.
+ */
+public class ScanBenchmark extends DataStoreBenchmark {
+
+  @Param({MEM_STORE, DATA_FILE_AVRO_STORE, LUCENE_STORE})
+  public String storeClass;
+
+  @Override
+  protected String getStoreClass() {
+    return storeClass;
+  }
+
+  @Override
+  protected void prepare(BenchmarkParams params) throws GoraException {
+    load();
+  }
+
+  @Benchmark
+  public long scan(Blackhole blackhole) throws Exception {
+    Query<String, PersistentBase> query = store.newQuery();
+    query.setLimit(batchSize);
+    return consume(query, blackhole);
+  }
+
+  @Benchmark
+  public long scanAll(Blackhole blackhole) throws Exception {
+    return consume(store.newQuery(), blackhole);
+  }
+
+  private long consume(Query<String, PersistentBase> query, Blackhole blackhole)
+      throws Exception {
+    long count = 0;
+    Result<String, PersistentBase> result = store.execute(query);
+    try {
+      while (result.next()) {
+        blackhole.consume(result.getKey());
+        blackhole.consume(result.get());
+        count++;
+      }
+    } finally {
+      result.close();
+    }
+    return count;
+  }
+}
@@ -0,0 +1,26 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * This package contains the JMH benchmarks of the datastore operations.
+ * They run over MemStore, DataFileAvroStore and LuceneStore by default;
+ * HBaseStore and CassandraStore are benchmarked against embedded mini
+ * clusters when the module is built with the <code>hbase</code> or
+ * <code>cassandra</code> profile and the store class is passed with
+ * <code>-p storeClass=...</code>. Run them with
+ * <code>java -jar target/benchmarks.jar -threadCounts 1,4</code>.
+ */
+package org.apache.gora.benchmark;
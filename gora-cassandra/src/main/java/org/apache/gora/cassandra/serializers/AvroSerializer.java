@@ -17,14 +17,18 @@
 package org.apache.gora.cassandra.serializers;
 
 import com.datastax.driver.core.AbstractGettableData;
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.ColumnDefinitions;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.UDTValue;
 import com.datastax.driver.core.UserType;
+import com.datastax.driver.core.querybuilder.Assignment;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
 import org.apache.avro.Schema;
 import org.apache.avro.specific.SpecificData;
 import org.apache.commons.lang.ArrayUtils;
@@ -33,20 +37,28 @@ import org.apache.gora.cassandra.bean.Field;
 import org.apache.gora.cassandra.query.CassandraResultSet;
 import org.apache.gora.cassandra.store.CassandraClient;
 import org.apache.gora.cassandra.store.CassandraMapping;
+import org.apache.gora.persistency.ListDelta;
+import org.apache.gora.persistency.MapDelta;
 import org.apache.gora.persistency.Persistent;
 import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
 import org.apache.gora.store.DataStore;
+import org.apache.gora.util.AsyncUtils;
 import org.apache.gora.util.GoraException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 /**
  * This class contains the operations relates to Avro Serialization.
@@ -142,24 +154,8 @@ class AvroSerializer<K, T extends PersistentBase> extends CassandraSerializer {
       if (fields == null) {
         fields = getFields();
       }
-      ArrayList<String> cassandraKeys = new ArrayList<>();
-      ArrayList<Object> cassandraValues = new ArrayList<>();
-      AvroCassandraUtils.processKeys(mapping, key, cassandraKeys, cassandraValues);
-      String cqlQuery = CassandraQueryFactory.getSelectObjectWithFieldsQuery(mapping, fields, cassandraKeys);
-      SimpleStatement statement = new SimpleStatement(cqlQuery, cassandraValues.toArray());
-      if (readConsistencyLevel != null) {
-        statement.setConsistencyLevel(ConsistencyLevel.valueOf(readConsistencyLevel));
-      }
-      ResultSet resultSet = this.client.getSession().execute(statement);
-      Iterator<Row> iterator = resultSet.iterator();
-      ColumnDefinitions definitions = resultSet.getColumnDefinitions();
-      T obj = null;
-      if (iterator.hasNext()) {
-        obj = cassandraDataStore.newPersistent();
-        AbstractGettableData row = (AbstractGettableData) iterator.next();
-        populateValuesToPersistent(row, definitions, obj, fields);
-      }
-      return obj;
+      ResultSet resultSet = this.client.getSession().execute(getSelectStatement(key, fields));
+      return toPersistent(resultSet, fields);
     } catch (GoraException e) {
       throw e;
     } catch (Exception e) {
@@ -167,6 +163,57 @@ class AvroSerializer<K, T extends PersistentBase> extends CassandraSerializer {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @param key
+   * @param fields
+   * @return
+   */
+  @Override
+  public CompletableFuture<Persistent> getAsync(Object key, String[] fields) {
+    try {
+      final String[] queryFields = fields == null ? getFields() : fields;
+      return client.executeAsync(getSelectStatement(key, queryFields)).thenApply(new Function<ResultSet, Persistent>() {
+        @Override
+        public Persistent apply(ResultSet resultSet) {
+          try {
+            return toPersistent(resultSet, queryFields);
+          } catch (GoraException e) {
+            throw new CompletionException(e);
+          }
+        }
+      });
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  private SimpleStatement getSelectStatement(Object key, String[] fields) throws Exception {
+    ArrayList<String> cassandraKeys = new ArrayList<>();
+    ArrayList<Object> cassandraValues = new ArrayList<>();
+    AvroCassandraUtils.processKeys(mapping, key, cassandraKeys, cassandraValues);
+    String cqlQuery = CassandraQueryFactory.getSelectObjectWithFieldsQuery(mapping, fields, cassandraKeys);
+    SimpleStatement statement = new SimpleStatement(cqlQuery, cassandraValues.toArray());
+    if (readConsistencyLevel != null) {
+      statement.setConsistencyLevel(ConsistencyLevel.valueOf(readConsistencyLevel));
+    }
+    return statement;
+  }
+
+  private T toPersistent(ResultSet resultSet, String[] fields) throws GoraException {
+    Iterator<Row> iterator = resultSet.iterator();
+    ColumnDefinitions definitions = resultSet.getColumnDefinitions();
+    T obj = null;
+    if (iterator.hasNext()) {
+      obj = cassandraDataStore.newPersistent();
+      AbstractGettableData row = (AbstractGettableData) iterator.next();
+      populateValuesToPersistent(row, definitions, obj, fields);
+      obj.trackChanges();
+    }
+    return obj;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -176,70 +223,174 @@ class AvroSerializer<K, T extends PersistentBase> extends CassandraSerializer {
   @Override
   public void put(Object key, Persistent persistent) throws GoraException {
     try {
-      if (persistent instanceof PersistentBase) {
-        if (persistent.isDirty()) {
-          PersistentBase persistentBase = (PersistentBase) persistent;
-          ArrayList<String> fields = new ArrayList<>();
-          ArrayList<Object> values = new ArrayList<>();
-          AvroCassandraUtils.processKeys(mapping, key, fields, values);
-          for (Schema.Field f : persistentBase.getSchema().getFields()) {
-            String fieldName = f.name();
-            Field field = mapping.getFieldFromFieldName(fieldName);
-            if (field == null) {
-              LOG.debug("Ignoring {} adding field, {} field can't find in {} mapping", new Object[]{fieldName, fieldName, persistentClass});
+      Statement statement = getInsertStatement(key, persistent);
+      if (statement != null) {
+        client.getSession().execute(statement);
+      }
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * Adds the statements updating the changed elements of a map or list column, if the
+   * value tracks its changes.
+   *
+   * @return whether the column is written by the added statements
+   */
+  private boolean addCollectionUpdates(Schema.Field f, Field field, Object value, List<String> keyFields,
+                                       List<Object> keyValues, List<Statement> updates) {
+    String column = field.getColumnName();
+    if (field.getType().startsWith("map<") && value instanceof MapDelta && ((MapDelta<?>) value).isDeltaTracked()) {
+      MapDelta<?> delta = (MapDelta<?>) value;
+      Map<Object, Object> putEntries = new HashMap<>();
+      for (Object mapKey : delta.getPutKeys()) {
+        putEntries.put(mapKey, ((Map<?, ?>) value).get(mapKey));
+      }
+      if (!putEntries.isEmpty()) {
+        addCollectionUpdate(QueryBuilder.putAll(column, QueryBuilder.bindMarker()),
+                AvroCassandraUtils.getFieldValueFromAvroBean(f.schema(), f.schema().getType(), putEntries, field),
+                keyFields, keyValues, updates);
+      }
+      Set<String> removedKeys = new HashSet<>();
+      for (Object mapKey : delta.getRemovedKeys()) {
+        removedKeys.add(mapKey.toString());
+      }
+      if (!removedKeys.isEmpty()) {
+        addCollectionUpdate(QueryBuilder.removeAll(column, QueryBuilder.bindMarker()), removedKeys,
+                keyFields, keyValues, updates);
+      }
+      return true;
+    } else if (field.getType().startsWith("list<") && value instanceof ListDelta && ((ListDelta) value).isDeltaTracked()) {
+      List<?> list = (List<?>) value;
+      int appendIndex = ((ListDelta) value).getAppendIndex();
+      if (appendIndex < list.size()) {
+        addCollectionUpdate(QueryBuilder.appendAll(column, QueryBuilder.bindMarker()),
+                AvroCassandraUtils.getFieldValueFromAvroBean(f.schema(), f.schema().getType(),
+                        new ArrayList<>(list.subList(appendIndex, list.size())), field),
+                keyFields, keyValues, updates);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private void addCollectionUpdate(Assignment assignment, Object value, List<String> keyFields,
+                                   List<Object> keyValues, List<Statement> updates) {
+    String cqlQuery = CassandraQueryFactory.getUpdateCollectionQuery(mapping, assignment, keyFields);
+    List<Object> values = new ArrayList<>(keyValues.size() + 1);
+    values.add(value);
+    values.addAll(keyValues);
+    updates.add(new SimpleStatement(cqlQuery, values.toArray()));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param key
+   * @param persistent
+   * @return
+   */
+  @Override
+  public CompletableFuture<Void> putAsync(Object key, Persistent persistent) {
+    try {
+      Statement statement = getInsertStatement(key, persistent);
+      if (statement == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+      return client.executeAsync(statement).thenApply(new Function<ResultSet, Void>() {
+        @Override
+        public Void apply(ResultSet resultSet) {
+          return null;
+        }
+      });
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  /**
+   * Builds the insert statement for the dirty fields of the persistent. The map and list
+   * columns which track their changes are updated element by element, in an unlogged
+   * batch with the insert.
+   *
+   * @return the statement, or null if there is nothing to write
+   */
+  private Statement getInsertStatement(Object key, Persistent persistent) throws Exception {
+    if (persistent instanceof PersistentBase) {
+      if (persistent.isDirty()) {
+        PersistentBase persistentBase = (PersistentBase) persistent;
+        ArrayList<String> fields = new ArrayList<>();
+        ArrayList<Object> values = new ArrayList<>();
+        AvroCassandraUtils.processKeys(mapping, key, fields, values);
+        List<String> keyFields = new ArrayList<>(fields);
+        List<Object> keyValues = new ArrayList<>(values);
+        List<Statement> collectionUpdates = new ArrayList<>();
+        for (Schema.Field f : persistentBase.getSchema().getFields()) {
+          String fieldName = f.name();
+          Field field = mapping.getFieldFromFieldName(fieldName);
+          if (field == null) {
+            LOG.debug("Ignoring {} adding field, {} field can't find in {} mapping", new Object[]{fieldName, fieldName, persistentClass});
+            continue;
+          }
+          if (persistent.isDirty(f.pos()) || mapping.getInlinedDefinedPartitionKey().equals(mapping.getFieldFromFieldName(fieldName))) {
+            Object value = persistentBase.get(f.pos());
+            String fieldType = field.getType();
+            if (addCollectionUpdates(f, field, value, keyFields, keyValues, collectionUpdates)) {
               continue;
             }
-            if (persistent.isDirty(f.pos()) || mapping.getInlinedDefinedPartitionKey().equals(mapping.getFieldFromFieldName(fieldName))) {
-              Object value = persistentBase.get(f.pos());
-              String fieldType = field.getType();
-              if (fieldType.contains("frozen")) {
-                fieldType = fieldType.substring(fieldType.indexOf("<") + 1, fieldType.indexOf(">"));
-                UserType userType = client.getSession().getCluster().getMetadata().getKeyspace(mapping.getKeySpace().getName()).getUserType(fieldType);
-                UDTValue udtValue = userType.newValue();
-                Schema udtSchema = f.schema();
-                if (udtSchema.getType().equals(Schema.Type.UNION)) {
-                  for (Schema schema : udtSchema.getTypes()) {
-                    if (schema.getType().equals(Schema.Type.RECORD)) {
-                      udtSchema = schema;
-                      break;
-                    }
+            if (fieldType.contains("frozen")) {
+              fieldType = fieldType.substring(fieldType.indexOf("<") + 1, fieldType.indexOf(">"));
+              UserType userType = client.getSession().getCluster().getMetadata().getKeyspace(mapping.getKeySpace().getName()).getUserType(fieldType);
+              UDTValue udtValue = userType.newValue();
+              Schema udtSchema = f.schema();
+              if (udtSchema.getType().equals(Schema.Type.UNION)) {
+                for (Schema schema : udtSchema.getTypes()) {
+                  if (schema.getType().equals(Schema.Type.RECORD)) {
+                    udtSchema = schema;
+                    break;
                   }
                 }
-                PersistentBase udtObjectBase = (PersistentBase) value;
-                for (Schema.Field udtField : udtSchema.getFields()) {
-                  Object udtFieldValue = AvroCassandraUtils.getFieldValueFromAvroBean(udtField.schema(), udtField.schema().getType(), udtObjectBase.get(udtField.name()), field);
-                  if (udtField.schema().getType().equals(Schema.Type.MAP)) {
-                    udtValue.setMap(udtField.name(), (Map) udtFieldValue);
-                  } else if (udtField.schema().getType().equals(Schema.Type.ARRAY)) {
-                    udtValue.setList(udtField.name(), (List) udtFieldValue);
-                  } else {
-                    udtValue.set(udtField.name(), udtFieldValue, (Class) udtFieldValue.getClass());
-                  }
+              }
+              PersistentBase udtObjectBase = (PersistentBase) value;
+              for (Schema.Field udtField : udtSchema.getFields()) {
+                Object udtFieldValue = AvroCassandraUtils.getFieldValueFromAvroBean(udtField.schema(), udtField.schema().getType(), udtObjectBase.get(udtField.name()), field);
+                if (udtField.schema().getType().equals(Schema.Type.MAP)) {
+                  udtValue.setMap(udtField.name(), (Map) udtFieldValue);
+                } else if (udtField.schema().getType().equals(Schema.Type.ARRAY)) {
+                  udtValue.setList(udtField.name(), (List) udtFieldValue);
+                } else {
+                  udtValue.set(udtField.name(), udtFieldValue, (Class) udtFieldValue.getClass());
                 }
-                value = udtValue;
-              } else {
-                value = AvroCassandraUtils.getFieldValueFromAvroBean(f.schema(), f.schema().getType(), value, field);
               }
-              values.add(value);
-              fields.add(fieldName);
+              value = udtValue;
+            } else {
+              value = AvroCassandraUtils.getFieldValueFromAvroBean(f.schema(), f.schema().getType(), value, field);
             }
+            values.add(value);
+            fields.add(fieldName);
           }
-          String cqlQuery = CassandraQueryFactory.getInsertDataQuery(mapping, fields);
-          SimpleStatement statement = new SimpleStatement(cqlQuery, values.toArray());
-          if (writeConsistencyLevel != null) {
-            statement.setConsistencyLevel(ConsistencyLevel.valueOf(writeConsistencyLevel));
-          }
-          client.getSession().execute(statement);
-        } else {
-          LOG.info("Ignored putting persistent bean {} in the store as it is neither "
-                  + "new, neither dirty.", new Object[]{persistent});
         }
+        String cqlQuery = CassandraQueryFactory.getInsertDataQuery(mapping, fields);
+        Statement statement = new SimpleStatement(cqlQuery, values.toArray());
+        if (!collectionUpdates.isEmpty()) {
+          BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+          batch.add(statement);
+          batch.addAll(collectionUpdates);
+          statement = batch;
+        }
+        if (writeConsistencyLevel != null) {
+          statement.setConsistencyLevel(ConsistencyLevel.valueOf(writeConsistencyLevel));
+        }
+        return statement;
       } else {
-        LOG.error("{} Persistent bean isn't extended by {} .", new Object[]{this.persistentClass, PersistentBase.class});
+        LOG.info("Ignored putting persistent bean {} in the store as it is neither "
+                + "new, neither dirty.", new Object[]{persistent});
       }
-    } catch (Exception e) {
-      throw new GoraException(e);
+    } else {
+      LOG.error("{} Persistent bean isn't extended by {} .", new Object[]{this.persistentClass, PersistentBase.class});
     }
+    return null;
   }
 
   /**
@@ -267,6 +418,7 @@ class AvroSerializer<K, T extends PersistentBase> extends CassandraSerializer {
         obj = cassandraDataStore.newPersistent();
         AbstractGettableData row = (AbstractGettableData) iterator.next();
         populateValuesToPersistent(row, definitions, obj, mapping.getFieldNames());
+        obj.trackChanges();
       }
       return obj;
     } catch (Exception e) {
@@ -396,22 +548,46 @@ class AvroSerializer<K, T extends PersistentBase> extends CassandraSerializer {
    */
   @Override
   public boolean delete(Object key) throws GoraException {
-    ArrayList<String> cassandraKeys = new ArrayList<>();
-    ArrayList<Object> cassandraValues = new ArrayList<>();
     try {
-      AvroCassandraUtils.processKeys(mapping, key, cassandraKeys, cassandraValues);
-      String cqlQuery = CassandraQueryFactory.getDeleteDataQuery(mapping, cassandraKeys);
-      SimpleStatement statement = new SimpleStatement(cqlQuery, cassandraValues.toArray());
-      if (writeConsistencyLevel != null) {
-        statement.setConsistencyLevel(ConsistencyLevel.valueOf(writeConsistencyLevel));
-      }
-      ResultSet resultSet = client.getSession().execute(statement);
+      ResultSet resultSet = client.getSession().execute(getDeleteStatement(key));
       return resultSet.wasApplied();
     } catch (Exception e) {
       throw new GoraException(e);
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @param key
+   * @return
+   */
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(Object key) {
+    try {
+      return client.executeAsync(getDeleteStatement(key)).thenApply(new Function<ResultSet, Boolean>() {
+        @Override
+        public Boolean apply(ResultSet resultSet) {
+          return resultSet.wasApplied();
+        }
+      });
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  private SimpleStatement getDeleteStatement(Object key) throws Exception {
+    ArrayList<String> cassandraKeys = new ArrayList<>();
+    ArrayList<Object> cassandraValues = new ArrayList<>();
+    AvroCassandraUtils.processKeys(mapping, key, cassandraKeys, cassandraValues);
+    String cqlQuery = CassandraQueryFactory.getDeleteDataQuery(mapping, cassandraKeys);
+    SimpleStatement statement = new SimpleStatement(cqlQuery, cassandraValues.toArray());
+    if (writeConsistencyLevel != null) {
+      statement.setConsistencyLevel(ConsistencyLevel.valueOf(writeConsistencyLevel));
+    }
+    return statement;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -452,6 +628,7 @@ class AvroSerializer<K, T extends PersistentBase> extends CassandraSerializer {
         obj = cassandraDataStore.newPersistent();
         keyObject = cassandraDataStore.newKey();
         populateValuesToPersistent(row, definitions, obj, fields);
+        obj.trackChanges();
         if (cassandraKey != null) {
           populateValuesToPersistent(row, definitions, (PersistentBase) keyObject, cassandraKey.getFieldNames());
         } else {
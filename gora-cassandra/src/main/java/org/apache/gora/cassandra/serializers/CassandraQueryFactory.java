@@ -16,6 +16,7 @@
  */
 package org.apache.gora.cassandra.serializers;
 
+import com.datastax.driver.core.querybuilder.Assignment;
 import com.datastax.driver.core.querybuilder.BuiltStatement;
 import com.datastax.driver.core.querybuilder.Delete;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
@@ -240,6 +241,30 @@ class CassandraQueryFactory {
     return QueryBuilder.insertInto(mapping.getKeySpace().getName(), mapping.getCoreName()).values(columnNames, objects).getQueryString();
   }
 
+  /**
+   * This method return the CQL query to update the elements of a collection column of a row,
+   * e.g. <code>UPDATE ks.table SET m=m+? WHERE key=?</code>.
+   * refer : http://docs.datastax.com/en/cql/3.3/cql/cql_reference/cqlUpdate.html
+   *
+   * @param mapping    Cassandra Mapping {@link CassandraMapping}
+   * @param assignment collection assignment with a bind marker, such as
+   *                   {@link QueryBuilder#putAll(String, Object)}
+   * @param keyFields  key fields
+   * @return CQL Query
+   */
+  static String getUpdateCollectionQuery(CassandraMapping mapping, Assignment assignment, List<String> keyFields) {
+    Update.Assignments update = QueryBuilder.update(mapping.getKeySpace().getName(), mapping.getCoreName()).with(assignment);
+    Update.Where where = null;
+    for (String columnName : getColumnNames(mapping, keyFields)) {
+      if (where == null) {
+        where = update.where(QueryBuilder.eq(columnName, "?"));
+      } else {
+        where = where.and(QueryBuilder.eq(columnName, "?"));
+      }
+    }
+    return where != null ? where.getQueryString() : null;
+  }
+
   /**
    * This method return the CQL query to delete a persistent in the table.
    * refer : http://docs.datastax.com/en/cql/3.3/cql/cql_reference/cqlDelete.html
@@ -21,6 +21,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.apache.gora.cassandra.bean.Field;
 import org.apache.gora.cassandra.store.CassandraClient;
@@ -30,6 +32,7 @@ import org.apache.gora.persistency.Persistent;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
 import org.apache.gora.store.DataStore;
+import org.apache.gora.util.AsyncUtils;
 import org.apache.gora.util.GoraException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -190,24 +193,51 @@ public abstract class CassandraSerializer<K, T extends Persistent> {
    */
   public boolean exists(Object key) throws GoraException {
     try {
-      ArrayList<String> cassandraKeys = new ArrayList<>();
-      ArrayList<Object> cassandraValues = new ArrayList<>();
-      AvroCassandraUtils.processKeys(mapping, key, cassandraKeys, cassandraValues);
-      String cqlQuery = CassandraQueryFactory.getCheckExistsQuery(mapping, cassandraKeys);
-      SimpleStatement statement = new SimpleStatement(cqlQuery, cassandraValues.toArray());
-      if (readConsistencyLevel != null) {
-        statement.setConsistencyLevel(ConsistencyLevel.valueOf(readConsistencyLevel));
-      }
-      ResultSet resultSet = client.getSession().execute(statement);
-      Iterator<Row> iterator = resultSet.iterator();
-      Row next = iterator.next();
-      long count = next.getLong(0);
-      return count != 0;
+      ResultSet resultSet = client.getSession().execute(getExistsStatement(key));
+      return isExisting(resultSet);
     } catch (Exception e) {
       throw new GoraException(e);
     }
   }
 
+  /**
+   * Asynchronously checks if key exists
+   *
+   * @param key key value
+   * @return future with true/false
+   */
+  public CompletableFuture<Boolean> existsAsync(Object key) {
+    try {
+      return client.executeAsync(getExistsStatement(key)).thenApply(new Function<ResultSet, Boolean>() {
+        @Override
+        public Boolean apply(ResultSet resultSet) {
+          return isExisting(resultSet);
+        }
+      });
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  private SimpleStatement getExistsStatement(Object key) throws Exception {
+    ArrayList<String> cassandraKeys = new ArrayList<>();
+    ArrayList<Object> cassandraValues = new ArrayList<>();
+    AvroCassandraUtils.processKeys(mapping, key, cassandraKeys, cassandraValues);
+    String cqlQuery = CassandraQueryFactory.getCheckExistsQuery(mapping, cassandraKeys);
+    SimpleStatement statement = new SimpleStatement(cqlQuery, cassandraValues.toArray());
+    if (readConsistencyLevel != null) {
+      statement.setConsistencyLevel(ConsistencyLevel.valueOf(readConsistencyLevel));
+    }
+    return statement;
+  }
+
+  private static boolean isExisting(ResultSet resultSet) {
+    Iterator<Row> iterator = resultSet.iterator();
+    Row next = iterator.next();
+    long count = next.getLong(0);
+    return count != 0;
+  }
+
   /**
    * Deletes persistent value according to the key
    *
@@ -225,6 +255,32 @@ public abstract class CassandraSerializer<K, T extends Persistent> {
    */
   public abstract T get(K key, String[] fields) throws GoraException;
 
+  /**
+   * Asynchronously retrieves the persistent value according to the key and fields
+   *
+   * @param key    key value
+   * @param fields fields, null for all the fields
+   * @return future with the persistent value
+   */
+  public abstract CompletableFuture<T> getAsync(K key, String[] fields);
+
+  /**
+   * Asynchronously inserts the persistent Object
+   *
+   * @param key   key value
+   * @param value persistent value
+   * @return future completed when the write is acknowledged
+   */
+  public abstract CompletableFuture<Void> putAsync(K key, T value);
+
+  /**
+   * Asynchronously deletes persistent value according to the key
+   *
+   * @param key key value
+   * @return future with isDeleted
+   */
+  public abstract CompletableFuture<Boolean> deleteAsync(K key);
+
   /**
    * Executes the given query and returns the results.
    *
@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.gora.cassandra.bean.Field;
@@ -151,6 +153,67 @@ class NativeSerializer<K, T extends Persistent> extends CassandraSerializer {
     return null;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @param key
+   * @param fields
+   * @return
+   */
+  @Override
+  public CompletableFuture<Persistent> getAsync(final Object key, String[] fields) {
+    if (fields == null) {
+      fields = getFields();
+    }
+    String cqlQuery = CassandraQueryFactory.getSelectObjectWithFieldsQuery(mapping, fields);
+    SimpleStatement statement = new SimpleStatement(cqlQuery, key);
+    if (readConsistencyLevel != null) {
+      statement.setConsistencyLevel(ConsistencyLevel.valueOf(readConsistencyLevel));
+    }
+    return client.executeAsync(statement).thenApply(new Function<ResultSet, Persistent>() {
+      @Override
+      public Persistent apply(ResultSet results) {
+        T object = mapper.map(results).one();
+        if (object != null) {
+          LOG.debug("Object is found for key : {}", key);
+        } else {
+          LOG.debug("Object is not found for key : {}", key);
+        }
+        return object;
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param key
+   * @param value
+   * @return
+   */
+  @Override
+  public CompletableFuture<Void> putAsync(Object key, Persistent value) {
+    LOG.debug("Object is saved asynchronously with key : {} and value : {}", key, value);
+    return CassandraClient.toCompletableFuture(mapper.saveAsync((T) value));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param key
+   * @return
+   */
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(Object key) {
+    LOG.debug("Object is deleted asynchronously for key : {}", key);
+    return CassandraClient.toCompletableFuture(mapper.deleteAsync(key)).thenApply(new Function<Void, Boolean>() {
+      @Override
+      public Boolean apply(Void v) {
+        return true;
+      }
+    });
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -24,8 +24,10 @@ import com.datastax.driver.core.PoolingOptions;
 import com.datastax.driver.core.ProtocolOptions;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.QueryOptions;
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.SocketOptions;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.policies.ConstantReconnectionPolicy;
 import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
@@ -45,7 +47,9 @@ import com.datastax.driver.extras.codecs.arrays.ObjectArrayCodec;
 import com.datastax.driver.extras.codecs.date.SimpleDateCodec;
 import com.datastax.driver.extras.codecs.date.SimpleTimestampCodec;
 import com.datastax.driver.extras.codecs.jdk8.OptionalCodec;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.gora.cassandra.bean.Field;
+import org.apache.gora.util.GoraException;
 import org.jdom.Document;
 import org.jdom.Element;
 import org.jdom.JDOMException;
@@ -58,6 +62,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 /**
  * This class provides the Cassandra Client Connection.
@@ -67,6 +74,17 @@ public class CassandraClient {
 
   private static final Logger LOG = LoggerFactory.getLogger(CassandraClient.class);
 
+  /**
+   * Runs completion callbacks on the driver thread which completed the future,
+   * they only hand the value over to the {@link CompletableFuture}.
+   */
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
   private Cluster cluster;
 
   private Session session;
@@ -520,6 +538,40 @@ public class CassandraClient {
     return writeConsistencyLevel;
   }
 
+  /**
+   * Executes the statement with {@link Session#executeAsync(Statement)}.
+   *
+   * @param statement statement to execute
+   * @return future completed with the result set
+   */
+  public CompletableFuture<ResultSet> executeAsync(Statement statement) {
+    return toCompletableFuture(session.executeAsync(statement));
+  }
+
+  /**
+   * Adapts a driver {@link ListenableFuture} to a {@link CompletableFuture}
+   * which fails with a {@link GoraException}.
+   *
+   * @param listenableFuture driver future
+   * @param <V> type of the result
+   * @return the adapted future
+   */
+  public static <V> CompletableFuture<V> toCompletableFuture(final ListenableFuture<V> listenableFuture) {
+    final CompletableFuture<V> future = new CompletableFuture<>();
+    listenableFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          future.complete(listenableFuture.get());
+        } catch (ExecutionException e) {
+          future.completeExceptionally(new GoraException(e.getCause()));
+        } catch (Exception e) {
+          future.completeExceptionally(new GoraException(e));
+        }
+      }
+    }, DIRECT_EXECUTOR);
+    return future;
+  }
 
   public void close() {
     this.session.close();
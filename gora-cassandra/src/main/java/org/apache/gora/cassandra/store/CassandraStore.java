@@ -17,9 +17,17 @@
 package org.apache.gora.cassandra.store;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
 
 import org.apache.gora.cassandra.query.CassandraQuery;
 import org.apache.gora.cassandra.serializers.CassandraSerializer;
@@ -30,24 +38,32 @@ import org.apache.gora.query.PartitionQuery;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
 import org.apache.gora.query.ws.impl.PartitionWSQueryImpl;
-import org.apache.gora.store.DataStore;
+import org.apache.gora.store.AsyncDataStore;
 import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.store.impl.DataStoreBase;
+import org.apache.gora.util.AsyncUtils;
 import org.apache.gora.util.GoraException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Implementation of Cassandra Store.
+ * Implementation of Cassandra Store. Single key operations of the
+ * {@link AsyncDataStore} interface are executed natively with the driver's
+ * asynchronous API. Multi key operations issue one asynchronous request per
+ * key, so the driver's token aware load balancing sends each of them directly
+ * to a replica, and wait for all of them.
  *
  * @param <K> key class
  * @param <T> persistent class
  */
-public class CassandraStore<K, T extends Persistent> implements DataStore<K, T> {
+public class CassandraStore<K, T extends Persistent> implements AsyncDataStore<K, T> {
 
   private static final String DEFAULT_MAPPING_FILE = "gora-cassandra-mapping.xml";
 
   private static final Logger LOG = LoggerFactory.getLogger(CassandraStore.class);
 
+  private static final int MAX_IN_FLIGHT_REQUESTS_DEFAULT = 256;
+
   private BeanFactory<K, T> beanFactory;
 
   private Class<K> keyClass;
@@ -58,6 +74,10 @@ public class CassandraStore<K, T extends Persistent> implements DataStore<K, T>
 
   private CassandraSerializer cassandraSerializer;
 
+  private ThreadPoolExecutor queryExecutor;
+
+  private int maxInFlightRequests = MAX_IN_FLIGHT_REQUESTS_DEFAULT;
+
   public CassandraStore() {
     super();
   }
@@ -87,6 +107,15 @@ public class CassandraStore<K, T extends Persistent> implements DataStore<K, T>
       CassandraClient cassandraClient = new CassandraClient();
       cassandraClient.initialize(properties, mapping);
       cassandraSerializer = CassandraSerializer.getSerializer(cassandraClient, serializationType, this, mapping);
+      int asyncThreads = Integer.parseInt(DataStoreFactory.findProperty(properties, this,
+          DataStoreBase.ASYNC_THREADS, String.valueOf(Runtime.getRuntime().availableProcessors())));
+      int asyncQueueSize = Integer.parseInt(DataStoreFactory.findProperty(properties, this,
+          DataStoreBase.ASYNC_QUEUE_SIZE, String.valueOf(DataStoreBase.ASYNC_QUEUE_SIZE_DEFAULT)));
+      queryExecutor = AsyncUtils.newBoundedExecutor("gora-cassandra-query", asyncThreads, asyncQueueSize);
+      String maxInFlightProp = properties.getProperty(CassandraStoreParameters.MAX_IN_FLIGHT_REQUESTS);
+      if (maxInFlightProp != null) {
+        maxInFlightRequests = Math.max(1, Integer.parseInt(maxInFlightProp));
+      }
     } catch (GoraException e) {
       throw e;
     } catch (Exception e) {
@@ -212,6 +241,9 @@ public class CassandraStore<K, T extends Persistent> implements DataStore<K, T>
   @Override
   public void close() {
     this.cassandraSerializer.close();
+    if (queryExecutor != null) {
+      queryExecutor.shutdown();
+    }
   }
 
   /**
@@ -266,6 +298,159 @@ public class CassandraStore<K, T extends Persistent> implements DataStore<K, T>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, final String[] fields) throws GoraException {
+    List<T> results = callAll(keys, new Function<K, CompletableFuture<T>>() {
+      @Override
+      public CompletableFuture<T> apply(K key) {
+        return getAsync(key, fields);
+      }
+    });
+    Map<K, T> objects = new LinkedHashMap<>();
+    int i = 0;
+    for (K key : keys) {
+      T obj = results.get(i++);
+      if (obj != null) {
+        objects.put(key, obj);
+      }
+    }
+    return objects;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    callAll(objects.entrySet(), new Function<Map.Entry<K, T>, CompletableFuture<Void>>() {
+      @Override
+      public CompletableFuture<Void> apply(Map.Entry<K, T> entry) {
+        return putAsync(entry.getKey(), entry.getValue());
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    List<Boolean> results = callAll(keys, new Function<K, CompletableFuture<Boolean>>() {
+      @Override
+      public CompletableFuture<Boolean> apply(K key) {
+        return deleteAsync(key);
+      }
+    });
+    long deleted = 0;
+    for (Boolean result : results) {
+      if (result) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    List<Boolean> results = callAll(keys, new Function<K, CompletableFuture<Boolean>>() {
+      @Override
+      public CompletableFuture<Boolean> apply(K key) {
+        return existsAsync(key);
+      }
+    });
+    Map<K, Boolean> exists = new LinkedHashMap<>();
+    int i = 0;
+    for (K key : keys) {
+      exists.put(key, results.get(i++));
+    }
+    return exists;
+  }
+
+  /**
+   * Runs an asynchronous request per input, keeping at most
+   * <code>gora.cassandrastore.maxInFlightRequests</code> of them in flight
+   * so that large calls do not exhaust the connection pool of the driver.
+   *
+   * @return the results, in the order of the inputs.
+   */
+  private <I, V> List<V> callAll(Collection<I> inputs,
+      Function<I, CompletableFuture<V>> request) throws GoraException {
+    List<V> results = new ArrayList<>(inputs.size());
+    ArrayDeque<CompletableFuture<V>> inFlight = new ArrayDeque<>();
+    for (I input : inputs) {
+      if (inFlight.size() >= maxInFlightRequests) {
+        results.add(AsyncUtils.join(inFlight.poll()));
+      }
+      inFlight.add(request.apply(input));
+    }
+    while (!inFlight.isEmpty()) {
+      results.add(AsyncUtils.join(inFlight.poll()));
+    }
+    return results;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<T> getAsync(K key) {
+    return getAsync(key, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<T> getAsync(K key, String[] fields) {
+    return (CompletableFuture<T>) cassandraSerializer.getAsync(key, fields);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<Void> putAsync(K key, T obj) {
+    return cassandraSerializer.putAsync(key, obj);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(K key) {
+    return cassandraSerializer.deleteAsync(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<Boolean> existsAsync(K key) {
+    return cassandraSerializer.existsAsync(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Query results are materialized while reading, so the query runs on a
+   * bounded executor instead of a driver thread.
+   */
+  @Override
+  public CompletableFuture<Result<K, T>> executeAsync(final Query<K, T> query) {
+    return AsyncUtils.supplyAsync(new Callable<Result<K, T>>() {
+      @Override
+      public Result<K, T> call() throws Exception {
+        return execute(query);
+      }
+    }, queryExecutor);
+  }
+
   /**
    * This method is used to update multiple objects in the table.
    *
@@ -301,6 +486,16 @@ public class CassandraStore<K, T extends Persistent> implements DataStore<K, T>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * The serializers read every row of the query into the result.
+   */
+  @Override
+  public boolean supportsResultStreaming() {
+    return false;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -233,4 +233,10 @@ public class CassandraStoreParameters {
    * "ALL", "ANY", "EACH_QUORUM", "LOCAL_ONE", "LOCAL_QUORUM", "LOCAL_SERIAL", "ONE", "QUORUM", "SERIAL", "THREE", "TWO"
    */
   public static final String WRITE_CONSISTENCY_LEVEL = "gora.cassandrastore.write.consistencyLevel";
+  /**
+   * Property pointing to the maximum number of requests in flight at once
+   * for the getAll, putAll, deleteAll and existsAll operations.
+   * integer
+   */
+  public static final String MAX_IN_FLIGHT_REQUESTS = "gora.cassandrastore.maxInFlightRequests";
 }
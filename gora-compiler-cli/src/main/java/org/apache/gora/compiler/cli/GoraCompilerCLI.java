@@ -63,6 +63,13 @@ public class GoraCompilerCLI {
       }
     }
 
+    // Checking for codec generation
+    boolean generateCodecs = false;
+    if (ArrayUtils.contains(args, "-codecs")) {
+      generateCodecs = true;
+      args = (String[]) ArrayUtils.removeElement(args, "-codecs");
+    }
+
     File outputDir = new File(args[args.length-1]);
     if(!outputDir.isDirectory()){
       LOG.error("Must supply a directory for output");
@@ -93,7 +100,7 @@ public class GoraCompilerCLI {
       }
     }
     try {
-      GoraCompiler.compileSchema(inputFiles, outputDir, licenseHeader);
+      GoraCompiler.compileSchema(inputFiles, outputDir, licenseHeader, generateCodecs);
       LOG.info("Compiler executed SUCCESSFULL.");
     } catch (IOException e) {
       LOG.error("Error while compiling schema files. Check that the schemas are properly formatted.");
@@ -103,7 +110,8 @@ public class GoraCompilerCLI {
   }
 
   private static void printHelp() {
-    LOG.info("Usage: gora-compiler ( -h | --help ) | (<input> [<input>...] <output> [-license <id>])");
+    LOG.info("Usage: gora-compiler ( -h | --help ) | (<input> [<input>...] <output> [-license <id>] [-codecs])");
+    LOG.info("-codecs generates a straight-line AVRO codec in every record class.");
     LOG.error("License header options include;\n" +
               "\t\t  ASLv2   (Apache Software License v2.0) \n" +
               "\t\t  AGPLv3  (GNU Affero General Public License) \n" +
@@ -0,0 +1,612 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.compiler;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.compiler.specific.SpecificCompiler;
+
+/**
+ * Generates the body of the <code>Codec</code> class of a record, the
+ * {@link org.apache.gora.persistency.PersistentCodec} writing and reading its
+ * fields in the Avro binary encoding with straight-line code: one statement
+ * per field, typed casts instead of schema lookups and unboxed primitives.
+ * The values are read and reused as a SpecificDatumReader would.
+ */
+final class CodecGenerator {
+
+  private static final String STRING_PROP = "avro.java.string";
+  private static final String DIRTYABLE = "org.apache.gora.persistency.Dirtyable";
+  private static final String CODECS = "org.apache.gora.persistency.impl.PersistentCodecs";
+
+  private final StringBuilder code = new StringBuilder();
+  private int variables;
+
+  private CodecGenerator() {
+  }
+
+  /**
+   * Returns the statements writing the fields of <code>record</code> to the
+   * encoder <code>out</code>.
+   */
+  static String generateEncode(Schema schema, String indent) {
+    CodecGenerator generator = new CodecGenerator();
+    for (Field field : schema.getFields()) {
+      generator.encode(field.schema(), "record." + fieldName(field), indent);
+    }
+    return generator.code.toString();
+  }
+
+  /**
+   * Returns the statements reading the fields of <code>record</code> from
+   * the decoder <code>in</code>. The fields which are not selected by the
+   * <code>fields</code> array, when not null, are skipped.
+   */
+  static String generateDecode(Schema schema, String indent) {
+    CodecGenerator generator = new CodecGenerator();
+    String inner = indent + "  ";
+    for (Field field : schema.getFields()) {
+      generator.line(indent, "if (fields == null || fields[" + field.pos() + "]) {");
+      String old = "record." + fieldName(field);
+      String value = generator.decode(field.schema(), old, inner);
+      switch (field.schema().getType()) {
+      case MAP:
+        value = "(" + value + " instanceof " + DIRTYABLE + ") ? " + value
+            + " : new org.apache.gora.persistency.impl.DirtyMapWrapper(" + value + ")";
+        break;
+      case ARRAY:
+        value = "(" + value + " instanceof " + DIRTYABLE + ") ? " + value
+            + " : new org.apache.gora.persistency.impl.DirtyListWrapper(" + value + ")";
+        break;
+      default:
+        break;
+      }
+      generator.line(inner, old + " = " + value + ";");
+      generator.line(indent, "} else {");
+      generator.skip(field, inner);
+      generator.line(indent, "}");
+    }
+    return generator.code.toString();
+  }
+
+  /**
+   * Returns the statements setting the fields of <code>record</code> to deep
+   * copies of the values of <code>from</code>. Java strings and the values of
+   * primitive and enum types are shared.
+   */
+  static String generateCopy(Schema schema, String indent) {
+    CodecGenerator generator = new CodecGenerator();
+    for (Field field : schema.getFields()) {
+      String value = generator.copy(field.schema(), "from." + fieldName(field), indent);
+      switch (field.schema().getType()) {
+      case MAP:
+        value = value + " == null ? null : new org.apache.gora.persistency.impl.DirtyMapWrapper("
+            + value + ")";
+        break;
+      case ARRAY:
+        value = value + " == null ? null : new org.apache.gora.persistency.impl.DirtyListWrapper("
+            + value + ")";
+        break;
+      default:
+        break;
+      }
+      generator.line(indent, "record." + fieldName(field) + " = " + value + ";");
+    }
+    return generator.code.toString();
+  }
+
+  /**
+   * Returns the declarations of the constants used by the decoder, the
+   * values of the enums of the fields, preceded by an empty line.
+   */
+  static String generateConstants(Schema schema, String indent) {
+    Set<String> enums = new LinkedHashSet<>();
+    for (Field field : schema.getFields()) {
+      collectEnums(field.schema(), enums);
+    }
+    CodecGenerator generator = new CodecGenerator();
+    if (!enums.isEmpty()) {
+      generator.code.append('\n');
+    }
+    for (String enumClass : enums) {
+      generator.line(indent, "private static final " + enumClass + "[] "
+          + enumConstant(enumClass) + " = " + enumClass + ".values();");
+    }
+    return generator.code.toString();
+  }
+
+  private static void collectEnums(Schema schema, Set<String> enums) {
+    switch (schema.getType()) {
+    case ENUM:
+      enums.add(className(schema));
+      break;
+    case MAP:
+      collectEnums(schema.getValueType(), enums);
+      break;
+    case ARRAY:
+      collectEnums(schema.getElementType(), enums);
+      break;
+    case UNION:
+      for (Schema type : schema.getTypes()) {
+        collectEnums(type, enums);
+      }
+      break;
+    default:
+      // records decode their own enums
+      break;
+    }
+  }
+
+  private static String enumConstant(String enumClass) {
+    return enumClass.replace('.', '_').toUpperCase(Locale.ROOT) + "_VALUES$";
+  }
+
+  private static String fieldName(Field field) {
+    return SpecificCompiler.mangle(field.name());
+  }
+
+  private static String className(Schema schema) {
+    return SpecificCompiler.mangle(schema.getFullName());
+  }
+
+  private static boolean isJavaString(Schema schema) {
+    return "String".equals(schema.getProp(STRING_PROP));
+  }
+
+  /**
+   * Returns the type of a value of the schema: boxed primitives, raw maps
+   * and lists, the generated class of named types.
+   */
+  private static String javaType(Schema schema) {
+    switch (schema.getType()) {
+    case NULL:    return "java.lang.Void";
+    case BOOLEAN: return "java.lang.Boolean";
+    case INT:     return "java.lang.Integer";
+    case LONG:    return "java.lang.Long";
+    case FLOAT:   return "java.lang.Float";
+    case DOUBLE:  return "java.lang.Double";
+    case STRING:  return isJavaString(schema) ? "java.lang.String" : "java.lang.CharSequence";
+    case BYTES:   return "java.nio.ByteBuffer";
+    case MAP:     return "java.util.Map";
+    case ARRAY:   return "java.util.List";
+    case ENUM:
+    case FIXED:
+    case RECORD:
+      return className(schema);
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      if (types.size() == 2) {
+        if (types.get(0).getType() == Schema.Type.NULL) {
+          return javaType(types.get(1));
+        } else if (types.get(1).getType() == Schema.Type.NULL) {
+          return javaType(types.get(0));
+        }
+      }
+      return "java.lang.Object";
+    default:
+      throw new IllegalArgumentException("Unknown type: " + schema);
+    }
+  }
+
+  /**
+   * Returns the class tested by <code>instanceof</code> to resolve a union.
+   */
+  private static String unionClass(Schema schema) {
+    switch (schema.getType()) {
+    case STRING: return "java.lang.CharSequence";
+    case ARRAY:  return "java.util.Collection";
+    default:     return javaType(schema);
+    }
+  }
+
+  private String var(String prefix) {
+    return prefix + (variables++) + "$";
+  }
+
+  private void line(String indent, String statement) {
+    code.append(indent).append(statement).append('\n');
+  }
+
+  private void encode(Schema schema, String value, String indent) {
+    String inner = indent + "  ";
+    switch (schema.getType()) {
+    case NULL:
+      line(indent, "out.writeNull();");
+      break;
+    case BOOLEAN:
+      line(indent, "out.writeBoolean(" + value + ");");
+      break;
+    case INT:
+      line(indent, "out.writeInt(" + value + ");");
+      break;
+    case LONG:
+      line(indent, "out.writeLong(" + value + ");");
+      break;
+    case FLOAT:
+      line(indent, "out.writeFloat(" + value + ");");
+      break;
+    case DOUBLE:
+      line(indent, "out.writeDouble(" + value + ");");
+      break;
+    case STRING:
+      line(indent, "out.writeString(" + value + ");");
+      break;
+    case BYTES:
+      line(indent, "out.writeBytes(" + value + ");");
+      break;
+    case ENUM:
+      line(indent, "out.writeEnum(" + value + ".ordinal());");
+      break;
+    case FIXED:
+      line(indent, "out.writeFixed(" + value + ".bytes(), 0, " + schema.getFixedSize() + ");");
+      break;
+    case RECORD:
+      line(indent, className(schema) + ".CODEC.encode(" + value + ", out);");
+      break;
+    case MAP: {
+      String map = var("map");
+      String entry = var("entry");
+      line(indent, "java.util.Map<?, ?> " + map + " = " + value + ";");
+      line(indent, "out.writeMapStart();");
+      line(indent, "out.setItemCount(" + map + ".size());");
+      line(indent, "for (java.util.Map.Entry<?, ?> " + entry + " : " + map + ".entrySet()) {");
+      line(inner, "out.startItem();");
+      line(inner, "out.writeString((java.lang.CharSequence) " + entry + ".getKey());");
+      Schema valueType = schema.getValueType();
+      encode(valueType, cast(valueType, entry + ".getValue()"), inner);
+      line(indent, "}");
+      line(indent, "out.writeMapEnd();");
+      break;
+    }
+    case ARRAY: {
+      String array = var("array");
+      String element = var("element");
+      line(indent, "java.util.Collection<?> " + array + " = " + value + ";");
+      line(indent, "out.writeArrayStart();");
+      line(indent, "out.setItemCount(" + array + ".size());");
+      line(indent, "for (java.lang.Object " + element + " : " + array + ") {");
+      line(inner, "out.startItem();");
+      Schema elementType = schema.getElementType();
+      encode(elementType, cast(elementType, element), inner);
+      line(indent, "}");
+      line(indent, "out.writeArrayEnd();");
+      break;
+    }
+    case UNION: {
+      String union = var("union");
+      line(indent, "java.lang.Object " + union + " = " + value + ";");
+      List<Schema> types = schema.getTypes();
+      for (int i = 0; i < types.size(); i++) {
+        Schema type = types.get(i);
+        String test = type.getType() == Schema.Type.NULL ? union + " == null"
+            : union + " instanceof " + unionClass(type);
+        line(indent, (i == 0 ? "if (" : "} else if (") + test + ") {");
+        line(inner, "out.writeIndex(" + i + ");");
+        encode(type, cast(type, union), inner);
+      }
+      line(indent, "} else {");
+      line(inner, "throw new org.apache.avro.AvroRuntimeException(\"Not in union: \" + " + union + ");");
+      line(indent, "}");
+      break;
+    }
+    default:
+      throw new IllegalArgumentException("Unknown type: " + schema);
+    }
+  }
+
+  private static String cast(Schema schema, String value) {
+    switch (schema.getType()) {
+    case NULL:
+    case UNION:
+      return value;
+    case MAP:
+      return "((java.util.Map<?, ?>) " + value + ")";
+    case ARRAY:
+      return "((java.util.Collection<?>) " + value + ")";
+    default:
+      return "((" + javaType(schema) + ") " + value + ")";
+    }
+  }
+
+  /**
+   * Writes the statements reading a value and returns the expression of the
+   * value read.
+   * @param old the expression of the value to reuse, or null.
+   */
+  private String decode(Schema schema, String old, String indent) {
+    String inner = indent + "  ";
+    String value = var("value");
+    switch (schema.getType()) {
+    case NULL:
+      line(indent, "in.readNull();");
+      return "null";
+    case BOOLEAN:
+      line(indent, "boolean " + value + " = in.readBoolean();");
+      return value;
+    case INT:
+      line(indent, "int " + value + " = in.readInt();");
+      return value;
+    case LONG:
+      line(indent, "long " + value + " = in.readLong();");
+      return value;
+    case FLOAT:
+      line(indent, "float " + value + " = in.readFloat();");
+      return value;
+    case DOUBLE:
+      line(indent, "double " + value + " = in.readDouble();");
+      return value;
+    case STRING:
+      if (isJavaString(schema)) {
+        line(indent, "java.lang.String " + value + " = in.readString();");
+      } else {
+        line(indent, "org.apache.avro.util.Utf8 " + value + " = in.readString("
+            + reuse(old, "org.apache.avro.util.Utf8") + ");");
+      }
+      return value;
+    case BYTES:
+      line(indent, "java.nio.ByteBuffer " + value + " = in.readBytes("
+          + (old == null ? "null" : old + " instanceof java.nio.ByteBuffer && !((java.nio.ByteBuffer) "
+          + old + ").isReadOnly() ? (java.nio.ByteBuffer) " + old + " : null") + ");");
+      return value;
+    case ENUM:
+      line(indent, className(schema) + " " + value + " = "
+          + enumConstant(className(schema)) + "[in.readEnum()];");
+      return value;
+    case FIXED: {
+      String type = className(schema);
+      line(indent, type + " " + value + " = " + (old == null ? "new " + type + "()"
+          : old + " instanceof " + type + " ? (" + type + ") " + old + " : new " + type + "()") + ";");
+      line(indent, "in.readFixed(" + value + ".bytes(), 0, " + schema.getFixedSize() + ");");
+      return value;
+    }
+    case RECORD: {
+      String type = className(schema);
+      line(indent, type + " " + value + " = " + type + ".CODEC.decode(" + reuse(old, type) + ", in);");
+      return value;
+    }
+    case MAP: {
+      String count = var("count");
+      String index = var("index");
+      line(indent, "long " + count + " = in.readMapStart();");
+      line(indent, "java.util.Map " + value + ";");
+      newCollection(value, old, "java.util.Map", "java.util.HashMap", count, indent);
+      line(indent, "for (; " + count + " != 0; " + count + " = in.mapNext()) {");
+      line(inner, "for (long " + index + " = 0; " + index + " < " + count + "; " + index + "++) {");
+      String key = var("key");
+      if (isJavaString(schema)) {
+        line(inner + "  ", "java.lang.String " + key + " = in.readString();");
+      } else {
+        line(inner + "  ", "org.apache.avro.util.Utf8 " + key + " = in.readString(null);");
+      }
+      String mapValue = decode(schema.getValueType(), null, inner + "  ");
+      line(inner + "  ", value + ".put(" + key + ", " + mapValue + ");");
+      line(inner, "}");
+      line(indent, "}");
+      return value;
+    }
+    case ARRAY: {
+      String count = var("count");
+      String index = var("index");
+      line(indent, "long " + count + " = in.readArrayStart();");
+      line(indent, "java.util.List " + value + ";");
+      newCollection(value, old, "java.util.List", "java.util.ArrayList", count, indent);
+      line(indent, "for (; " + count + " != 0; " + count + " = in.arrayNext()) {");
+      line(inner, "for (long " + index + " = 0; " + index + " < " + count + "; " + index + "++) {");
+      String element = decode(schema.getElementType(), null, inner + "  ");
+      line(inner + "  ", value + ".add(" + element + ");");
+      line(inner, "}");
+      line(indent, "}");
+      return value;
+    }
+    case UNION: {
+      line(indent, javaType(schema) + " " + value + ";");
+      line(indent, "switch (in.readIndex()) {");
+      List<Schema> types = schema.getTypes();
+      for (int i = 0; i < types.size(); i++) {
+        line(indent, "case " + i + ": {");
+        String branch = decode(types.get(i), old, inner);
+        line(inner, value + " = " + branch + ";");
+        line(inner, "break;");
+        line(indent, "}");
+      }
+      line(indent, "default:");
+      line(inner, "throw new org.apache.avro.AvroRuntimeException(\"Bad union index\");");
+      line(indent, "}");
+      return value;
+    }
+    default:
+      throw new IllegalArgumentException("Unknown type: " + schema);
+    }
+  }
+
+  /**
+   * Writes the statements skipping the value of a field. Values with a
+   * variable structure are skipped by the generic reader, which skips whole
+   * blocks of maps and arrays when their size in bytes is known.
+   */
+  private void skip(Field field, String indent) {
+    Schema schema = field.schema();
+    switch (schema.getType()) {
+    case NULL:
+      line(indent, "in.readNull();");
+      break;
+    case BOOLEAN:
+      line(indent, "in.readBoolean();");
+      break;
+    case INT:
+      line(indent, "in.readInt();");
+      break;
+    case LONG:
+      line(indent, "in.readLong();");
+      break;
+    case FLOAT:
+      line(indent, "in.readFloat();");
+      break;
+    case DOUBLE:
+      line(indent, "in.readDouble();");
+      break;
+    case STRING:
+      line(indent, "in.skipString();");
+      break;
+    case BYTES:
+      line(indent, "in.skipBytes();");
+      break;
+    case ENUM:
+      line(indent, "in.readEnum();");
+      break;
+    case FIXED:
+      line(indent, "in.skipFixed(" + schema.getFixedSize() + ");");
+      break;
+    default:
+      line(indent, "org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get("
+          + field.pos() + ").schema(), in);");
+      break;
+    }
+  }
+
+  /**
+   * Emits the statements copying a value, a variable or a field, and returns
+   * the expression of the copy.
+   */
+  private String copy(Schema schema, String value, String indent) {
+    String inner = indent + "  ";
+    switch (schema.getType()) {
+    case NULL:
+    case BOOLEAN:
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+    case ENUM:
+      return value;
+    case STRING:
+      return isJavaString(schema) ? value : CODECS + ".copyString(" + value + ")";
+    case BYTES:
+      return CODECS + ".copyBytes(" + value + ")";
+    case FIXED:
+      return value + " == null ? null : " + CODECS + ".copyFixed(" + value + ", new "
+          + className(schema) + "())";
+    case RECORD:
+      return value + " == null ? null : " + className(schema) + ".CODEC.copy(" + value + ")";
+    case MAP: {
+      String map = var("map");
+      String copy = var("copy");
+      String entry = var("entry");
+      line(indent, "java.util.Map<?, ?> " + map + " = " + value + ";");
+      line(indent, "java.util.Map " + copy + " = null;");
+      line(indent, "if (" + map + " != null) {");
+      line(inner, copy + " = new java.util.HashMap(" + map + ".size());");
+      line(inner, "for (java.util.Map.Entry<?, ?> " + entry + " : " + map + ".entrySet()) {");
+      String element = copyElement(schema.getValueType(), entry + ".getValue()", inner + "  ");
+      line(inner + "  ", copy + ".put(" + CODECS + ".copyString((java.lang.CharSequence) "
+          + entry + ".getKey()), " + element + ");");
+      line(inner, "}");
+      line(indent, "}");
+      return copy;
+    }
+    case ARRAY: {
+      String array = var("array");
+      String copy = var("copy");
+      String element = var("element");
+      line(indent, "java.util.Collection<?> " + array + " = " + value + ";");
+      line(indent, "java.util.List " + copy + " = null;");
+      line(indent, "if (" + array + " != null) {");
+      line(inner, copy + " = new java.util.ArrayList(" + array + ".size());");
+      line(inner, "for (java.lang.Object " + element + " : " + array + ") {");
+      line(inner + "  ", copy + ".add(" + copyElement(schema.getElementType(), element, inner + "  ")
+          + ");");
+      line(inner, "}");
+      line(indent, "}");
+      return copy;
+    }
+    case UNION: {
+      String union = var("union");
+      String copy = var("copy");
+      String type = javaType(schema);
+      line(indent, "java.lang.Object " + union + " = " + value + ";");
+      line(indent, type + " " + copy + ";");
+      line(indent, "if (" + union + " == null) {");
+      line(inner, copy + " = null;");
+      for (Schema branch : schema.getTypes()) {
+        if (branch.getType() == Schema.Type.NULL) {
+          continue;
+        }
+        line(indent, "} else if (" + union + " instanceof " + unionClass(branch) + ") {");
+        line(inner, copy + " = " + copyElement(branch, union, inner) + ";");
+      }
+      line(indent, "} else {");
+      line(inner, "throw new org.apache.avro.AvroRuntimeException(\"Not in union: \" + " + union + ");");
+      line(indent, "}");
+      return copy;
+    }
+    default:
+      throw new IllegalArgumentException("Unknown type: " + schema);
+    }
+  }
+
+  /**
+   * Copies an untyped value, an element of a map, list or union.
+   */
+  private String copyElement(Schema schema, String value, String indent) {
+    switch (schema.getType()) {
+    case NULL:
+    case BOOLEAN:
+    case INT:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+    case ENUM:
+      return cast(schema, value);
+    case MAP:
+    case ARRAY:
+    case UNION:
+      // assigned to a local variable by copy()
+      return copy(schema, cast(schema, value), indent);
+    default:
+      String typed = var("value");
+      line(indent, javaType(schema) + " " + typed + " = " + cast(schema, value) + ";");
+      return copy(schema, typed, indent);
+    }
+  }
+
+  private static String reuse(String old, String type) {
+    return old == null ? "null" : old + " instanceof " + type + " ? (" + type + ") " + old + " : null";
+  }
+
+  /**
+   * Reuses the old map or list, cleared, as the Avro readers do.
+   */
+  private void newCollection(String value, String old, String type, String implementation,
+      String count, String indent) {
+    if (old == null) {
+      line(indent, value + " = new " + implementation + "((int) " + count + ");");
+    } else {
+      line(indent, "if (" + old + " instanceof " + type + ") {");
+      line(indent + "  ", value + " = (" + type + ") " + old + ";");
+      line(indent + "  ", value + ".clear();");
+      line(indent, "} else {");
+      line(indent + "  ", value + " = new " + implementation + "((int) " + count + ");");
+      line(indent, "}");
+    }
+  }
+}
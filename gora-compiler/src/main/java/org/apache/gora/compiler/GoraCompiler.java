@@ -64,8 +64,26 @@ public class GoraCompiler extends SpecificCompiler {
     GORA_HIDDEN_FIELD_NAMES.add(DIRTY_BYTES_FIELD_NAME);
   }
   
+  private boolean generateCodecs;
+
   public static void compileSchema(File[] srcFiles, File dest, LicenseHeaders licenseHeader)
       throws IOException {
+    compileSchema(srcFiles, dest, licenseHeader, false);
+  }
+
+  /**
+   * Compiles the schema files.
+   *
+   * @param srcFiles the schema files.
+   * @param dest Path where .java classes will be written.
+   * @param licenseHeader the license header of the classes.
+   * @param generateCodecs whether the records get a
+   * {@link org.apache.gora.persistency.PersistentCodec}, picked up by the
+   * Gora serializers instead of the generic Avro readers and writers.
+   * @throws IOException If there's an issue with compiling to the destination.
+   */
+  public static void compileSchema(File[] srcFiles, File dest, LicenseHeaders licenseHeader,
+      boolean generateCodecs) throws IOException {
     Schema.Parser parser = new Schema.Parser();
 
     for (File src : srcFiles) {
@@ -76,6 +94,7 @@ public class GoraCompiler extends SpecificCompiler {
       Schema newSchema = originalSchema;
       GoraCompiler compiler = new GoraCompiler(newSchema);
       compiler.setTemplateDir(DEFAULT_TEMPLATES_PATH);
+      compiler.setGenerateCodecs(generateCodecs);
       compiler.compileToDestination(src, dest);
 
       //Adding the license to the compiled file
@@ -238,6 +257,50 @@ public class GoraCompiler extends SpecificCompiler {
     super(schema);
   }
 
+  /**
+   * Utility method used by velocity templates to decide whether the records
+   * get a codec.
+   */
+  public boolean isGenerateCodecs() {
+    return generateCodecs;
+  }
+
+  public void setGenerateCodecs(boolean generateCodecs) {
+    this.generateCodecs = generateCodecs;
+  }
+
+  /**
+   * Utility method used by velocity templates to generate the constants of
+   * the codec of a record.
+   */
+  public static String generateCodecConstants(Schema schema) {
+    return CodecGenerator.generateConstants(schema, "    ");
+  }
+
+  /**
+   * Utility method used by velocity templates to generate the statements
+   * writing the fields of a record in its codec.
+   */
+  public static String generateCodecEncode(Schema schema) {
+    return CodecGenerator.generateEncode(schema, "      ");
+  }
+
+  /**
+   * Utility method used by velocity templates to generate the statements
+   * reading the fields of a record in its codec.
+   */
+  public static String generateCodecDecode(Schema schema) {
+    return CodecGenerator.generateDecode(schema, "      ");
+  }
+
+  /**
+   * Utility method used by velocity templates to generate the statements
+   * copying the fields of a record in its codec.
+   */
+  public static String generateCodecCopy(Schema schema) {
+    return CodecGenerator.generateCopy(schema, "      ");
+  }
+
   private static Schema getSchemaWithDirtySupport(Schema originalSchema, Map<Schema,Schema> queue) throws IOException {
     switch (originalSchema.getType()) {
       case RECORD:
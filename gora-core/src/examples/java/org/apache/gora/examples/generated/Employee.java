@@ -675,6 +675,208 @@ public class Employee extends org.apache.gora.persistency.impl.PersistentBase im
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<Employee> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<Employee> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<Employee> getRecordClass() {
+      return Employee.class;
+    }
+
+    @Override
+    public void encode(Employee record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      java.lang.Object union0$ = record.name;
+      if (union0$ == null) {
+        out.writeIndex(0);
+        out.writeNull();
+      } else if (union0$ instanceof java.lang.CharSequence) {
+        out.writeIndex(1);
+        out.writeString(((java.lang.CharSequence) union0$));
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union0$);
+      }
+      out.writeLong(record.dateOfBirth);
+      out.writeString(record.ssn);
+      out.writeInt(record.salary);
+      java.lang.Object union1$ = record.boss;
+      if (union1$ == null) {
+        out.writeIndex(0);
+        out.writeNull();
+      } else if (union1$ instanceof org.apache.gora.examples.generated.Employee) {
+        out.writeIndex(1);
+        org.apache.gora.examples.generated.Employee.CODEC.encode(((org.apache.gora.examples.generated.Employee) union1$), out);
+      } else if (union1$ instanceof java.lang.CharSequence) {
+        out.writeIndex(2);
+        out.writeString(((java.lang.CharSequence) union1$));
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union1$);
+      }
+      java.lang.Object union2$ = record.webpage;
+      if (union2$ == null) {
+        out.writeIndex(0);
+        out.writeNull();
+      } else if (union2$ instanceof org.apache.gora.examples.generated.WebPage) {
+        out.writeIndex(1);
+        org.apache.gora.examples.generated.WebPage.CODEC.encode(((org.apache.gora.examples.generated.WebPage) union2$), out);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union2$);
+      }
+    }
+
+    @Override
+    public Employee decode(Employee reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public Employee decode(Employee reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      Employee record = reuse != null ? reuse : new Employee();
+      if (fields == null || fields[0]) {
+        java.lang.CharSequence value0$;
+        switch (in.readIndex()) {
+        case 0: {
+          in.readNull();
+          value0$ = null;
+          break;
+        }
+        case 1: {
+          org.apache.avro.util.Utf8 value2$ = in.readString(record.name instanceof org.apache.avro.util.Utf8 ? (org.apache.avro.util.Utf8) record.name : null);
+          value0$ = value2$;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.name = value0$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(0).schema(), in);
+      }
+      if (fields == null || fields[1]) {
+        long value3$ = in.readLong();
+        record.dateOfBirth = value3$;
+      } else {
+        in.readLong();
+      }
+      if (fields == null || fields[2]) {
+        org.apache.avro.util.Utf8 value4$ = in.readString(record.ssn instanceof org.apache.avro.util.Utf8 ? (org.apache.avro.util.Utf8) record.ssn : null);
+        record.ssn = value4$;
+      } else {
+        in.skipString();
+      }
+      if (fields == null || fields[3]) {
+        int value5$ = in.readInt();
+        record.salary = value5$;
+      } else {
+        in.readInt();
+      }
+      if (fields == null || fields[4]) {
+        java.lang.Object value6$;
+        switch (in.readIndex()) {
+        case 0: {
+          in.readNull();
+          value6$ = null;
+          break;
+        }
+        case 1: {
+          org.apache.gora.examples.generated.Employee value8$ = org.apache.gora.examples.generated.Employee.CODEC.decode(record.boss instanceof org.apache.gora.examples.generated.Employee ? (org.apache.gora.examples.generated.Employee) record.boss : null, in);
+          value6$ = value8$;
+          break;
+        }
+        case 2: {
+          org.apache.avro.util.Utf8 value9$ = in.readString(record.boss instanceof org.apache.avro.util.Utf8 ? (org.apache.avro.util.Utf8) record.boss : null);
+          value6$ = value9$;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.boss = value6$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(4).schema(), in);
+      }
+      if (fields == null || fields[5]) {
+        org.apache.gora.examples.generated.WebPage value10$;
+        switch (in.readIndex()) {
+        case 0: {
+          in.readNull();
+          value10$ = null;
+          break;
+        }
+        case 1: {
+          org.apache.gora.examples.generated.WebPage value12$ = org.apache.gora.examples.generated.WebPage.CODEC.decode(record.webpage instanceof org.apache.gora.examples.generated.WebPage ? (org.apache.gora.examples.generated.WebPage) record.webpage : null, in);
+          value10$ = value12$;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.webpage = value10$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(5).schema(), in);
+      }
+      return record;
+    }
+
+    @Override
+    public Employee copy(Employee from) {
+      Employee record = new Employee();
+      java.lang.Object union0$ = from.name;
+      java.lang.CharSequence copy1$;
+      if (union0$ == null) {
+        copy1$ = null;
+      } else if (union0$ instanceof java.lang.CharSequence) {
+        java.lang.CharSequence value2$ = ((java.lang.CharSequence) union0$);
+        copy1$ = org.apache.gora.persistency.impl.PersistentCodecs.copyString(value2$);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union0$);
+      }
+      record.name = copy1$;
+      record.dateOfBirth = from.dateOfBirth;
+      record.ssn = org.apache.gora.persistency.impl.PersistentCodecs.copyString(from.ssn);
+      record.salary = from.salary;
+      java.lang.Object union3$ = from.boss;
+      java.lang.Object copy4$;
+      if (union3$ == null) {
+        copy4$ = null;
+      } else if (union3$ instanceof org.apache.gora.examples.generated.Employee) {
+        org.apache.gora.examples.generated.Employee value5$ = ((org.apache.gora.examples.generated.Employee) union3$);
+        copy4$ = value5$ == null ? null : org.apache.gora.examples.generated.Employee.CODEC.copy(value5$);
+      } else if (union3$ instanceof java.lang.CharSequence) {
+        java.lang.CharSequence value6$ = ((java.lang.CharSequence) union3$);
+        copy4$ = org.apache.gora.persistency.impl.PersistentCodecs.copyString(value6$);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union3$);
+      }
+      record.boss = copy4$;
+      java.lang.Object union7$ = from.webpage;
+      org.apache.gora.examples.generated.WebPage copy8$;
+      if (union7$ == null) {
+        copy8$ = null;
+      } else if (union7$ instanceof org.apache.gora.examples.generated.WebPage) {
+        org.apache.gora.examples.generated.WebPage value9$ = ((org.apache.gora.examples.generated.WebPage) union7$);
+        copy8$ = value9$ == null ? null : org.apache.gora.examples.generated.WebPage.CODEC.copy(value9$);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union7$);
+      }
+      record.webpage = copy8$;
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -690,7 +892,7 @@ public class Employee extends org.apache.gora.persistency.impl.PersistentBase im
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -707,7 +909,7 @@ public class Employee extends org.apache.gora.persistency.impl.PersistentBase im
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
@@ -261,6 +261,58 @@ public class EmployeeInt extends org.apache.gora.persistency.impl.PersistentBase
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<EmployeeInt> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<EmployeeInt> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<EmployeeInt> getRecordClass() {
+      return EmployeeInt.class;
+    }
+
+    @Override
+    public void encode(EmployeeInt record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      out.writeInt(record.ssn);
+    }
+
+    @Override
+    public EmployeeInt decode(EmployeeInt reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public EmployeeInt decode(EmployeeInt reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      EmployeeInt record = reuse != null ? reuse : new EmployeeInt();
+      if (fields == null || fields[0]) {
+        int value0$ = in.readInt();
+        record.ssn = value0$;
+      } else {
+        in.readInt();
+      }
+      return record;
+    }
+
+    @Override
+    public EmployeeInt copy(EmployeeInt from) {
+      EmployeeInt record = new EmployeeInt();
+      record.ssn = from.ssn;
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -276,7 +328,7 @@ public class EmployeeInt extends org.apache.gora.persistency.impl.PersistentBase
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -293,7 +345,7 @@ public class EmployeeInt extends org.apache.gora.persistency.impl.PersistentBase
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
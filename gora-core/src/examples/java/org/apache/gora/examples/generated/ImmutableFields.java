@@ -345,6 +345,99 @@ public class ImmutableFields extends org.apache.gora.persistency.impl.Persistent
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<ImmutableFields> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<ImmutableFields> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<ImmutableFields> getRecordClass() {
+      return ImmutableFields.class;
+    }
+
+    @Override
+    public void encode(ImmutableFields record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      out.writeInt(record.v1);
+      java.lang.Object union0$ = record.v2;
+      if (union0$ instanceof org.apache.gora.examples.generated.V2) {
+        out.writeIndex(0);
+        org.apache.gora.examples.generated.V2.CODEC.encode(((org.apache.gora.examples.generated.V2) union0$), out);
+      } else if (union0$ == null) {
+        out.writeIndex(1);
+        out.writeNull();
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union0$);
+      }
+    }
+
+    @Override
+    public ImmutableFields decode(ImmutableFields reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public ImmutableFields decode(ImmutableFields reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      ImmutableFields record = reuse != null ? reuse : new ImmutableFields();
+      if (fields == null || fields[0]) {
+        int value0$ = in.readInt();
+        record.v1 = value0$;
+      } else {
+        in.readInt();
+      }
+      if (fields == null || fields[1]) {
+        org.apache.gora.examples.generated.V2 value1$;
+        switch (in.readIndex()) {
+        case 0: {
+          org.apache.gora.examples.generated.V2 value2$ = org.apache.gora.examples.generated.V2.CODEC.decode(record.v2 instanceof org.apache.gora.examples.generated.V2 ? (org.apache.gora.examples.generated.V2) record.v2 : null, in);
+          value1$ = value2$;
+          break;
+        }
+        case 1: {
+          in.readNull();
+          value1$ = null;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.v2 = value1$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(1).schema(), in);
+      }
+      return record;
+    }
+
+    @Override
+    public ImmutableFields copy(ImmutableFields from) {
+      ImmutableFields record = new ImmutableFields();
+      record.v1 = from.v1;
+      java.lang.Object union0$ = from.v2;
+      org.apache.gora.examples.generated.V2 copy1$;
+      if (union0$ == null) {
+        copy1$ = null;
+      } else if (union0$ instanceof org.apache.gora.examples.generated.V2) {
+        org.apache.gora.examples.generated.V2 value2$ = ((org.apache.gora.examples.generated.V2) union0$);
+        copy1$ = value2$ == null ? null : org.apache.gora.examples.generated.V2.CODEC.copy(value2$);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union0$);
+      }
+      record.v2 = copy1$;
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -360,7 +453,7 @@ public class ImmutableFields extends org.apache.gora.persistency.impl.Persistent
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -377,7 +470,7 @@ public class ImmutableFields extends org.apache.gora.persistency.impl.Persistent
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
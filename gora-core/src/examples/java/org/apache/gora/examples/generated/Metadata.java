@@ -332,6 +332,97 @@ public class Metadata extends org.apache.gora.persistency.impl.PersistentBase im
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<Metadata> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<Metadata> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<Metadata> getRecordClass() {
+      return Metadata.class;
+    }
+
+    @Override
+    public void encode(Metadata record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      out.writeInt(record.version);
+      java.util.Map<?, ?> map0$ = record.data;
+      out.writeMapStart();
+      out.setItemCount(map0$.size());
+      for (java.util.Map.Entry<?, ?> entry1$ : map0$.entrySet()) {
+        out.startItem();
+        out.writeString((java.lang.CharSequence) entry1$.getKey());
+        out.writeString(((java.lang.CharSequence) entry1$.getValue()));
+      }
+      out.writeMapEnd();
+    }
+
+    @Override
+    public Metadata decode(Metadata reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public Metadata decode(Metadata reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      Metadata record = reuse != null ? reuse : new Metadata();
+      if (fields == null || fields[0]) {
+        int value0$ = in.readInt();
+        record.version = value0$;
+      } else {
+        in.readInt();
+      }
+      if (fields == null || fields[1]) {
+        long count2$ = in.readMapStart();
+        java.util.Map value1$;
+        if (record.data instanceof java.util.Map) {
+          value1$ = (java.util.Map) record.data;
+          value1$.clear();
+        } else {
+          value1$ = new java.util.HashMap((int) count2$);
+        }
+        for (; count2$ != 0; count2$ = in.mapNext()) {
+          for (long index3$ = 0; index3$ < count2$; index3$++) {
+            org.apache.avro.util.Utf8 key4$ = in.readString(null);
+            org.apache.avro.util.Utf8 value5$ = in.readString(null);
+            value1$.put(key4$, value5$);
+          }
+        }
+        record.data = (value1$ instanceof org.apache.gora.persistency.Dirtyable) ? value1$ : new org.apache.gora.persistency.impl.DirtyMapWrapper(value1$);
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(1).schema(), in);
+      }
+      return record;
+    }
+
+    @Override
+    public Metadata copy(Metadata from) {
+      Metadata record = new Metadata();
+      record.version = from.version;
+      java.util.Map<?, ?> map0$ = from.data;
+      java.util.Map copy1$ = null;
+      if (map0$ != null) {
+        copy1$ = new java.util.HashMap(map0$.size());
+        for (java.util.Map.Entry<?, ?> entry2$ : map0$.entrySet()) {
+          java.lang.CharSequence value3$ = ((java.lang.CharSequence) entry2$.getValue());
+          copy1$.put(org.apache.gora.persistency.impl.PersistentCodecs.copyString((java.lang.CharSequence) entry2$.getKey()), org.apache.gora.persistency.impl.PersistentCodecs.copyString(value3$));
+        }
+      }
+      record.data = copy1$ == null ? null : new org.apache.gora.persistency.impl.DirtyMapWrapper(copy1$);
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -347,7 +438,7 @@ public class Metadata extends org.apache.gora.persistency.impl.PersistentBase im
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -364,7 +455,7 @@ public class Metadata extends org.apache.gora.persistency.impl.PersistentBase im
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
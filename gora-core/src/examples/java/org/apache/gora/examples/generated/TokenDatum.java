@@ -261,6 +261,58 @@ public class TokenDatum extends org.apache.gora.persistency.impl.PersistentBase
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<TokenDatum> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<TokenDatum> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<TokenDatum> getRecordClass() {
+      return TokenDatum.class;
+    }
+
+    @Override
+    public void encode(TokenDatum record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      out.writeInt(record.count);
+    }
+
+    @Override
+    public TokenDatum decode(TokenDatum reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public TokenDatum decode(TokenDatum reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      TokenDatum record = reuse != null ? reuse : new TokenDatum();
+      if (fields == null || fields[0]) {
+        int value0$ = in.readInt();
+        record.count = value0$;
+      } else {
+        in.readInt();
+      }
+      return record;
+    }
+
+    @Override
+    public TokenDatum copy(TokenDatum from) {
+      TokenDatum record = new TokenDatum();
+      record.count = from.count;
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -276,7 +328,7 @@ public class TokenDatum extends org.apache.gora.persistency.impl.PersistentBase
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -293,7 +345,7 @@ public class TokenDatum extends org.apache.gora.persistency.impl.PersistentBase
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
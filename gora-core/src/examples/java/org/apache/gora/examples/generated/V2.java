@@ -249,6 +249,58 @@ public class V2 extends org.apache.gora.persistency.impl.PersistentBase implemen
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<V2> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<V2> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<V2> getRecordClass() {
+      return V2.class;
+    }
+
+    @Override
+    public void encode(V2 record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      out.writeInt(record.v3);
+    }
+
+    @Override
+    public V2 decode(V2 reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public V2 decode(V2 reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      V2 record = reuse != null ? reuse : new V2();
+      if (fields == null || fields[0]) {
+        int value0$ = in.readInt();
+        record.v3 = value0$;
+      } else {
+        in.readInt();
+      }
+      return record;
+    }
+
+    @Override
+    public V2 copy(V2 from) {
+      V2 record = new V2();
+      record.v3 = from.v3;
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -264,7 +316,7 @@ public class V2 extends org.apache.gora.persistency.impl.PersistentBase implemen
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -281,7 +333,7 @@ public class V2 extends org.apache.gora.persistency.impl.PersistentBase implemen
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
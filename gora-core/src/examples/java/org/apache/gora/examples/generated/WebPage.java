@@ -843,6 +843,429 @@ public class WebPage extends org.apache.gora.persistency.impl.PersistentBase imp
 		  
   }
 
+  /**
+   * Codec writing and reading the fields of the data bean in AVRO Binary encoding format without
+   * walking the schema, used by the Gora serializers instead of the generic AVRO datum readers and writers.
+   */
+  public static final org.apache.gora.persistency.PersistentCodec<WebPage> CODEC = new Codec();
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final class Codec implements org.apache.gora.persistency.PersistentCodec<WebPage> {
+
+    @Override
+    public org.apache.avro.Schema getSchema() {
+      return SCHEMA$;
+    }
+
+    @Override
+    public java.lang.Class<WebPage> getRecordClass() {
+      return WebPage.class;
+    }
+
+    @Override
+    public void encode(WebPage record, org.apache.avro.io.Encoder out)
+            throws java.io.IOException {
+      java.lang.Object union0$ = record.url;
+      if (union0$ == null) {
+        out.writeIndex(0);
+        out.writeNull();
+      } else if (union0$ instanceof java.lang.CharSequence) {
+        out.writeIndex(1);
+        out.writeString(((java.lang.CharSequence) union0$));
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union0$);
+      }
+      java.lang.Object union1$ = record.content;
+      if (union1$ == null) {
+        out.writeIndex(0);
+        out.writeNull();
+      } else if (union1$ instanceof java.nio.ByteBuffer) {
+        out.writeIndex(1);
+        out.writeBytes(((java.nio.ByteBuffer) union1$));
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union1$);
+      }
+      java.util.Collection<?> array2$ = record.parsedContent;
+      out.writeArrayStart();
+      out.setItemCount(array2$.size());
+      for (java.lang.Object element3$ : array2$) {
+        out.startItem();
+        out.writeString(((java.lang.CharSequence) element3$));
+      }
+      out.writeArrayEnd();
+      java.util.Map<?, ?> map4$ = record.outlinks;
+      out.writeMapStart();
+      out.setItemCount(map4$.size());
+      for (java.util.Map.Entry<?, ?> entry5$ : map4$.entrySet()) {
+        out.startItem();
+        out.writeString((java.lang.CharSequence) entry5$.getKey());
+        java.lang.Object union6$ = entry5$.getValue();
+        if (union6$ == null) {
+          out.writeIndex(0);
+          out.writeNull();
+        } else if (union6$ instanceof java.lang.CharSequence) {
+          out.writeIndex(1);
+          out.writeString(((java.lang.CharSequence) union6$));
+        } else {
+          throw new org.apache.avro.AvroRuntimeException("Not in union: " + union6$);
+        }
+      }
+      out.writeMapEnd();
+      java.lang.Object union7$ = record.headers;
+      if (union7$ == null) {
+        out.writeIndex(0);
+        out.writeNull();
+      } else if (union7$ instanceof java.util.Map) {
+        out.writeIndex(1);
+        java.util.Map<?, ?> map8$ = ((java.util.Map<?, ?>) union7$);
+        out.writeMapStart();
+        out.setItemCount(map8$.size());
+        for (java.util.Map.Entry<?, ?> entry9$ : map8$.entrySet()) {
+          out.startItem();
+          out.writeString((java.lang.CharSequence) entry9$.getKey());
+          java.lang.Object union10$ = entry9$.getValue();
+          if (union10$ == null) {
+            out.writeIndex(0);
+            out.writeNull();
+          } else if (union10$ instanceof java.lang.CharSequence) {
+            out.writeIndex(1);
+            out.writeString(((java.lang.CharSequence) union10$));
+          } else {
+            throw new org.apache.avro.AvroRuntimeException("Not in union: " + union10$);
+          }
+        }
+        out.writeMapEnd();
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union7$);
+      }
+      org.apache.gora.examples.generated.Metadata.CODEC.encode(record.metadata, out);
+      java.util.Map<?, ?> map11$ = record.byteData;
+      out.writeMapStart();
+      out.setItemCount(map11$.size());
+      for (java.util.Map.Entry<?, ?> entry12$ : map11$.entrySet()) {
+        out.startItem();
+        out.writeString((java.lang.CharSequence) entry12$.getKey());
+        out.writeBytes(((java.nio.ByteBuffer) entry12$.getValue()));
+      }
+      out.writeMapEnd();
+      java.util.Map<?, ?> map13$ = record.stringData;
+      out.writeMapStart();
+      out.setItemCount(map13$.size());
+      for (java.util.Map.Entry<?, ?> entry14$ : map13$.entrySet()) {
+        out.startItem();
+        out.writeString((java.lang.CharSequence) entry14$.getKey());
+        out.writeString(((java.lang.CharSequence) entry14$.getValue()));
+      }
+      out.writeMapEnd();
+    }
+
+    @Override
+    public WebPage decode(WebPage reuse, org.apache.avro.io.Decoder in)
+            throws java.io.IOException {
+      return decode(reuse, in, null);
+    }
+
+    @Override
+    public WebPage decode(WebPage reuse, org.apache.avro.io.Decoder in,
+            boolean[] fields) throws java.io.IOException {
+      WebPage record = reuse != null ? reuse : new WebPage();
+      if (fields == null || fields[0]) {
+        java.lang.CharSequence value0$;
+        switch (in.readIndex()) {
+        case 0: {
+          in.readNull();
+          value0$ = null;
+          break;
+        }
+        case 1: {
+          org.apache.avro.util.Utf8 value2$ = in.readString(record.url instanceof org.apache.avro.util.Utf8 ? (org.apache.avro.util.Utf8) record.url : null);
+          value0$ = value2$;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.url = value0$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(0).schema(), in);
+      }
+      if (fields == null || fields[1]) {
+        java.nio.ByteBuffer value3$;
+        switch (in.readIndex()) {
+        case 0: {
+          in.readNull();
+          value3$ = null;
+          break;
+        }
+        case 1: {
+          java.nio.ByteBuffer value5$ = in.readBytes(record.content instanceof java.nio.ByteBuffer && !((java.nio.ByteBuffer) record.content).isReadOnly() ? (java.nio.ByteBuffer) record.content : null);
+          value3$ = value5$;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.content = value3$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(1).schema(), in);
+      }
+      if (fields == null || fields[2]) {
+        long count7$ = in.readArrayStart();
+        java.util.List value6$;
+        if (record.parsedContent instanceof java.util.List) {
+          value6$ = (java.util.List) record.parsedContent;
+          value6$.clear();
+        } else {
+          value6$ = new java.util.ArrayList((int) count7$);
+        }
+        for (; count7$ != 0; count7$ = in.arrayNext()) {
+          for (long index8$ = 0; index8$ < count7$; index8$++) {
+            org.apache.avro.util.Utf8 value9$ = in.readString(null);
+            value6$.add(value9$);
+          }
+        }
+        record.parsedContent = (value6$ instanceof org.apache.gora.persistency.Dirtyable) ? value6$ : new org.apache.gora.persistency.impl.DirtyListWrapper(value6$);
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(2).schema(), in);
+      }
+      if (fields == null || fields[3]) {
+        long count11$ = in.readMapStart();
+        java.util.Map value10$;
+        if (record.outlinks instanceof java.util.Map) {
+          value10$ = (java.util.Map) record.outlinks;
+          value10$.clear();
+        } else {
+          value10$ = new java.util.HashMap((int) count11$);
+        }
+        for (; count11$ != 0; count11$ = in.mapNext()) {
+          for (long index12$ = 0; index12$ < count11$; index12$++) {
+            org.apache.avro.util.Utf8 key13$ = in.readString(null);
+            java.lang.CharSequence value14$;
+            switch (in.readIndex()) {
+            case 0: {
+              in.readNull();
+              value14$ = null;
+              break;
+            }
+            case 1: {
+              org.apache.avro.util.Utf8 value16$ = in.readString(null);
+              value14$ = value16$;
+              break;
+            }
+            default:
+              throw new org.apache.avro.AvroRuntimeException("Bad union index");
+            }
+            value10$.put(key13$, value14$);
+          }
+        }
+        record.outlinks = (value10$ instanceof org.apache.gora.persistency.Dirtyable) ? value10$ : new org.apache.gora.persistency.impl.DirtyMapWrapper(value10$);
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(3).schema(), in);
+      }
+      if (fields == null || fields[4]) {
+        java.util.Map value17$;
+        switch (in.readIndex()) {
+        case 0: {
+          in.readNull();
+          value17$ = null;
+          break;
+        }
+        case 1: {
+          long count20$ = in.readMapStart();
+          java.util.Map value19$;
+          if (record.headers instanceof java.util.Map) {
+            value19$ = (java.util.Map) record.headers;
+            value19$.clear();
+          } else {
+            value19$ = new java.util.HashMap((int) count20$);
+          }
+          for (; count20$ != 0; count20$ = in.mapNext()) {
+            for (long index21$ = 0; index21$ < count20$; index21$++) {
+              org.apache.avro.util.Utf8 key22$ = in.readString(null);
+              java.lang.CharSequence value23$;
+              switch (in.readIndex()) {
+              case 0: {
+                in.readNull();
+                value23$ = null;
+                break;
+              }
+              case 1: {
+                org.apache.avro.util.Utf8 value25$ = in.readString(null);
+                value23$ = value25$;
+                break;
+              }
+              default:
+                throw new org.apache.avro.AvroRuntimeException("Bad union index");
+              }
+              value19$.put(key22$, value23$);
+            }
+          }
+          value17$ = value19$;
+          break;
+        }
+        default:
+          throw new org.apache.avro.AvroRuntimeException("Bad union index");
+        }
+        record.headers = value17$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(4).schema(), in);
+      }
+      if (fields == null || fields[5]) {
+        org.apache.gora.examples.generated.Metadata value26$ = org.apache.gora.examples.generated.Metadata.CODEC.decode(record.metadata instanceof org.apache.gora.examples.generated.Metadata ? (org.apache.gora.examples.generated.Metadata) record.metadata : null, in);
+        record.metadata = value26$;
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(5).schema(), in);
+      }
+      if (fields == null || fields[6]) {
+        long count28$ = in.readMapStart();
+        java.util.Map value27$;
+        if (record.byteData instanceof java.util.Map) {
+          value27$ = (java.util.Map) record.byteData;
+          value27$.clear();
+        } else {
+          value27$ = new java.util.HashMap((int) count28$);
+        }
+        for (; count28$ != 0; count28$ = in.mapNext()) {
+          for (long index29$ = 0; index29$ < count28$; index29$++) {
+            org.apache.avro.util.Utf8 key30$ = in.readString(null);
+            java.nio.ByteBuffer value31$ = in.readBytes(null);
+            value27$.put(key30$, value31$);
+          }
+        }
+        record.byteData = (value27$ instanceof org.apache.gora.persistency.Dirtyable) ? value27$ : new org.apache.gora.persistency.impl.DirtyMapWrapper(value27$);
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(6).schema(), in);
+      }
+      if (fields == null || fields[7]) {
+        long count33$ = in.readMapStart();
+        java.util.Map value32$;
+        if (record.stringData instanceof java.util.Map) {
+          value32$ = (java.util.Map) record.stringData;
+          value32$.clear();
+        } else {
+          value32$ = new java.util.HashMap((int) count33$);
+        }
+        for (; count33$ != 0; count33$ = in.mapNext()) {
+          for (long index34$ = 0; index34$ < count33$; index34$++) {
+            org.apache.avro.util.Utf8 key35$ = in.readString(null);
+            org.apache.avro.util.Utf8 value36$ = in.readString(null);
+            value32$.put(key35$, value36$);
+          }
+        }
+        record.stringData = (value32$ instanceof org.apache.gora.persistency.Dirtyable) ? value32$ : new org.apache.gora.persistency.impl.DirtyMapWrapper(value32$);
+      } else {
+        org.apache.avro.generic.GenericDatumReader.skip(SCHEMA$.getFields().get(7).schema(), in);
+      }
+      return record;
+    }
+
+    @Override
+    public WebPage copy(WebPage from) {
+      WebPage record = new WebPage();
+      java.lang.Object union0$ = from.url;
+      java.lang.CharSequence copy1$;
+      if (union0$ == null) {
+        copy1$ = null;
+      } else if (union0$ instanceof java.lang.CharSequence) {
+        java.lang.CharSequence value2$ = ((java.lang.CharSequence) union0$);
+        copy1$ = org.apache.gora.persistency.impl.PersistentCodecs.copyString(value2$);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union0$);
+      }
+      record.url = copy1$;
+      java.lang.Object union3$ = from.content;
+      java.nio.ByteBuffer copy4$;
+      if (union3$ == null) {
+        copy4$ = null;
+      } else if (union3$ instanceof java.nio.ByteBuffer) {
+        java.nio.ByteBuffer value5$ = ((java.nio.ByteBuffer) union3$);
+        copy4$ = org.apache.gora.persistency.impl.PersistentCodecs.copyBytes(value5$);
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union3$);
+      }
+      record.content = copy4$;
+      java.util.Collection<?> array6$ = from.parsedContent;
+      java.util.List copy7$ = null;
+      if (array6$ != null) {
+        copy7$ = new java.util.ArrayList(array6$.size());
+        for (java.lang.Object element8$ : array6$) {
+          java.lang.CharSequence value9$ = ((java.lang.CharSequence) element8$);
+          copy7$.add(org.apache.gora.persistency.impl.PersistentCodecs.copyString(value9$));
+        }
+      }
+      record.parsedContent = copy7$ == null ? null : new org.apache.gora.persistency.impl.DirtyListWrapper(copy7$);
+      java.util.Map<?, ?> map10$ = from.outlinks;
+      java.util.Map copy11$ = null;
+      if (map10$ != null) {
+        copy11$ = new java.util.HashMap(map10$.size());
+        for (java.util.Map.Entry<?, ?> entry12$ : map10$.entrySet()) {
+          java.lang.Object union13$ = entry12$.getValue();
+          java.lang.CharSequence copy14$;
+          if (union13$ == null) {
+            copy14$ = null;
+          } else if (union13$ instanceof java.lang.CharSequence) {
+            java.lang.CharSequence value15$ = ((java.lang.CharSequence) union13$);
+            copy14$ = org.apache.gora.persistency.impl.PersistentCodecs.copyString(value15$);
+          } else {
+            throw new org.apache.avro.AvroRuntimeException("Not in union: " + union13$);
+          }
+          copy11$.put(org.apache.gora.persistency.impl.PersistentCodecs.copyString((java.lang.CharSequence) entry12$.getKey()), copy14$);
+        }
+      }
+      record.outlinks = copy11$ == null ? null : new org.apache.gora.persistency.impl.DirtyMapWrapper(copy11$);
+      java.lang.Object union16$ = from.headers;
+      java.util.Map copy17$;
+      if (union16$ == null) {
+        copy17$ = null;
+      } else if (union16$ instanceof java.util.Map) {
+        java.util.Map<?, ?> map18$ = ((java.util.Map<?, ?>) union16$);
+        java.util.Map copy19$ = null;
+        if (map18$ != null) {
+          copy19$ = new java.util.HashMap(map18$.size());
+          for (java.util.Map.Entry<?, ?> entry20$ : map18$.entrySet()) {
+            java.lang.Object union21$ = entry20$.getValue();
+            java.lang.CharSequence copy22$;
+            if (union21$ == null) {
+              copy22$ = null;
+            } else if (union21$ instanceof java.lang.CharSequence) {
+              java.lang.CharSequence value23$ = ((java.lang.CharSequence) union21$);
+              copy22$ = org.apache.gora.persistency.impl.PersistentCodecs.copyString(value23$);
+            } else {
+              throw new org.apache.avro.AvroRuntimeException("Not in union: " + union21$);
+            }
+            copy19$.put(org.apache.gora.persistency.impl.PersistentCodecs.copyString((java.lang.CharSequence) entry20$.getKey()), copy22$);
+          }
+        }
+        copy17$ = copy19$;
+      } else {
+        throw new org.apache.avro.AvroRuntimeException("Not in union: " + union16$);
+      }
+      record.headers = copy17$;
+      record.metadata = from.metadata == null ? null : org.apache.gora.examples.generated.Metadata.CODEC.copy(from.metadata);
+      java.util.Map<?, ?> map24$ = from.byteData;
+      java.util.Map copy25$ = null;
+      if (map24$ != null) {
+        copy25$ = new java.util.HashMap(map24$.size());
+        for (java.util.Map.Entry<?, ?> entry26$ : map24$.entrySet()) {
+          java.nio.ByteBuffer value27$ = ((java.nio.ByteBuffer) entry26$.getValue());
+          copy25$.put(org.apache.gora.persistency.impl.PersistentCodecs.copyString((java.lang.CharSequence) entry26$.getKey()), org.apache.gora.persistency.impl.PersistentCodecs.copyBytes(value27$));
+        }
+      }
+      record.byteData = copy25$ == null ? null : new org.apache.gora.persistency.impl.DirtyMapWrapper(copy25$);
+      java.util.Map<?, ?> map28$ = from.stringData;
+      java.util.Map copy29$ = null;
+      if (map28$ != null) {
+        copy29$ = new java.util.HashMap(map28$.size());
+        for (java.util.Map.Entry<?, ?> entry30$ : map28$.entrySet()) {
+          java.lang.CharSequence value31$ = ((java.lang.CharSequence) entry30$.getValue());
+          copy29$.put(org.apache.gora.persistency.impl.PersistentCodecs.copyString((java.lang.CharSequence) entry30$.getKey()), org.apache.gora.persistency.impl.PersistentCodecs.copyString(value31$));
+        }
+      }
+      record.stringData = copy29$ == null ? null : new org.apache.gora.persistency.impl.DirtyMapWrapper(copy29$);
+      return record;
+    }
+  }
+
   private static final org.apache.avro.io.DatumWriter
             DATUM_WRITER$ = new org.apache.avro.specific.SpecificDatumWriter(SCHEMA$);
   private static final org.apache.avro.io.DatumReader
@@ -858,7 +1281,7 @@ public class WebPage extends org.apache.gora.persistency.impl.PersistentBase imp
   public void writeExternal(java.io.ObjectOutput out)
           throws java.io.IOException {
     out.write(super.getDirtyBytes().array());
-    DATUM_WRITER$.write(this, org.apache.avro.io.EncoderFactory.get()
+    CODEC.encode(this, org.apache.avro.io.EncoderFactory.get()
             .directBinaryEncoder((java.io.OutputStream) out,
                     null));
   }
@@ -875,7 +1298,7 @@ public class WebPage extends org.apache.gora.persistency.impl.PersistentBase imp
     byte[] __g__dirty = new byte[getFieldsCount()];
     in.read(__g__dirty);
     super.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
-    DATUM_READER$.read(this, org.apache.avro.io.DecoderFactory.get()
+    CODEC.decode(this, org.apache.avro.io.DecoderFactory.get()
             .directBinaryDecoder((java.io.InputStream) in,
                     null));
   }
@@ -0,0 +1,114 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.avro.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.gora.persistency.impl.PersistentView;
+import org.apache.gora.query.ViewResult;
+
+/**
+ * A {@link ViewResult} over the blocks of an Avro data file. Every block is
+ * read and decompressed at once, and the view is moved from one record of
+ * the block to the next without decoding them.
+ */
+public class DataFileAvroViewResult implements ViewResult {
+
+  private final DataFileReader<?> reader;
+  private final SeekableInput in;
+  private final long start;
+  private final long end;
+  private final long limit;
+  private final PersistentView view;
+
+  private ByteBuffer block;
+  private long remaining;
+  private int position;
+  private long offset;
+
+  /**
+   * Creates a result over the records of a file, or of the blocks of a file
+   * split when <code>length</code> is positive.
+   *
+   * @param reader the reader of the file.
+   * @param in the input of the reader.
+   * @param start the start of the split.
+   * @param length the length of the split, or 0 for the whole file.
+   * @param limit the maximum number of records, or a negative number for no
+   * limit.
+   * @throws IOException if the reader can not be moved to the split.
+   */
+  public DataFileAvroViewResult(DataFileReader<?> reader, SeekableInput in,
+      long start, long length, long limit) throws IOException {
+    this.reader = reader;
+    this.in = in;
+    this.start = start;
+    this.end = start + length;
+    this.limit = limit;
+    this.view = new PersistentView(reader.getSchema());
+    if (start > 0) {
+      reader.sync(start);
+    }
+  }
+
+  @Override
+  public boolean next() throws IOException {
+    if (limit >= 0 && offset >= limit) {
+      return false;
+    }
+    while (remaining == 0) {
+      if (!reader.hasNext() || (end > start && reader.pastSync(end))) {
+        return false;
+      }
+      remaining = reader.getBlockCount();
+      block = reader.nextBlock();
+      position = block.position();
+    }
+    view.wrap(block, position);
+    position += view.getLength();
+    remaining--;
+    offset++;
+    return true;
+  }
+
+  @Override
+  public PersistentView get() {
+    return view;
+  }
+
+  @Override
+  public long getOffset() {
+    return offset;
+  }
+
+  @Override
+  public float getProgress() throws IOException {
+    if (end == start) {
+      return 0.0f;
+    }
+    return Math.min(1.0f, (in.tell() - start) / (float) (end - start));
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
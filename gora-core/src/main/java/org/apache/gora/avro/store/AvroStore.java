@@ -29,11 +29,11 @@ import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
-import org.apache.avro.specific.SpecificDatumReader;
-import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.gora.avro.query.AvroQuery;
 import org.apache.gora.avro.query.AvroResult;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentDatumReader;
+import org.apache.gora.persistency.impl.PersistentDatumWriter;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
 import org.apache.gora.query.impl.FileSplitPartitionQuery;
@@ -144,7 +144,7 @@ public class AvroStore<K, T extends PersistentBase>
   @Override
   protected Result<K,T> executeQuery(Query<K,T> query) throws IOException {
     return new AvroResult<>(this, (AvroQuery<K,T>)query,
-            getDatumReader(), getDecoder());
+            getDatumReader(query), getDecoder());
   }
 
   /**
@@ -207,6 +207,27 @@ public class AvroStore<K, T extends PersistentBase>
     return datumReader;
   }
 
+  /**
+   * Returns the reader of the rows of a query. If the query selects some of
+   * the fields and has no filter evaluated locally, a new reader is returned
+   * which skips the other fields instead of decoding them.
+   *
+   * @param query the query to read the rows of.
+   * @return the datum reader for the query.
+   */
+  protected DatumReader<T> getDatumReader(Query<K, T> query) {
+    DatumReader<T> reader = getDatumReader();
+    String[] fields = query.getFields();
+    if (!(reader instanceof PersistentDatumReader) || fields == null
+        || fields.length >= getFields().length
+        || (query.getFilter() != null && query.isLocalFilterEnabled())) {
+      return reader;
+    }
+    PersistentDatumReader<T> projectingReader = new PersistentDatumReader<>(schema);
+    projectingReader.setFields(fields);
+    return projectingReader;
+  }
+
   public DatumWriter<T> getDatumWriter() {
     if(datumWriter == null) {
       datumWriter = createDatumWriter();
@@ -235,11 +256,11 @@ public class AvroStore<K, T extends PersistentBase>
   }
 
   protected DatumWriter<T> createDatumWriter() {
-    return new SpecificDatumWriter<>(schema);
+    return new PersistentDatumWriter<>(schema);
   }
 
   protected DatumReader<T> createDatumReader() {
-    return new SpecificDatumReader<>(schema);
+    return new PersistentDatumReader<>(schema);
   }
 
   @Override
@@ -24,9 +24,11 @@ import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.mapred.FsInput;
 import org.apache.gora.avro.query.DataFileAvroResult;
+import org.apache.gora.avro.query.DataFileAvroViewResult;
 import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
+import org.apache.gora.query.ViewResult;
 import org.apache.gora.query.impl.FileSplitPartitionQuery;
 import org.apache.gora.util.GoraException;
 import org.apache.gora.util.OperationNotSupportedException;
@@ -75,19 +77,41 @@ public class DataFileAvroStore<K, T extends PersistentBase> extends AvroStore<K,
   @Override
   protected Result<K, T> executeQuery(Query<K, T> query) throws IOException {
       return new DataFileAvroResult<>(this, query
-          , createReader(createFsInput()));
+          , createReader(createFsInput(), query));
   }
  
   @Override
   protected Result<K,T> executePartial(FileSplitPartitionQuery<K,T> query) throws IOException {
       FsInput fsInput = createFsInput();
-      DataFileReader<T> reader = createReader(fsInput);
+      DataFileReader<T> reader = createReader(fsInput, query);
       return new DataFileAvroResult<>(this, query, reader, fsInput
           , query.getStart(), query.getLength());
   }
   
-  private DataFileReader<T> createReader(FsInput fsInput) throws IOException {
-    return new DataFileReader<>(fsInput, getDatumReader());
+  /**
+   * Executes a query, or a {@link FileSplitPartitionQuery}, as a scan of
+   * read-only views over the records of the file, which are not decoded.
+   * The fields and the filter of the query are not applied: the views give
+   * access to every field of the records.
+   *
+   * @param query the query to execute.
+   * @return the views over the records.
+   * @throws IOException if the file can not be opened.
+   */
+  public ViewResult executeView(Query<K, T> query) throws IOException {
+    FsInput fsInput = createFsInput();
+    DataFileReader<T> reader = new DataFileReader<>(fsInput, getDatumReader());
+    if (query instanceof FileSplitPartitionQuery) {
+      FileSplitPartitionQuery<K, T> partitionQuery = (FileSplitPartitionQuery<K, T>) query;
+      return new DataFileAvroViewResult(reader, fsInput, partitionQuery.getStart(),
+          partitionQuery.getLength(), query.getLimit());
+    }
+    return new DataFileAvroViewResult(reader, fsInput, 0, 0, query.getLimit());
+  }
+
+  private DataFileReader<T> createReader(FsInput fsInput, Query<K, T> query)
+      throws IOException {
+    return new DataFileReader<>(fsInput, getDatumReader(query));
   }
   
   private FsInput createFsInput() throws IOException {
@@ -0,0 +1,773 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.impl.PersistentBase.PersistentData;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.store.impl.DataStoreDecorator;
+import org.apache.gora.util.AsyncUtils;
+import org.apache.gora.util.GoraException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decorates a {@link DataStore} with a bounded, in-process LRU cache of the
+ * records read from it.
+ *
+ * <p>Reads go through the cache: a cached record serves every
+ * {@link #get(Object, String[])} asking for a subset of the fields it was
+ * read with, and misses are cached as well, so that {@link #exists(Object)}
+ * and {@link #get(Object)} of absent keys do not reach the store again.
+ * Records handed out are copies, callers may modify them. Puts and deletes
+ * invalidate the key, {@link #deleteByQuery(Query)} the whole cache. As a
+ * store may buffer writes until it is flushed, and serve the previous rows
+ * meanwhile, the keys written are invalidated again by {@link #flush()}.
+ * Writes made to the store by other clients are only seen once the entry
+ * expires, see <code>cache.expire.millis</code>.</p>
+ *
+ * <p>In write-behind mode, puts are buffered and repeated puts to the same
+ * key are coalesced into one, merging their dirty fields. The buffer is
+ * written by {@link #flush()}, {@link #close()}, when it reaches
+ * <code>cache.write.behind.max.pending</code> keys, and before any read of
+ * a buffered key, query or {@link #deleteByQuery(Query)}.</p>
+ *
+ * <p>{@link DataStoreFactory} wraps the stores it returns as
+ * {@link DataStore} in this class when the <code>cache.enable</code>
+ * property is true. The cache is bounded to <code>cache.max.weight</code>,
+ * where every entry weighs 1 unless {@link #weigh(Object, Persistent)} is
+ * overridden.</p>
+ *
+ * @param <K> the class of keys in the datastore.
+ * @param <T> the class of persistent objects in the datastore.
+ */
+public class CachingDataStore<K, T extends Persistent> extends DataStoreDecorator<K, T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachingDataStore.class);
+
+  /** Maximum total weight of the cached entries */
+  public static final String CACHE_MAX_WEIGHT = "cache.max.weight";
+  public static final String CACHE_MAX_WEIGHT_DEFAULT = "10000";
+
+  /** Time after which an entry is read again from the store, 0 for never */
+  public static final String CACHE_EXPIRE_MILLIS = "cache.expire.millis";
+  public static final String CACHE_EXPIRE_MILLIS_DEFAULT = "0";
+
+  /** Whether keys missing from the store are cached */
+  public static final String CACHE_NEGATIVE = "cache.negative";
+  public static final String CACHE_NEGATIVE_DEFAULT = "true";
+
+  /** Whether puts are buffered until the next flush */
+  public static final String CACHE_WRITE_BEHIND = "cache.write.behind";
+  public static final String CACHE_WRITE_BEHIND_DEFAULT = "false";
+
+  /** Number of buffered keys above which the buffer is written */
+  public static final String CACHE_WRITE_BEHIND_MAX_PENDING = "cache.write.behind.max.pending";
+  public static final String CACHE_WRITE_BEHIND_MAX_PENDING_DEFAULT = "1000";
+
+  private final long maxWeight;
+  private final long expireNanos;
+  private final boolean negativeCaching;
+  private final boolean writeBehind;
+  private final int maxPending;
+
+  /** All fields of the persistent class */
+  private final String[] allFields;
+
+  /** Cached entries in access order, guarded by itself */
+  private final LinkedHashMap<K, Entry<T>> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  /** Incremented by every invalidation, so loads racing with a write are not cached */
+  private long generation;
+  /** Keys written since the last flush, guarded by cache */
+  private Set<K> unflushed = new HashSet<>();
+  /** Whether unknown keys were written since the last flush, guarded by cache */
+  private boolean unflushedAll;
+
+  /** Buffered puts in write-behind mode, guarded by itself */
+  private final LinkedHashMap<K, T> pending = new LinkedHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public CachingDataStore(DataStore<K, T> delegate, Properties properties)
+      throws GoraException {
+    super(delegate);
+    // look the properties up under the class of the actual store
+    DataStore<K, T> store = delegate;
+    while (store instanceof DataStoreDecorator) {
+      store = ((DataStoreDecorator<K, T>) store).getDelegate();
+    }
+    this.maxWeight = Long.parseLong(DataStoreFactory.findProperty(properties, store,
+        CACHE_MAX_WEIGHT, CACHE_MAX_WEIGHT_DEFAULT));
+    this.expireNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(DataStoreFactory
+        .findProperty(properties, store, CACHE_EXPIRE_MILLIS, CACHE_EXPIRE_MILLIS_DEFAULT)));
+    this.negativeCaching = DataStoreFactory.findBooleanProperty(properties, store,
+        CACHE_NEGATIVE, CACHE_NEGATIVE_DEFAULT);
+    this.writeBehind = DataStoreFactory.findBooleanProperty(properties, store,
+        CACHE_WRITE_BEHIND, CACHE_WRITE_BEHIND_DEFAULT);
+    this.maxPending = Integer.parseInt(DataStoreFactory.findProperty(properties, store,
+        CACHE_WRITE_BEHIND_MAX_PENDING, CACHE_WRITE_BEHIND_MAX_PENDING_DEFAULT));
+    List<String> fields = new ArrayList<>();
+    for (Field field : delegate.newPersistent().getSchema().getFields()) {
+      if (!Persistent.DIRTY_BYTES_FIELD_NAME.equalsIgnoreCase(field.name())) {
+        fields.add(field.name());
+      }
+    }
+    this.allFields = fields.toArray(new String[fields.size()]);
+  }
+
+  /**
+   * Returns the weight of an entry, 1 by default. Subclasses may weigh
+   * entries by their size, to bound the memory used by the cache.
+   * @param key the key of the entry.
+   * @param value the cached record, or null for a missing key.
+   * @return the weight of the entry, at least 0.
+   */
+  protected long weigh(K key, T value) {
+    return 1;
+  }
+
+  public boolean isWriteBehind() {
+    return writeBehind;
+  }
+
+  /** @return the number of reads served by the cache. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** @return the number of reads sent to the store. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** @return the number of entries evicted to stay within the maximum weight. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** @return the number of cached entries. */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /** @return the number of buffered puts, in write-behind mode. */
+  public int getPendingCount() {
+    synchronized (pending) {
+      return pending.size();
+    }
+  }
+
+  /**
+   * Drops every cached entry. Buffered puts are kept.
+   */
+  public void invalidateAll() {
+    synchronized (cache) {
+      cache.clear();
+      weight = 0;
+      generation++;
+    }
+  }
+
+  /**
+   * Drops the cached entry of a key.
+   * @param key the key to invalidate.
+   */
+  public void invalidate(K key) {
+    synchronized (cache) {
+      Entry<T> entry = cache.remove(key);
+      if (entry != null) {
+        weight -= entry.weight;
+      }
+      generation++;
+    }
+  }
+
+  @Override
+  public void createSchema() throws GoraException {
+    delegate.createSchema();
+  }
+
+  @Override
+  public void deleteSchema() throws GoraException {
+    clearPending();
+    invalidateAll();
+    delegate.deleteSchema();
+  }
+
+  @Override
+  public void truncateSchema() throws GoraException {
+    clearPending();
+    invalidateAll();
+    delegate.truncateSchema();
+  }
+
+  @Override
+  public boolean exists(K key) throws GoraException {
+    if (isPending(key)) {
+      return true;
+    }
+    Entry<T> entry = lookup(key, null);
+    if (entry != null) {
+      hits.increment();
+      return entry.value != null;
+    }
+    misses.increment();
+    long loadGeneration = getGeneration();
+    boolean exists = delegate.exists(key);
+    if (!exists) {
+      cache(key, null, null, loadGeneration);
+    }
+    return exists;
+  }
+
+  @Override
+  public T get(K key) throws GoraException {
+    return get(key, null);
+  }
+
+  @Override
+  public T get(K key, String[] fields) throws GoraException {
+    writePending(key);
+    Entry<T> entry = lookup(key, fields);
+    if (entry != null) {
+      hits.increment();
+      return copy(entry.value, fields);
+    }
+    misses.increment();
+    long loadGeneration = getGeneration();
+    T value = fields == null ? delegate.get(key) : delegate.get(key, fields);
+    cache(key, value, fields, loadGeneration);
+    return value;
+  }
+
+  @Override
+  public void put(K key, T obj) throws GoraException {
+    if (writeBehind) {
+      synchronized (pending) {
+        pending.put(key, merge(pending.get(key), obj));
+        if (pending.size() > maxPending) {
+          writeAllPending();
+        }
+      }
+    } else {
+      delegate.put(key, obj);
+    }
+    invalidateWritten(key);
+  }
+
+  @Override
+  public boolean delete(K key) throws GoraException {
+    removePending(Collections.singleton(key));
+    try {
+      return delegate.delete(key);
+    } finally {
+      invalidateWritten(key);
+    }
+  }
+
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    writePending(keys);
+    Map<K, T> cached = new LinkedHashMap<>();
+    List<K> missing = new ArrayList<>();
+    for (K key : keys) {
+      Entry<T> entry = lookup(key, fields);
+      if (entry == null) {
+        missing.add(key);
+      } else if (entry.value != null) {
+        cached.put(key, copy(entry.value, fields));
+      }
+    }
+    hits.add(keys.size() - missing.size());
+    if (missing.isEmpty()) {
+      return cached;
+    }
+    misses.add(missing.size());
+    long loadGeneration = getGeneration();
+    Map<K, T> loaded = delegate.getAll(missing, fields);
+    for (K key : missing) {
+      cache(key, loaded.get(key), fields, loadGeneration);
+    }
+    Map<K, T> objects = new LinkedHashMap<>();
+    for (K key : keys) {
+      T value = cached.get(key);
+      if (value == null) {
+        value = loaded.get(key);
+      }
+      if (value != null) {
+        objects.put(key, value);
+      }
+    }
+    return objects;
+  }
+
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    if (writeBehind) {
+      for (Map.Entry<K, T> object : objects.entrySet()) {
+        put(object.getKey(), object.getValue());
+      }
+      return;
+    }
+    try {
+      delegate.putAll(objects);
+    } finally {
+      for (K key : objects.keySet()) {
+        invalidateWritten(key);
+      }
+    }
+  }
+
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    removePending(keys);
+    try {
+      return delegate.deleteAll(keys);
+    } finally {
+      for (K key : keys) {
+        invalidateWritten(key);
+      }
+    }
+  }
+
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    Map<K, Boolean> exists = new LinkedHashMap<>();
+    List<K> missing = new ArrayList<>();
+    for (K key : keys) {
+      if (isPending(key)) {
+        exists.put(key, true);
+        continue;
+      }
+      Entry<T> entry = lookup(key, null);
+      if (entry == null) {
+        missing.add(key);
+        exists.put(key, null);
+      } else {
+        exists.put(key, entry.value != null);
+      }
+    }
+    hits.add(keys.size() - missing.size());
+    if (missing.isEmpty()) {
+      return exists;
+    }
+    misses.add(missing.size());
+    long loadGeneration = getGeneration();
+    Map<K, Boolean> loaded = delegate.existsAll(missing);
+    for (K key : missing) {
+      boolean found = Boolean.TRUE.equals(loaded.get(key));
+      if (!found) {
+        cache(key, null, null, loadGeneration);
+      }
+      exists.put(key, found);
+    }
+    return exists;
+  }
+
+  @Override
+  public long deleteByQuery(Query<K, T> query) throws GoraException {
+    writeAllPending();
+    try {
+      return delegate.deleteByQuery(query);
+    } finally {
+      synchronized (cache) {
+        unflushedAll = true;
+        unflushed.clear();
+      }
+      invalidateAll();
+    }
+  }
+
+  @Override
+  public Result<K, T> execute(Query<K, T> query) throws GoraException {
+    writeAllPending();
+    return delegate.execute(query);
+  }
+
+  /**
+   * Writes the buffered puts and flushes the store, then invalidates the
+   * keys written since the last flush, which the store may have served
+   * with their previous rows until now.
+   */
+  @Override
+  public void flush() throws GoraException {
+    writeAllPending();
+    Set<K> written;
+    boolean writtenAll;
+    synchronized (cache) {
+      written = unflushed;
+      writtenAll = unflushedAll;
+      unflushed = new HashSet<>();
+      unflushedAll = false;
+    }
+    try {
+      delegate.flush();
+    } catch (GoraException | RuntimeException e) {
+      // still buffered by the store
+      synchronized (cache) {
+        unflushed.addAll(written);
+        unflushedAll |= writtenAll;
+      }
+      throw e;
+    } finally {
+      if (writtenAll) {
+        invalidateAll();
+      } else {
+        for (K key : written) {
+          invalidate(key);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      writeAllPending();
+    } catch (GoraException e) {
+      LOG.error("Could not write the buffered puts of {} on close", delegate, e);
+    } finally {
+      invalidateAll();
+      delegate.close();
+    }
+  }
+
+  @Override
+  public CompletableFuture<T> getAsync(final K key, final String[] fields) {
+    Entry<T> entry;
+    try {
+      writePending(key);
+      entry = lookup(key, fields);
+    } catch (GoraException e) {
+      return AsyncUtils.failedFuture(e);
+    }
+    if (entry != null) {
+      hits.increment();
+      return CompletableFuture.completedFuture(copy(entry.value, fields));
+    }
+    misses.increment();
+    final long loadGeneration = getGeneration();
+    return super.getAsync(key, fields).thenApply(new Function<T, T>() {
+      @Override
+      public T apply(T value) {
+        cache(key, value, fields, loadGeneration);
+        return value;
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> putAsync(final K key, T obj) {
+    if (writeBehind) {
+      try {
+        put(key, obj);
+        return CompletableFuture.completedFuture(null);
+      } catch (GoraException e) {
+        return AsyncUtils.failedFuture(e);
+      }
+    }
+    return super.putAsync(key, obj).whenComplete(invalidation(key));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(K key) {
+    removePending(Collections.singleton(key));
+    return super.deleteAsync(key).whenComplete(invalidation(key));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> existsAsync(K key) {
+    try {
+      return CompletableFuture.completedFuture(exists(key));
+    } catch (GoraException e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Result<K, T>> executeAsync(Query<K, T> query) {
+    try {
+      writeAllPending();
+    } catch (GoraException e) {
+      return AsyncUtils.failedFuture(e);
+    }
+    return super.executeAsync(query);
+  }
+
+  private <V> BiConsumer<V, Throwable> invalidation(final K key) {
+    return new BiConsumer<V, Throwable>() {
+      @Override
+      public void accept(V value, Throwable t) {
+        invalidateWritten(key);
+      }
+    };
+  }
+
+  /**
+   * Invalidates a key written to the store, and remembers it to invalidate
+   * it again on the next flush. Past the maximum weight of the cache, the
+   * next flush invalidates the whole cache instead.
+   */
+  private void invalidateWritten(K key) {
+    synchronized (cache) {
+      if (!unflushedAll) {
+        unflushed.add(key);
+        if (unflushed.size() > maxWeight) {
+          unflushedAll = true;
+          unflushed.clear();
+        }
+      }
+    }
+    invalidate(key);
+  }
+
+  private long getGeneration() {
+    synchronized (cache) {
+      return generation;
+    }
+  }
+
+  /**
+   * Returns the live entry of a key if it holds the given fields.
+   */
+  private Entry<T> lookup(K key, String[] fields) {
+    synchronized (cache) {
+      Entry<T> entry = cache.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (expireNanos > 0 && System.nanoTime() - entry.created > expireNanos) {
+        cache.remove(key);
+        weight -= entry.weight;
+        return null;
+      }
+      return entry.covers(fields) ? entry : null;
+    }
+  }
+
+  /**
+   * Caches a record read from the store, unless the key was invalidated
+   * since the read started.
+   */
+  private void cache(K key, T value, String[] fields, long loadGeneration) {
+    if (value == null && !negativeCaching) {
+      return;
+    }
+    Set<String> cachedFields = null;
+    if (fields != null && !containsAll(fields, allFields)) {
+      cachedFields = new HashSet<>(Arrays.asList(fields));
+    }
+    Entry<T> entry = new Entry<>(copy(value, fields), cachedFields, weigh(key, value));
+    synchronized (cache) {
+      if (generation != loadGeneration) {
+        return;
+      }
+      Entry<T> previous = cache.put(key, entry);
+      if (previous != null) {
+        weight -= previous.weight;
+      }
+      weight += entry.weight;
+      Iterator<Entry<T>> eldest = cache.values().iterator();
+      while (weight > maxWeight && eldest.hasNext()) {
+        weight -= eldest.next().weight;
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static boolean containsAll(String[] fields, String[] expected) {
+    return new HashSet<>(Arrays.asList(fields)).containsAll(Arrays.asList(expected));
+  }
+
+  /**
+   * Returns a clean deep copy of the given fields of a record, or of all
+   * its fields if fields is null.
+   */
+  @SuppressWarnings("unchecked")
+  private T copy(T value, String[] fields) {
+    if (value == null) {
+      return null;
+    }
+    T copy = (T) value.newInstance();
+    for (String name : fields == null ? allFields : fields) {
+      Field field = value.getSchema().getField(name);
+      if (field != null) {
+        copyField(value, copy, field);
+      }
+    }
+    copy.clearDirty();
+    return copy;
+  }
+
+  /**
+   * Coalesces a put into the one buffered for the same key. Fields dirty
+   * in the new record are taken from it; fields only dirty in the
+   * buffered record keep their buffered value.
+   */
+  @SuppressWarnings("unchecked")
+  private T merge(T buffered, T obj) {
+    T merged = (T) obj.newInstance();
+    for (Field field : obj.getSchema().getFields()) {
+      if (Persistent.DIRTY_BYTES_FIELD_NAME.equalsIgnoreCase(field.name())) {
+        continue;
+      }
+      boolean keepBuffered = buffered != null && buffered.isDirty(field.pos())
+          && !obj.isDirty(field.pos());
+      copyField(keepBuffered ? buffered : obj, merged, field);
+    }
+    merged.clearDirty();
+    for (Field field : obj.getSchema().getFields()) {
+      if (Persistent.DIRTY_BYTES_FIELD_NAME.equalsIgnoreCase(field.name())) {
+        continue;
+      }
+      if (obj.isDirty(field.pos()) || (buffered != null && buffered.isDirty(field.pos()))) {
+        merged.setDirty(field.pos());
+      }
+    }
+    return merged;
+  }
+
+  private static void copyField(Persistent source, Persistent target, Field field) {
+    Object value = ((IndexedRecord) source).get(field.pos());
+    ((IndexedRecord) target).put(field.pos(), PersistentData.get().deepCopy(field.schema(), value));
+  }
+
+  private boolean isPending(K key) {
+    if (!writeBehind) {
+      return false;
+    }
+    synchronized (pending) {
+      return pending.containsKey(key);
+    }
+  }
+
+  private void writePending(K key) throws GoraException {
+    if (writeBehind) {
+      writePending(Collections.singleton(key));
+    }
+  }
+
+  /**
+   * Writes the buffered puts of the given keys to the store. A put stays
+   * buffered until the store accepted it, so a failed write is retried by
+   * the next one.
+   */
+  private void writePending(Collection<K> keys) throws GoraException {
+    if (!writeBehind) {
+      return;
+    }
+    synchronized (pending) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      for (K key : keys) {
+        T value = pending.get(key);
+        if (value != null) {
+          delegate.put(key, value);
+          pending.remove(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes all buffered puts to the store, in the order of their first put.
+   * They stay buffered if the store fails to write them.
+   */
+  private void writeAllPending() throws GoraException {
+    if (!writeBehind) {
+      return;
+    }
+    synchronized (pending) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      delegate.putAll(new LinkedHashMap<>(pending));
+      pending.clear();
+    }
+  }
+
+  private void removePending(Collection<K> keys) {
+    if (!writeBehind) {
+      return;
+    }
+    synchronized (pending) {
+      pending.keySet().removeAll(keys);
+    }
+  }
+
+  private void clearPending() {
+    synchronized (pending) {
+      pending.clear();
+    }
+  }
+
+  /**
+   * A cached record, or a cached miss if the value is null.
+   */
+  private static class Entry<T> {
+
+    final T value;
+    /** Fields the value was read with, null for all of them */
+    final Set<String> fields;
+    final long weight;
+    final long created = System.nanoTime();
+
+    Entry(T value, Set<String> fields, long weight) {
+      this.value = value;
+      this.fields = fields;
+      this.weight = weight;
+    }
+
+    boolean covers(String[] requested) {
+      if (value == null || fields == null) {
+        return true;
+      }
+      return requested != null && fields.containsAll(Arrays.asList(requested));
+    }
+  }
+}
@@ -0,0 +1,578 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.persistency.Persistent;
+
+/**
+ * Compiles a {@link Filter} tree into a {@link CompiledFilter} for the
+ * schema of the persistent class, so that rows can be filtered without
+ * resolving field names or converting operands again for every row.
+ *
+ * <p>{@link SingleFieldValueFilter} and {@link MapFieldValueFilter} support
+ * every {@link FilterOp}. Operands are converted once to the type of the
+ * field: strings compare as {@link Utf8}, in byte order; integral fields
+ * compare as long, unless an operand is a floating point number, and
+ * floating point fields as double; bytes compare as unsigned bytes and
+ * enums by symbol order. Other types only support EQUALS and NOT_EQUALS.
+ * {@link FilterList} children are compiled recursively and evaluated with
+ * the same semantics as {@link FilterList#filter(Object, org.apache.gora.persistency.impl.PersistentBase)},
+ * stopping at the first child deciding the result. Other filters are
+ * evaluated as they are.</p>
+ *
+ * <p>The compiled filter is a snapshot: changes to the filter after
+ * compilation are not seen by it.</p>
+ */
+public final class FilterCompiler {
+
+  private FilterCompiler() {
+  }
+
+  /**
+   * Compiles a filter.
+   * @param filter the filter to compile.
+   * @param schema the schema of the persistent objects to filter.
+   * @return the compiled filter.
+   * @throws IllegalArgumentException if the filter refers to a field which
+   * is not in the schema, or an operation or operand the field does not
+   * support.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public static <K, T extends Persistent> CompiledFilter<K, T> compile(
+      Filter<K, T> filter, Schema schema) {
+    if (filter instanceof SingleFieldValueFilter) {
+      SingleFieldValueFilter fieldFilter = (SingleFieldValueFilter) filter;
+      Field field = getField(schema, fieldFilter.getFieldName());
+      return new FieldFilter<>(field.pos(), newMatcher(fieldFilter.getFilterOp(),
+          fieldFilter.getOperands(), field.schema()), fieldFilter.isFilterIfMissing());
+    } else if (filter instanceof MapFieldValueFilter) {
+      MapFieldValueFilter mapFilter = (MapFieldValueFilter) filter;
+      Field field = getField(schema, mapFilter.getFieldName());
+      Schema mapSchema = getNonNullSchema(field.schema());
+      if (mapSchema.getType() != Type.MAP) {
+        throw new IllegalArgumentException("Field " + field.name() + " is not a map");
+      }
+      return new MapEntryFilter<>(field.pos(), mapFilter.getMapKey(),
+          newMatcher(mapFilter.getFilterOp(), mapFilter.getOperands(), mapSchema.getValueType()),
+          mapFilter.isFilterIfMissing());
+    } else if (filter instanceof FilterList) {
+      FilterList filterList = (FilterList) filter;
+      List<Filter<K, T>> filters = filterList.getFilters();
+      CompiledFilter<K, T>[] compiled = new CompiledFilter[filters.size()];
+      for (int i = 0; i < compiled.length; i++) {
+        compiled[i] = compile(filters.get(i), schema);
+      }
+      return new ListFilter<>(filterList.getOperator() == FilterList.Operator.MUST_PASS_ALL,
+          compiled);
+    } else if (filter == null) {
+      throw new IllegalArgumentException("Filter is null");
+    }
+    return new UncompiledFilter<>(filter);
+  }
+
+  private static Field getField(Schema schema, String fieldName) {
+    Field field = schema.getField(fieldName);
+    if (field == null) {
+      throw new IllegalArgumentException("Field " + fieldName + " does not exist in "
+          + schema.getFullName());
+    }
+    return field;
+  }
+
+  /**
+   * Returns the only non null branch of a union, or the schema itself.
+   */
+  private static Schema getNonNullSchema(Schema schema) {
+    if (schema.getType() != Type.UNION) {
+      return schema;
+    }
+    Schema nonNull = null;
+    for (Schema branch : schema.getTypes()) {
+      if (branch.getType() != Type.NULL) {
+        if (nonNull != null) {
+          return schema;
+        }
+        nonNull = branch;
+      }
+    }
+    return nonNull == null ? schema : nonNull;
+  }
+
+  private static Matcher newMatcher(FilterOp filterOp, List<Object> rawOperands,
+      Schema schema) {
+    if (filterOp == null) {
+      throw new IllegalArgumentException("Filter operation is null");
+    }
+    if (rawOperands.isEmpty()) {
+      throw new IllegalArgumentException(filterOp + " needs an operand");
+    }
+    Comparison comparison = newComparison(getNonNullSchema(schema), rawOperands);
+    if (!comparison.isOrdered() && filterOp != FilterOp.EQUALS
+        && filterOp != FilterOp.NOT_EQUALS) {
+      throw new IllegalArgumentException(filterOp + " is not supported for " + schema);
+    }
+    Object[] operands = new Object[rawOperands.size()];
+    for (int i = 0; i < operands.length; i++) {
+      operands[i] = comparison.convert(rawOperands.get(i));
+    }
+    switch (filterOp) {
+    case EQUALS:
+      return new InMatcher(comparison, operands, true);
+    case NOT_EQUALS:
+      return new InMatcher(comparison, operands, false);
+    case LESS:
+      return new RangeMatcher(comparison, null, false, operands[0], false);
+    case LESS_OR_EQUAL:
+      return new RangeMatcher(comparison, null, false, operands[0], true);
+    case GREATER:
+      return new RangeMatcher(comparison, operands[0], false, null, false);
+    case GREATER_OR_EQUAL:
+      return new RangeMatcher(comparison, operands[0], true, null, false);
+    case BETWEEN:
+      if (operands.length < 2) {
+        throw new IllegalArgumentException(filterOp + " needs two operands");
+      }
+      return new RangeMatcher(comparison, operands[0], true, operands[1], true);
+    case STARTS_WITH:
+      if (!(comparison instanceof BytesComparison)) {
+        throw new IllegalArgumentException(filterOp + " is not supported for " + schema);
+      }
+      return new PrefixMatcher((BytesComparison) comparison, operands);
+    default:
+      throw new IllegalStateException(filterOp + " not yet implemented!");
+    }
+  }
+
+  private static Comparison newComparison(Schema schema, List<Object> operands) {
+    switch (schema.getType()) {
+    case STRING:
+      return new Utf8Comparison();
+    case BYTES:
+    case FIXED:
+      return new ByteBufferComparison();
+    case INT:
+    case LONG:
+      for (Object operand : operands) {
+        if (operand instanceof Float || operand instanceof Double) {
+          return new DoubleComparison();
+        }
+      }
+      return new LongComparison();
+    case FLOAT:
+    case DOUBLE:
+      return new DoubleComparison();
+    case BOOLEAN:
+      return new BooleanComparison();
+    case ENUM:
+      return new EnumComparison(schema);
+    default:
+      return new EqualityComparison();
+    }
+  }
+
+  /** Tests a field value against the compiled operands */
+  private interface Matcher {
+    boolean matches(Object value);
+  }
+
+  /**
+   * Converts operands to the representation of a type and compares values
+   * of the type to them.
+   */
+  private abstract static class Comparison {
+
+    abstract Object convert(Object operand);
+
+    /** Compares a field value to a converted operand */
+    abstract int compare(Object value, Object operand);
+
+    boolean equals(Object value, Object operand) {
+      return compare(value, operand) == 0;
+    }
+
+    boolean isOrdered() {
+      return true;
+    }
+  }
+
+  private static class EqualityComparison extends Comparison {
+
+    @Override
+    Object convert(Object operand) {
+      return operand;
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    boolean equals(Object value, Object operand) {
+      return operand.equals(value);
+    }
+
+    @Override
+    boolean isOrdered() {
+      return false;
+    }
+  }
+
+  private static class LongComparison extends Comparison {
+
+    @Override
+    Object convert(Object operand) {
+      if (operand instanceof Number) {
+        return ((Number) operand).longValue();
+      }
+      return Long.parseLong(operand.toString());
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      return Long.compare(((Number) value).longValue(), (Long) operand);
+    }
+  }
+
+  private static class DoubleComparison extends Comparison {
+
+    @Override
+    Object convert(Object operand) {
+      if (operand instanceof Number) {
+        return ((Number) operand).doubleValue();
+      }
+      return Double.parseDouble(operand.toString());
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      return Double.compare(((Number) value).doubleValue(), (Double) operand);
+    }
+  }
+
+  private static class BooleanComparison extends Comparison {
+
+    @Override
+    Object convert(Object operand) {
+      if (operand instanceof Boolean) {
+        return operand;
+      }
+      return Boolean.parseBoolean(operand.toString());
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      return Boolean.compare((Boolean) value, (Boolean) operand);
+    }
+  }
+
+  private static class EnumComparison extends Comparison {
+
+    private final Schema schema;
+
+    EnumComparison(Schema schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    Object convert(Object operand) {
+      return schema.getEnumOrdinal(operand.toString());
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      return Integer.compare(schema.getEnumOrdinal(value.toString()), (Integer) operand);
+    }
+  }
+
+  /** Comparisons of byte sequences, which also support prefixes */
+  private abstract static class BytesComparison extends Comparison {
+
+    abstract boolean startsWith(Object value, Object prefix);
+
+    static int compareBytes(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int length = Math.min(l1, l2);
+      for (int i = 0; i < length; i++) {
+        int diff = (b1[s1 + i] & 0xff) - (b2[s2 + i] & 0xff);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+      return l1 - l2;
+    }
+  }
+
+  private static class Utf8Comparison extends BytesComparison {
+
+    @Override
+    Object convert(Object operand) {
+      return toUtf8(operand);
+    }
+
+    private static Utf8 toUtf8(Object value) {
+      return value instanceof Utf8 ? (Utf8) value : new Utf8(value.toString());
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      return toUtf8(value).compareTo((Utf8) operand);
+    }
+
+    @Override
+    boolean startsWith(Object value, Object prefix) {
+      Utf8 utf8 = toUtf8(value);
+      Utf8 utf8Prefix = (Utf8) prefix;
+      return utf8.getByteLength() >= utf8Prefix.getByteLength()
+          && compareBytes(utf8.getBytes(), 0, utf8Prefix.getByteLength(),
+              utf8Prefix.getBytes(), 0, utf8Prefix.getByteLength()) == 0;
+    }
+  }
+
+  private static class ByteBufferComparison extends BytesComparison {
+
+    @Override
+    Object convert(Object operand) {
+      if (operand instanceof ByteBuffer) {
+        return operand;
+      } else if (operand instanceof byte[]) {
+        return ByteBuffer.wrap((byte[]) operand);
+      } else if (operand instanceof GenericFixed) {
+        return ByteBuffer.wrap(((GenericFixed) operand).bytes());
+      }
+      return ByteBuffer.wrap(operand.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer toByteBuffer(Object value) {
+      if (value instanceof GenericFixed) {
+        return ByteBuffer.wrap(((GenericFixed) value).bytes());
+      }
+      return (ByteBuffer) value;
+    }
+
+    @Override
+    int compare(Object value, Object operand) {
+      ByteBuffer b1 = toByteBuffer(value);
+      ByteBuffer b2 = (ByteBuffer) operand;
+      if (b1.hasArray() && b2.hasArray()) {
+        return compareBytes(b1.array(), b1.arrayOffset() + b1.position(), b1.remaining(),
+            b2.array(), b2.arrayOffset() + b2.position(), b2.remaining());
+      }
+      int length = Math.min(b1.remaining(), b2.remaining());
+      for (int i = 0; i < length; i++) {
+        int diff = (b1.get(b1.position() + i) & 0xff) - (b2.get(b2.position() + i) & 0xff);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+      return b1.remaining() - b2.remaining();
+    }
+
+    @Override
+    boolean startsWith(Object value, Object prefix) {
+      ByteBuffer buffer = toByteBuffer(value);
+      ByteBuffer bufferPrefix = (ByteBuffer) prefix;
+      if (buffer.remaining() < bufferPrefix.remaining()) {
+        return false;
+      }
+      for (int i = 0; i < bufferPrefix.remaining(); i++) {
+        if (buffer.get(buffer.position() + i) != bufferPrefix.get(bufferPrefix.position() + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** EQUALS or NOT_EQUALS any of the operands */
+  private static class InMatcher implements Matcher {
+
+    private final Comparison comparison;
+    private final Object[] operands;
+    private final boolean in;
+
+    InMatcher(Comparison comparison, Object[] operands, boolean in) {
+      this.comparison = comparison;
+      this.operands = operands;
+      this.in = in;
+    }
+
+    @Override
+    public boolean matches(Object value) {
+      for (Object operand : operands) {
+        if (comparison.equals(value, operand)) {
+          return in;
+        }
+      }
+      return !in;
+    }
+  }
+
+  /** Range with optional lower and upper bounds */
+  private static class RangeMatcher implements Matcher {
+
+    private final Comparison comparison;
+    private final Object lower;
+    private final boolean lowerInclusive;
+    private final Object upper;
+    private final boolean upperInclusive;
+
+    RangeMatcher(Comparison comparison, Object lower, boolean lowerInclusive,
+        Object upper, boolean upperInclusive) {
+      this.comparison = comparison;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    public boolean matches(Object value) {
+      if (lower != null) {
+        int cmp = comparison.compare(value, lower);
+        if (cmp < 0 || (cmp == 0 && !lowerInclusive)) {
+          return false;
+        }
+      }
+      if (upper != null) {
+        int cmp = comparison.compare(value, upper);
+        if (cmp > 0 || (cmp == 0 && !upperInclusive)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class PrefixMatcher implements Matcher {
+
+    private final BytesComparison comparison;
+    private final Object[] prefixes;
+
+    PrefixMatcher(BytesComparison comparison, Object[] prefixes) {
+      this.comparison = comparison;
+      this.prefixes = prefixes;
+    }
+
+    @Override
+    public boolean matches(Object value) {
+      for (Object prefix : prefixes) {
+        if (comparison.startsWith(value, prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class FieldFilter<K, T extends Persistent> implements CompiledFilter<K, T> {
+
+    private final int fieldIndex;
+    private final Matcher matcher;
+    private final boolean filterIfMissing;
+
+    FieldFilter(int fieldIndex, Matcher matcher, boolean filterIfMissing) {
+      this.fieldIndex = fieldIndex;
+      this.matcher = matcher;
+      this.filterIfMissing = filterIfMissing;
+    }
+
+    @Override
+    public boolean filter(K key, T persistent) {
+      Object value = ((IndexedRecord) persistent).get(fieldIndex);
+      if (value == null) {
+        return filterIfMissing;
+      }
+      return !matcher.matches(value);
+    }
+  }
+
+  private static class MapEntryFilter<K, T extends Persistent> implements CompiledFilter<K, T> {
+
+    private final int fieldIndex;
+    private final Utf8 mapKey;
+    private final Matcher matcher;
+    private final boolean filterIfMissing;
+
+    MapEntryFilter(int fieldIndex, Utf8 mapKey, Matcher matcher, boolean filterIfMissing) {
+      this.fieldIndex = fieldIndex;
+      this.mapKey = mapKey;
+      this.matcher = matcher;
+      this.filterIfMissing = filterIfMissing;
+    }
+
+    @Override
+    public boolean filter(K key, T persistent) {
+      Map<?, ?> map = (Map<?, ?>) ((IndexedRecord) persistent).get(fieldIndex);
+      if (map == null) {
+        return filterIfMissing;
+      }
+      Object value = map.get(mapKey);
+      if (value == null) {
+        return filterIfMissing;
+      }
+      return !matcher.matches(value);
+    }
+  }
+
+  private static class ListFilter<K, T extends Persistent> implements CompiledFilter<K, T> {
+
+    private final boolean mustPassAll;
+    private final CompiledFilter<K, T>[] filters;
+
+    ListFilter(boolean mustPassAll, CompiledFilter<K, T>[] filters) {
+      this.mustPassAll = mustPassAll;
+      this.filters = filters;
+    }
+
+    @Override
+    public boolean filter(K key, T persistent) {
+      // mirrors FilterList#filter()
+      for (CompiledFilter<K, T> filter : filters) {
+        if (filter.filter(key, persistent) != mustPassAll) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class UncompiledFilter<K, T extends Persistent> implements CompiledFilter<K, T> {
+
+    private final Filter<K, T> filter;
+
+    UncompiledFilter(Filter<K, T> filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    public boolean filter(K key, T persistent) {
+      return filter.filter(key, persistent);
+    }
+  }
+}
@@ -18,14 +18,22 @@
 package org.apache.gora.filter;
 
 /**
- * Defines a set of common filter compare operations.
- * TODO N.B. Currently only EQUALS and NOT_EQUALS are implemented.
+ * Defines a set of common filter compare operations. Values are compared
+ * to the operands according to the type of the field, see
+ * {@link FilterCompiler}. Stores without a remote equivalent of an
+ * operation evaluate it locally.
  */
 public enum FilterOp {
+  /** Equal to any of the operands */
   EQUALS,
+  /** Equal to none of the operands */
   NOT_EQUALS,
   LESS,
   LESS_OR_EQUAL,
   GREATER,
   GREATER_OR_EQUAL,
+  /** Between the first and the second operand, both inclusive */
+  BETWEEN,
+  /** Starts with any of the operands, for strings and bytes */
+  STARTS_WITH,
 }
@@ -29,7 +29,6 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * A filter that checks for a single field in the persistent.
@@ -100,29 +99,13 @@ public class MapFieldValueFilter<K, T extends PersistentBase> implements Filter<
     filterIfMissing = in.readBoolean();
   }
 
+  /**
+   * Evaluates the filter on a single row. Results should use a filter
+   * compiled once by {@link FilterCompiler} instead.
+   */
   @Override
   public boolean filter(K key, T persistent) {
-    int fieldIndex = persistent.getSchema().getField(fieldName).pos();
-    @SuppressWarnings("unchecked")
-    Map<Utf8, ?> fieldValue = (Map<Utf8, ?>) persistent.get(fieldIndex);
-    if (fieldValue == null) {
-      return filterIfMissing;
-    }
-    Object value = fieldValue.get(mapKey);
-    Object operand = operands.get(0);
-    if (value == null) {
-      return filterIfMissing;
-    }
-    if (filterOp.equals(FilterOp.EQUALS)) {
-      boolean equals = value.equals(operand);
-      return !equals;
-    } else if (filterOp.equals(FilterOp.NOT_EQUALS)) {
-      boolean equals = value.equals(operand);
-      return equals;
-    } else {
-      //TODO Currently only EQUALS and NOT_EQUALS are implemented. 
-      throw new IllegalStateException(filterOp + " not yet implemented!");
-    }
+    return FilterCompiler.compile(this, persistent.getSchema()).filter(key, persistent);
   }
 
   public String getFieldName() {
@@ -96,25 +96,13 @@ public class SingleFieldValueFilter<K, T extends PersistentBase> implements Filt
     filterIfMissing = in.readBoolean();
   }
 
+  /**
+   * Evaluates the filter on a single row. Results should use a filter
+   * compiled once by {@link FilterCompiler} instead.
+   */
   @Override
   public boolean filter(K key, T persistent) {
-    //.getIndexNamed(fieldName); throws org.apache.avro.AvroRuntimeException: Not a union:
-    int fieldIndex = persistent.getSchema().getField(fieldName).pos();
-    Object fieldValue = persistent.get(fieldIndex);
-    Object operand = operands.get(0);
-    if (fieldValue == null) {
-      return filterIfMissing;
-    }
-    if (filterOp.equals(FilterOp.EQUALS)) {
-      boolean equals = operand.equals(fieldValue);
-      return !equals;
-    } else if (filterOp.equals(FilterOp.NOT_EQUALS)) {
-      boolean equals = operand.equals(fieldValue);
-      return equals;
-      //TODO Currently only EQUALS and NOT_EQUALS are implemented. 
-    } else {
-      throw new IllegalStateException(filterOp + " not yet implemented!");
-    }
+    return FilterCompiler.compile(this, persistent.getSchema()).filter(key, persistent);
   }
 
   public String getFieldName() {
@@ -18,10 +18,12 @@
 
 package org.apache.gora.flink;
 
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
 import org.apache.flink.api.common.typeutils.base.ByteValueSerializer;
 import org.apache.flink.api.common.typeutils.base.TypeSerializerSingleton;
-import org.apache.flink.api.java.typeutils.runtime.DataInputViewStream;
-import org.apache.flink.api.java.typeutils.runtime.DataOutputViewStream;
 import org.apache.flink.core.memory.DataInputView;
 import org.apache.flink.core.memory.DataOutputView;
 import org.apache.gora.mapreduce.PersistentDeserializer;
@@ -29,11 +31,19 @@ import org.apache.gora.mapreduce.PersistentSerializer;
 import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.util.AvroUtils;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Custom Serializer extends TypeSerializer written to serialize and deserialize Gora data beans.
  *
+ * <p>The serializer keeps its Avro encoder, decoders and streams between the
+ * records, so {@link #duplicate()} returns a new instance for every thread.
+ * {@link #copy(DataInputView, DataOutputView)} copies the bytes of a record
+ * while skipping over it, without decoding it.</p>
+ *
  * @param <T> Persistent record type.
  */
 public class PersistentTypeSerializer<T extends PersistentBase> extends TypeSerializerSingleton<T> {
@@ -41,10 +51,24 @@ public class PersistentTypeSerializer<T extends PersistentBase> extends TypeSeri
   private static final long serialVersionUID = 1L;
   private Class<T> persistentClass;
 
+  private transient PersistentSerializer serializer;
+  private transient PersistentDeserializer deserializer;
+  private transient PersistentDeserializer reusingDeserializer;
+  private transient OutputViewStream outputStream;
+  private transient InputViewStream inputStream;
+  private transient BinaryDecoder copyDecoder;
+  private transient Schema schema;
+  private transient int fieldsCount;
+
   public PersistentTypeSerializer(Class<T> persistentClass) {
     this.persistentClass = persistentClass;
   }
 
+  @Override
+  public PersistentTypeSerializer<T> duplicate() {
+    return new PersistentTypeSerializer<>(persistentClass);
+  }
+
   public boolean isImmutableType() {
     return false;
   }
@@ -66,44 +90,73 @@ public class PersistentTypeSerializer<T extends PersistentBase> extends TypeSeri
   }
 
   public void serialize(T record, DataOutputView target) throws IOException {
-    PersistentSerializer serializer = new PersistentSerializer();
-    DataOutputViewStream outViewWrapper = new DataOutputViewStream(target);
+    if (serializer == null) {
+      outputStream = new OutputViewStream();
+      serializer = new PersistentSerializer();
+      serializer.open(outputStream);
+    }
+    outputStream.target = target;
     try {
-      serializer.open(outViewWrapper);
       serializer.serialize(record);
     } finally {
-      serializer.close();
-      outViewWrapper.close();
+      outputStream.target = null;
     }
   }
 
   public T deserialize(DataInputView source) throws IOException {
-    PersistentDeserializer deserializer = new PersistentDeserializer(persistentClass, false);
-    DataInputViewStream inViewWrapper = new DataInputViewStream(source);
-    try {
-      deserializer.open(inViewWrapper);
-      return (T) deserializer.deserialize(null);
-    } finally {
-      deserializer.close();
-      inViewWrapper.close();
+    if (deserializer == null) {
+      deserializer = new PersistentDeserializer(persistentClass, false);
+      deserializer.open(getInputStream());
     }
+    return deserialize(deserializer, null, source);
   }
 
   public T deserialize(T reuse, DataInputView source) throws IOException {
-    PersistentDeserializer deserializer = new PersistentDeserializer(persistentClass, true);
-    DataInputViewStream inViewWrapper = new DataInputViewStream(source);
+    if (reusingDeserializer == null) {
+      reusingDeserializer = new PersistentDeserializer(persistentClass, true);
+      reusingDeserializer.open(getInputStream());
+    }
+    return deserialize(reusingDeserializer, reuse, source);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T deserialize(PersistentDeserializer deserializer, T reuse, DataInputView source)
+      throws IOException {
+    inputStream.source = source;
     try {
-      deserializer.open(inViewWrapper);
       return (T) deserializer.deserialize(reuse);
     } finally {
-      deserializer.close();
-      inViewWrapper.close();
+      inputStream.source = null;
     }
   }
 
+  private InputViewStream getInputStream() {
+    if (inputStream == null) {
+      inputStream = new InputViewStream();
+    }
+    return inputStream;
+  }
+
   public void copy(DataInputView source, DataOutputView target) throws IOException {
-    T record = this.deserialize(source);
-    this.serialize(record, target);
+    if (copyDecoder == null) {
+      try {
+        schema = AvroUtils.getSchema(persistentClass);
+        fieldsCount = persistentClass.getDeclaredConstructor().newInstance().getFieldsCount();
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+      copyDecoder = DecoderFactory.get().directBinaryDecoder(getInputStream(), null);
+    }
+    // every byte read while skipping the record is written to the target
+    inputStream.source = source;
+    inputStream.copy = target;
+    try {
+      GenericDatumReader.skip(schema, copyDecoder);
+      copyDecoder.skipFixed(fieldsCount);
+    } finally {
+      inputStream.source = null;
+      inputStream.copy = null;
+    }
   }
 
   public boolean canEqual(Object obj) {
@@ -114,4 +167,66 @@ public class PersistentTypeSerializer<T extends PersistentBase> extends TypeSeri
     return super.isCompatibleSerializationFormatIdentifier(identifier) ||
             identifier.equals(ByteValueSerializer.class.getCanonicalName());
   }
-}
\ No newline at end of file
+
+  /**
+   * An {@link OutputStream} writing to the current {@link DataOutputView}.
+   */
+  private static class OutputViewStream extends OutputStream {
+    private DataOutputView target;
+
+    @Override
+    public void write(int b) throws IOException {
+      target.writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      target.write(b, off, len);
+    }
+  }
+
+  /**
+   * An {@link InputStream} reading from the current {@link DataInputView},
+   * and writing what it reads to a {@link DataOutputView} when copying.
+   */
+  private static class InputViewStream extends InputStream {
+    private DataInputView source;
+    private DataOutputView copy;
+    private byte[] skipBuffer;
+
+    @Override
+    public int read() throws IOException {
+      int b;
+      try {
+        b = source.readUnsignedByte();
+      } catch (EOFException e) {
+        return -1;
+      }
+      if (copy != null) {
+        copy.writeByte(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = source.read(b, off, len);
+      if (read > 0 && copy != null) {
+        copy.write(b, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (copy == null) {
+        return source.skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+      }
+      if (skipBuffer == null) {
+        skipBuffer = new byte[512];
+      }
+      int read = read(skipBuffer, 0, (int) Math.min(n, skipBuffer.length));
+      return Math.max(read, 0);
+    }
+  }
+}
@@ -21,12 +21,16 @@ package org.apache.gora.mapreduce;
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.avro.util.Utf8;
+import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.util.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.RawComparator;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
@@ -60,9 +64,54 @@ public class GoraMapReduceUtils {
         conf.getStrings("io.serializations"),
         "org.apache.hadoop.io.serializer.WritableSerialization",
         StringSerialization.class.getCanonicalName(),
+        Utf8Serialization.class.getCanonicalName(),
         serializationClass); 
     conf.setStrings("io.serializations", serializations);
   }  
+
+  /**
+   * Sets the sort comparator of the job to the {@link RawComparator} of the
+   * map output key class, if it is a {@link PersistentBase}, {@link String}
+   * or {@link Utf8}: {@link PersistentComparator}, {@link StringComparator}
+   * or {@link Utf8Comparator}. A comparator set by the user is kept.
+   * 
+   * @param job the job to set the comparator for
+   */
+  public static void setSortComparator(Job job) {
+    Configuration conf = job.getConfiguration();
+    String current = conf.get(MRJobConfig.KEY_COMPARATOR);
+    if (current != null && !isRawComparator(current)) {
+      return;
+    }
+    Class<?> keyClass = conf.getClass(MRJobConfig.MAP_OUTPUT_KEY_CLASS, null);
+    if (keyClass == null) {
+      return;
+    }
+    Class<? extends RawComparator<?>> comparatorClass = getRawComparatorClass(keyClass);
+    if (comparatorClass != null) {
+      job.setSortComparatorClass(comparatorClass);
+    } else if (current != null) {
+      // the key class changed since a comparator was set
+      conf.unset(MRJobConfig.KEY_COMPARATOR);
+    }
+  }
+
+  private static boolean isRawComparator(String comparatorClass) {
+    return comparatorClass.equals(PersistentComparator.class.getName())
+        || comparatorClass.equals(StringComparator.class.getName())
+        || comparatorClass.equals(Utf8Comparator.class.getName());
+  }
+
+  private static Class<? extends RawComparator<?>> getRawComparatorClass(Class<?> keyClass) {
+    if (PersistentBase.class.isAssignableFrom(keyClass)) {
+      return PersistentComparator.class;
+    } else if (String.class.equals(keyClass)) {
+      return StringComparator.class;
+    } else if (Utf8.class.equals(keyClass)) {
+      return Utf8Comparator.class;
+    }
+    return null;
+  }
   
   public static List<InputSplit> getSplits(Configuration conf, String inputPath) 
     throws IOException {
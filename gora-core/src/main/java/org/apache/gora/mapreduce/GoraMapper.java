@@ -70,6 +70,7 @@ public class GoraMapper<K1, V1 extends Persistent, K2, V2> extends Mapper<K1, V1
     job.setMapperClass(mapperClass);
     job.setMapOutputKeyClass(outKeyClass);
     job.setMapOutputValueClass(outValueClass);
+    GoraMapReduceUtils.setSortComparator(job);
 
     if (partitionerClass != null) {
       job.setPartitionerClass(partitionerClass);
@@ -141,6 +142,7 @@ public class GoraMapper<K1, V1 extends Persistent, K2, V2> extends Mapper<K1, V1
     job.setMapperClass(mapperClass);
     job.setMapOutputKeyClass(outKeyClass);
     job.setMapOutputValueClass(outValueClass);
+    GoraMapReduceUtils.setSortComparator(job);
 
     if (partitionerClass != null) {
       job.setPartitionerClass(partitionerClass);
@@ -23,6 +23,7 @@ import java.io.IOException;
 import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
@@ -32,6 +33,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * An adapter for Result to Hadoop RecordReader.
+ *
+ * <p>If the data store {@link DataStore#supportsResultStreaming() streams}
+ * its results, a single result reads the whole split through the cursor of
+ * the store. Otherwise the query is executed by pages of
+ * <i>gora.buffer.read.limit</i> rows, each page starting at the last key of
+ * the previous one. Setting <i>gora.buffer.read.streaming</i> to false
+ * always reads by pages.</p>
  */
 public class GoraRecordReader<K, T extends PersistentBase> extends RecordReader<K,T> {
 
@@ -40,15 +48,27 @@ public class GoraRecordReader<K, T extends PersistentBase> extends RecordReader<
   public static final String BUFFER_LIMIT_READ_NAME = "gora.buffer.read.limit";
   public static final int BUFFER_LIMIT_READ_VALUE = 10000;
 
+  public static final String STREAMING_READ_NAME = "gora.buffer.read.streaming";
+  public static final boolean STREAMING_READ_VALUE = true;
+
   protected Query<K,T> query;
   protected Result<K,T> result;
 
   private GoraRecordCounter counter = new GoraRecordCounter();
 
+  private final boolean streaming;
+
   public GoraRecordReader(Query<K,T> query, TaskAttemptContext context) {
     this.query = query;
 
     Configuration configuration = context.getConfiguration();
+    this.streaming = configuration.getBoolean(STREAMING_READ_NAME, STREAMING_READ_VALUE)
+        && query.getDataStore().supportsResultStreaming();
+    if (streaming) {
+      LOG.info("Streaming the results of {}", query.getDataStore().getClass().getSimpleName());
+      return;
+    }
+
     int recordsMax = configuration.getInt(BUFFER_LIMIT_READ_NAME, BUFFER_LIMIT_READ_VALUE);
 
     // Check if result set will at least contain 2 rows
@@ -94,6 +114,13 @@ public class GoraRecordReader<K, T extends PersistentBase> extends RecordReader<
   @Override
   public boolean nextKeyValue() throws IOException, InterruptedException {
     try{
+      if (streaming) {
+        if (this.result == null) {
+          executeQuery();
+        }
+        return this.result.next();
+      }
+
       if (counter.isModulo()) {
         boolean firstBatch = (this.result == null);
         if (! firstBatch) {
@@ -54,6 +54,7 @@ public class GoraReducer<K1, V1, K2, V2 extends Persistent>
     GoraOutputFormat.setOutput(job, dataStoreClass, keyClass, persistentClass, reuseObjects);
     
     job.setReducerClass(reducerClass);
+    GoraMapReduceUtils.setSortComparator(job);
   }
 
   /**
@@ -97,5 +98,6 @@ public class GoraReducer<K1, V1, K2, V2 extends Persistent>
 
     GoraOutputFormat.setOutput(job, dataStore, reuseObjects);
     job.setReducerClass(reducerClass);
+    GoraMapReduceUtils.setSortComparator(job);
   }
 }
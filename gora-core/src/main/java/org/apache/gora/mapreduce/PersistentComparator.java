@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.mapreduce;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryData;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.util.AvroUtils;
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+
+/**
+ * A {@link RawComparator} for the {@link PersistentBase} keys written by
+ * {@link PersistentSerializer}, comparing their Avro binary encoding with
+ * {@link BinaryData#compare(byte[], int, int, byte[], int, int, Schema)}
+ * instead of deserializing both keys. The order is the one of
+ * {@link PersistentBase#compareTo(org.apache.avro.specific.SpecificRecord)}.
+ *
+ * <p>The schema is the one of the map output key class of the job, set
+ * through {@link #setConf(Configuration)}.</p>
+ */
+public class PersistentComparator implements RawComparator<PersistentBase>, Configurable {
+
+  private Configuration conf;
+  private Schema schema;
+
+  public PersistentComparator() {
+  }
+
+  public PersistentComparator(Schema schema) {
+    this.schema = schema;
+  }
+
+  @Override
+  public Configuration getConf() {
+    return conf;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void setConf(Configuration conf) {
+    this.conf = conf;
+    if (conf == null) {
+      return;
+    }
+    Class<?> keyClass = conf.getClass(MRJobConfig.MAP_OUTPUT_KEY_CLASS,
+        conf.getClass(MRJobConfig.OUTPUT_KEY_CLASS, null));
+    if (keyClass == null || !PersistentBase.class.isAssignableFrom(keyClass)) {
+      throw new IllegalArgumentException("The map output key class is not persistent: "
+          + keyClass);
+    }
+    try {
+      schema = AvroUtils.getSchema((Class<? extends PersistentBase>) keyClass);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot read the schema of " + keyClass, e);
+    }
+  }
+
+  @Override
+  public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    // the dirty bytes written after the record are not read
+    return BinaryData.compare(b1, s1, l1, b2, s2, l2, schema);
+  }
+
+  @Override
+  public int compare(PersistentBase o1, PersistentBase o2) {
+    return o1.compareTo(o2);
+  }
+}
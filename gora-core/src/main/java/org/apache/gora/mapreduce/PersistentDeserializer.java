@@ -19,12 +19,14 @@ package org.apache.gora.mapreduce;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.avro.Schema;
 import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.specific.SpecificDatumReader;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentDatumReader;
 import org.apache.gora.util.AvroUtils;
 import org.apache.hadoop.io.serializer.Deserializer;
 
@@ -45,7 +47,7 @@ public class PersistentDeserializer
     this.reuseObjects = reuseObjects;
     try {
       Schema schema = AvroUtils.getSchema(persistentClass);
-      datumReader = new SpecificDatumReader<PersistentBase>(schema);
+      datumReader = new PersistentDatumReader<PersistentBase>(schema);
 
     } catch (Exception ex) {
       throw new RuntimeException(ex);
@@ -68,10 +70,16 @@ public class PersistentDeserializer
 
   @Override
   public PersistentBase deserialize(PersistentBase persistent) throws IOException {
-    persistent = datumReader.read(reuseObjects ? persistent : null, decoder);
-    byte[] __g__dirty = new byte[persistent.getFieldsCount()];
-    decoder.readFixed(__g__dirty);
-    persistent.setDirtyBytes(java.nio.ByteBuffer.wrap(__g__dirty));
+    boolean reuse = reuseObjects && persistent != null;
+    persistent = datumReader.read(reuse ? persistent : null, decoder);
+    if (reuse) {
+      // the reused maps and arrays were marked dirty when cleared
+      persistent.clearDirty();
+    }
+    // read the dirty bits into the buffer of the record, then apply them
+    ByteBuffer __g__dirty = persistent.getDirtyBytes();
+    decoder.readFixed(__g__dirty.array(), 0, persistent.getFieldsCount());
+    persistent.setDirtyBytes(__g__dirty);
     return persistent;
   }
 }
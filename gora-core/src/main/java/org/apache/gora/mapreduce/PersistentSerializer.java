@@ -20,10 +20,12 @@ package org.apache.gora.mapreduce;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.avro.Schema;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentDatumWriter;
 import org.apache.hadoop.io.serializer.Serializer;
 
 /**
@@ -33,10 +35,11 @@ import org.apache.hadoop.io.serializer.Serializer;
 public class PersistentSerializer implements Serializer<PersistentBase> {
 
   private SpecificDatumWriter<PersistentBase> datumWriter;
+  private Schema schema;
   private BinaryEncoder encoder;
   
   public PersistentSerializer() {
-    this.datumWriter = new SpecificDatumWriter<>();
+    this.datumWriter = new PersistentDatumWriter<>();
   }
   
   @Override
@@ -51,7 +54,7 @@ public class PersistentSerializer implements Serializer<PersistentBase> {
    */
   @Override
   public void open(OutputStream out) throws IOException {
-    encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+    encoder = EncoderFactory.get().directBinaryEncoder(out, encoder);
   }
 
   /**
@@ -62,7 +65,10 @@ public class PersistentSerializer implements Serializer<PersistentBase> {
    */
   @Override
   public void serialize(PersistentBase persistent) throws IOException {
-    datumWriter.setSchema(persistent.getSchema());
+    if (persistent.getSchema() != schema) {
+      schema = persistent.getSchema();
+      datumWriter.setSchema(schema);
+    }
     datumWriter.write(persistent, encoder);
     encoder.writeFixed(persistent.getDirtyBytes().array());
   }
@@ -18,13 +18,19 @@
 package org.apache.gora.mapreduce;
 
 import org.apache.hadoop.io.RawComparator;
-import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
 
+/**
+ * A {@link RawComparator} for the strings written by
+ * {@link StringSerialization}, comparing their UTF-8 bytes without
+ * decoding them.
+ */
 public class StringComparator implements RawComparator<String> {
 
   @Override
   public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
-    return Text.Comparator.compareBytes(b1, s1, l1, b2, s2, l2);
+    return compareStrings(b1, s1, l1, b2, s2, l2);
   }
 
   @Override
@@ -32,4 +38,13 @@ public class StringComparator implements RawComparator<String> {
     return o1.compareTo(o2);
   }
 
+  /**
+   * Compares two strings serialized as a vint length followed by their
+   * UTF-8 bytes, the format of {@link org.apache.hadoop.io.Text}.
+   */
+  static int compareStrings(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    int n1 = WritableUtils.decodeVIntSize(b1[s1]);
+    int n2 = WritableUtils.decodeVIntSize(b2[s2]);
+    return WritableComparator.compareBytes(b1, s1 + n1, l1 - n1, b2, s2 + n2, l2 - n2);
+  }
 }
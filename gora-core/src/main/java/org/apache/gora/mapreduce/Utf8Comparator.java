@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.mapreduce;
+
+import org.apache.avro.util.Utf8;
+import org.apache.hadoop.io.RawComparator;
+
+/**
+ * A {@link RawComparator} for the {@link Utf8} strings written by
+ * {@link Utf8Serialization}, comparing their bytes without decoding them.
+ */
+public class Utf8Comparator implements RawComparator<Utf8> {
+
+  @Override
+  public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    return StringComparator.compareStrings(b1, s1, l1, b2, s2, l2);
+  }
+
+  @Override
+  public int compare(Utf8 o1, Utf8 o2) {
+    return o1.compareTo(o2);
+  }
+}
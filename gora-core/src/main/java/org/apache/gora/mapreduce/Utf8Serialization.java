@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.mapreduce;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.avro.util.Utf8;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.io.serializer.Deserializer;
+import org.apache.hadoop.io.serializer.Serialization;
+import org.apache.hadoop.io.serializer.Serializer;
+
+/**
+ * Serializes {@link Utf8} strings in the format of
+ * {@link StringSerialization}, a vint length followed by the bytes, without
+ * converting them to {@link String}.
+ */
+public class Utf8Serialization implements Serialization<Utf8> {
+
+  @Override
+  public boolean accept(Class<?> c) {
+    return c.equals(Utf8.class);
+  }
+
+  @Override
+  public Deserializer<Utf8> getDeserializer(Class<Utf8> c) {
+    return new Deserializer<Utf8>() {
+      private DataInputStream in;
+
+      @Override
+      public void open(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+      }
+
+      @Override
+      public void close() throws IOException {
+        this.in.close();
+      }
+
+      @Override
+      public Utf8 deserialize(Utf8 utf8) throws IOException {
+        if (utf8 == null) {
+          utf8 = new Utf8();
+        }
+        utf8.setByteLength(WritableUtils.readVInt(in));
+        in.readFully(utf8.getBytes(), 0, utf8.getByteLength());
+        return utf8;
+      }
+    };
+  }
+
+  @Override
+  public Serializer<Utf8> getSerializer(Class<Utf8> c) {
+    return new Serializer<Utf8>() {
+
+      private DataOutputStream out;
+
+      @Override
+      public void close() throws IOException {
+        this.out.close();
+      }
+
+      @Override
+      public void open(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+      }
+
+      @Override
+      public void serialize(Utf8 utf8) throws IOException {
+        WritableUtils.writeVInt(out, utf8.getByteLength());
+        out.write(utf8.getBytes(), 0, utf8.getByteLength());
+      }
+    };
+  }
+}
@@ -20,14 +20,18 @@ package org.apache.gora.memory.store;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.Properties;
 
+import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
+import org.apache.gora.filter.CompiledFilter;
+import org.apache.gora.filter.Filter;
+import org.apache.gora.filter.FilterCompiler;
 import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.query.PartitionQuery;
 import org.apache.gora.query.Query;
@@ -36,19 +40,31 @@ import org.apache.gora.query.impl.PartitionQueryImpl;
 import org.apache.gora.query.impl.QueryBase;
 import org.apache.gora.query.impl.ResultBase;
 import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.impl.DataStoreBase;
-import org.apache.gora.util.AvroUtils;
 import org.apache.gora.util.GoraException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Memory based {@link DataStore} implementation for tests.
+ *
+ * <p>Rows are kept in a table per persistent class, shared by all the
+ * MemStore instances of that class in the JVM, so that the stores created
+ * by the tasks of a job see the rows of each other. A table can be hash
+ * partitioned over several sorted shards with the <code>shards</code>
+ * property, e.g. <code>gora.memstore.shards=8</code>, to reduce the
+ * contention of concurrent writers; it is set by the first store
+ * initialized for a class.</p>
  */
 public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
   
   private static final Logger LOG = LoggerFactory.getLogger(MemStore.class); 
 
+  /** Number of hash partitions of the table of a persistent class */
+  public static final String SHARDS = "shards";
+  public static final String SHARDS_DEFAULT = "1";
+
   public static class MemQuery<K, T extends PersistentBase> extends QueryBase<K, T> {
     public MemQuery() {
       super(null);
@@ -58,15 +74,31 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
     }
   }
 
+  /**
+   * Iterates over the rows of a key range. The query filter is evaluated
+   * on the stored rows, before the requested fields are copied out.
+   */
   public static class MemResult<K, T extends PersistentBase> extends ResultBase<K, T> {
-    private NavigableMap<K, T> map;
-    private Iterator<K> iterator;
+    private final List<NavigableMap<K, T>> maps;
+    private final Iterator<Map.Entry<K, T>> iterator;
+    private final Filter<K, T> filter;
+    private CompiledFilter<K, T> compiledFilter;
+    private final int[] fieldPositions;
+
     public MemResult(DataStore<K, T> dataStore, Query<K, T> query
         , NavigableMap<K, T> map) {
+      this(dataStore, query, Collections.singletonList(map), null);
+    }
+
+    MemResult(DataStore<K, T> dataStore, Query<K, T> query
+        , List<NavigableMap<K, T>> maps, int[] fieldPositions) {
       super(dataStore, query);
-      this.map = map;
-      iterator = map.navigableKeySet().iterator();
+      this.maps = maps;
+      this.iterator = MemTable.iterator(maps);
+      this.filter = query.getFilter();
+      this.fieldPositions = fieldPositions;
     }
+
     //@Override
     public void close() { }
 
@@ -78,29 +110,72 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
     @Override
     protected void clear() {  } //do not clear the object in the store
 
+    @Override
+    protected boolean filter(K key, T persistent) {
+      return false; //already filtered in nextInner()
+    }
+
     @Override
     public boolean nextInner() throws IOException {
-      if(!iterator.hasNext()) {
-        return false;
+      while (iterator.hasNext()) {
+        Map.Entry<K, T> entry = iterator.next();
+        if (filter != null) {
+          if (compiledFilter == null) {
+            compiledFilter = FilterCompiler.compile(filter, entry.getValue().getSchema());
+          }
+          if (compiledFilter.filter(entry.getKey(), entry.getValue())) {
+            continue;
+          }
+        }
+        key = entry.getKey();
+        persistent = project(entry.getValue(), fieldPositions);
+        return true;
       }
-
-      key = iterator.next();
-      persistent = map.get(key);
-
-      return true;
+      return false;
     }
 
     @Override
     public int size() {
-      int totalSize = map.navigableKeySet().size();
+      int totalSize = 0;
+      for (NavigableMap<K, T> map : maps) {
+        totalSize += map.size();
+      }
       int intLimit = (int) this.limit;
       return intLimit > 0 && totalSize > intLimit ? intLimit : totalSize;
     }
   }
 
-  // This map behaves like DB, has to be static and concurrent collection
-  @SuppressWarnings("rawtypes")
-  public static ConcurrentSkipListMap map = new ConcurrentSkipListMap();
+  private MemTable<K, T> table;
+
+  @Override
+  public void initialize(Class<K> keyClass, Class<T> persistentClass,
+      Properties properties) throws GoraException {
+    super.initialize(keyClass, persistentClass, properties);
+    int shards = Integer.parseInt(DataStoreFactory.findProperty(properties, this,
+        SHARDS, SHARDS_DEFAULT));
+    table = MemTable.getTable(persistentClass.getName(), shards);
+    if (table.getNumShards() != shards) {
+      LOG.warn("The MemStore table of {} already exists with {} shard(s)",
+          persistentClass.getName(), table.getNumShards());
+    }
+  }
+
+  /**
+   * Returns the table of the persistent class. Stores which are not
+   * initialized are bound to it on first use.
+   */
+  private MemTable<K, T> getTable() {
+    if (table == null) {
+      String name = "";
+      if (persistentClass != null) {
+        name = persistentClass.getName();
+      } else if (beanFactory != null && beanFactory.getPersistentClass() != null) {
+        name = beanFactory.getPersistentClass().getName();
+      }
+      table = MemTable.getTable(name, Integer.parseInt(SHARDS_DEFAULT));
+    }
+    return table;
+  }
 
   @Override
   public String getSchemaName() {
@@ -109,41 +184,52 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
 
   @Override
   public boolean delete(K key) {
-    return map.remove(key) != null;
+    return getTable().remove(key) != null;
   }
 
+  /**
+   * Deletes the rows of the query range in place. If the query only selects
+   * some of the fields, these are reset to their default values instead.
+   */
   @Override
-  public long deleteByQuery(Query<K, T> query) {
-    try {
-      long deletedRows = 0;
-      Result<K, T> result = query.execute();
-
-      String[] fields = getFieldsToQuery(query.getFields());
-      boolean isAllFields = Arrays.equals(fields, getFields());
-
-      while (result.next()) {
-        if (isAllFields) {
-          if (delete(result.getKey())) {
-            deletedRows++;
-          }
-        } else {
-          ArrayList<String> excludedFields = new ArrayList<>();
-          for (String field : getFields()) {
-            if (!Arrays.asList(fields).contains(field)) {
-              excludedFields.add(field);
-            }
-          }
-          T newClonedObj = getPersistent(result.get(),excludedFields.toArray(new String[excludedFields.size()]));
-          if (delete(result.getKey())) {
-            put(result.getKey(),newClonedObj);
-            deletedRows++;
-          }
+  public long deleteByQuery(Query<K, T> query) throws GoraException {
+    String[] fields = getFieldsToQuery(query.getFields());
+    int[] retainedPositions = null;
+    if (fields.length != getFields().length) {
+      List<String> deletedFields = new ArrayList<>();
+      Collections.addAll(deletedFields, fields);
+      List<String> retainedFields = new ArrayList<>();
+      for (String field : getFields()) {
+        if (!deletedFields.contains(field)) {
+          retainedFields.add(field);
         }
       }
-      return deletedRows;
-    } catch (Exception e) {
-      return 0;
+      retainedPositions = getFieldPositions(
+          retainedFields.toArray(new String[retainedFields.size()]));
+    }
+    CompiledFilter<K, T> filter = null;
+    if (query.getFilter() != null) {
+      filter = FilterCompiler.compile(query.getFilter(),
+          beanFactory.getCachedPersistent().getSchema());
     }
+    long limit = query.getLimit();
+
+    long deletedRows = 0;
+    Iterator<Map.Entry<K, T>> iterator = MemTable.iterator(getRange(query));
+    while (iterator.hasNext() && (limit <= 0 || deletedRows < limit)) {
+      Map.Entry<K, T> entry = iterator.next();
+      if (filter != null && filter.filter(entry.getKey(), entry.getValue())) {
+        continue;
+      }
+      if (retainedPositions == null) {
+        iterator.remove();
+        deletedRows++;
+      } else if (getTable().replace(entry.getKey(), entry.getValue(),
+          project(entry.getValue(), retainedPositions))) {
+        deletedRows++;
+      }
+    }
+    return deletedRows;
   }
 
   /**
@@ -153,74 +239,74 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
    * unless fromInclusive and toInclusive are both true. On the other hand
    * if either or both of fromKey and toKey are null we return no results.
    */
-  @SuppressWarnings("unchecked")
   @Override
   public Result<K, T> execute(Query<K, T> query) throws GoraException {
-    K startKey = query.getStartKey();
-    K endKey = query.getEndKey();
-    if(startKey == null) {
-      if (!map.isEmpty()) {
-        startKey = (K) map.firstKey();
-      }
-    }
-    if(endKey == null) {
-      if (!map.isEmpty()) {
-        endKey = (K) map.lastKey();
-      }
-    }
-
     //check if query.fields is null
     query.setFields(getFieldsToQuery(query.getFields()));
-    NavigableMap<K,T> submap = null;
-    if (startKey != null && endKey != null) {
-      try {
-        submap =  map.subMap(startKey, true, endKey, true);
-      } catch (Exception e) {
-        throw new GoraException(e);
-      }
-    } else {
-      // Empty
-      submap = Collections.emptyNavigableMap() ;
+    int[] fieldPositions = query.getFields().length == getFields().length ? null
+        : getFieldPositions(query.getFields());
+    return new MemResult<>(this, query, getRange(query), fieldPositions);
+  }
+
+  private List<NavigableMap<K, T>> getRange(Query<K, T> query) throws GoraException {
+    try {
+      return getTable().range(query.getStartKey(), query.getEndKey());
+    } catch (Exception e) {
+      throw new GoraException(e);
     }
-    
-    return new MemResult<>(this, query, submap);
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public T get(K key, String[] fields) {
-    T obj = (T) map.get(key);
+    T obj = getTable().get(key);
     if (obj == null) {
       return null;
     }
-    return getPersistent(obj, getFieldsToQuery(fields));
+    return project(obj, getFieldPositions(obj.getSchema(), getFieldsToQuery(fields)));
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public boolean exists(K key) {
-    return map.containsKey(key);
+    return getTable().containsKey(key);
+  }
+
+  private int[] getFieldPositions(String[] fields) {
+    return getFieldPositions(beanFactory.getCachedPersistent().getSchema(), fields);
+  }
+
+  private static int[] getFieldPositions(Schema schema, String[] fields) {
+    int[] positions = new int[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      positions[i] = schema.getField(fields[i]).pos();
+    }
+    return positions;
   }
 
   /**
-   * Returns a clone with exactly the requested fields shallowly copied
+   * Returns a clean record holding copies of the fields at the given
+   * positions of a stored record, or of all its fields if the positions are
+   * null, the other fields keeping their defaults. The stored record is never
+   * handed out, so callers may modify the returned one. The copies share the
+   * strings and lists and maps of strings of the stored record until they are
+   * modified, which is safe as the stored records are copies owned by the
+   * store and are never modified, and duplicate its bytes.
    */
-  private static<T extends PersistentBase> T getPersistent(T obj, String[] fields) {
-    List<Field> otherFields = obj.getSchema().getFields();
-    String[] otherFieldStrings = new String[otherFields.size()];
-    for(int i = 0; i<otherFields.size(); i++ ){
-      otherFieldStrings[i] = otherFields.get(i).name();
-    }
-    if(Arrays.equals(fields, otherFieldStrings)) { 
-      return obj;
-    }
-    T newObj = AvroUtils.deepClonePersistent(obj);
-    newObj.clear();
-    for (String field : fields) {
-      Field otherField = obj.getSchema().getField(field);
-      int index = otherField.pos();
-      newObj.put(index, obj.get(index));
+  @SuppressWarnings("unchecked")
+  private static <T extends PersistentBase> T project(T obj, int[] fieldPositions) {
+    T newObj = (T) obj.newInstance();
+    List<Field> fields = obj.getSchema().getFields();
+    if (fieldPositions == null) {
+      for (Field field : fields) {
+        newObj.put(field.pos(), PersistentBase.PersistentData.get()
+            .copyOnWrite(field.schema(), obj.get(field.pos())));
+      }
+    } else {
+      for (int index : fieldPositions) {
+        newObj.put(index, PersistentBase.PersistentData.get()
+            .copyOnWrite(fields.get(index).schema(), obj.get(index)));
+      }
     }
+    newObj.clearDirty();
     return newObj;
   }
 
@@ -229,10 +315,21 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
     return new MemQuery<>(this);
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Stores a copy of the record, so that the caller may keep modifying it
+   * without changing the stored row or the records already read.
+   */
   @Override
   public void put(K key, T obj) {
-    map.put(key, obj);
+    getTable().put(key, PersistentBase.PersistentData.get().deepCopy(obj.getSchema(), obj));
+  }
+
+  @Override
+  /**
+   * Results iterate over the live table, without copying it
+   */
+  public boolean supportsResultStreaming() {
+    return true;
   }
 
   @Override
@@ -249,6 +346,7 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
 
   @Override
   public void close() {
+    closeAsyncExecutor();
   }
 
   /**
@@ -261,8 +359,8 @@ public class MemStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
 
   @Override
   public void deleteSchema() {
-    if (!map.isEmpty()) {
-      map.clear();
+    if (!getTable().isEmpty()) {
+      getTable().clear();
     }
   }
 
@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.memory.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The rows of one {@link MemStore} schema, hash partitioned over a number
+ * of sorted shards. Point operations only touch the shard of their key,
+ * range scans merge the key ranges of all shards.
+ */
+class MemTable<K, T> {
+
+  /** Tables by schema, shared by the stores of the same persistent class */
+  private static final ConcurrentHashMap<String, MemTable<?, ?>> TABLES =
+      new ConcurrentHashMap<>();
+
+  private final List<ConcurrentSkipListMap<K, T>> shards;
+
+  MemTable(int numShards) {
+    if (numShards < 1) {
+      throw new IllegalArgumentException("Number of shards must be positive: " + numShards);
+    }
+    shards = new ArrayList<>(numShards);
+    for (int i = 0; i < numShards; i++) {
+      shards.add(new ConcurrentSkipListMap<K, T>());
+    }
+  }
+
+  /**
+   * Returns the table of a schema, creating it with the given number of
+   * shards if it does not exist yet.
+   */
+  @SuppressWarnings("unchecked")
+  static <K, T> MemTable<K, T> getTable(String name, int numShards) {
+    MemTable<?, ?> table = TABLES.get(name);
+    if (table == null) {
+      MemTable<?, ?> created = new MemTable<>(numShards);
+      table = TABLES.putIfAbsent(name, created);
+      if (table == null) {
+        table = created;
+      }
+    }
+    return (MemTable<K, T>) table;
+  }
+
+  int getNumShards() {
+    return shards.size();
+  }
+
+  private ConcurrentSkipListMap<K, T> shard(K key) {
+    if (shards.size() == 1) {
+      return shards.get(0);
+    }
+    return shards.get((key.hashCode() & Integer.MAX_VALUE) % shards.size());
+  }
+
+  T get(K key) {
+    return shard(key).get(key);
+  }
+
+  boolean containsKey(K key) {
+    return shard(key).containsKey(key);
+  }
+
+  void put(K key, T value) {
+    shard(key).put(key, value);
+  }
+
+  boolean replace(K key, T oldValue, T newValue) {
+    return shard(key).replace(key, oldValue, newValue);
+  }
+
+  T remove(K key) {
+    return shard(key).remove(key);
+  }
+
+  boolean isEmpty() {
+    for (ConcurrentSkipListMap<K, T> shard : shards) {
+      if (!shard.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  void clear() {
+    for (ConcurrentSkipListMap<K, T> shard : shards) {
+      shard.clear();
+    }
+  }
+
+  /**
+   * Returns live views of the rows between two keys, both inclusive, one
+   * per shard. A null key leaves the range open on that side.
+   * @throws IllegalArgumentException if startKey is greater than endKey.
+   */
+  List<NavigableMap<K, T>> range(K startKey, K endKey) {
+    List<NavigableMap<K, T>> ranges = new ArrayList<>(shards.size());
+    for (ConcurrentSkipListMap<K, T> shard : shards) {
+      if (startKey == null && endKey == null) {
+        ranges.add(shard);
+      } else if (startKey == null) {
+        ranges.add(shard.headMap(endKey, true));
+      } else if (endKey == null) {
+        ranges.add(shard.tailMap(startKey, true));
+      } else {
+        ranges.add(shard.subMap(startKey, true, endKey, true));
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns an iterator over the rows of the given ranges in key order.
+   * Removing through the iterator removes the row from its shard.
+   */
+  static <K, T> Iterator<Map.Entry<K, T>> iterator(List<NavigableMap<K, T>> ranges) {
+    if (ranges.isEmpty()) {
+      return Collections.emptyIterator();
+    }
+    if (ranges.size() == 1) {
+      return ranges.get(0).entrySet().iterator();
+    }
+    return new MergingIterator<>(ranges);
+  }
+
+  /**
+   * Merges the sorted rows of several shards.
+   */
+  private static class MergingIterator<K, T> implements Iterator<Map.Entry<K, T>> {
+
+    private final PriorityQueue<ShardCursor<K, T>> queue;
+    private NavigableMap<K, T> lastRange;
+    private K lastKey;
+
+    MergingIterator(List<NavigableMap<K, T>> ranges) {
+      queue = new PriorityQueue<>(ranges.size());
+      for (NavigableMap<K, T> range : ranges) {
+        ShardCursor<K, T> cursor = new ShardCursor<>(range);
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public Map.Entry<K, T> next() {
+      ShardCursor<K, T> cursor = queue.poll();
+      if (cursor == null) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<K, T> entry = cursor.current;
+      lastRange = cursor.range;
+      lastKey = entry.getKey();
+      if (cursor.advance()) {
+        queue.add(cursor);
+      }
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      if (lastKey == null) {
+        throw new IllegalStateException();
+      }
+      lastRange.remove(lastKey);
+      lastKey = null;
+    }
+  }
+
+  private static class ShardCursor<K, T> implements Comparable<ShardCursor<K, T>> {
+
+    final NavigableMap<K, T> range;
+    final Iterator<Map.Entry<K, T>> iterator;
+    Map.Entry<K, T> current;
+
+    ShardCursor(NavigableMap<K, T> range) {
+      this.range = range;
+      this.iterator = range.entrySet().iterator();
+    }
+
+    boolean advance() {
+      current = iterator.hasNext() ? iterator.next() : null;
+      return current != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public int compareTo(ShardCursor<K, T> other) {
+      return ((Comparable<K>) current.getKey()).compareTo(other.current.getKey());
+    }
+  }
+}
@@ -0,0 +1,273 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * The metrics of one {@link org.apache.gora.store.DataStore} instance,
+ * tagged with the store class and the schema name. Every operation has a
+ * {@link Timer}; flush sizes and rows per {@link org.apache.gora.query.Result}
+ * are {@link Histogram}s.
+ *
+ * <p>The metrics are exposed as read only attributes named
+ * <code>&lt;metric&gt;&lt;statistic&gt;</code>, e.g. <code>getP99Millis</code>
+ * or <code>flushSizeMax</code>, both through {@link #getValues()} and as a
+ * JMX {@link DynamicMBean}.</p>
+ */
+public class DataStoreMetrics implements DynamicMBean {
+
+  public static final String STORE_CLASS = "storeClass";
+  public static final String SCHEMA_NAME = "schemaName";
+  public static final String RESULT_ROWS_PER_SECOND = "resultRowsPerSecond";
+
+  private static final String[] TIMER_STATISTICS =
+      {"Count", "MeanMillis", "MaxMillis", "P50Millis", "P99Millis"};
+  private static final String[] HISTOGRAM_STATISTICS =
+      {"Count", "Mean", "Max", "P50", "P99"};
+
+  private final String storeClass;
+  private final String schemaName;
+
+  public final Timer get = new Timer("get");
+  public final Timer getAll = new Timer("getAll");
+  public final Timer put = new Timer("put");
+  public final Timer putAll = new Timer("putAll");
+  public final Timer delete = new Timer("delete");
+  public final Timer deleteAll = new Timer("deleteAll");
+  public final Timer exists = new Timer("exists");
+  public final Timer existsAll = new Timer("existsAll");
+  public final Timer deleteByQuery = new Timer("deleteByQuery");
+  public final Timer execute = new Timer("execute");
+  public final Timer flush = new Timer("flush");
+  /** Time spent in {@link org.apache.gora.query.Result#next()} */
+  public final Timer resultNext = new Timer("resultNext");
+
+  /** Number of puts and deletes sent by each flush */
+  public final Histogram flushSize = new Histogram("flushSize");
+  /** Number of rows read from each closed result */
+  public final Histogram resultRows = new Histogram("resultRows");
+
+  private final List<Timer> timers;
+  private final List<Histogram> histograms;
+  private final MBeanInfo mBeanInfo;
+
+  public DataStoreMetrics(String storeClass, String schemaName) {
+    this.storeClass = storeClass;
+    this.schemaName = schemaName;
+    List<Timer> timerList = new ArrayList<>();
+    Collections.addAll(timerList, get, getAll, put, putAll, delete, deleteAll, exists,
+        existsAll, deleteByQuery, execute, flush, resultNext);
+    this.timers = Collections.unmodifiableList(timerList);
+    List<Histogram> histogramList = new ArrayList<>();
+    Collections.addAll(histogramList, flushSize, resultRows);
+    this.histograms = Collections.unmodifiableList(histogramList);
+    this.mBeanInfo = createMBeanInfo();
+  }
+
+  public String getStoreClass() {
+    return storeClass;
+  }
+
+  public String getSchemaName() {
+    return schemaName;
+  }
+
+  public List<Timer> getTimers() {
+    return timers;
+  }
+
+  public List<Histogram> getHistograms() {
+    return histograms;
+  }
+
+  /**
+   * Returns the number of rows read per second spent in
+   * {@link org.apache.gora.query.Result#next()}.
+   * @return the iteration throughput, or 0 if no row was read.
+   */
+  public double getResultRowsPerSecond() {
+    long nanos = resultNext.getSum();
+    return nanos == 0 ? 0 : resultNext.getCount() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+  }
+
+  /**
+   * Returns the current value of every attribute, by name.
+   * @return the attribute values, tags included.
+   */
+  public Map<String, Object> getValues() {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (MBeanAttributeInfo info : mBeanInfo.getAttributes()) {
+      values.put(info.getName(), getValue(info.getName()));
+    }
+    return values;
+  }
+
+  private Object getValue(String attribute) {
+    if (STORE_CLASS.equals(attribute)) {
+      return storeClass;
+    }
+    if (SCHEMA_NAME.equals(attribute)) {
+      return schemaName;
+    }
+    if (RESULT_ROWS_PER_SECOND.equals(attribute)) {
+      return getResultRowsPerSecond();
+    }
+    for (Timer timer : timers) {
+      if (attribute.startsWith(timer.getName())) {
+        Object value = getTimerStatistic(timer, attribute.substring(timer.getName().length()));
+        if (value != null) {
+          return value;
+        }
+      }
+    }
+    for (Histogram histogram : histograms) {
+      if (attribute.startsWith(histogram.getName())) {
+        Object value = getHistogramStatistic(histogram,
+            attribute.substring(histogram.getName().length()));
+        if (value != null) {
+          return value;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Object getTimerStatistic(Timer timer, String statistic) {
+    switch (statistic) {
+      case "Count":
+        return timer.getCount();
+      case "MeanMillis":
+        return timer.getMeanMillis();
+      case "MaxMillis":
+        return timer.getMaxMillis();
+      case "P50Millis":
+        return timer.getPercentileMillis(0.5);
+      case "P99Millis":
+        return timer.getPercentileMillis(0.99);
+      default:
+        return null;
+    }
+  }
+
+  private static Object getHistogramStatistic(Histogram histogram, String statistic) {
+    switch (statistic) {
+      case "Count":
+        return histogram.getCount();
+      case "Mean":
+        return histogram.getMean();
+      case "Max":
+        return histogram.getMax();
+      case "P50":
+        return histogram.getPercentile(0.5);
+      case "P99":
+        return histogram.getPercentile(0.99);
+      default:
+        return null;
+    }
+  }
+
+  private MBeanInfo createMBeanInfo() {
+    List<MBeanAttributeInfo> attributes = new ArrayList<>();
+    attributes.add(attributeInfo(STORE_CLASS, String.class, "DataStore implementation"));
+    attributes.add(attributeInfo(SCHEMA_NAME, String.class, "Schema name"));
+    attributes.add(attributeInfo(RESULT_ROWS_PER_SECOND, Double.class,
+        "Rows read per second spent in Result.next()"));
+    for (Timer timer : timers) {
+      for (String statistic : TIMER_STATISTICS) {
+        attributes.add(attributeInfo(timer.getName() + statistic,
+            "Count".equals(statistic) ? Long.class : Double.class, timer.getName() + " latency"));
+      }
+    }
+    for (Histogram histogram : histograms) {
+      for (String statistic : HISTOGRAM_STATISTICS) {
+        attributes.add(attributeInfo(histogram.getName() + statistic,
+            "Mean".equals(statistic) ? Double.class : Long.class, histogram.getName()));
+      }
+    }
+    return new MBeanInfo(getClass().getName(), "Gora DataStore metrics",
+        attributes.toArray(new MBeanAttributeInfo[attributes.size()]),
+        null, new MBeanOperationInfo[0], null);
+  }
+
+  private static MBeanAttributeInfo attributeInfo(String name, Class<?> type, String description) {
+    return new MBeanAttributeInfo(name, type.getName(), description, true, false, false);
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    Object value = getValue(attribute);
+    if (value == null) {
+      throw new AttributeNotFoundException(attribute);
+    }
+    return value;
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException("Attribute " + attribute.getName() + " is read only");
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    AttributeList list = new AttributeList();
+    for (String attribute : attributes) {
+      Object value = getValue(attribute);
+      if (value != null) {
+        list.add(new Attribute(attribute, value));
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(String actionName, Object[] params, String[] signature)
+      throws ReflectionException {
+    throw new ReflectionException(new NoSuchMethodException(actionName));
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    return mBeanInfo;
+  }
+
+  @Override
+  public String toString() {
+    return "DataStoreMetrics[" + storeClass + ", " + schemaName + "]";
+  }
+}
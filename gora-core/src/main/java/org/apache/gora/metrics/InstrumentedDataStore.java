@@ -0,0 +1,368 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.store.impl.DataStoreDecorator;
+import org.apache.gora.util.GoraException;
+import org.apache.gora.util.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decorates a {@link DataStore} with latency timers for every operation,
+ * flush size and result iteration statistics, collected in a
+ * {@link DataStoreMetrics} and exported by the configured
+ * {@link MetricsReporter}s.
+ *
+ * <p>{@link DataStoreFactory} wraps the stores it returns as
+ * {@link DataStore} in this class when the <code>metrics.enable</code>
+ * property is true. Reporters are read from <code>metrics.reporters</code>,
+ * {@link JmxMetricsReporter} by default.</p>
+ *
+ * @param <K> the class of keys in the datastore.
+ * @param <T> the class of persistent objects in the datastore.
+ */
+public class InstrumentedDataStore<K, T extends Persistent> extends DataStoreDecorator<K, T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InstrumentedDataStore.class);
+
+  private final DataStoreMetrics metrics;
+
+  private final List<MetricsReporter> reporters = new ArrayList<>();
+
+  /** Puts and deletes since the last flush */
+  private final LongAdder pendingMutations = new LongAdder();
+
+  public InstrumentedDataStore(DataStore<K, T> delegate, Properties properties)
+      throws GoraException {
+    super(delegate);
+    this.metrics = new DataStoreMetrics(delegate.getClass().getName(), delegate.getSchemaName());
+    String reporterClasses = DataStoreFactory.findProperty(properties, delegate,
+        DataStoreFactory.METRICS_REPORTERS, JmxMetricsReporter.class.getName());
+    for (String reporterClass : reporterClasses.split(",")) {
+      if (reporterClass.trim().isEmpty()) {
+        continue;
+      }
+      try {
+        MetricsReporter reporter = (MetricsReporter) ReflectionUtils.newInstance(reporterClass.trim());
+        reporter.start(metrics, properties);
+        reporters.add(reporter);
+      } catch (Exception e) {
+        stopReporters();
+        throw new GoraException("Could not start metrics reporter " + reporterClass, e);
+      }
+    }
+  }
+
+  public DataStoreMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public boolean exists(K key) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return delegate.exists(key);
+    } finally {
+      metrics.exists.updateSince(start);
+    }
+  }
+
+  @Override
+  public T get(K key) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return delegate.get(key);
+    } finally {
+      metrics.get.updateSince(start);
+    }
+  }
+
+  @Override
+  public T get(K key, String[] fields) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return delegate.get(key, fields);
+    } finally {
+      metrics.get.updateSince(start);
+    }
+  }
+
+  @Override
+  public void put(K key, T obj) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      delegate.put(key, obj);
+      pendingMutations.increment();
+    } finally {
+      metrics.put.updateSince(start);
+    }
+  }
+
+  @Override
+  public boolean delete(K key) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      boolean deleted = delegate.delete(key);
+      pendingMutations.increment();
+      return deleted;
+    } finally {
+      metrics.delete.updateSince(start);
+    }
+  }
+
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return delegate.getAll(keys, fields);
+    } finally {
+      metrics.getAll.updateSince(start);
+    }
+  }
+
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      delegate.putAll(objects);
+      pendingMutations.add(objects.size());
+    } finally {
+      metrics.putAll.updateSince(start);
+    }
+  }
+
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      long deleted = delegate.deleteAll(keys);
+      pendingMutations.add(keys.size());
+      return deleted;
+    } finally {
+      metrics.deleteAll.updateSince(start);
+    }
+  }
+
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return delegate.existsAll(keys);
+    } finally {
+      metrics.existsAll.updateSince(start);
+    }
+  }
+
+  @Override
+  public long deleteByQuery(Query<K, T> query) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return delegate.deleteByQuery(query);
+    } finally {
+      metrics.deleteByQuery.updateSince(start);
+    }
+  }
+
+  @Override
+  public Result<K, T> execute(Query<K, T> query) throws GoraException {
+    long start = System.nanoTime();
+    try {
+      return new InstrumentedResult<>(delegate.execute(query), metrics);
+    } finally {
+      metrics.execute.updateSince(start);
+    }
+  }
+
+  @Override
+  public void flush() throws GoraException {
+    long start = System.nanoTime();
+    try {
+      delegate.flush();
+    } finally {
+      metrics.flush.updateSince(start);
+      metrics.flushSize.update(pendingMutations.sumThenReset());
+    }
+  }
+
+  @Override
+  public CompletableFuture<T> getAsync(K key, String[] fields) {
+    long start = System.nanoTime();
+    return time(start, super.getAsync(key, fields), metrics.get);
+  }
+
+  @Override
+  public CompletableFuture<Void> putAsync(K key, T obj) {
+    pendingMutations.increment();
+    long start = System.nanoTime();
+    return time(start, super.putAsync(key, obj), metrics.put);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(K key) {
+    pendingMutations.increment();
+    long start = System.nanoTime();
+    return time(start, super.deleteAsync(key), metrics.delete);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> existsAsync(K key) {
+    long start = System.nanoTime();
+    return time(start, super.existsAsync(key), metrics.exists);
+  }
+
+  @Override
+  public CompletableFuture<Result<K, T>> executeAsync(Query<K, T> query) {
+    long start = System.nanoTime();
+    return time(start, super.executeAsync(query), metrics.execute)
+        .thenApply(new Function<Result<K, T>, Result<K, T>>() {
+          @Override
+          public Result<K, T> apply(Result<K, T> result) {
+            return new InstrumentedResult<>(result, metrics);
+          }
+        });
+  }
+
+  private static <V> CompletableFuture<V> time(final long start, CompletableFuture<V> future,
+      final Timer timer) {
+    return future.whenComplete(new BiConsumer<V, Throwable>() {
+      @Override
+      public void accept(V value, Throwable t) {
+        timer.updateSince(start);
+      }
+    });
+  }
+
+  @Override
+  public void close() {
+    try {
+      delegate.close();
+    } finally {
+      stopReporters();
+    }
+  }
+
+  private void stopReporters() {
+    for (MetricsReporter reporter : reporters) {
+      try {
+        reporter.stop();
+      } catch (Exception e) {
+        LOG.warn("Could not stop metrics reporter {}", reporter, e);
+      }
+    }
+    reporters.clear();
+  }
+
+  /**
+   * Times {@link Result#next()} and counts the rows of a result.
+   */
+  private static class InstrumentedResult<K, T extends Persistent> implements Result<K, T> {
+
+    private final Result<K, T> result;
+    private final DataStoreMetrics metrics;
+    private long rows;
+    private boolean closed;
+
+    InstrumentedResult(Result<K, T> result, DataStoreMetrics metrics) {
+      this.result = result;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public DataStore<K, T> getDataStore() {
+      return result.getDataStore();
+    }
+
+    @Override
+    public Query<K, T> getQuery() {
+      return result.getQuery();
+    }
+
+    @Override
+    public boolean next() throws Exception {
+      long start = System.nanoTime();
+      boolean hasNext = result.next();
+      if (hasNext) {
+        metrics.resultNext.updateSince(start);
+        rows++;
+      }
+      return hasNext;
+    }
+
+    @Override
+    public K getKey() {
+      return result.getKey();
+    }
+
+    @Override
+    public T get() {
+      return result.get();
+    }
+
+    @Override
+    public Class<K> getKeyClass() {
+      return result.getKeyClass();
+    }
+
+    @Override
+    public Class<T> getPersistentClass() {
+      return result.getPersistentClass();
+    }
+
+    @Override
+    public long getOffset() {
+      return result.getOffset();
+    }
+
+    @Override
+    public float getProgress() throws IOException, InterruptedException {
+      return result.getProgress();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        metrics.resultRows.update(rows);
+      }
+      result.close();
+    }
+
+    @Override
+    public int size() {
+      return result.size();
+    }
+  }
+}
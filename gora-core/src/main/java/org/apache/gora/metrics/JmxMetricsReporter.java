@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registers {@link DataStoreMetrics} in the platform MBean server under
+ * <code>org.apache.gora:type=DataStore,store=&lt;class&gt;,schema=&lt;schema&gt;,id=&lt;id&gt;</code>.
+ */
+public class JmxMetricsReporter implements MetricsReporter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JmxMetricsReporter.class);
+
+  public static final String DOMAIN = "org.apache.gora";
+
+  private ObjectName objectName;
+
+  @Override
+  public synchronized void start(DataStoreMetrics metrics, Properties properties) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      objectName = getObjectName(metrics);
+      server.registerMBean(metrics, objectName);
+    } catch (Exception e) {
+      LOG.warn("Could not register metrics of {} in JMX", metrics, e);
+      objectName = null;
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (Exception e) {
+      LOG.warn("Could not unregister {} from JMX", objectName, e);
+    }
+    objectName = null;
+  }
+
+  /**
+   * Returns the name the given metrics are registered with.
+   * @param metrics the metrics of a store.
+   * @return the JMX object name.
+   * @throws Exception if the name is malformed.
+   */
+  public static ObjectName getObjectName(DataStoreMetrics metrics) throws Exception {
+    return new ObjectName(DOMAIN + ":type=DataStore"
+        + ",store=" + ObjectName.quote(metrics.getStoreClass())
+        + ",schema=" + ObjectName.quote(String.valueOf(metrics.getSchemaName()))
+        + ",id=" + Integer.toHexString(System.identityHashCode(metrics)));
+  }
+
+  /**
+   * Returns the name the metrics were registered with, if any.
+   * @return the JMX object name or null.
+   */
+  public synchronized ObjectName getObjectName() {
+    return objectName;
+  }
+}
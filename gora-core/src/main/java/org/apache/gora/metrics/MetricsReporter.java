@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.metrics;
+
+import java.util.Properties;
+
+/**
+ * Exports {@link DataStoreMetrics} to a monitoring system. Reporters are
+ * listed, comma separated, in the <code>metrics.reporters</code> property
+ * and must have a no-arg constructor. A new reporter instance is created
+ * for every instrumented store.
+ */
+public interface MetricsReporter {
+
+  /**
+   * Starts reporting the given metrics.
+   * @param metrics the metrics of a store.
+   * @param properties the properties the store was created with.
+   */
+  void start(DataStoreMetrics metrics, Properties properties);
+
+  /**
+   * Stops reporting. Called when the store is closed.
+   */
+  void stop();
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Histogram} of durations, recorded in nanoseconds.
+ */
+public class Timer extends Histogram {
+
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  public Timer(String name) {
+    super(name);
+  }
+
+  /**
+   * Records the time elapsed since the given start.
+   * @param startNanos a value previously returned by {@link System#nanoTime()}.
+   */
+  public void updateSince(long startNanos) {
+    update(System.nanoTime() - startNanos);
+  }
+
+  public double getMeanMillis() {
+    return getMean() / NANOS_PER_MILLI;
+  }
+
+  public double getMaxMillis() {
+    return getMax() / NANOS_PER_MILLI;
+  }
+
+  public double getPercentileMillis(double quantile) {
+    return getPercentile(quantile) / NANOS_PER_MILLI;
+  }
+}
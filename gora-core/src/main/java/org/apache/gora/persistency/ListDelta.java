@@ -0,0 +1,46 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency;
+
+/**
+ * A {@link Dirtyable} list which records the elements appended since its
+ * dirty state was last cleared, so that a store can write the new elements
+ * only instead of rewriting the whole list.
+ */
+public interface ListDelta extends Dirtyable {
+
+  /**
+   * Returns whether the list was only appended to since its dirty state was
+   * cleared. This is not the case for a list which was not read from a
+   * store, see {@link org.apache.gora.persistency.impl.PersistentBase#trackChanges()},
+   * or whose existing elements were set, removed, reordered or changed.
+   *
+   * @return whether the elements before {@link #getAppendIndex()} are
+   * unchanged.
+   */
+  boolean isDeltaTracked();
+
+  /**
+   * Returns the size of the list when its dirty state was cleared, that is
+   * the index of the first appended element.
+   *
+   * @return the index of the first element to write.
+   */
+  int getAppendIndex();
+
+}
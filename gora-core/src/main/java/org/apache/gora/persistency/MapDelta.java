@@ -0,0 +1,60 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency;
+
+import java.util.Set;
+
+/**
+ * A {@link Dirtyable} map which records the keys put and removed since its
+ * dirty state was last cleared, so that a store can write the changed
+ * entries only instead of replacing the whole map. Only the maps of the
+ * records read from a store are tracked, see
+ * {@link org.apache.gora.persistency.impl.PersistentBase#trackChanges()}.
+ *
+ * @param <K> the type of the keys of the map.
+ */
+public interface MapDelta<K> extends Dirtyable {
+
+  /**
+   * Returns whether the changes of the map are known entry by entry. This
+   * is not the case for a map which was not read from a store, e.g. a map
+   * which was just set on a record or refilled by a datum reader, or for a
+   * map changed through its views or emptied with
+   * {@link java.util.Map#clear()}: such a map has to be written as a whole.
+   *
+   * @return whether {@link #getPutKeys()} and {@link #getRemovedKeys()}
+   * describe all the changes of the map.
+   */
+  boolean isDeltaTracked();
+
+  /**
+   * Returns the keys added or updated since the dirty state was cleared,
+   * including the keys of the values which are themselves dirty.
+   *
+   * @return the keys to write.
+   */
+  Set<K> getPutKeys();
+
+  /**
+   * Returns the keys removed since the dirty state was cleared.
+   *
+   * @return the keys to delete.
+   */
+  Set<K> getRemovedKeys();
+
+}
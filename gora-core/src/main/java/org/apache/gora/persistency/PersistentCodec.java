@@ -0,0 +1,103 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+/**
+ * Encodes and decodes the records of a persistent class in the Avro binary
+ * encoding of their schema, without the dirty bits.
+ *
+ * <p>The Gora compiler generates a codec with straight-line code for every
+ * record when asked to, as the public static {@link #CODEC_FIELD_NAME} field
+ * of the record class. The Avro datum writers and readers of Gora use it in
+ * place of the generic ones, see
+ * {@link org.apache.gora.persistency.impl.PersistentDatumWriter} and
+ * {@link org.apache.gora.persistency.impl.PersistentDatumReader}.</p>
+ *
+ * @param <T> the persistent class.
+ */
+public interface PersistentCodec<T extends Persistent> {
+
+  /** Name of the static field holding the codec of a generated record class */
+  String CODEC_FIELD_NAME = "CODEC";
+
+  /**
+   * Returns the schema the codec reads and writes.
+   *
+   * @return the schema of the persistent class.
+   */
+  Schema getSchema();
+
+  /**
+   * Returns the persistent class.
+   *
+   * @return the class of the records.
+   */
+  Class<T> getRecordClass();
+
+  /**
+   * Writes the fields of a record.
+   *
+   * @param record the record to write.
+   * @param out the encoder to write to.
+   * @throws IOException if the encoder fails.
+   */
+  void encode(T record, Encoder out) throws IOException;
+
+  /**
+   * Reads a record, reusing the given record and its values when possible.
+   * The dirty state of the record is not changed.
+   *
+   * @param reuse the record to read into, or null for a new record.
+   * @param in the decoder to read from.
+   * @return the record read.
+   * @throws IOException if the decoder fails.
+   */
+  T decode(T reuse, Decoder in) throws IOException;
+
+  /**
+   * Reads some of the fields of a record, skipping the encoded values of the
+   * others. The fields which are not read keep their value in the record
+   * read into, or their initial value in a new record.
+   *
+   * @param reuse the record to read into, or null for a new record.
+   * @param in the decoder to read from.
+   * @param fields the fields to read, indexed by position, or null to read
+   * all of them.
+   * @return the record read.
+   * @throws IOException if the decoder fails.
+   */
+  T decode(T reuse, Decoder in, boolean[] fields) throws IOException;
+
+  /**
+   * Copies a record field by field, like
+   * {@link org.apache.avro.specific.SpecificData#deepCopy(Schema, Object)}:
+   * the new record holds copies of the strings, bytes, records, maps and
+   * lists of the record, and its dirty state is clear.
+   *
+   * @param record the record to copy.
+   * @return the copy.
+   */
+  T copy(T record);
+
+}
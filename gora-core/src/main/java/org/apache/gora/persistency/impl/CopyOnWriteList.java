@@ -0,0 +1,101 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list reading from the list of another record until it is first
+ * modified, when it copies it. Only the list itself is copied, the elements
+ * must be immutable.
+ *
+ * @param <T> the type of the elements.
+ * @see PersistentBase.PersistentData#copyOnWrite(org.apache.avro.Schema, Object)
+ */
+final class CopyOnWriteList<T> extends AbstractList<T> implements RandomAccess {
+
+  private List<T> list;
+  private boolean shared;
+
+  CopyOnWriteList(List<T> list) {
+    if (list instanceof CopyOnWriteList) {
+      // share the list of the other copy, which copies it again on write
+      CopyOnWriteList<T> other = (CopyOnWriteList<T>) list;
+      other.shared = true;
+      list = other.list;
+    }
+    this.list = list;
+    this.shared = true;
+  }
+
+  private List<T> writable() {
+    if (shared) {
+      list = new ArrayList<>(list);
+      shared = false;
+    }
+    return list;
+  }
+
+  @Override
+  public T get(int index) {
+    return list.get(index);
+  }
+
+  @Override
+  public int size() {
+    return list.size();
+  }
+
+  @Override
+  public T set(int index, T element) {
+    return writable().set(index, element);
+  }
+
+  @Override
+  public void add(int index, T element) {
+    modCount++;
+    writable().add(index, element);
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends T> c) {
+    modCount++;
+    return writable().addAll(index, c);
+  }
+
+  @Override
+  public T remove(int index) {
+    modCount++;
+    return writable().remove(index);
+  }
+
+  @Override
+  public void clear() {
+    modCount++;
+    if (shared) {
+      list = new ArrayList<>();
+      shared = false;
+    } else {
+      list.clear();
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map reading from the map of another record until it is first modified,
+ * when it copies it. Only the map itself is copied, the keys and values
+ * must be immutable.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ * @see PersistentBase.PersistentData#copyOnWrite(org.apache.avro.Schema, Object)
+ */
+final class CopyOnWriteMap<K, V> extends AbstractMap<K, V> {
+
+  private Map<K, V> map;
+  private boolean shared;
+
+  CopyOnWriteMap(Map<K, V> map) {
+    if (map instanceof CopyOnWriteMap) {
+      // share the map of the other copy, which copies it again on write
+      CopyOnWriteMap<K, V> other = (CopyOnWriteMap<K, V>) map;
+      other.shared = true;
+      map = other.map;
+    }
+    this.map = map;
+    this.shared = true;
+  }
+
+  private Map<K, V> writable() {
+    if (shared) {
+      map = new HashMap<>(map);
+      shared = false;
+    }
+    return map;
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public V get(Object key) {
+    return map.get(key);
+  }
+
+  @Override
+  public V put(K key, V value) {
+    return writable().put(key, value);
+  }
+
+  @Override
+  public V remove(Object key) {
+    return writable().remove(key);
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> m) {
+    writable().putAll(m);
+  }
+
+  @Override
+  public void clear() {
+    if (shared) {
+      map = new HashMap<>();
+      shared = false;
+    } else {
+      map.clear();
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        if (!shared) {
+          return map.entrySet().iterator();
+        }
+        // iterates over the shared map, the changes go to the copy
+        final Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        return new Iterator<Map.Entry<K, V>>() {
+          private K last;
+
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Map.Entry<K, V> next() {
+            final Map.Entry<K, V> entry = iterator.next();
+            last = entry.getKey();
+            return new AbstractMap.SimpleEntry<K, V>(entry) {
+              private static final long serialVersionUID = 1L;
+
+              @Override
+              public V setValue(V value) {
+                super.setValue(value);
+                return put(getKey(), value);
+              }
+            };
+          }
+
+          @Override
+          public void remove() {
+            CopyOnWriteMap.this.remove(last);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return map.size();
+      }
+    };
+  }
+}
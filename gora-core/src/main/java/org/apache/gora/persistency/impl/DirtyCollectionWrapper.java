@@ -50,11 +50,15 @@ public class DirtyCollectionWrapper<T> implements Dirtyable,
 
   @Override
   public boolean isDirty() {
-    boolean anyDirty = false;
-    for (T value : this) {
-      anyDirty = anyDirty || (value instanceof Dirtyable) ? ((Dirtyable) value).isDirty():false;
+    if (dirtyFlag.isDirty()) {
+      return true;
+    }
+    for (T value : delegate) {
+      if (value instanceof Dirtyable && ((Dirtyable) value).isDirty()) {
+        return true;
+      }
     }
-    return anyDirty || dirtyFlag.isDirty();
+    return false;
   }
 
   @Override
@@ -23,17 +23,29 @@ import java.util.List;
 import java.util.ListIterator;
 
 import org.apache.gora.persistency.Dirtyable;
+import org.apache.gora.persistency.ListDelta;
 
 /**
  * A {@link List} implementation that wraps another list, intercepting
  * modifications to the list structure and reporting on weather or not the list
  * has been modified, and also checking list elements for modification.
+ *
+ * <p>Once a store read it, see {@link PersistentBase#trackChanges()}, the
+ * wrapper records whether the list was only appended to, see
+ * {@link ListDelta}. The recording stops when the list is cleared, as done by
+ * the datum readers refilling it, or when the field holding it is set.</p>
  * 
  * @param <T>
  *          The type of the list that this wrapper wraps.
  */
 public class DirtyListWrapper<T> extends DirtyCollectionWrapper<T> implements
-    Dirtyable, List<T> {
+    ListDelta, List<T> {
+
+  /** The size of the list when it was cleaned, -1 if not tracked */
+  private int appendIndex = -1;
+
+  /** Whether elements were appended after appendIndex */
+  private boolean appended;
 
   /**
    * Create a DirtyListWrapper that wraps a getDelegate().
@@ -49,13 +61,97 @@ public class DirtyListWrapper<T> extends DirtyCollectionWrapper<T> implements
     super(delegate, dirtyFlag);
   }
 
+  @Override
+  public boolean isDirty() {
+    return appended || super.isDirty();
+  }
+
+  @Override
+  public void clearDirty() {
+    super.clearDirty();
+    appended = false;
+    if (appendIndex >= 0) {
+      appendIndex = size();
+    }
+  }
+
+  /**
+   * Clears the dirty state and starts recording the appended elements.
+   */
+  void startTracking() {
+    clearDirty();
+    appendIndex = size();
+  }
+
+  /**
+   * Stops recording the appended elements, so that the list is written as a
+   * whole.
+   */
+  void stopTracking() {
+    appendIndex = -1;
+  }
+
+  @Override
+  public boolean isDeltaTracked() {
+    if (appendIndex < 0 || getDirtyFlag().isDirty()) {
+      return false;
+    }
+    for (int i = 0; i < appendIndex; i++) {
+      T value = getDelegate().get(i);
+      if (value instanceof Dirtyable && ((Dirtyable) value).isDirty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int getAppendIndex() {
+    return appendIndex;
+  }
+
+  @Override
+  public boolean add(T e) {
+    if (appendIndex < 0) {
+      return super.add(e);
+    }
+    boolean change = getDelegate().add(e);
+    appended = appended || change;
+    return change;
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends T> c) {
+    if (appendIndex < 0) {
+      return super.addAll(c);
+    }
+    boolean change = getDelegate().addAll(c);
+    appended = appended || change;
+    return change;
+  }
+
   @Override
   public boolean addAll(int index, Collection<? extends T> c) {
+    boolean atEnd = index == size();
     boolean change = getDelegate().addAll(index, c);
-    getDirtyFlag().makeDirty(change);
+    if (appendIndex >= 0 && atEnd) {
+      appended = appended || change;
+    } else {
+      getDirtyFlag().makeDirty(change);
+    }
     return change;
   }
 
+  /**
+   * Removes all the elements. The content of the list is replaced as a
+   * whole, appends are no longer tracked.
+   */
+  @Override
+  public void clear() {
+    stopTracking();
+    super.clear();
+  }
+
   @Override
   public T get(int index) {
     return getDelegate().get(index);
@@ -69,7 +165,11 @@ public class DirtyListWrapper<T> extends DirtyCollectionWrapper<T> implements
 
   @Override
   public void add(int index, T element) {
-    getDirtyFlag().makeDirty(true);
+    if (appendIndex >= 0 && index == size()) {
+      appended = true;
+    } else {
+      getDirtyFlag().makeDirty(true);
+    }
     getDelegate().add(index, element);
   }
 
@@ -19,15 +19,30 @@
 package org.apache.gora.persistency.impl;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.gora.persistency.Dirtyable;
+import org.apache.gora.persistency.MapDelta;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
 
-public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
+/**
+ * A {@link Map} implementation that wraps another map, reporting on whether
+ * or not the map or its values have been modified.
+ *
+ * <p>Once a store read it, see {@link PersistentBase#trackChanges()}, the
+ * wrapper records the keys put and removed through its own methods, see
+ * {@link MapDelta}. Changes made through the views of the map are only
+ * reported as a whole. The recording stops when the map is cleared, as done
+ * by the datum readers refilling it, or when the field holding it is set.</p>
+ *
+ * @param <K> the type of the keys of the map.
+ * @param <V> the type of the values of the map.
+ */
+public class DirtyMapWrapper<K, V> implements Map<K, V>, MapDelta<K> {
 
   public static class DirtyEntryWrapper<K, V> implements Entry<K, V>, Dirtyable {
     private final Entry<K, V> entryDelegate;
@@ -66,8 +81,9 @@ public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
 
     @Override
     public boolean isDirty() {
-      return dirtyFlag.isDirty() || (entryDelegate instanceof Dirtyable) ? ((Dirtyable) entryDelegate
-          .getValue()).isDirty() : false;
+      V value = entryDelegate.getValue();
+      return dirtyFlag.isDirty()
+          || (value instanceof Dirtyable && ((Dirtyable) value).isDirty());
     }
 
     @Override
@@ -79,8 +95,17 @@ public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
 
   private final Map<K, V> delegate;
 
+  /** Set by the views of the map, which are not tracked by key */
   private final DirtyFlag dirtyFlag;
 
+  /** Whether the map was changed through its own methods */
+  private boolean changed;
+
+  /** Whether the keys put and removed are recorded */
+  private boolean tracked;
+  private final Set<K> putKeys = new LinkedHashSet<>();
+  private final Set<K> removedKeys = new LinkedHashSet<>();
+
   public DirtyMapWrapper(Map<K, V> delegate) {
     this(delegate, new DirtyFlag());
   }
@@ -92,21 +117,67 @@ public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
 
   @Override
   public boolean isDirty() {
-    boolean anyDirty = false;
-    for (V v : this.values()) {
-      anyDirty = anyDirty || (v instanceof Dirtyable) ? ((Dirtyable) v)
-          .isDirty() : false;
+    if (changed || dirtyFlag.isDirty()) {
+      return true;
     }
-    return anyDirty || dirtyFlag.isDirty();
+    for (V v : delegate.values()) {
+      if (v instanceof Dirtyable && ((Dirtyable) v).isDirty()) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
   public void clearDirty() {
-    for (V v : this.values()) {
+    for (V v : delegate.values()) {
       if (v instanceof Dirtyable)
         ((Dirtyable) v).clearDirty();
     }
     dirtyFlag.clearDirty();
+    changed = false;
+    putKeys.clear();
+    removedKeys.clear();
+  }
+
+  /**
+   * Clears the dirty state and starts recording the keys put and removed.
+   */
+  void startTracking() {
+    clearDirty();
+    tracked = true;
+  }
+
+  /**
+   * Stops recording the keys put and removed, so that the map is written as
+   * a whole.
+   */
+  void stopTracking() {
+    tracked = false;
+    putKeys.clear();
+    removedKeys.clear();
+  }
+
+  @Override
+  public boolean isDeltaTracked() {
+    return tracked && !dirtyFlag.isDirty();
+  }
+
+  @Override
+  public Set<K> getPutKeys() {
+    Set<K> keys = new LinkedHashSet<>(putKeys);
+    for (Entry<K, V> entry : delegate.entrySet()) {
+      V v = entry.getValue();
+      if (v instanceof Dirtyable && ((Dirtyable) v).isDirty()) {
+        keys.add(entry.getKey());
+      }
+    }
+    return keys;
+  }
+
+  @Override
+  public Set<K> getRemovedKeys() {
+    return new LinkedHashSet<>(removedKeys);
   }
 
   @Override
@@ -136,16 +207,14 @@ public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
 
   @Override
   public V put(K key, V value) {
-    checkPutWillMakeDirty(key, value);
-    return delegate.put(key, value);
-  }
-
-  private void checkPutWillMakeDirty(K key, V value) {
-    if (containsKey(key)) {
-      dirtyFlag.makeDirty(valueChanged(value, get(key)));
-    } else {
-      dirtyFlag.makeDirty(true);
+    if (!containsKey(key) || valueChanged(value, get(key))) {
+      changed = true;
+      if (tracked) {
+        removedKeys.remove(key);
+        putKeys.add(key);
+      }
     }
+    return delegate.put(key, value);
   }
 
   private static <V> boolean valueChanged(V value, V oldValue) {
@@ -154,30 +223,42 @@ public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public V remove(Object key) {
-    dirtyFlag.makeDirty(containsKey(key));
+    if (containsKey(key)) {
+      changed = true;
+      if (tracked) {
+        putKeys.remove(key);
+        removedKeys.add((K) key);
+      }
+    }
     return delegate.remove(key);
   }
 
   @Override
   public void putAll(Map<? extends K, ? extends V> m) {
     for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
-      checkPutWillMakeDirty(entry.getKey(), entry.getValue());
+      put(entry.getKey(), entry.getValue());
     }
-    delegate.putAll(m);
   }
 
+  /**
+   * Removes all the entries. The content of the map is replaced as a whole,
+   * the changes are no longer tracked by key.
+   */
   @Override
   public void clear() {
     if (delegate.size() != 0) {
-      dirtyFlag.makeDirty(true);
+      changed = true;
     }
+    stopTracking();
     delegate.clear();
   }
 
   @Override
+  @SuppressWarnings({ "unchecked", "rawtypes" })
   public Set<K> keySet() {
-    return delegate.keySet();
+    return new DirtySetWrapper(delegate.keySet(), dirtyFlag);
   }
 
   @Override
@@ -209,4 +290,8 @@ public class DirtyMapWrapper<K, V> implements Map<K, V>, Dirtyable {
     return delegate.hashCode();
   }
 
+  Map<K, V> getDelegate() {
+    return delegate;
+  }
+
 }
@@ -20,10 +20,19 @@ package org.apache.gora.persistency.impl;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.IndexedRecord;
 import org.apache.avro.specific.SpecificData;
 import org.apache.avro.specific.SpecificRecord;
 import org.apache.avro.specific.SpecificRecordBase;
@@ -31,6 +40,7 @@ import org.apache.flink.api.common.typeinfo.TypeInfo;
 import org.apache.gora.flink.PersistentTypeInfoFactory;
 import org.apache.gora.persistency.Dirtyable;
 import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.PersistentCodec;
 
 /**
 * Base classs implementing common functionality for Persistent classes.
@@ -39,11 +49,26 @@ import org.apache.gora.persistency.Persistent;
 public abstract class PersistentBase extends SpecificRecordBase implements
         Persistent {
 
-  /** Bytes used to represent weather or not a field is dirty. */
+  /**
+   * Positions of the fields whose values may be {@link Dirtyable}: records,
+   * maps, arrays and unions of them, by persistent class.
+   */
+  private static final ConcurrentMap<Class<?>, long[]> MUTABLE_FIELDS =
+      new ConcurrentHashMap<>();
+
+  /** Dirty bit of every field, 64 fields per word. */
+  private final long[] dirtyWords;
+
+  /** Number of dirty bits set in {@link #dirtyWords}. */
+  private int dirtyCount;
+
+  private long[] mutableFields;
+
+  /** Bytes used to represent weather or not a field is dirty, see {@link #getDirtyBytes()}. */
   private java.nio.ByteBuffer __g__dirty;
 
   public PersistentBase() {
-    __g__dirty = java.nio.ByteBuffer.wrap(new byte[getFieldsCount()]);
+    dirtyWords = new long[(getFieldsCount() + 63) >>> 6];
   }
 
   public abstract int getFieldsCount();
@@ -65,17 +90,165 @@ public abstract class PersistentBase extends SpecificRecordBase implements
       return PersistentData.get().compare(obj1, that, obj1.getSchema(), true) == 0;
     }
 
+    /**
+     * Copies the records with a generated codec with
+     * {@link PersistentCodec#copy(Persistent)}, without walking the schema.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <V> V deepCopy(Schema schema, V value) {
+      if (value instanceof Persistent && schema.getType() == Type.RECORD) {
+        PersistentCodec<?> codec = PersistentCodecs.get(value.getClass());
+        if (codec != null && codec.getSchema().equals(schema)) {
+          return (V) ((PersistentCodec<Persistent>) codec).copy((Persistent) value);
+        }
+      }
+      return super.deepCopy(schema, value);
+    }
+
+    /**
+     * Returns a copy of a value which shares its immutable parts with it.
+     * Strings and fixed values are shared, {@link org.apache.avro.util.Utf8}
+     * values being treated as immutable, and bytes values are duplicated so
+     * that the copy has its own position and limit over the same content.
+     * Maps and lists of strings and fixed values are shared until they are
+     * first modified through the copy, records and the other maps and lists
+     * are copied the same way. The copied records are clean.
+     *
+     * <p>The copy is only independent of the value as long as the value is
+     * not modified: it suits the records which are replaced rather than
+     * modified, like the stored records of a cache, not the records reused by
+     * Avro readers.</p>
+     *
+     * @param schema the schema of the value.
+     * @param value the value to copy.
+     * @return the copy.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V copyOnWrite(Schema schema, V value) {
+      if (value == null) {
+        return null;
+      }
+      switch (schema.getType()) {
+      case RECORD: {
+        IndexedRecord record = (IndexedRecord) value;
+        IndexedRecord copy = (IndexedRecord) newRecord(null, schema);
+        for (Field field : schema.getFields()) {
+          copy.put(field.pos(), copyOnWrite(field.schema(), record.get(field.pos())));
+        }
+        if (copy instanceof Dirtyable) {
+          ((Dirtyable) copy).clearDirty();
+        }
+        return (V) copy;
+      }
+      case ARRAY: {
+        Schema elementType = schema.getElementType();
+        if (value instanceof List && isImmutable(elementType)) {
+          List<Object> list = (List<Object>) value;
+          if (list instanceof DirtyListWrapper) {
+            list = ((DirtyListWrapper<Object>) list).getDelegate();
+          }
+          return (V) new CopyOnWriteList<>(list);
+        }
+        Collection<?> collection = (Collection<?>) value;
+        List<Object> list = new ArrayList<>(collection.size());
+        for (Object element : collection) {
+          list.add(copyOnWrite(elementType, element));
+        }
+        return (V) list;
+      }
+      case MAP: {
+        Schema valueType = schema.getValueType();
+        Map<Object, Object> map = (Map<Object, Object>) value;
+        if (isImmutable(valueType)) {
+          if (map instanceof DirtyMapWrapper) {
+            map = ((DirtyMapWrapper<Object, Object>) map).getDelegate();
+          }
+          return (V) new CopyOnWriteMap<>(map);
+        }
+        Map<Object, Object> copy = new HashMap<>(map.size());
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+          copy.put(entry.getKey(), copyOnWrite(valueType, entry.getValue()));
+        }
+        return (V) copy;
+      }
+      case UNION:
+        return copyOnWrite(schema.getTypes().get(resolveUnion(schema, value)), value);
+      case BYTES:
+        return (V) ((ByteBuffer) value).duplicate();
+      default:
+        return value;
+      }
+    }
+
+    private static boolean isImmutable(Schema schema) {
+      switch (schema.getType()) {
+      case RECORD:
+      case ARRAY:
+      case MAP:
+      case BYTES:
+        return false;
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          if (!isImmutable(type)) {
+            return false;
+          }
+        }
+        return true;
+      default:
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns the positions of the fields which may hold {@link Dirtyable}
+   * values, as a bit set.
+   */
+  private long[] getMutableFields() {
+    if (mutableFields == null) {
+      long[] fields = MUTABLE_FIELDS.get(getClass());
+      if (fields == null) {
+        fields = new long[dirtyWords.length];
+        for (Field field : getSchema().getFields()) {
+          if (isMutable(field.schema())) {
+            fields[field.pos() >>> 6] |= 1L << field.pos();
+          }
+        }
+        MUTABLE_FIELDS.putIfAbsent(getClass(), fields);
+      }
+      mutableFields = fields;
+    }
+    return mutableFields;
+  }
+
+  private static boolean isMutable(Schema schema) {
+    switch (schema.getType()) {
+    case RECORD:
+    case MAP:
+    case ARRAY:
+      return true;
+    case UNION:
+      for (Schema type : schema.getTypes()) {
+        if (isMutable(type)) {
+          return true;
+        }
+      }
+      return false;
+    default:
+      return false;
+    }
   }
 
   @Override
   public void clearDirty() {
-    ByteBuffer dirtyBytes = getDirtyBytes();
-    assert (dirtyBytes.position() == 0);
-    for (int i = 0; i < dirtyBytes.limit(); i++) {
-      dirtyBytes.put(i, (byte) 0);
-    }
-    for (Field field : getSchema().getFields()) {
-      clearDirynessIfFieldIsDirtyable(field.pos());
+    Arrays.fill(dirtyWords, 0L);
+    dirtyCount = 0;
+    long[] fields = getMutableFields();
+    for (int w = 0; w < fields.length; w++) {
+      for (long bits = fields[w]; bits != 0; bits &= bits - 1) {
+        clearDirynessIfFieldIsDirtyable((w << 6) + Long.numberOfTrailingZeros(bits));
+      }
     }
   }
 
@@ -86,16 +259,56 @@ public abstract class PersistentBase extends SpecificRecordBase implements
     }
   }
 
+  /**
+   * Clears the dirty state of the record and makes its maps and arrays
+   * record which of their entries change from now on, see
+   * {@link org.apache.gora.persistency.MapDelta} and
+   * {@link org.apache.gora.persistency.ListDelta}. Stores call it on the
+   * records they read, so that writing them back only writes the changed
+   * entries. A map or array set on a field, or refilled by a datum reader,
+   * is written as a whole again.
+   */
+  public void trackChanges() {
+    clearDirty();
+    long[] fields = getMutableFields();
+    for (int w = 0; w < fields.length; w++) {
+      for (long bits = fields[w]; bits != 0; bits &= bits - 1) {
+        Object value = get((w << 6) + Long.numberOfTrailingZeros(bits));
+        if (value instanceof DirtyMapWrapper) {
+          ((DirtyMapWrapper<?, ?>) value).startTracking();
+        } else if (value instanceof DirtyListWrapper) {
+          ((DirtyListWrapper<?>) value).startTracking();
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes the map or array of a field be written as a whole, as it may be
+   * shared with the record it was taken from.
+   */
+  private void stopTracking(int fieldIndex) {
+    if ((getMutableFields()[fieldIndex >>> 6] & (1L << fieldIndex)) == 0) {
+      return;
+    }
+    Object value = get(fieldIndex);
+    if (value instanceof DirtyMapWrapper) {
+      ((DirtyMapWrapper<?, ?>) value).stopTracking();
+    } else if (value instanceof DirtyListWrapper) {
+      ((DirtyListWrapper<?>) value).stopTracking();
+    }
+  }
+
   @Override
   public void clearDirty(int fieldIndex) {
-    ByteBuffer dirtyBytes = getDirtyBytes();
-    assert (dirtyBytes.position() == 0);
-    int byteOffset = fieldIndex / 8;
-    int bitOffset = fieldIndex % 8;
-    byte currentByte = dirtyBytes.get(byteOffset);
-    currentByte = (byte) ((~(1 << bitOffset)) & currentByte);
-    dirtyBytes.put(byteOffset, currentByte);
-    clearDirynessIfFieldIsDirtyable(fieldIndex);
+    long bit = 1L << fieldIndex;
+    if ((dirtyWords[fieldIndex >>> 6] & bit) != 0) {
+      dirtyWords[fieldIndex >>> 6] &= ~bit;
+      dirtyCount--;
+    }
+    if ((getMutableFields()[fieldIndex >>> 6] & bit) != 0) {
+      clearDirynessIfFieldIsDirtyable(fieldIndex);
+    }
   }
 
   @Override
@@ -103,48 +316,37 @@ public abstract class PersistentBase extends SpecificRecordBase implements
     clearDirty(getSchema().getField(field).pos());
   }
 
+  /**
+   * Returns whether a field was set or one of the values of the records, maps
+   * and arrays of the record changed. The dirty fields are counted, only the
+   * values which may be {@link Dirtyable} are checked when none is dirty.
+   */
   @Override
   public boolean isDirty() {
-    List<Field> fields = getSchema().getFields();
-    boolean isSubRecordDirty = false;
-    for (Field field : fields) {
-      isSubRecordDirty = isSubRecordDirty || checkIfMutableFieldAndDirty(field);
+    if (dirtyCount > 0) {
+      return true;
     }
-    ByteBuffer dirtyBytes = getDirtyBytes();
-    assert (dirtyBytes.position() == 0);
-    boolean dirty = false;
-    for (int i = 0; i < dirtyBytes.limit(); i++) {
-      dirty = dirty || dirtyBytes.get(i) != 0;
+    long[] fields = getMutableFields();
+    for (int w = 0; w < fields.length; w++) {
+      for (long bits = fields[w]; bits != 0; bits &= bits - 1) {
+        if (isValueDirty((w << 6) + Long.numberOfTrailingZeros(bits))) {
+          return true;
+        }
+      }
     }
-    return isSubRecordDirty || dirty;
+    return false;
   }
 
-  private boolean checkIfMutableFieldAndDirty(Field field) {
-    switch (field.schema().getType()) {
-    case RECORD:
-    case MAP:
-    case ARRAY:
-      Object value = get(field.pos());
-      return !(value instanceof Dirtyable) || value==null ? false : ((Dirtyable) value).isDirty();
-    case UNION:
-      value = get(field.pos());
-      return !(value instanceof Dirtyable) || value==null ? false : ((Dirtyable) value).isDirty();
-    default:
-      break;
-    }
-    return false;
+  private boolean isValueDirty(int fieldIndex) {
+    Object value = get(fieldIndex);
+    return value instanceof Dirtyable && ((Dirtyable) value).isDirty();
   }
 
   @Override
   public boolean isDirty(int fieldIndex) {
-    Field field = getSchema().getFields().get(fieldIndex);
-    boolean isSubRecordDirty = checkIfMutableFieldAndDirty(field);
-    ByteBuffer dirtyBytes = getDirtyBytes();
-    assert (dirtyBytes.position() == 0);
-    int byteOffset = fieldIndex / 8;
-    int bitOffset = fieldIndex % 8;
-    byte currentByte = dirtyBytes.get(byteOffset);
-    return isSubRecordDirty || 0 != ((1 << bitOffset) & currentByte);
+    long bit = 1L << fieldIndex;
+    return (dirtyWords[fieldIndex >>> 6] & bit) != 0
+        || ((getMutableFields()[fieldIndex >>> 6] & bit) != 0 && isValueDirty(fieldIndex));
   }
 
   @Override
@@ -159,22 +361,32 @@ public abstract class PersistentBase extends SpecificRecordBase implements
 
   @Override
   public void setDirty() {
-    ByteBuffer dirtyBytes = getDirtyBytes();
-    assert (dirtyBytes.position() == 0);
-    for (int i = 0; i < dirtyBytes.limit(); i++) {
-      dirtyBytes.put(i, (byte) -1);
+    int fieldsCount = getFieldsCount();
+    Arrays.fill(dirtyWords, -1L);
+    if ((fieldsCount & 63) != 0) {
+      dirtyWords[dirtyWords.length - 1] = (1L << fieldsCount) - 1;
+    }
+    dirtyCount = fieldsCount;
+    long[] fields = getMutableFields();
+    for (int w = 0; w < fields.length; w++) {
+      for (long bits = fields[w]; bits != 0; bits &= bits - 1) {
+        stopTracking((w << 6) + Long.numberOfTrailingZeros(bits));
+      }
     }
   }
 
+  /**
+   * Marks a field as dirty. A map or array of the field is then written as a
+   * whole, since the generated setters call this method when it was set.
+   */
   @Override
   public void setDirty(int fieldIndex) {
-    ByteBuffer dirtyBytes = getDirtyBytes();
-    assert (dirtyBytes.position() == 0);
-    int byteOffset = fieldIndex / 8;
-    int bitOffset = fieldIndex % 8;
-    byte currentByte = dirtyBytes.get(byteOffset);
-    currentByte = (byte) ((1 << bitOffset) | currentByte);
-    dirtyBytes.put(byteOffset, currentByte);
+    long bit = 1L << fieldIndex;
+    if ((dirtyWords[fieldIndex >>> 6] & bit) == 0) {
+      dirtyWords[fieldIndex >>> 6] |= bit;
+      dirtyCount++;
+    }
+    stopTracking(fieldIndex);
   }
 
   @Override
@@ -192,10 +404,26 @@ public abstract class PersistentBase extends SpecificRecordBase implements
    * on velocity template record.vm.
    * <p>
    * Note {@link java.nio.ByteBuffer} is not itself not in serializable form.
+   * <p>
+   * The dirty state is kept in words of 64 bits: the returned bytes are a copy of
+   * it, changes to them only apply once passed to {@link #setDirtyBytes(ByteBuffer)}.
    *
    * @return __g__dirty dirty bytes
    */
   public ByteBuffer getDirtyBytes() {
+    int fieldsCount = getFieldsCount();
+    if (__g__dirty == null || !__g__dirty.hasArray() || __g__dirty.arrayOffset() != 0
+        || __g__dirty.capacity() != fieldsCount) {
+      __g__dirty = java.nio.ByteBuffer.wrap(new byte[fieldsCount]);
+    }
+    // field i is bit i % 8 of byte i / 8
+    byte[] bytes = __g__dirty.array();
+    int used = Math.min(fieldsCount, dirtyWords.length << 3);
+    for (int i = 0; i < used; i++) {
+      bytes[i] = (byte) (dirtyWords[i >>> 3] >>> ((i & 7) << 3));
+    }
+    Arrays.fill(bytes, used, fieldsCount, (byte) 0);
+    __g__dirty.clear();
     return __g__dirty;
   }
 
@@ -215,6 +443,22 @@ public abstract class PersistentBase extends SpecificRecordBase implements
    */
   public void setDirtyBytes(ByteBuffer __g__dirty) {
     this.__g__dirty = __g__dirty;
+    Arrays.fill(dirtyWords, 0L);
+    dirtyCount = 0;
+    if (__g__dirty == null) {
+      return;
+    }
+    int bytes = Math.min(__g__dirty.limit(), dirtyWords.length << 3);
+    for (int i = 0; i < bytes; i++) {
+      dirtyWords[i >>> 3] |= (__g__dirty.get(i) & 0xffL) << ((i & 7) << 3);
+    }
+    int fieldsCount = getFieldsCount();
+    if ((fieldsCount & 63) != 0 && dirtyWords.length > 0) {
+      dirtyWords[dirtyWords.length - 1] &= (1L << fieldsCount) - 1;
+    }
+    for (long word : dirtyWords) {
+      dirtyCount += Long.bitCount(word);
+    }
   }
 
   @Override
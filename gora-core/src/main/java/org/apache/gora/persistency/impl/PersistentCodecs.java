@@ -0,0 +1,135 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificFixed;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.persistency.PersistentCodec;
+
+/**
+ * Finds the {@link PersistentCodec} generated for a persistent class or a
+ * record schema, and copies values for the generated codecs.
+ */
+public final class PersistentCodecs {
+
+  private static final Object NONE = new Object();
+
+  private static final ClassValue<Object> BY_CLASS = new ClassValue<Object>() {
+    @Override
+    protected Object computeValue(Class<?> type) {
+      try {
+        Field field = type.getField(PersistentCodec.CODEC_FIELD_NAME);
+        if (Modifier.isStatic(field.getModifiers())
+            && PersistentCodec.class.isAssignableFrom(field.getType())) {
+          Object codec = field.get(null);
+          if (codec != null) {
+            return codec;
+          }
+        }
+      } catch (NoSuchFieldException | IllegalAccessException e) {
+        // no codec generated for the class
+      }
+      return NONE;
+    }
+  };
+
+  private static final ConcurrentMap<Schema, Object> BY_SCHEMA = new ConcurrentHashMap<>();
+
+  private PersistentCodecs() {
+  }
+
+  /**
+   * Returns the codec of a persistent class.
+   *
+   * @param clazz the persistent class.
+   * @return the codec, or null if none was generated for the class.
+   */
+  public static <T> PersistentCodec<?> get(Class<T> clazz) {
+    Object codec = BY_CLASS.get(clazz);
+    return codec == NONE ? null : (PersistentCodec<?>) codec;
+  }
+
+  /**
+   * Returns the codec reading and writing a record schema, that is the codec
+   * of the specific class of the schema if it was generated from the same
+   * schema.
+   *
+   * @param schema a schema.
+   * @return the codec, or null if the schema is not a record schema with a
+   * codec.
+   */
+  public static PersistentCodec<?> get(Schema schema) {
+    if (schema.getType() != Schema.Type.RECORD) {
+      return null;
+    }
+    Object codec = BY_SCHEMA.get(schema);
+    if (codec == null) {
+      Class<?> clazz = SpecificData.get().getClass(schema);
+      PersistentCodec<?> classCodec = clazz == null ? null : get(clazz);
+      codec = classCodec != null && classCodec.getSchema().equals(schema) ? classCodec : NONE;
+      BY_SCHEMA.putIfAbsent(schema, codec);
+    }
+    return codec == NONE ? null : (PersistentCodec<?>) codec;
+  }
+
+  /**
+   * Copies a string value: strings are immutable and returned as they are,
+   * other character sequences are copied into a new {@link Utf8}.
+   */
+  public static CharSequence copyString(CharSequence value) {
+    if (value == null || value instanceof String) {
+      return value;
+    } else if (value instanceof Utf8) {
+      return new Utf8((Utf8) value);
+    }
+    return new Utf8(value.toString());
+  }
+
+  /**
+   * Copies the remaining bytes of a buffer into a new buffer, without
+   * changing the position of the buffer.
+   */
+  public static ByteBuffer copyBytes(ByteBuffer value) {
+    if (value == null) {
+      return null;
+    }
+    byte[] bytes = new byte[value.remaining()];
+    value.duplicate().get(bytes);
+    return ByteBuffer.wrap(bytes);
+  }
+
+  /**
+   * Copies the bytes of a fixed value into another one of the same schema.
+   *
+   * @return the fixed value copied into.
+   */
+  public static <F extends SpecificFixed> F copyFixed(GenericFixed from, F to) {
+    byte[] bytes = from.bytes();
+    System.arraycopy(bytes, 0, to.bytes(), 0, bytes.length);
+    return to;
+  }
+}
@@ -0,0 +1,134 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.PersistentCodec;
+
+/**
+ * A {@link SpecificDatumReader} reading the records which have a generated
+ * {@link PersistentCodec} with their codec, when the data was written with
+ * the schema it reads. Other data, such as data needing schema resolution,
+ * is read by the generic reader.
+ *
+ * <p>The reader can be restricted to some of the fields of the records it
+ * reads with {@link #setFields(String[])}: the encoded values of the other
+ * fields are skipped instead of decoded, and the records keep their
+ * previous values for them. Data needing schema resolution is always read
+ * in full.</p>
+ *
+ * @param <T> the type of the data read.
+ */
+public class PersistentDatumReader<T> extends SpecificDatumReader<T> {
+
+  private boolean[] fields;
+  private int depth;
+
+  public PersistentDatumReader() {
+    super();
+  }
+
+  public PersistentDatumReader(Schema schema) {
+    super(schema);
+  }
+
+  public PersistentDatumReader(Class<T> c) {
+    super(c);
+  }
+
+  /**
+   * Restricts the reader to some fields of the records it reads.
+   *
+   * @param fieldNames the names of the fields to read, or null to read all
+   * the fields.
+   * @throws IllegalArgumentException if the schema read is not a record
+   * schema holding the fields.
+   */
+  public void setFields(String[] fieldNames) {
+    if (fieldNames == null) {
+      fields = null;
+      return;
+    }
+    Schema schema = getExpected();
+    if (schema == null || schema.getType() != Schema.Type.RECORD) {
+      throw new IllegalArgumentException("Not a record schema: " + schema);
+    }
+    boolean[] selected = new boolean[schema.getFields().size()];
+    for (String fieldName : fieldNames) {
+      Schema.Field field = schema.getField(fieldName);
+      if (field == null) {
+        throw new IllegalArgumentException("Unknown field " + fieldName
+            + " in " + schema.getFullName());
+      }
+      selected[field.pos()] = true;
+    }
+    fields = selected;
+  }
+
+  /**
+   * Uses the schema read as writer schema when the data was written with an
+   * equal schema, as in data files, so that no resolution is needed.
+   */
+  @Override
+  public void setSchema(Schema writer) {
+    Schema expected = getExpected();
+    super.setSchema(expected != null && expected != writer && expected.equals(writer)
+        ? expected : writer);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T read(T reuse, Decoder in) throws IOException {
+    Schema schema = getSchema();
+    if (schema != null && schema == getExpected()) {
+      PersistentCodec<Persistent> codec = (PersistentCodec<Persistent>) PersistentCodecs.get(schema);
+      if (codec != null) {
+        return (T) codec.decode(codec.getRecordClass().isInstance(reuse)
+            ? (Persistent) reuse : null, in, fields);
+      }
+    }
+    return super.read(reuse, in);
+  }
+
+  @Override
+  protected Object readRecord(Object old, Schema expected, ResolvingDecoder in)
+      throws IOException {
+    depth++;
+    try {
+      return super.readRecord(old, expected, in);
+    } finally {
+      depth--;
+    }
+  }
+
+  @Override
+  protected void readField(Object r, Schema.Field f, Object oldDatum,
+      ResolvingDecoder in, Object state) throws IOException {
+    if (fields != null && depth == 1 && !fields[f.pos()] && getSchema() == getExpected()) {
+      skip(f.schema(), in);
+    } else {
+      super.readField(r, f, oldDatum, in, state);
+    }
+  }
+}
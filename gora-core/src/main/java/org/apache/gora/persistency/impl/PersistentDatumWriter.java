@@ -0,0 +1,59 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.PersistentCodec;
+
+/**
+ * A {@link SpecificDatumWriter} writing the records which have a generated
+ * {@link PersistentCodec} with their codec, at any depth.
+ *
+ * @param <T> the type of the data written.
+ */
+public class PersistentDatumWriter<T> extends SpecificDatumWriter<T> {
+
+  public PersistentDatumWriter() {
+    super();
+  }
+
+  public PersistentDatumWriter(Schema schema) {
+    super(schema);
+  }
+
+  public PersistentDatumWriter(Class<T> c) {
+    super(c);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void writeRecord(Schema schema, Object datum, Encoder out)
+      throws IOException {
+    PersistentCodec<Persistent> codec = (PersistentCodec<Persistent>) PersistentCodecs.get(schema);
+    if (codec != null && codec.getRecordClass().isInstance(datum)) {
+      codec.encode((Persistent) datum, out);
+    } else {
+      super.writeRecord(schema, datum, out);
+    }
+  }
+}
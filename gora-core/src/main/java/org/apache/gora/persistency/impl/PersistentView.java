@@ -0,0 +1,447 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.util.Utf8;
+
+/**
+ * A read-only flyweight over a record in the Avro binary encoding, held in
+ * a heap or direct {@link ByteBuffer}. The getters read the values of the
+ * fields directly from the buffer: nothing is decoded but the values asked
+ * for, and the view is re-pointed to the next record with
+ * {@link #wrap(ByteBuffer, int)} without allocating, which suits scans that
+ * only read the records.
+ *
+ * <p>The fields are addressed by their position in the schema of the
+ * encoded data, see {@link #getFieldIndex(String)}. The offsets of the
+ * fields are found by skipping the values before them once per record.
+ * The getters of primitive values return 0, false or null for a null value
+ * of a union field; {@link #isNull(int)} tells them apart. A view is not
+ * thread safe.</p>
+ */
+public final class PersistentView {
+
+  private final Schema schema;
+  private final List<Schema.Field> fields;
+  // offsets[i] is the offset of field i, known for i < known; offsets[n] is the end
+  private final int[] offsets;
+  private int known;
+  private final DatumReader<?>[] readers;
+
+  private ByteBuffer buffer;
+  private int pos;
+  private Schema valueSchema;
+
+  private ViewInputStream inputStream;
+  private BinaryDecoder decoder;
+
+  /**
+   * Creates a view over records of a schema.
+   *
+   * @param schema the record schema the data was written with.
+   */
+  public PersistentView(Schema schema) {
+    if (schema.getType() != Type.RECORD) {
+      throw new IllegalArgumentException("Not a record schema: " + schema);
+    }
+    this.schema = schema;
+    this.fields = schema.getFields();
+    this.offsets = new int[fields.size() + 1];
+    this.readers = new DatumReader<?>[fields.size()];
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Points the view to the record starting at the position of a buffer.
+   *
+   * @param buffer the buffer holding the record.
+   */
+  public void wrap(ByteBuffer buffer) {
+    wrap(buffer, buffer.position());
+  }
+
+  /**
+   * Points the view to the record starting at an index of a buffer. The
+   * position and limit of the buffer are not changed.
+   *
+   * @param buffer the buffer holding the record.
+   * @param offset the index of the first byte of the record.
+   */
+  public void wrap(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    offsets[0] = offset;
+    known = 1;
+  }
+
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Returns the index of the first byte of the record in the buffer.
+   */
+  public int getOffset() {
+    return offsets[0];
+  }
+
+  /**
+   * Returns the size of the record in bytes, the next record of a sequence
+   * starting at {@link #getOffset()} plus this size.
+   */
+  public int getLength() {
+    return seek(fields.size()) - offsets[0];
+  }
+
+  /**
+   * Returns the index of a field.
+   *
+   * @param fieldName the name of the field.
+   * @return the position of the field in the schema.
+   * @throws IllegalArgumentException if the schema has no such field.
+   */
+  public int getFieldIndex(String fieldName) {
+    Schema.Field field = schema.getField(fieldName);
+    if (field == null) {
+      throw new IllegalArgumentException("Unknown field " + fieldName
+          + " in " + schema.getFullName());
+    }
+    return field.pos();
+  }
+
+  /**
+   * Returns whether the value of a field is null.
+   */
+  public boolean isNull(int field) {
+    return position(field, null) < 0;
+  }
+
+  public boolean getBoolean(int field) {
+    return position(field, Type.BOOLEAN) >= 0 && buffer.get(pos) != 0;
+  }
+
+  public int getInt(int field) {
+    return position(field, Type.INT) < 0 ? 0 : readInt();
+  }
+
+  public long getLong(int field) {
+    return position(field, Type.LONG) < 0 ? 0 : readLong();
+  }
+
+  public float getFloat(int field) {
+    return position(field, Type.FLOAT) < 0 ? 0 : Float.intBitsToFloat(readFixedInt());
+  }
+
+  public double getDouble(int field) {
+    if (position(field, Type.DOUBLE) < 0) {
+      return 0;
+    }
+    long low = readFixedInt() & 0xffffffffL;
+    return Double.longBitsToDouble(low | ((long) readFixedInt() << 32));
+  }
+
+  /**
+   * Returns the position of the symbol of an enum field, or -1 if null.
+   */
+  public int getEnumOrdinal(int field) {
+    return position(field, Type.ENUM) < 0 ? -1 : readInt();
+  }
+
+  /**
+   * Returns the value of a string field.
+   *
+   * @param field the index of the field.
+   * @param reuse the instance to copy the value into, or null.
+   * @return the value, in <code>reuse</code> if not null, or null.
+   */
+  public Utf8 getString(int field, Utf8 reuse) {
+    if (position(field, Type.STRING) < 0) {
+      return null;
+    }
+    int length = readLength();
+    Utf8 value = reuse != null ? reuse : new Utf8();
+    value.setByteLength(length);
+    copy(value.getBytes(), length);
+    return value;
+  }
+
+  /**
+   * Returns the value of a bytes field.
+   *
+   * @param field the index of the field.
+   * @param reuse the buffer to copy the value into if large enough, or null.
+   * @return the value, between position 0 and the limit of the buffer
+   * returned, or null.
+   */
+  public ByteBuffer getBytes(int field, ByteBuffer reuse) {
+    if (position(field, Type.BYTES) < 0) {
+      return null;
+    }
+    int length = readLength();
+    ByteBuffer value = reuse != null && reuse.hasArray() && !reuse.isReadOnly()
+        && reuse.capacity() >= length ? reuse : ByteBuffer.allocate(length);
+    value.clear();
+    copy(value.array(), value.arrayOffset(), length);
+    value.limit(length);
+    return value;
+  }
+
+  /**
+   * Returns the value of a fixed field.
+   *
+   * @param field the index of the field.
+   * @param reuse the array to copy the value into if of the fixed size, or
+   * null.
+   * @return the value, or null.
+   */
+  public byte[] getFixed(int field, byte[] reuse) {
+    if (position(field, Type.FIXED) < 0) {
+      return null;
+    }
+    int size = valueSchema.getFixedSize();
+    byte[] value = reuse != null && reuse.length == size ? reuse : new byte[size];
+    copy(value, size);
+    return value;
+  }
+
+  /**
+   * Decodes the value of any field, such as maps, arrays and records, into
+   * a new object.
+   *
+   * @param field the index of the field.
+   * @return the value, as read by a {@link PersistentDatumReader}.
+   * @throws IOException if the value can not be decoded.
+   */
+  public Object get(int field) throws IOException {
+    pos = seek(field);
+    if (readers[field] == null) {
+      readers[field] = new PersistentDatumReader<>(fields.get(field).schema());
+    }
+    if (inputStream == null) {
+      inputStream = new ViewInputStream();
+    }
+    decoder = DecoderFactory.get().directBinaryDecoder(inputStream, decoder);
+    return readers[field].read(null, decoder);
+  }
+
+  /**
+   * Returns the offset of a field, skipping the fields before it if their
+   * offsets are not known yet.
+   */
+  private int seek(int field) {
+    while (known <= field) {
+      pos = offsets[known - 1];
+      skip(fields.get(known - 1).schema());
+      offsets[known++] = pos;
+    }
+    return offsets[field];
+  }
+
+  /**
+   * Moves to the value of a field, after the branch index of a union.
+   *
+   * @param type the expected type of the value, or null for any type.
+   * @return the position of the value, or -1 if the value is null.
+   * @throws AvroTypeException if the value is not of the expected type.
+   */
+  private int position(int field, Type type) {
+    pos = seek(field);
+    Schema fieldSchema = fields.get(field).schema();
+    if (fieldSchema.getType() == Type.UNION) {
+      fieldSchema = fieldSchema.getTypes().get(readInt());
+      if (fieldSchema.getType() == Type.NULL) {
+        return -1;
+      }
+    } else if (fieldSchema.getType() == Type.NULL) {
+      return -1;
+    }
+    if (type != null && fieldSchema.getType() != type) {
+      throw new AvroTypeException("Field " + fields.get(field).name() + " is a "
+          + fieldSchema.getType() + ", not a " + type);
+    }
+    valueSchema = fieldSchema;
+    return pos;
+  }
+
+  private void skip(Schema schema) {
+    switch (schema.getType()) {
+    case NULL:
+      break;
+    case BOOLEAN:
+      pos++;
+      break;
+    case INT:
+    case ENUM:
+      readInt();
+      break;
+    case LONG:
+      readLong();
+      break;
+    case FLOAT:
+      pos += 4;
+      break;
+    case DOUBLE:
+      pos += 8;
+      break;
+    case STRING:
+    case BYTES:
+      skipLength();
+      break;
+    case FIXED:
+      pos += schema.getFixedSize();
+      break;
+    case RECORD:
+      for (Schema.Field field : schema.getFields()) {
+        skip(field.schema());
+      }
+      break;
+    case UNION:
+      skip(schema.getTypes().get(readInt()));
+      break;
+    case ARRAY:
+      skipBlocks(false, schema.getElementType());
+      break;
+    case MAP:
+      skipBlocks(true, schema.getValueType());
+      break;
+    default:
+      throw new AvroRuntimeException("Unknown type: " + schema);
+    }
+  }
+
+  /**
+   * Skips the blocks of an array or map, at once when their size in bytes
+   * is given.
+   */
+  private void skipBlocks(boolean map, Schema valueType) {
+    for (long count = readLong(); count != 0; count = readLong()) {
+      if (count < 0) {
+        skipLength();
+      } else {
+        for (long i = 0; i < count; i++) {
+          if (map) {
+            skipLength();
+          }
+          skip(valueType);
+        }
+      }
+    }
+  }
+
+  /**
+   * Skips a length and the bytes it counts.
+   */
+  private void skipLength() {
+    int length = readLength();
+    pos += length;
+  }
+
+  private int readLength() {
+    long length = readLong();
+    if (length < 0 || length > Integer.MAX_VALUE) {
+      throw new AvroRuntimeException("Malformed length: " + length);
+    }
+    return (int) length;
+  }
+
+  private int readInt() {
+    int b = buffer.get(pos++) & 0xff;
+    int n = b & 0x7f;
+    for (int shift = 7; b > 0x7f; shift += 7) {
+      if (shift > 28) {
+        throw new AvroRuntimeException("Invalid int encoding");
+      }
+      b = buffer.get(pos++) & 0xff;
+      n |= (b & 0x7f) << shift;
+    }
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  private long readLong() {
+    int b = buffer.get(pos++) & 0xff;
+    long n = b & 0x7f;
+    for (int shift = 7; b > 0x7f; shift += 7) {
+      if (shift > 63) {
+        throw new AvroRuntimeException("Invalid long encoding");
+      }
+      b = buffer.get(pos++) & 0xff;
+      n |= (b & 0x7fL) << shift;
+    }
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  private int readFixedInt() {
+    int n = (buffer.get(pos) & 0xff) | (buffer.get(pos + 1) & 0xff) << 8
+        | (buffer.get(pos + 2) & 0xff) << 16 | (buffer.get(pos + 3) & 0xff) << 24;
+    pos += 4;
+    return n;
+  }
+
+  private void copy(byte[] destination, int length) {
+    copy(destination, 0, length);
+  }
+
+  private void copy(byte[] destination, int offset, int length) {
+    if (buffer.hasArray()) {
+      System.arraycopy(buffer.array(), buffer.arrayOffset() + pos, destination, offset, length);
+    } else {
+      for (int i = 0; i < length; i++) {
+        destination[offset + i] = buffer.get(pos + i);
+      }
+    }
+    pos += length;
+  }
+
+  /**
+   * Reads the buffer from the current position of the view.
+   */
+  private final class ViewInputStream extends InputStream {
+
+    @Override
+    public int read() {
+      return pos < buffer.limit() ? buffer.get(pos++) & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      int length = Math.min(len, buffer.limit() - pos);
+      if (length <= 0) {
+        return -1;
+      }
+      copy(b, off, length);
+      return length;
+    }
+  }
+}
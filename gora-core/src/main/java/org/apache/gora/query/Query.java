@@ -152,4 +152,26 @@ public interface Query<K, T extends Persistent> {
    * @return the limit if it is set, otherwise a negative number
    */
   long getLimit();
+
+  /**
+   * Makes {@link #execute()} read the results ahead on a background
+   * thread, see {@link org.apache.gora.query.impl.PrefetchingResult}.
+   *
+   * @param depth the maximum number of results read ahead, 0 to disable
+   * prefetching
+   * @param maxBytes the maximum estimated size of the results read ahead,
+   * 0 for no limit
+   */
+  void setPrefetch(int depth, long maxBytes);
+
+  /**
+   * @return the maximum number of results read ahead, 0 if disabled.
+   */
+  int getPrefetchDepth();
+
+  /**
+   * @return the maximum estimated size of the results read ahead, 0 for
+   * no limit.
+   */
+  long getPrefetchMaxBytes();
 }
@@ -0,0 +1,65 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.query;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.impl.PersistentView;
+
+/**
+ * The rows of a query as read-only {@link PersistentView}s over their
+ * serialized form, for scans which do not need {@link Persistent} objects.
+ * The same view is re-pointed to every row, so it is only valid until the
+ * next call to {@link #next()}.
+ *
+ * @see Result
+ */
+public interface ViewResult extends Closeable {
+
+  /**
+   * Advances to the next row.
+   *
+   * @return false if the end is reached.
+   * @throws IOException if the next row can not be read.
+   */
+  boolean next() throws IOException;
+
+  /**
+   * Returns the view over the current row.
+   *
+   * @return the view, pointed to the current row.
+   */
+  PersistentView get();
+
+  /**
+   * Returns the number of rows read so far.
+   *
+   * @return the number of times {@link #next()} returned true.
+   */
+  long getOffset();
+
+  /**
+   * Returns how far along the result has iterated, between 0 and 1.
+   *
+   * @return the progress of the result.
+   * @throws IOException if the progress can not be computed.
+   */
+  float getProgress() throws IOException;
+}
@@ -0,0 +1,356 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.query.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.query.PartitionQuery;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.util.GoraException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes a query in the local JVM by running the partitions returned by
+ * {@link DataStore#getPartitions(Query)} in parallel, the way
+ * {@link org.apache.gora.mapreduce.GoraInputFormat} runs them as map tasks.
+ *
+ * <p>In the default, unordered mode, up to <code>parallelism</code>
+ * partitions are read at a time on the executor and the rows are passed to
+ * the consumer from these threads, in no particular order: the consumer
+ * must be thread safe. Each partition reuses the objects of its result, so
+ * the key and persistent passed to the consumer are only valid during the
+ * call.</p>
+ *
+ * <p>In ordered mode, the rows of all partitions are merged by key and
+ * passed to the consumer from the calling thread. Up to
+ * <code>parallelism</code> partitions are read ahead on the executor by a
+ * {@link PrefetchingResult}, using the prefetch settings of the query or
+ * {@link #DEFAULT_PREFETCH_DEPTH} rows, the others are read by the calling
+ * thread.</p>
+ *
+ * <p>The limit of the query applies to the whole execution.</p>
+ */
+public class ParallelQueryExecutor<K, T extends Persistent> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelQueryExecutor.class);
+
+  /**
+   * Receives the rows of a query.
+   */
+  public interface RowConsumer<K, T extends Persistent> {
+
+    /**
+     * Processes a row.
+     * @param key the key of the row.
+     * @param persistent the row, valid during the call only.
+     * @throws Exception to stop the execution.
+     */
+    void accept(K key, T persistent) throws Exception;
+  }
+
+  /** Rows read ahead per partition in ordered mode, unless set on the query */
+  public static final int DEFAULT_PREFETCH_DEPTH = 64;
+
+  private final ExecutorService executor;
+  private final int parallelism;
+  private boolean ordered;
+  private Comparator<? super K> comparator;
+
+  /**
+   * Creates an executor running the partitions on a dedicated pool of
+   * <code>parallelism</code> daemon threads, which end once idle.
+   * @param parallelism the maximum number of partitions read at a time.
+   */
+  public ParallelQueryExecutor(int parallelism) {
+    this(newExecutor(parallelism), parallelism);
+  }
+
+  /**
+   * Creates an executor running the partitions on the given executor, which
+   * is not shut down by this class.
+   * @param executor the executor reading the partitions.
+   * @param parallelism the maximum number of partitions read at a time.
+   */
+  public ParallelQueryExecutor(ExecutorService executor, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  private static ExecutorService newExecutor(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "gora-parallel-query-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Executes a query in unordered mode on a dedicated pool of threads.
+   * @return the number of rows passed to the consumer.
+   * @throws GoraException if partitioning, reading or consuming fails.
+   */
+  public static <K, T extends Persistent> long execute(Query<K, T> query,
+      int parallelism, RowConsumer<K, T> consumer) throws GoraException {
+    return new ParallelQueryExecutor<K, T>(parallelism).execute(query, consumer);
+  }
+
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  /**
+   * Sets whether the rows are merged in key order.
+   */
+  public void setOrdered(boolean ordered) {
+    this.ordered = ordered;
+  }
+
+  public Comparator<? super K> getComparator() {
+    return comparator;
+  }
+
+  /**
+   * Sets the order of the keys in ordered mode, which must be the order
+   * of the keys in the results. The natural order of the keys is used if
+   * null.
+   */
+  public void setComparator(Comparator<? super K> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Executes a query.
+   * @param query the query to execute.
+   * @param consumer the consumer of the rows.
+   * @return the number of rows passed to the consumer.
+   * @throws GoraException if partitioning, reading or consuming fails. The
+   * partitions still running are stopped at their next row.
+   */
+  public long execute(Query<K, T> query, RowConsumer<K, T> consumer)
+      throws GoraException {
+    List<PartitionQuery<K, T>> partitions;
+    try {
+      partitions = query.getDataStore().getPartitions(query);
+    } catch (GoraException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new GoraException(e);
+    }
+    if (ordered) {
+      return executeOrdered(query, partitions, query.getLimit(), consumer);
+    }
+    return executeUnordered(partitions, query.getLimit(), consumer);
+  }
+
+  private long executeUnordered(List<PartitionQuery<K, T>> partitions,
+      final long limit, final RowConsumer<K, T> consumer) throws GoraException {
+    final ConcurrentLinkedQueue<PartitionQuery<K, T>> pending =
+        new ConcurrentLinkedQueue<>(partitions);
+    final AtomicLong rows = new AtomicLong();
+    final AtomicBoolean stopped = new AtomicBoolean();
+
+    int tasks = Math.min(parallelism, partitions.size());
+    List<Future<Void>> futures = new ArrayList<>(tasks);
+    for (int i = 0; i < tasks; i++) {
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          PartitionQuery<K, T> partition;
+          try {
+            while (!stopped.get() && (partition = pending.poll()) != null) {
+              readPartition(partition, limit, consumer, rows, stopped);
+            }
+          } catch (Exception e) {
+            stopped.set(true);
+            throw e;
+          }
+          return null;
+        }
+      }));
+    }
+
+    Throwable failure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        stopped.set(true);
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        stopped.set(true);
+        Thread.currentThread().interrupt();
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure instanceof GoraException) {
+      throw (GoraException) failure;
+    } else if (failure != null) {
+      throw new GoraException(failure);
+    }
+    return rows.get();
+  }
+
+  private void readPartition(PartitionQuery<K, T> partition, long limit,
+      RowConsumer<K, T> consumer, AtomicLong rows, AtomicBoolean stopped)
+      throws Exception {
+    Result<K, T> result = partition.execute();
+    try {
+      while (!stopped.get() && result.next()) {
+        if (rows.incrementAndGet() > limit && limit > 0) {
+          rows.decrementAndGet();
+          stopped.set(true);
+          return;
+        }
+        consumer.accept(result.getKey(), result.get());
+      }
+    } finally {
+      result.close();
+    }
+  }
+
+  private long executeOrdered(Query<K, T> query, List<PartitionQuery<K, T>> partitions,
+      long limit, RowConsumer<K, T> consumer) throws GoraException {
+    final Comparator<? super K> keyComparator = comparator != null ? comparator
+        : new Comparator<K>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public int compare(K key1, K key2) {
+              return ((Comparable<K>) key1).compareTo(key2);
+            }
+          };
+    PriorityQueue<Result<K, T>> heads = new PriorityQueue<>(
+        Math.max(1, partitions.size()), new Comparator<Result<K, T>>() {
+          @Override
+          public int compare(Result<K, T> result1, Result<K, T> result2) {
+            return keyComparator.compare(result1.getKey(), result2.getKey());
+          }
+        });
+
+    int depth = query.getPrefetchDepth() > 0 ? query.getPrefetchDepth() : DEFAULT_PREFETCH_DEPTH;
+    Executor prefetchExecutor = limitedExecutor(parallelism);
+    List<Result<K, T>> results = new ArrayList<>(partitions.size());
+    long rows = 0;
+    try {
+      for (PartitionQuery<K, T> partition : partitions) {
+        // read ahead here rather than with the settings of the query
+        Result<K, T> result = partition.getDataStore().execute(partition);
+        results.add(new PrefetchingResult<>(result, depth, query.getPrefetchMaxBytes(),
+            prefetchExecutor));
+      }
+      for (Result<K, T> result : results) {
+        if (result.next()) {
+          heads.add(result);
+        }
+      }
+      while (!heads.isEmpty() && (limit <= 0 || rows < limit)) {
+        Result<K, T> result = heads.poll();
+        consumer.accept(result.getKey(), result.get());
+        rows++;
+        if (result.next()) {
+          heads.add(result);
+        }
+      }
+    } catch (GoraException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    } finally {
+      for (Result<K, T> result : results) {
+        try {
+          result.close();
+        } catch (IOException e) {
+          LOG.warn("Error closing the result of a partition", e);
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns an executor running at most the given number of tasks at a
+   * time on the executor of this class, and rejecting the others.
+   */
+  private Executor limitedExecutor(int maxTasks) {
+    final Semaphore permits = new Semaphore(maxTasks);
+    return new Executor() {
+      @Override
+      public void execute(final Runnable task) {
+        if (!permits.tryAcquire()) {
+          throw new RejectedExecutionException("All " + parallelism + " partitions are read ahead");
+        }
+        try {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                task.run();
+              } finally {
+                permits.release();
+              }
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          permits.release();
+          throw e;
+        }
+      }
+    };
+  }
+}
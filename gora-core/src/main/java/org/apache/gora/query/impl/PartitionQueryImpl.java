@@ -99,6 +99,16 @@ public String[] getLocations() {
     return baseQuery.getLimit();
   }
 
+  @Override
+  public int getPrefetchDepth() {
+    return baseQuery.getPrefetchDepth();
+  }
+
+  @Override
+  public long getPrefetchMaxBytes() {
+    return baseQuery.getPrefetchMaxBytes();
+  }
+
   @Override
   public void setFields(String... fields) {
     baseQuery.setFields(fields);
@@ -129,6 +139,11 @@ public String[] getLocations() {
     baseQuery.setLimit(limit);
   }
   
+  @Override
+  public void setPrefetch(int depth, long maxBytes) {
+    baseQuery.setPrefetch(depth, maxBytes);
+  }
+  
   @Override
   public Filter<K, T> getFilter() {
     return baseQuery.getFilter();
@@ -0,0 +1,463 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.query.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.impl.PersistentBase.PersistentData;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+
+/**
+ * A {@link Result} reading ahead of the caller: a background thread pulls
+ * the rows of the wrapped result into a bounded buffer while the caller
+ * processes the previous ones, so that the backend I/O overlaps with the
+ * consumer work.
+ *
+ * <p>The buffer holds at most <code>depth</code> rows and, if
+ * <code>maxBytes</code> is positive, about <code>maxBytes</code> bytes of
+ * rows, estimated from their Avro values; a single row larger than that is
+ * still buffered alone. Every row is a distinct object: the objects of a
+ * {@link ResultBase} are handed over as they are, the rows of other results
+ * are deep copied, as they may be reused for the next row.</p>
+ *
+ * <p>The background thread is taken from the given executor, by default a
+ * shared pool of at most {@value #DEFAULT_MAX_THREADS} threads. If the
+ * executor rejects the reading, or has not started it yet when the caller
+ * waits for a row, the caller reads the rows itself without reading ahead,
+ * so that results sharing a busy executor never wait for each other.</p>
+ *
+ * <p>Errors of the wrapped result are thrown by the {@link #next()} call
+ * reaching them. {@link #close()} stops the background thread and closes
+ * the wrapped result.</p>
+ *
+ * @see Query#setPrefetch(int, long)
+ */
+public class PrefetchingResult<K, T extends Persistent> implements Result<K, T> {
+
+  /** Maximum number of threads of the default executor */
+  public static final int DEFAULT_MAX_THREADS = 64;
+
+  /** Time the caller waits for the executor to start the reading */
+  private static final long START_TIMEOUT_MILLIS = 10;
+
+  private static final Executor DEFAULT_EXECUTOR = new ThreadPoolExecutor(0,
+      DEFAULT_MAX_THREADS, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+      new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "gora-prefetch-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  private final Result<K, T> result;
+  private final int depth;
+  private final long maxBytes;
+  private final Executor executor;
+
+  // ring buffer of prefetched rows and of the progress after them, guarded by lock
+  private final Object[] keys;
+  private final Object[] values;
+  private final long[] sizes;
+  private final float[] progresses;
+  private int head;
+  private int count;
+  private long bytes;
+  private boolean started;
+  private boolean finished;
+  private float finalProgress;
+  private Throwable error;
+  private volatile boolean closed;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  private FutureTask<?> producer;
+  // set, under lock, if the producer was rejected or did not start in time,
+  // the caller then reads the rows
+  private boolean direct;
+
+  private K key;
+  private T persistent;
+  private long offset;
+  private volatile float progress;
+
+  /**
+   * Wraps a result.
+   * @param result the result to read ahead.
+   * @param depth the maximum number of buffered rows, at least 1.
+   * @param maxBytes the maximum estimated size of the buffered rows, or 0
+   * for no limit.
+   */
+  public PrefetchingResult(Result<K, T> result, int depth, long maxBytes) {
+    this(result, depth, maxBytes, DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Wraps a result, reading ahead on a thread of the given executor.
+   * @param result the result to read ahead.
+   * @param depth the maximum number of buffered rows, at least 1.
+   * @param maxBytes the maximum estimated size of the buffered rows, or 0
+   * for no limit.
+   * @param executor the executor running the reading.
+   */
+  public PrefetchingResult(Result<K, T> result, int depth, long maxBytes, Executor executor) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Prefetch depth must be positive: " + depth);
+    }
+    this.result = result;
+    this.depth = depth;
+    this.maxBytes = maxBytes;
+    this.executor = executor;
+    this.keys = new Object[depth];
+    this.values = new Object[depth];
+    this.sizes = new long[depth];
+    this.progresses = new float[depth];
+  }
+
+  private void start() {
+    producer = new FutureTask<>(new Runnable() {
+      @Override
+      public void run() {
+        lock.lock();
+        try {
+          if (direct) {
+            return;
+          }
+          started = true;
+        } finally {
+          lock.unlock();
+        }
+        prefetch();
+      }
+    }, null);
+    try {
+      executor.execute(producer);
+    } catch (RejectedExecutionException e) {
+      producer = null;
+      direct = true;
+    }
+  }
+
+  private void prefetch() {
+    Throwable failure = null;
+    try {
+      while (!closed && result.next()) {
+        K nextKey = result.getKey();
+        T nextValue = result.get();
+        if (result instanceof ResultBase) {
+          // hand the objects over, the result creates new ones for the next row
+          ((ResultBase<K, T>) result).detach();
+        } else {
+          nextKey = copy(nextKey);
+          nextValue = copy(nextValue);
+        }
+        if (!offer(nextKey, nextValue, maxBytes > 0 ? estimateSize(nextValue) : 0,
+            readProgress())) {
+          return;
+        }
+      }
+    } catch (Throwable t) {
+      failure = t;
+    }
+    float lastProgress = readProgress();
+    lock.lock();
+    try {
+      finished = true;
+      error = failure;
+      finalProgress = lastProgress;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the progress of the wrapped result, called by the thread
+   * reading it as the result is not thread safe.
+   */
+  private float readProgress() {
+    try {
+      return result.getProgress();
+    } catch (IOException | RuntimeException e) {
+      return progress;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return progress;
+    }
+  }
+
+  /**
+   * Waits for room in the buffer and adds a row to it.
+   * @return false if the result was closed meanwhile.
+   */
+  private boolean offer(K nextKey, T nextValue, long size, float rowProgress)
+      throws InterruptedException {
+    lock.lock();
+    try {
+      while (!closed && (count == depth || (count > 0 && bytes + size > maxBytes
+          && maxBytes > 0))) {
+        notFull.await();
+      }
+      if (closed) {
+        return false;
+      }
+      int tail = (head + count) % depth;
+      keys[tail] = nextKey;
+      values[tail] = nextValue;
+      sizes[tail] = size;
+      progresses[tail] = rowProgress;
+      count++;
+      bytes += size;
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public boolean next() throws Exception {
+    if (closed) {
+      return false;
+    }
+    if (producer == null && !direct) {
+      start();
+    }
+    if (direct) {
+      return nextDirect();
+    }
+    lock.lock();
+    try {
+      while (count == 0 && !finished) {
+        if (started) {
+          notEmpty.await();
+        } else if (!notEmpty.await(START_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) && !started) {
+          // the executor is busy, read the rows here
+          direct = true;
+          break;
+        }
+      }
+      if (!direct) {
+        if (count == 0) {
+          key = null;
+          persistent = null;
+          progress = finalProgress;
+          if (error instanceof Exception) {
+            throw (Exception) error;
+          } else if (error != null) {
+            throw new ExecutionException(error);
+          }
+          return false;
+        }
+        key = (K) keys[head];
+        persistent = (T) values[head];
+        progress = progresses[head];
+        bytes -= sizes[head];
+        keys[head] = null;
+        values[head] = null;
+        head = (head + 1) % depth;
+        count--;
+        notFull.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (direct) {
+      producer.cancel(false);
+      return nextDirect();
+    }
+    offset++;
+    return true;
+  }
+
+  /**
+   * Reads the next row on the calling thread, when the executor rejected
+   * the reading ahead.
+   */
+  private boolean nextDirect() throws Exception {
+    if (!result.next()) {
+      key = null;
+      persistent = null;
+      return false;
+    }
+    key = result.getKey();
+    persistent = result.get();
+    offset++;
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V copy(V value) {
+    if (value instanceof Persistent) {
+      Persistent persistent = (Persistent) value;
+      return (V) PersistentData.get().deepCopy(persistent.getSchema(), persistent);
+    }
+    return value;
+  }
+
+  /**
+   * Estimates the memory held by a row from its Avro values.
+   */
+  static long estimateSize(Object value) {
+    if (value instanceof IndexedRecord) {
+      IndexedRecord record = (IndexedRecord) value;
+      long size = 16;
+      for (Field field : record.getSchema().getFields()) {
+        size += estimateSize(record.get(field.pos()));
+      }
+      return size;
+    } else if (value instanceof Utf8) {
+      return 24 + ((Utf8) value).getByteLength();
+    } else if (value instanceof CharSequence) {
+      return 40 + 2L * ((CharSequence) value).length();
+    } else if (value instanceof ByteBuffer) {
+      return 48 + ((ByteBuffer) value).remaining();
+    } else if (value instanceof GenericFixed) {
+      return 16 + ((GenericFixed) value).bytes().length;
+    } else if (value instanceof Map) {
+      long size = 48;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += 32 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    } else if (value instanceof Collection) {
+      long size = 24;
+      for (Object element : (Collection<?>) value) {
+        size += 8 + estimateSize(element);
+      }
+      return size;
+    }
+    return value == null ? 0 : 16;
+  }
+
+  @Override
+  public DataStore<K, T> getDataStore() {
+    return result.getDataStore();
+  }
+
+  @Override
+  public Query<K, T> getQuery() {
+    return result.getQuery();
+  }
+
+  @Override
+  public K getKey() {
+    return key;
+  }
+
+  @Override
+  public T get() {
+    return persistent;
+  }
+
+  @Override
+  public Class<K> getKeyClass() {
+    return result.getKeyClass();
+  }
+
+  @Override
+  public Class<T> getPersistentClass() {
+    return result.getPersistentClass();
+  }
+
+  @Override
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Returns the progress of the wrapped result after the current row, as
+   * recorded by the reading thread.
+   */
+  @Override
+  public float getProgress() throws IOException, InterruptedException {
+    if (direct) {
+      return result.getProgress();
+    }
+    return progress;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      lock.lock();
+      try {
+        if (producer != null && !started) {
+          // never let the producer start, rather than waiting for it
+          direct = true;
+        }
+        for (int i = 0; i < depth; i++) {
+          keys[i] = null;
+          values[i] = null;
+        }
+        count = 0;
+        bytes = 0;
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+      if (direct && producer != null) {
+        producer.cancel(false);
+      } else if (producer != null) {
+        // the wrapped result is not thread safe, wait for the running next()
+        try {
+          producer.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          // reported by next()
+        }
+      }
+    }
+    result.close();
+  }
+
+  @Override
+  public int size() {
+    return result.size();
+  }
+}
@@ -47,6 +47,10 @@ import org.apache.hadoop.util.ReflectionUtils;
 public abstract class QueryBase<K, T extends PersistentBase>
     implements Query<K,T>, Writable, Configurable {
 	
+  /** Bits of the serialized flags byte, which used to be localFilterEnabled */
+  private static final int LOCAL_FILTER_FLAG = 0x1;
+  private static final int PREFETCH_FLAG = 0x2;
+
   protected DataStoreBase<K,T> dataStore;
 
   protected String queryString;
@@ -63,6 +67,9 @@ public abstract class QueryBase<K, T extends PersistentBase>
 
   protected long limit = -1;
 
+  protected int prefetchDepth = 0;
+  protected long prefetchMaxBytes = 0;
+
   protected Configuration conf;
 
   public QueryBase(DataStore<K,T> dataStore) {
@@ -71,7 +78,11 @@ public abstract class QueryBase<K, T extends PersistentBase>
 
   @Override
   public Result<K,T> execute() throws GoraException {
-    return dataStore.execute(this);
+    Result<K,T> result = dataStore.execute(this);
+    if (getPrefetchDepth() > 0) {
+      return new PrefetchingResult<>(result, getPrefetchDepth(), getPrefetchMaxBytes());
+    }
+    return result;
   }
 
   @Override
@@ -199,6 +210,22 @@ public String[] getFields() {
     return limit;
   }
 
+  @Override
+  public void setPrefetch(int depth, long maxBytes) {
+    this.prefetchDepth = depth;
+    this.prefetchMaxBytes = maxBytes;
+  }
+
+  @Override
+  public int getPrefetchDepth() {
+    return prefetchDepth;
+  }
+
+  @Override
+  public long getPrefetchMaxBytes() {
+    return prefetchMaxBytes;
+  }
+
   public Configuration getConf() {
     return conf;
   }
@@ -241,7 +268,15 @@ public String[] getFields() {
     startTime = WritableUtils.readVLong(in);
     endTime = WritableUtils.readVLong(in);
     limit = WritableUtils.readVLong(in);
-    localFilterEnabled = in.readBoolean(); 
+    byte flags = in.readByte();
+    localFilterEnabled = (flags & LOCAL_FILTER_FLAG) != 0;
+    if ((flags & PREFETCH_FLAG) != 0) {
+      prefetchDepth = WritableUtils.readVInt(in);
+      prefetchMaxBytes = WritableUtils.readVLong(in);
+    } else {
+      prefetchDepth = 0;
+      prefetchMaxBytes = 0;
+    }
   }
 
   //@Override
@@ -269,7 +304,14 @@ public String[] getFields() {
     WritableUtils.writeVLong(out, getStartTime());
     WritableUtils.writeVLong(out, getEndTime());
     WritableUtils.writeVLong(out, getLimit());
-    out.writeBoolean(localFilterEnabled);
+    // the prefetch settings follow the former localFilterEnabled boolean only
+    // when set, so that queries without them keep the previous format
+    boolean prefetch = prefetchDepth != 0 || prefetchMaxBytes != 0;
+    out.writeByte((localFilterEnabled ? LOCAL_FILTER_FLAG : 0) | (prefetch ? PREFETCH_FLAG : 0));
+    if (prefetch) {
+      WritableUtils.writeVInt(out, prefetchDepth);
+      WritableUtils.writeVLong(out, prefetchMaxBytes);
+    }
   }
 
   @SuppressWarnings({ "rawtypes" })
@@ -286,6 +328,8 @@ public String[] getFields() {
       builder.append(filter, that.filter);
       builder.append(limit, that.limit);
       builder.append(localFilterEnabled, that.localFilterEnabled);
+      builder.append(prefetchDepth, that.prefetchDepth);
+      builder.append(prefetchMaxBytes, that.prefetchMaxBytes);
       return builder.isEquals();
     }
     return false;
@@ -302,6 +346,8 @@ public String[] getFields() {
     builder.append(filter);
     builder.append(limit);
     builder.append(localFilterEnabled);
+    builder.append(prefetchDepth);
+    builder.append(prefetchMaxBytes);
     return builder.toHashCode();
   }
 
@@ -315,6 +361,8 @@ public String[] getFields() {
     builder.append("filter", filter);
     builder.append("limit", limit);
     builder.append("localFilterEnabled", localFilterEnabled);
+    builder.append("prefetchDepth", prefetchDepth);
+    builder.append("prefetchMaxBytes", prefetchMaxBytes);
 
     return builder.toString();
   }
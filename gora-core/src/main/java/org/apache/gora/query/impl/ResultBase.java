@@ -18,7 +18,9 @@
 
 package org.apache.gora.query.impl;
 
+import org.apache.gora.filter.CompiledFilter;
 import org.apache.gora.filter.Filter;
+import org.apache.gora.filter.FilterCompiler;
 import org.apache.gora.persistency.Persistent;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
@@ -46,6 +48,10 @@ implements Result<K, T> {
   /** How far we have proceeded*/
   protected long offset = 0;
 
+  /** The query filter, compiled on the first row */
+  private CompiledFilter<K, T> compiledFilter;
+  private Filter<K, T> compiledFrom;
+
   public ResultBase(DataStore<K,T> dataStore, Query<K,T> query) {
     this.dataStore = dataStore;
     this.query = query;
@@ -99,6 +105,18 @@ implements Result<K, T> {
     }
   }
 
+  /**
+   * Gives the objects of the current row up to the caller, so that the next
+   * row is read into new ones. Used by {@link PrefetchingResult} to keep the
+   * rows it buffers.
+   */
+  protected void detach() {
+    persistent = null;
+    if (key instanceof Persistent) {
+      key = null;
+    }
+  }
+
   @Override
   public final boolean next() throws Exception {
     if(isLimitReached()) {
@@ -130,8 +148,12 @@ implements Result<K, T> {
     if (filter == null) {
       return false;
     }
+    if (filter != compiledFrom) {
+      compiledFilter = FilterCompiler.compile(filter, persistent.getSchema());
+      compiledFrom = filter;
+    }
 
-    return filter.filter(key, persistent);
+    return compiledFilter.filter(key, persistent);
   }
 
   @Override
@@ -25,6 +25,7 @@ import org.apache.gora.filter.Filter;
 import org.apache.gora.persistency.Persistent;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
+import org.apache.gora.query.impl.PrefetchingResult;
 import org.apache.gora.store.DataStore;
 import org.apache.gora.util.GoraException;
 
@@ -67,6 +68,12 @@ public abstract class QueryWSBase<K, T extends Persistent> implements Query<K,T>
    */
   protected long limit = -1;
 
+  /**
+   * Read ahead parameters
+   */
+  protected int prefetchDepth = 0;
+  protected long prefetchMaxBytes = 0;
+
   /**
    * Flag to determine whether a query is compiled or not
    */
@@ -89,7 +96,11 @@ public abstract class QueryWSBase<K, T extends Persistent> implements Query<K,T>
    */
   public Result<K,T> execute() throws GoraException {
     //compile();
-    return dataStore.execute(this);
+    Result<K,T> result = dataStore.execute(this);
+    if (prefetchDepth > 0) {
+      return new PrefetchingResult<>(result, prefetchDepth, prefetchMaxBytes);
+    }
+    return result;
   }
 
   @Override
@@ -257,6 +268,31 @@ public abstract class QueryWSBase<K, T extends Persistent> implements Query<K,T>
     return limit;
   }
 
+  @Override
+  /**
+   * Sets the read ahead of the results
+   */
+  public void setPrefetch(int depth, long maxBytes) {
+    this.prefetchDepth = depth;
+    this.prefetchMaxBytes = maxBytes;
+  }
+
+  @Override
+  /**
+   * Gets the number of results read ahead
+   */
+  public int getPrefetchDepth() {
+    return prefetchDepth;
+  }
+
+  @Override
+  /**
+   * Gets the maximum size of the results read ahead
+   */
+  public long getPrefetchMaxBytes() {
+    return prefetchMaxBytes;
+  }
+
   /**
    * Gets the configuration object
    * @return
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.store;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+
+/**
+ * AsyncDataStore exposes non-blocking variants of the main {@link DataStore}
+ * operations. Every method returns immediately with a {@link CompletableFuture}
+ * which is completed once the backend has answered. Failures complete the
+ * future exceptionally, usually with a {@link org.apache.gora.util.GoraException}.
+ *
+ * <p>Stores with a native asynchronous client implement these methods directly,
+ * the others inherit a bridge from
+ * {@link org.apache.gora.store.impl.DataStoreBase} which runs the blocking call
+ * on a bounded executor.</p>
+ *
+ * <p>The <a href="DataStore.html#visibility">visibility</a> rules of
+ * {@link DataStore} still apply: a completed {@link #putAsync(Object, Persistent)}
+ * may still need a {@link #flush()} before it becomes visible.</p>
+ *
+ * @param <K> the class of keys in the datastore.
+ * @param <T> the class of persistent objects in the datastore.
+ */
+public interface AsyncDataStore<K, T extends Persistent> extends DataStore<K, T> {
+
+  /**
+   * Asynchronously returns the object corresponding to the given key
+   * fetching all the fields.
+   * @param key the key of the object.
+   * @return a future with the object or null if it cannot be found.
+   */
+  CompletableFuture<T> getAsync(K key);
+
+  /**
+   * Asynchronously returns the object corresponding to the given key.
+   * @param key the key of the object.
+   * @param fields the fields required in the object. Pass null, to retrieve all fields.
+   * @return a future with the object or null if it cannot be found.
+   */
+  CompletableFuture<T> getAsync(K key, String[] fields);
+
+  /**
+   * Asynchronously inserts the persistent object with the given key.
+   * @param key the key of the object.
+   * @param obj the {@link Persistent} object.
+   * @return a future completed when the backend accepted the object.
+   */
+  CompletableFuture<Void> putAsync(K key, T obj);
+
+  /**
+   * Asynchronously deletes the object with the given key.
+   * @param key the key of the object.
+   * @return a future telling whether the object was successfully deleted.
+   */
+  CompletableFuture<Boolean> deleteAsync(K key);
+
+  /**
+   * Asynchronously verifies whether a key exists in the data store.
+   * @param key the key of the object.
+   * @return a future with true if the key exists, false otherwise.
+   */
+  CompletableFuture<Boolean> existsAsync(K key);
+
+  /**
+   * Asynchronously executes the given query.
+   * @param query the query to execute.
+   * @return a future with the results as a {@link Result} object.
+   */
+  CompletableFuture<Result<K, T>> executeAsync(Query<K, T> query);
+
+}
@@ -18,7 +18,9 @@
 package org.apache.gora.store;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.gora.persistency.BeanFactory;
@@ -181,6 +183,43 @@ public interface DataStore<K, T extends Persistent> {
    */
   boolean delete(K key) throws GoraException;
 
+  /**
+   * Returns the objects corresponding to the given keys. Stores which can
+   * fetch several rows in one request do so, the others loop over
+   * {@link #get(Object, String[])}.
+   * @param keys the keys of the objects.
+   * @param fields the fields required in the objects. Pass null, to retrieve all fields.
+   * @return a map from key to object, in the iteration order of the keys.
+   * Keys which cannot be found are not contained in the map.
+   * @throws GoraException If any error occurred.
+   */
+  Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException;
+
+  /**
+   * Inserts the given persistent objects. See also the note on
+   * <a href="#visibility">visibility</a>.
+   * @param objects a map from key to {@link Persistent} object.
+   * @throws GoraException If any error occurred.
+   */
+  void putAll(Map<K, T> objects) throws GoraException;
+
+  /**
+   * Deletes the objects with the given keys.
+   * See also the note on <a href="#visibility">visibility</a>.
+   * @param keys the keys of the objects.
+   * @return number of deleted records, as far as the store can tell.
+   * @throws GoraException If any error occurred.
+   */
+  long deleteAll(Collection<K> keys) throws GoraException;
+
+  /**
+   * Verify which of the given keys exist in the data store.
+   * @param keys the keys of the objects.
+   * @return a map from key to whether it exists, in the iteration order of the keys.
+   * @throws GoraException If any error occurred.
+   */
+  Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException;
+
   /**
    * Deletes all the objects matching the query.
    * See also the note on <a href="#visibility">visibility</a>.
@@ -215,6 +254,17 @@ public interface DataStore<K, T extends Persistent> {
    */
   List<PartitionQuery<K, T>> getPartitions(Query<K, T> query) throws IOException;
 
+  /**
+   * Returns whether the results of {@link #execute(Query)} stream the rows
+   * from a server side cursor, fetching them in bounded batches, rather than
+   * holding all the rows of the query in memory. Readers of large results,
+   * like {@link org.apache.gora.mapreduce.GoraRecordReader}, keep a single
+   * result open on such stores instead of re-executing the query page by
+   * page.
+   * @return true if the results are streamed.
+   */
+  boolean supportsResultStreaming();
+
   /**
    * Forces the write caches to be flushed. DataStore implementations may
    * optimize their writing by deferring the actual put / delete operations
@@ -23,6 +23,8 @@ import java.util.Properties;
 import java.util.Locale;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.apache.gora.cache.CachingDataStore;
+import org.apache.gora.metrics.InstrumentedDataStore;
 import org.apache.gora.persistency.Persistent;
 import org.apache.gora.store.impl.DataStoreBase;
 import org.apache.gora.util.ClassLoadingUtils;
@@ -33,6 +35,7 @@ import org.apache.hadoop.conf.Configuration;
 
 /**
  * A Factory for {@link DataStore}s. DataStoreFactory instances are thread-safe.
+ * Every call creates a new store, see {@link DataStoreRegistry} to share them.
  */
 public class DataStoreFactory{
 
@@ -60,15 +63,39 @@ public class DataStoreFactory{
 
   public static final String SCHEMA_NAME = "schema.name";
 
+  /** Property key enabling the {@link InstrumentedDataStore} decorator */
+  public static final String METRICS_ENABLE = "metrics.enable";
+
+  /** Property key listing the {@link org.apache.gora.metrics.MetricsReporter} classes */
+  public static final String METRICS_REPORTERS = "metrics.reporters";
+
+  /** Property key enabling the {@link CachingDataStore} decorator */
+  public static final String CACHE_ENABLE = "cache.enable";
+
+  /** The default gora configuration resources, read once */
+  private static volatile Properties defaultProps;
+
   /**
    * Creates a new {@link Properties}. It adds the default gora configuration
-   * resources. This properties object can be modified and used to instantiate
+   * resources, which are read once and cached. This properties object can be
+   * modified and used to instantiate
    * store instances. It is recommended to use a properties object for a single
    * store, because the properties object is passed on to store initialization
    * methods that are able to store the properties as a field.   
    * @return The new properties object.
    */
   public static Properties createProps() {
+    Properties defaults = defaultProps;
+    if (defaults == null) {
+      defaults = loadProps();
+      defaultProps = defaults;
+    }
+    Properties properties = new Properties();
+    properties.putAll(defaults);
+    return properties;
+  }
+
+  private static Properties loadProps() {
     try {
       Properties properties = new Properties();
       InputStream stream = DataStoreFactory.class.getClassLoader()
@@ -91,6 +118,34 @@ public class DataStoreFactory{
 
   private DataStoreFactory() { }
 
+  /**
+   * Wraps the store in an {@link InstrumentedDataStore} if the
+   * <code>metrics.enable</code> property is true for it, then in a
+   * {@link CachingDataStore} if <code>cache.enable</code> is true, so that
+   * the metrics measure the requests reaching the store.
+   */
+  private static <K, T extends Persistent> DataStore<K, T> decorateDataStore(
+      DataStore<K, T> dataStore, Properties properties) throws GoraException {
+    DataStore<K, T> decorated = dataStore;
+    if (findBooleanProperty(properties, dataStore, METRICS_ENABLE, "false")) {
+      decorated = new InstrumentedDataStore<>(decorated, properties);
+    }
+    if (findBooleanProperty(properties, dataStore, CACHE_ENABLE, "false")) {
+      decorated = new CachingDataStore<>(decorated, properties);
+    }
+    return decorated;
+  }
+
+  /**
+   * Creates and decorates a store shared by the {@link DataStoreRegistry}.
+   */
+  static <K, T extends Persistent> DataStore<K, T> createSharedDataStore(
+      Class<? extends DataStore<K, T>> dataStoreClass, Class<K> keyClass,
+      Class<T> persistent, Configuration conf, Properties properties) throws GoraException {
+    return decorateDataStore(
+        createDataStore(dataStoreClass, keyClass, persistent, conf, properties, null), properties);
+  }
+
   private static <K, T extends Persistent> void initializeDataStore(
       DataStore<K, T> dataStore, Class<K> keyClass, Class<T> persistent,
       Properties properties) throws IOException {
@@ -235,7 +290,9 @@ public class DataStoreFactory{
     try {
       Class<? extends DataStore<K,T>> c
           = (Class<? extends DataStore<K, T>>) ClassLoadingUtils.loadClass(dataStoreClass);
-      return createDataStore(c, keyClass, persistentClass, conf, createProps(), null);
+      Properties props = createProps();
+      return decorateDataStore(
+          createDataStore(c, keyClass, persistentClass, conf, props, null), props);
     } catch(GoraException ex) {
       throw ex;
     } catch (Exception ex) {
@@ -264,7 +321,8 @@ public class DataStoreFactory{
           = (Class<? extends DataStore<K, T>>) Class.forName(dataStoreClass);
       Class<K> k = (Class<K>) ClassLoadingUtils.loadClass(keyClass);
       Class<T> p = (Class<T>) ClassLoadingUtils.loadClass(persistentClass);
-      return createDataStore(c, k, p, conf, createProps(), null);
+      Properties props = createProps();
+      return decorateDataStore(createDataStore(c, k, p, conf, props, null), props);
     } catch(GoraException ex) {
       throw ex;
     } catch (Exception ex) {
@@ -297,7 +355,7 @@ public class DataStoreFactory{
       if (props == null || props.size() == 0) {
         props = createProps();
       }
-      return createDataStore(c, k, p, conf, props, null);
+      return decorateDataStore(createDataStore(c, k, p, conf, props, null), props);
     } catch(GoraException ex) {
       throw ex;
     } catch (Exception ex) {
@@ -331,7 +389,7 @@ public class DataStoreFactory{
       if (props == null || props.size() == 0) {
         props = createProps();
       }
-      return createDataStore(c, k, p, conf, props, null);
+      return decorateDataStore(createDataStore(c, k, p, conf, props, null), props);
     } catch(GoraException ex) {
       throw ex;
     } catch (Exception ex) {
@@ -363,7 +421,8 @@ public class DataStoreFactory{
     } catch (Exception ex) {
       throw new GoraException(ex);
     }
-    return createDataStore(c, keyClass, persistent, conf, createProps, null);
+    return decorateDataStore(createDataStore(c, keyClass, persistent, conf, createProps, null),
+        createProps);
   }
 
 
@@ -398,7 +457,8 @@ public class DataStoreFactory{
     } catch (Exception ex) {
       throw new GoraException(ex);
     }
-    return createDataStore(c, keyClass, persistent, conf, createProps, null);
+    return decorateDataStore(createDataStore(c, keyClass, persistent, conf, createProps, null),
+        createProps);
   }
 
   /**
@@ -0,0 +1,325 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.apache.gora.store;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.store.impl.DataStoreDecorator;
+import org.apache.gora.util.ClassLoadingUtils;
+import org.apache.gora.util.GoraException;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the {@link DataStore} instances of a JVM, so that the parts of an
+ * application using the same store do not read its mapping and open its
+ * connections again.
+ *
+ * <p>Stores are keyed by store class, key class, persistent class and
+ * properties, and created by {@link DataStoreFactory} on their first
+ * acquisition, with the configuration of that call. Every
+ * {@link #acquire(Class, Class, Class, Configuration, Properties)} returns a
+ * handle on the shared store, which must be released by closing it; the
+ * store itself is closed when its last handle is. Stores preloaded by
+ * {@link #warmUp(Class, Class, Class, Configuration, Properties)} stay open
+ * until {@link #close()}.</p>
+ *
+ * <p>The shared stores are used concurrently, so they must be thread safe.</p>
+ */
+public class DataStoreRegistry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DataStoreRegistry.class);
+
+  private static final DataStoreRegistry INSTANCE = new DataStoreRegistry();
+
+  private final ConcurrentMap<StoreKey, SharedStore> stores = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the registry shared by the JVM.
+   * @return the registry.
+   */
+  public static DataStoreRegistry get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a handle on the shared store of the classes and properties,
+   * creating the store if needed.
+   *
+   * @param <K> The class of keys in the datastore.
+   * @param <T> The class of persistent objects in the datastore.
+   * @param dataStoreClass The datastore implementation class.
+   * @param keyClass The key class.
+   * @param persistentClass The value class.
+   * @param conf {@link Configuration} to be used be the store, if it is created.
+   * @param properties The properties to be used be the store, or null for the
+   * default properties.
+   * @return A handle to close once the store is no longer used.
+   * @throws GoraException If the store can not be created.
+   */
+  public <K, T extends Persistent> DataStore<K, T> acquire(
+      Class<? extends DataStore<K, T>> dataStoreClass, Class<K> keyClass,
+      Class<T> persistentClass, Configuration conf, Properties properties)
+          throws GoraException {
+    if (properties == null || properties.size() == 0) {
+      properties = DataStoreFactory.createProps();
+    }
+    StoreKey key = new StoreKey(dataStoreClass, keyClass, persistentClass, properties);
+    while (true) {
+      SharedStore shared = stores.get(key);
+      if (shared == null) {
+        SharedStore created = new SharedStore(key);
+        shared = stores.putIfAbsent(key, created);
+        if (shared == null) {
+          shared = created;
+        }
+      }
+      synchronized (shared) {
+        if (shared.removed) {
+          // released meanwhile, create it again
+          continue;
+        }
+        if (shared.store == null) {
+          try {
+            shared.store = DataStoreFactory.createSharedDataStore(dataStoreClass, keyClass,
+                persistentClass, conf, key.toProperties());
+          } catch (GoraException e) {
+            shared.removed = true;
+            stores.remove(key, shared);
+            throw e;
+          }
+          LOG.debug("Created shared store {}", shared.store);
+        }
+        shared.references++;
+        @SuppressWarnings("unchecked")
+        DataStore<K, T> store = (DataStore<K, T>) shared.store;
+        return new StoreHandle<>(store, shared);
+      }
+    }
+  }
+
+  /**
+   * Returns a handle on the shared store of the classes and properties,
+   * creating the store if needed.
+   *
+   * @param <K> The class of keys in the datastore.
+   * @param <T> The class of persistent objects in the datastore.
+   * @param dataStoreClass The datastore implementation class <i>as string</i>.
+   * @param keyClass The key class.
+   * @param persistentClass The value class.
+   * @param conf {@link Configuration} to be used be the store, if it is created.
+   * @param properties The properties to be used be the store, or null for the
+   * default properties.
+   * @return A handle to close once the store is no longer used.
+   * @throws GoraException If the store can not be created.
+   */
+  @SuppressWarnings("unchecked")
+  public <K, T extends Persistent> DataStore<K, T> acquire(String dataStoreClass,
+      Class<K> keyClass, Class<T> persistentClass, Configuration conf,
+      Properties properties) throws GoraException {
+    try {
+      return acquire((Class<? extends DataStore<K, T>>) ClassLoadingUtils.loadClass(
+          dataStoreClass), keyClass, persistentClass, conf, properties);
+    } catch (ClassNotFoundException e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * Returns a handle on the shared <i>default</i> store of the classes,
+   * using the default properties.
+   *
+   * @param <K> The class of keys in the datastore.
+   * @param <T> The class of persistent objects in the datastore.
+   * @param keyClass The key class.
+   * @param persistentClass The value class.
+   * @param conf {@link Configuration} to be used be the store, if it is created.
+   * @return A handle to close once the store is no longer used.
+   * @throws GoraException If the store can not be created.
+   */
+  public <K, T extends Persistent> DataStore<K, T> acquire(Class<K> keyClass,
+      Class<T> persistentClass, Configuration conf) throws GoraException {
+    Properties properties = DataStoreFactory.createProps();
+    return acquire(DataStoreFactory.getDefaultDataStore(properties), keyClass,
+        persistentClass, conf, properties);
+  }
+
+  /**
+   * Creates the shared store of the classes and properties now, for example
+   * when the application starts, and keeps it open until {@link #close()}.
+   *
+   * @param <K> The class of keys in the datastore.
+   * @param <T> The class of persistent objects in the datastore.
+   * @param dataStoreClass The datastore implementation class.
+   * @param keyClass The key class.
+   * @param persistentClass The value class.
+   * @param conf {@link Configuration} to be used be the store, if it is created.
+   * @param properties The properties to be used be the store, or null for the
+   * default properties.
+   * @throws GoraException If the store can not be created.
+   */
+  public <K, T extends Persistent> void warmUp(
+      Class<? extends DataStore<K, T>> dataStoreClass, Class<K> keyClass,
+      Class<T> persistentClass, Configuration conf, Properties properties)
+          throws GoraException {
+    StoreHandle<K, T> handle = (StoreHandle<K, T>) acquire(dataStoreClass, keyClass,
+        persistentClass, conf, properties);
+    synchronized (handle.shared) {
+      if (handle.shared.pinned) {
+        handle.close();
+      } else {
+        // the registry keeps the reference of the handle
+        handle.shared.pinned = true;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of shared stores.
+   * @return the number of shared stores.
+   */
+  public int size() {
+    return stores.size();
+  }
+
+  /**
+   * Closes all the shared stores, the stores still in use included, and
+   * empties the registry.
+   */
+  public void close() {
+    for (SharedStore shared : stores.values()) {
+      synchronized (shared) {
+        if (!shared.removed) {
+          shared.removed = true;
+          stores.remove(shared.key, shared);
+          if (shared.store != null) {
+            shared.store.close();
+          }
+        }
+      }
+    }
+  }
+
+  private void release(SharedStore shared) {
+    synchronized (shared) {
+      if (--shared.references == 0 && !shared.removed) {
+        shared.removed = true;
+        stores.remove(shared.key, shared);
+        LOG.debug("Closing shared store {}", shared.store);
+        shared.store.close();
+      }
+    }
+  }
+
+  /**
+   * A shared store, guarded by its monitor.
+   */
+  private static final class SharedStore {
+    private final StoreKey key;
+    private DataStore<?, ?> store;
+    private int references;
+    private boolean pinned;
+    private boolean removed;
+
+    SharedStore(StoreKey key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * The handle returned to a user of a shared store, releasing it on close.
+   */
+  private final class StoreHandle<K, T extends Persistent> extends DataStoreDecorator<K, T> {
+    private final SharedStore shared;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    StoreHandle(DataStore<K, T> store, SharedStore shared) {
+      super(store);
+      this.shared = shared;
+    }
+
+    /**
+     * Releases the shared store, which is closed if this is its last handle.
+     */
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        release(shared);
+      }
+    }
+  }
+
+  /**
+   * The classes and properties of a shared store.
+   */
+  private static final class StoreKey {
+    private final Class<?> dataStoreClass;
+    private final Class<?> keyClass;
+    private final Class<?> persistentClass;
+    private final Map<String, String> properties;
+    private final int hashCode;
+
+    StoreKey(Class<?> dataStoreClass, Class<?> keyClass, Class<?> persistentClass,
+        Properties properties) {
+      this.dataStoreClass = dataStoreClass;
+      this.keyClass = keyClass;
+      this.persistentClass = persistentClass;
+      // a snapshot, defaults included, as the properties can change
+      this.properties = new HashMap<>();
+      for (String name : properties.stringPropertyNames()) {
+        this.properties.put(name, properties.getProperty(name));
+      }
+      int hash = dataStoreClass.hashCode();
+      hash = 31 * hash + keyClass.hashCode();
+      hash = 31 * hash + persistentClass.hashCode();
+      this.hashCode = 31 * hash + this.properties.hashCode();
+    }
+
+    /**
+     * Returns a copy of the properties, for the store.
+     */
+    Properties toProperties() {
+      Properties copy = new Properties();
+      copy.putAll(properties);
+      return copy;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof StoreKey)) {
+        return false;
+      }
+      StoreKey that = (StoreKey) obj;
+      return dataStoreClass == that.dataStoreClass && keyClass == that.keyClass
+          && persistentClass == that.persistentClass && properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -23,9 +23,15 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
@@ -37,8 +43,14 @@ import org.apache.gora.persistency.BeanFactory;
 import org.apache.gora.persistency.Persistent;
 import org.apache.gora.persistency.impl.BeanFactoryImpl;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentDatumReader;
+import org.apache.gora.persistency.impl.PersistentDatumWriter;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.AsyncDataStore;
 import org.apache.gora.store.DataStore;
 import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.util.AsyncUtils;
 import org.apache.gora.util.AvroUtils;
 import org.apache.gora.util.ClassLoadingUtils;
 import org.apache.gora.util.GoraException;
@@ -53,9 +65,26 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A Base class for Avro persistent {@link DataStore}s.
+ *
+ * <p>The {@link AsyncDataStore} methods are bridged to the blocking ones by
+ * running them on a bounded executor, which is configured with the
+ * <code>async.threads</code> and <code>async.queue.size</code> properties.
+ * Stores with a native asynchronous client should override them.</p>
  */
 public abstract class DataStoreBase<K, T extends PersistentBase> 
-    implements DataStore<K, T>, Configurable, Writable, Closeable {
+    implements AsyncDataStore<K, T>, Configurable, Writable, Closeable {
+
+  /** Property key for the maximum number of threads of the async bridge */
+  public static final String ASYNC_THREADS = "async.threads";
+
+  /** Property key for the maximum number of queued tasks of the async bridge */
+  public static final String ASYNC_QUEUE_SIZE = "async.queue.size";
+
+  /** Default maximum number of queued tasks of the async bridge */
+  public static final int ASYNC_QUEUE_SIZE_DEFAULT = 1024;
+
+  /** Time given to the queued async operations to end when closing */
+  private static final long ASYNC_CLOSE_TIMEOUT_SECONDS = 60L;
 
   protected BeanFactory<K, T> beanFactory;
 
@@ -78,6 +107,8 @@ public abstract class DataStoreBase<K, T extends PersistentBase>
 
   protected SpecificDatumWriter<T> datumWriter;
 
+  private volatile ThreadPoolExecutor asyncExecutor;
+
   public static final Logger LOG = LoggerFactory.getLogger(AvroStore.class);
 
   public DataStoreBase() {
@@ -97,8 +128,8 @@ public abstract class DataStoreBase<K, T extends PersistentBase>
     autoCreateSchema = DataStoreFactory.getAutoCreateSchema(properties, this);
     this.properties = properties;
 
-    datumReader = new SpecificDatumReader<>(schema);
-    datumWriter = new SpecificDatumWriter<>(schema);
+    datumReader = new PersistentDatumReader<>(schema);
+    datumWriter = new PersistentDatumWriter<>(schema);
   }
 
   @Override
@@ -155,6 +186,173 @@ public abstract class DataStoreBase<K, T extends PersistentBase>
     return get(key, getFieldsToQuery(null));
   }
 
+  /**
+   * Default implementation loops over {@link #get(Object, String[])}.
+   */
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    String[] fieldsToQuery = getFieldsToQuery(fields);
+    Map<K, T> objects = new LinkedHashMap<>();
+    for (K key : keys) {
+      T obj = get(key, fieldsToQuery);
+      if (obj != null) {
+        objects.put(key, obj);
+      }
+    }
+    return objects;
+  }
+
+  /**
+   * Default implementation loops over {@link #put(Object, PersistentBase)}.
+   */
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    for (Map.Entry<K, T> entry : objects.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Default implementation loops over {@link #delete(Object)}.
+   */
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    long deleted = 0;
+    for (K key : keys) {
+      if (delete(key)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Default implementation loops over {@link #exists(Object)}.
+   */
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    Map<K, Boolean> exists = new LinkedHashMap<>();
+    for (K key : keys) {
+      exists.put(key, exists(key));
+    }
+    return exists;
+  }
+
+  /**
+   * Default implementation returns false, results are read page by page.
+   */
+  @Override
+  public boolean supportsResultStreaming() {
+    return false;
+  }
+
+  @Override
+  public CompletableFuture<T> getAsync(K key) {
+    return getAsync(key, null);
+  }
+
+  @Override
+  public CompletableFuture<T> getAsync(final K key, final String[] fields) {
+    return AsyncUtils.supplyAsync(new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        return get(key, getFieldsToQuery(fields));
+      }
+    }, getAsyncExecutor());
+  }
+
+  @Override
+  public CompletableFuture<Void> putAsync(final K key, final T obj) {
+    return AsyncUtils.supplyAsync(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        put(key, obj);
+        return null;
+      }
+    }, getAsyncExecutor());
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(final K key) {
+    return AsyncUtils.supplyAsync(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return delete(key);
+      }
+    }, getAsyncExecutor());
+  }
+
+  @Override
+  public CompletableFuture<Boolean> existsAsync(final K key) {
+    return AsyncUtils.supplyAsync(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return exists(key);
+      }
+    }, getAsyncExecutor());
+  }
+
+  @Override
+  public CompletableFuture<Result<K, T>> executeAsync(final Query<K, T> query) {
+    return AsyncUtils.supplyAsync(new Callable<Result<K, T>>() {
+      @Override
+      public Result<K, T> call() throws Exception {
+        return execute(query);
+      }
+    }, getAsyncExecutor());
+  }
+
+  /**
+   * Returns the executor used to bridge the {@link AsyncDataStore} methods to
+   * the blocking ones. It is created on first use, bounded by the
+   * <code>async.threads</code> and <code>async.queue.size</code> properties.
+   * When the queue is full the calling thread runs the operation itself.
+   *
+   * @return the async bridge executor
+   */
+  protected ThreadPoolExecutor getAsyncExecutor() {
+    if (asyncExecutor == null) {
+      synchronized (this) {
+        if (asyncExecutor == null) {
+          int threads = Integer.parseInt(DataStoreFactory.findProperty(properties, this,
+              ASYNC_THREADS, String.valueOf(Runtime.getRuntime().availableProcessors())));
+          int queueSize = Integer.parseInt(DataStoreFactory.findProperty(properties, this,
+              ASYNC_QUEUE_SIZE, String.valueOf(ASYNC_QUEUE_SIZE_DEFAULT)));
+          asyncExecutor = AsyncUtils.newBoundedExecutor(
+              "gora-async-" + StringUtils.getClassname(getClass()), threads, queueSize);
+        }
+      }
+    }
+    return asyncExecutor;
+  }
+
+  /**
+   * Shuts down the executor of the async bridge, if it was created, and waits
+   * for the queued operations to end so that none of them runs against a
+   * closed store. Stores call it at the start of {@link #close()}; the async
+   * calls made afterwards fail.
+   */
+  protected void closeAsyncExecutor() {
+    ThreadPoolExecutor executor;
+    synchronized (this) {
+      executor = asyncExecutor;
+    }
+    if (executor == null) {
+      return;
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(ASYNC_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.warn("Async operations still running after {} seconds, interrupting them",
+            ASYNC_CLOSE_TIMEOUT_SECONDS);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Check whether the fields argument is null, if it is not,
    * return all the fields of the Persistent object, else return the
@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.store.impl;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.gora.persistency.BeanFactory;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.query.PartitionQuery;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.AsyncDataStore;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.util.AsyncUtils;
+import org.apache.gora.util.GoraException;
+
+/**
+ * A {@link DataStore} which forwards every call to another, already
+ * initialized, store. Subclasses override the operations they want to
+ * decorate.
+ *
+ * <p>If the wrapped store is not an {@link AsyncDataStore}, the async
+ * methods run the blocking operation in the calling thread and return a
+ * completed future.</p>
+ *
+ * <p>Queries created by {@link #newQuery()} are bound to the wrapped store,
+ * so {@link Query#execute()} bypasses the decorator. Use
+ * {@link #execute(Query)} to go through it.</p>
+ *
+ * @param <K> the class of keys in the datastore.
+ * @param <T> the class of persistent objects in the datastore.
+ */
+public class DataStoreDecorator<K, T extends Persistent> implements AsyncDataStore<K, T> {
+
+  protected final DataStore<K, T> delegate;
+
+  public DataStoreDecorator(DataStore<K, T> delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Returns the decorated store.
+   * @return the decorated store.
+   */
+  public DataStore<K, T> getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * The wrapped store is expected to be initialized already, so this
+   * method initializes it again.
+   */
+  @Override
+  public void initialize(Class<K> keyClass, Class<T> persistentClass,
+      Properties properties) throws GoraException {
+    delegate.initialize(keyClass, persistentClass, properties);
+  }
+
+  @Override
+  public void setKeyClass(Class<K> keyClass) {
+    delegate.setKeyClass(keyClass);
+  }
+
+  @Override
+  public Class<K> getKeyClass() {
+    return delegate.getKeyClass();
+  }
+
+  @Override
+  public void setPersistentClass(Class<T> persistentClass) {
+    delegate.setPersistentClass(persistentClass);
+  }
+
+  @Override
+  public Class<T> getPersistentClass() {
+    return delegate.getPersistentClass();
+  }
+
+  @Override
+  public String getSchemaName() {
+    return delegate.getSchemaName();
+  }
+
+  @Override
+  public void createSchema() throws GoraException {
+    delegate.createSchema();
+  }
+
+  @Override
+  public void deleteSchema() throws GoraException {
+    delegate.deleteSchema();
+  }
+
+  @Override
+  public void truncateSchema() throws GoraException {
+    delegate.truncateSchema();
+  }
+
+  @Override
+  public boolean schemaExists() throws GoraException {
+    return delegate.schemaExists();
+  }
+
+  @Override
+  public K newKey() throws GoraException {
+    return delegate.newKey();
+  }
+
+  @Override
+  public T newPersistent() throws GoraException {
+    return delegate.newPersistent();
+  }
+
+  @Override
+  public boolean exists(K key) throws GoraException {
+    return delegate.exists(key);
+  }
+
+  @Override
+  public T get(K key) throws GoraException {
+    return delegate.get(key);
+  }
+
+  @Override
+  public T get(K key, String[] fields) throws GoraException {
+    return delegate.get(key, fields);
+  }
+
+  @Override
+  public void put(K key, T obj) throws GoraException {
+    delegate.put(key, obj);
+  }
+
+  @Override
+  public boolean delete(K key) throws GoraException {
+    return delegate.delete(key);
+  }
+
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    return delegate.getAll(keys, fields);
+  }
+
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    delegate.putAll(objects);
+  }
+
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    return delegate.deleteAll(keys);
+  }
+
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    return delegate.existsAll(keys);
+  }
+
+  @Override
+  public long deleteByQuery(Query<K, T> query) throws GoraException {
+    return delegate.deleteByQuery(query);
+  }
+
+  @Override
+  public Result<K, T> execute(Query<K, T> query) throws GoraException {
+    return delegate.execute(query);
+  }
+
+  @Override
+  public Query<K, T> newQuery() {
+    return delegate.newQuery();
+  }
+
+  @Override
+  public List<PartitionQuery<K, T>> getPartitions(Query<K, T> query) throws IOException {
+    return delegate.getPartitions(query);
+  }
+
+  @Override
+  public boolean supportsResultStreaming() {
+    return delegate.supportsResultStreaming();
+  }
+
+  @Override
+  public void flush() throws GoraException {
+    delegate.flush();
+  }
+
+  @Override
+  public void setBeanFactory(BeanFactory<K, T> beanFactory) {
+    delegate.setBeanFactory(beanFactory);
+  }
+
+  @Override
+  public BeanFactory<K, T> getBeanFactory() {
+    return delegate.getBeanFactory();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public CompletableFuture<T> getAsync(K key) {
+    return getAsync(key, null);
+  }
+
+  @Override
+  public CompletableFuture<T> getAsync(final K key, final String[] fields) {
+    if (delegate instanceof AsyncDataStore) {
+      return ((AsyncDataStore<K, T>) delegate).getAsync(key, fields);
+    }
+    return callNow(new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        return fields == null ? delegate.get(key) : delegate.get(key, fields);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> putAsync(final K key, final T obj) {
+    if (delegate instanceof AsyncDataStore) {
+      return ((AsyncDataStore<K, T>) delegate).putAsync(key, obj);
+    }
+    return callNow(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        delegate.put(key, obj);
+        return null;
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(final K key) {
+    if (delegate instanceof AsyncDataStore) {
+      return ((AsyncDataStore<K, T>) delegate).deleteAsync(key);
+    }
+    return callNow(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return delegate.delete(key);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Boolean> existsAsync(final K key) {
+    if (delegate instanceof AsyncDataStore) {
+      return ((AsyncDataStore<K, T>) delegate).existsAsync(key);
+    }
+    return callNow(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return delegate.exists(key);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Result<K, T>> executeAsync(final Query<K, T> query) {
+    if (delegate instanceof AsyncDataStore) {
+      return ((AsyncDataStore<K, T>) delegate).executeAsync(query);
+    }
+    return callNow(new Callable<Result<K, T>>() {
+      @Override
+      public Result<K, T> call() throws Exception {
+        return delegate.execute(query);
+      }
+    });
+  }
+
+  private static <V> CompletableFuture<V> callNow(Callable<V> callable) {
+    try {
+      return CompletableFuture.completedFuture(callable.call());
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof DataStoreDecorator) {
+      return delegate.equals(((DataStoreDecorator<?, ?>) obj).delegate);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(" + delegate + ")";
+  }
+}
@@ -267,6 +267,7 @@ extends DataStoreBase<K, T> implements FileBackedDataStore<K, T> {
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     IOUtils.closeStream(inputStream);
     IOUtils.closeStream(outputStream);
     inputStream = null;
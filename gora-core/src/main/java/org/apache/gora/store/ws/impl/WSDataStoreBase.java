@@ -18,6 +18,9 @@
 
 package org.apache.gora.store.ws.impl;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.gora.persistency.Persistent;
@@ -154,6 +157,63 @@ implements DataStore<K, T>{
     return false;
   }
 
+  /**
+   * Default implementation loops over {@link #get(Object, String[])}.
+   */
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    Map<K, T> objects = new LinkedHashMap<>();
+    for (K key : keys) {
+      T obj = get(key, fields);
+      if (obj != null) {
+        objects.put(key, obj);
+      }
+    }
+    return objects;
+  }
+
+  /**
+   * Default implementation loops over {@link #put(Object, Persistent)}.
+   */
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    for (Map.Entry<K, T> entry : objects.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Default implementation loops over {@link #delete(Object)}.
+   */
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    long deleted = 0;
+    for (K key : keys) {
+      if (delete(key)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Default implementation loops over {@link #exists(Object)}.
+   */
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    Map<K, Boolean> exists = new LinkedHashMap<>();
+    for (K key : keys) {
+      exists.put(key, exists(key));
+    }
+    return exists;
+  }
+
+  @Override
+  /** Default implementation returns false, results are read page by page */
+  public boolean supportsResultStreaming() {
+    return false;
+  }
+
   @Override
   /** Default implementation deletes and recreates the schema*/
   public void truncateSchema() throws GoraException {
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utilities for bridging blocking Gora calls to {@link CompletableFuture}s.
+ */
+public class AsyncUtils {
+
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  private AsyncUtils() { }
+
+  /**
+   * Creates a bounded executor. At most <code>threads</code> tasks run at the
+   * same time and at most <code>queueSize</code> tasks wait for a thread. When
+   * the queue is full the submitting thread runs the task itself, which slows
+   * down producers instead of piling up work. Once the executor is shut down
+   * the tasks are rejected. Threads are daemon threads and time out when
+   * idle, so an executor which is never shut down does not leak.
+   *
+   * @param name prefix of the thread names.
+   * @param threads maximum number of worker threads.
+   * @param queueSize maximum number of waiting tasks.
+   * @return the executor.
+   */
+  public static ThreadPoolExecutor newBoundedExecutor(final String name, int threads, int queueSize) {
+    ThreadFactory threadFactory = new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+        KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+        threadFactory, new RejectedExecutionHandler() {
+          @Override
+          public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            // unlike CallerRunsPolicy, do not silently drop the task on shutdown
+            if (executor.isShutdown()) {
+              throw new RejectedExecutionException(name + " executor is shut down");
+            }
+            r.run();
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Runs a blocking call on the given executor.
+   *
+   * @param callable the blocking call.
+   * @param executor the executor to run it on.
+   * @param <V> the type of the result.
+   * @return a future completed with the result of the call, or exceptionally
+   * with a {@link GoraException} if the call failed.
+   */
+  public static <V> CompletableFuture<V> supplyAsync(final Callable<V> callable, Executor executor) {
+    final CompletableFuture<V> future = new CompletableFuture<>();
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            future.complete(callable.call());
+          } catch (Throwable t) {
+            future.completeExceptionally(toGoraException(t));
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(new GoraException(e));
+    }
+    return future;
+  }
+
+  /**
+   * Returns a future which is already completed exceptionally.
+   *
+   * @param t the cause.
+   * @param <V> the type of the result.
+   * @return the failed future.
+   */
+  public static <V> CompletableFuture<V> failedFuture(Throwable t) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    future.completeExceptionally(toGoraException(t));
+    return future;
+  }
+
+  /**
+   * Waits for a future and rethrows its failure as a {@link GoraException}.
+   *
+   * @param future the future to wait for.
+   * @param <V> the type of the result.
+   * @return the result of the future.
+   * @throws GoraException if the future completed exceptionally.
+   */
+  public static <V> V join(CompletableFuture<V> future) throws GoraException {
+    try {
+      return future.join();
+    } catch (RuntimeException e) {
+      Throwable t = toGoraException(e);
+      if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw (GoraException) t;
+    }
+  }
+
+  /**
+   * Unwraps {@link CompletionException} and {@link ExecutionException} and
+   * converts the cause to a {@link GoraException}. Errors are returned as is.
+   *
+   * @param t the throwable.
+   * @return the converted throwable.
+   */
+  public static Throwable toGoraException(Throwable t) {
+    while ((t instanceof CompletionException || t instanceof ExecutionException)
+        && t.getCause() != null) {
+      t = t.getCause();
+    }
+    if (t instanceof GoraException || t instanceof Error) {
+      return t;
+    }
+    return new GoraException(t);
+  }
+}
@@ -19,7 +19,6 @@
 package org.apache.gora.util;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,9 +30,8 @@ import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.reflect.ReflectData;
-import org.apache.avro.specific.SpecificDatumReader;
-import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentBase.PersistentData;
 
 /**
  * An utility class for Avro related tasks.
@@ -111,35 +109,29 @@ public class AvroUtils {
   }
 
   /**
-   * Utility method for deep clone a given AVRO persistent bean instance.
+   * Utility method for deep clone a given AVRO persistent bean instance,
+   * copying its fields with the generated codec of the bean if it has one.
    *
    * @param persistent source persistent bean instance.
    * @param <T> persistent bean type.
    * @return cloned persistent bean to be returned.
    */
   public static <T extends PersistentBase> T deepClonePersistent(T persistent) {
-    final SpecificDatumWriter<PersistentBase> writer = new SpecificDatumWriter<>(persistent.getSchema());
-    final byte[] byteData;
-    try {
-      byteData = IOUtils.serialize(writer, persistent);
-    } catch (IOException e) {
-      throw new RuntimeException(
-          "Unable to serialize avro object to byte buffer - "
-              + "please report this issue to the Gora bugtracker "
-              + "or your administrator.");
-    }
-
-    @SuppressWarnings("unchecked")
-    final SpecificDatumReader<T> reader = new SpecificDatumReader<>((Class<T>) persistent.getClass());
-    try {
-      return IOUtils.deserialize(byteData, reader, null);
-    } catch (IOException e) {
-      throw new RuntimeException(
-          "Unable to deserialize avro object from byte buffer - "
-              + "please report this issue to the Gora bugtracker "
-              + "or your administrator.");
-    }
+    return PersistentData.get().deepCopy(persistent.getSchema(), persistent);
+  }
 
+  /**
+   * Clones a given AVRO persistent bean instance, sharing its strings and
+   * its lists and maps of strings with it until they are modified, see
+   * {@link PersistentData#copyOnWrite(Schema, Object)}. The
+   * source bean must not be modified afterwards.
+   *
+   * @param persistent source persistent bean instance.
+   * @param <T> persistent bean type.
+   * @return cloned persistent bean to be returned.
+   */
+  public static <T extends PersistentBase> T copyOnWriteClonePersistent(T persistent) {
+    return PersistentData.get().copyOnWrite(persistent.getSchema(), persistent);
   }
 
 }
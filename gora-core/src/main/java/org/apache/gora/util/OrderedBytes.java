@@ -0,0 +1,717 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.impl.PersistentBase;
+
+/**
+ * Order preserving encoding of keys: the encoded keys compare, as unsigned
+ * byte arrays, in the natural order of the keys. It is meant for the row
+ * keys of the sorted stores, so that range scans and region or tablet
+ * boundaries follow the order of the keys.
+ *
+ * <ul>
+ * <li>Numbers are written big-endian with the sign bit flipped, the other
+ * bits of negative floating point numbers inverted as well, in 1, 2, 4 or 8
+ * bytes.</li>
+ * <li>Booleans are written as one byte, enums as the int of their
+ * ordinal.</li>
+ * <li>Strings, as UTF-8, and bytes are escaped, <code>0x00</code> being
+ * written <code>0x00 0xFF</code>, and terminated by <code>0x00 0x01</code>,
+ * so that a value sorts before the values it is a prefix of. Fixed values
+ * are written as they are.</li>
+ * <li>{@link Persistent} keys are written as the concatenation of the fields
+ * of their schema, in order. Nested records are written the same way, and
+ * optional fields, unions of null and another type, are written with a
+ * leading <code>0x00</code> if null, <code>0x01</code> otherwise. Maps,
+ * arrays and other unions are not supported.</li>
+ * </ul>
+ *
+ * <p>An instance is a growable buffer which keys are written to and read
+ * from, and which can be reused with {@link #reset()}. The static
+ * <code>put</code> and <code>to</code> methods encode and decode the fixed
+ * size values in place, like the ones of {@link ByteUtils}.</p>
+ */
+public final class OrderedBytes {
+
+  private static final byte ESCAPE = 0x00;
+  private static final byte ESCAPED = (byte) 0xFF;
+  private static final byte TERMINATOR = 0x01;
+
+  private static final byte NULL = 0x00;
+  private static final byte NOT_NULL = 0x01;
+
+  private static final ThreadLocal<OrderedBytes> BUFFERS = new ThreadLocal<OrderedBytes>() {
+    @Override
+    protected OrderedBytes initialValue() {
+      return new OrderedBytes();
+    }
+  };
+
+  private byte[] bytes;
+  private int length;
+  private int position;
+
+  /**
+   * Creates an empty buffer.
+   */
+  public OrderedBytes() {
+    this(32);
+  }
+
+  /**
+   * Creates an empty buffer of the given initial capacity.
+   */
+  public OrderedBytes(int capacity) {
+    this.bytes = new byte[capacity];
+  }
+
+  private OrderedBytes(byte[] bytes, int offset, int length) {
+    this.bytes = bytes;
+    this.position = offset;
+    this.length = offset + length;
+  }
+
+  /**
+   * Returns a buffer to read the keys encoded in a byte array from.
+   */
+  public static OrderedBytes wrap(byte[] bytes) {
+    return wrap(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Returns a buffer to read the keys encoded in a range of a byte array
+   * from.
+   */
+  public static OrderedBytes wrap(byte[] bytes, int offset, int length) {
+    return new OrderedBytes(bytes, offset, length);
+  }
+
+  /**
+   * Encodes a key.
+   * @param key a number, boolean, enum, string, byte array or buffer or
+   * {@link Persistent}.
+   * @return a new array holding the encoded key.
+   */
+  public static byte[] toBytes(Object key) {
+    OrderedBytes buffer = BUFFERS.get();
+    buffer.reset();
+    buffer.writeKey(key);
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Decodes a key encoded by {@link #toBytes(Object)}.
+   * @param clazz the class of the key.
+   * @param bytes the encoded key.
+   * @return the key.
+   * @throws IllegalArgumentException if the bytes are not a key of the class.
+   */
+  public static <K> K fromBytes(Class<K> clazz, byte[] bytes) {
+    OrderedBytes buffer = wrap(bytes);
+    K key = buffer.readKey(clazz);
+    if (buffer.remaining() != 0) {
+      throw new IllegalArgumentException("Trailing bytes after a key of " + clazz.getName());
+    }
+    return key;
+  }
+
+  /**
+   * Clears the buffer for writing, keeping its array.
+   * @return this buffer.
+   */
+  public OrderedBytes reset() {
+    length = 0;
+    position = 0;
+    return this;
+  }
+
+  /**
+   * Returns the array of the buffer, valid until the next write.
+   */
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the end of the written bytes in {@link #getBytes()}.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the position of the next read in {@link #getBytes()}.
+   */
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * Returns the number of bytes left to read.
+   */
+  public int remaining() {
+    return length - position;
+  }
+
+  /**
+   * Returns a copy of the written bytes.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(bytes, length);
+  }
+
+  private void ensure(int size) {
+    if (length + size > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + size));
+    }
+  }
+
+  private void require(int size) {
+    if (position + size > length) {
+      throw new IllegalArgumentException("Truncated key at byte " + position);
+    }
+  }
+
+  // fixed size values, in place
+
+  public static int putByte(byte[] bytes, int offset, byte b) {
+    bytes[offset] = (byte) (b ^ 0x80);
+    return offset + 1;
+  }
+
+  public static byte toByte(byte[] bytes, int offset) {
+    return (byte) (bytes[offset] ^ 0x80);
+  }
+
+  public static int putShort(byte[] bytes, int offset, short s) {
+    s ^= 0x8000;
+    bytes[offset] = (byte) (s >>> 8);
+    bytes[offset + 1] = (byte) s;
+    return offset + 2;
+  }
+
+  public static short toShort(byte[] bytes, int offset) {
+    return (short) ((((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF)) ^ 0x8000);
+  }
+
+  public static int putInt(byte[] bytes, int offset, int i) {
+    i ^= 0x80000000;
+    bytes[offset] = (byte) (i >>> 24);
+    bytes[offset + 1] = (byte) (i >>> 16);
+    bytes[offset + 2] = (byte) (i >>> 8);
+    bytes[offset + 3] = (byte) i;
+    return offset + 4;
+  }
+
+  public static int toInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+        | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF)) ^ 0x80000000;
+  }
+
+  public static int putLong(byte[] bytes, int offset, long l) {
+    l ^= 0x8000000000000000L;
+    for (int i = 7; i >= 0; i--) {
+      bytes[offset + i] = (byte) l;
+      l >>>= 8;
+    }
+    return offset + 8;
+  }
+
+  public static long toLong(byte[] bytes, int offset) {
+    long l = 0;
+    for (int i = 0; i < 8; i++) {
+      l = (l << 8) | (bytes[offset + i] & 0xFF);
+    }
+    return l ^ 0x8000000000000000L;
+  }
+
+  public static int putFloat(byte[] bytes, int offset, float f) {
+    int i = Float.floatToRawIntBits(f);
+    // putInt flips the sign bit back for negative numbers
+    return putInt(bytes, offset, i < 0 ? ~i ^ 0x80000000 : i);
+  }
+
+  public static float toFloat(byte[] bytes, int offset) {
+    int i = toInt(bytes, offset);
+    return Float.intBitsToFloat(i >= 0 ? i : ~i ^ 0x80000000);
+  }
+
+  public static int putDouble(byte[] bytes, int offset, double d) {
+    long l = Double.doubleToRawLongBits(d);
+    return putLong(bytes, offset, l < 0 ? ~l ^ 0x8000000000000000L : l);
+  }
+
+  public static double toDouble(byte[] bytes, int offset) {
+    long l = toLong(bytes, offset);
+    return Double.longBitsToDouble(l >= 0 ? l : ~l ^ 0x8000000000000000L);
+  }
+
+  // writing
+
+  public OrderedBytes writeBoolean(boolean b) {
+    ensure(1);
+    bytes[length++] = b ? (byte) 1 : (byte) 0;
+    return this;
+  }
+
+  public OrderedBytes writeByte(byte b) {
+    ensure(1);
+    length = putByte(bytes, length, b);
+    return this;
+  }
+
+  public OrderedBytes writeShort(short s) {
+    ensure(2);
+    length = putShort(bytes, length, s);
+    return this;
+  }
+
+  public OrderedBytes writeInt(int i) {
+    ensure(4);
+    length = putInt(bytes, length, i);
+    return this;
+  }
+
+  public OrderedBytes writeLong(long l) {
+    ensure(8);
+    length = putLong(bytes, length, l);
+    return this;
+  }
+
+  public OrderedBytes writeFloat(float f) {
+    ensure(4);
+    length = putFloat(bytes, length, f);
+    return this;
+  }
+
+  public OrderedBytes writeDouble(double d) {
+    ensure(8);
+    length = putDouble(bytes, length, d);
+    return this;
+  }
+
+  /**
+   * Writes a string as escaped and terminated UTF-8.
+   */
+  public OrderedBytes writeString(CharSequence s) {
+    if (s instanceof Utf8) {
+      Utf8 utf8 = (Utf8) s;
+      return writeBytes(utf8.getBytes(), 0, utf8.getByteLength());
+    }
+    int count = s.length();
+    ensure(count + 2);
+    for (int i = 0; i < count; i++) {
+      char c = s.charAt(i);
+      if (c == 0) {
+        ensure(2);
+        bytes[length++] = ESCAPE;
+        bytes[length++] = ESCAPED;
+      } else if (c < 0x80) {
+        ensure(1);
+        bytes[length++] = (byte) c;
+      } else if (c < 0x800) {
+        ensure(2);
+        bytes[length++] = (byte) (0xC0 | (c >> 6));
+        bytes[length++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < count
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        ensure(4);
+        bytes[length++] = (byte) (0xF0 | (cp >> 18));
+        bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        // unpaired surrogate, replaced like String.getBytes() does
+        ensure(1);
+        bytes[length++] = '?';
+      } else {
+        ensure(3);
+        bytes[length++] = (byte) (0xE0 | (c >> 12));
+        bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        bytes[length++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    return terminate();
+  }
+
+  /**
+   * Writes the remaining bytes of a buffer, escaped and terminated, without
+   * changing its position.
+   */
+  public OrderedBytes writeBytes(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return writeBytes(buffer.array(), buffer.arrayOffset() + buffer.position(),
+          buffer.remaining());
+    }
+    int end = buffer.limit();
+    ensure(buffer.remaining() + 2);
+    for (int i = buffer.position(); i < end; i++) {
+      writeEscaped(buffer.get(i));
+    }
+    return terminate();
+  }
+
+  /**
+   * Writes a range of bytes, escaped and terminated.
+   */
+  public OrderedBytes writeBytes(byte[] b, int offset, int count) {
+    ensure(count + 2);
+    for (int i = offset; i < offset + count; i++) {
+      writeEscaped(b[i]);
+    }
+    return terminate();
+  }
+
+  /**
+   * Writes a range of bytes as they are, for values of a fixed size.
+   */
+  public OrderedBytes writeFixed(byte[] b, int offset, int count) {
+    ensure(count);
+    System.arraycopy(b, offset, bytes, length, count);
+    length += count;
+    return this;
+  }
+
+  private void writeEscaped(byte b) {
+    if (b == ESCAPE) {
+      ensure(2);
+      bytes[length++] = ESCAPE;
+      bytes[length++] = ESCAPED;
+    } else {
+      ensure(1);
+      bytes[length++] = b;
+    }
+  }
+
+  private OrderedBytes terminate() {
+    ensure(2);
+    bytes[length++] = ESCAPE;
+    bytes[length++] = TERMINATOR;
+    return this;
+  }
+
+  /**
+   * Writes a key.
+   * @param key a number, boolean, enum, string, byte array or buffer or
+   * {@link Persistent}.
+   * @return this buffer.
+   * @throws IllegalArgumentException if the key is of another type.
+   */
+  public OrderedBytes writeKey(Object key) {
+    if (key instanceof CharSequence) {
+      return writeString((CharSequence) key);
+    } else if (key instanceof Long) {
+      return writeLong((Long) key);
+    } else if (key instanceof Integer) {
+      return writeInt((Integer) key);
+    } else if (key instanceof Short) {
+      return writeShort((Short) key);
+    } else if (key instanceof Byte) {
+      return writeByte((Byte) key);
+    } else if (key instanceof Boolean) {
+      return writeBoolean((Boolean) key);
+    } else if (key instanceof Float) {
+      return writeFloat((Float) key);
+    } else if (key instanceof Double) {
+      return writeDouble((Double) key);
+    } else if (key instanceof Enum) {
+      return writeInt(((Enum<?>) key).ordinal());
+    } else if (key instanceof byte[]) {
+      return writeBytes((byte[]) key, 0, ((byte[]) key).length);
+    } else if (key instanceof ByteBuffer) {
+      return writeBytes((ByteBuffer) key);
+    } else if (key instanceof IndexedRecord) {
+      return writeValue(((IndexedRecord) key).getSchema(), key);
+    }
+    throw new IllegalArgumentException("Unsupported key type: "
+        + (key == null ? null : key.getClass().getName()));
+  }
+
+  /**
+   * Writes a value of a key schema.
+   * @throws IllegalArgumentException if the schema is not supported.
+   */
+  public OrderedBytes writeValue(Schema schema, Object value) {
+    switch (schema.getType()) {
+    case BOOLEAN: return writeBoolean((Boolean) value);
+    case INT:     return writeInt((Integer) value);
+    case LONG:    return writeLong((Long) value);
+    case FLOAT:   return writeFloat((Float) value);
+    case DOUBLE:  return writeDouble((Double) value);
+    case STRING:  return writeString((CharSequence) value);
+    case BYTES:   return writeBytes((ByteBuffer) value);
+    case FIXED:
+      return writeFixed(((GenericFixed) value).bytes(), 0, schema.getFixedSize());
+    case ENUM:
+      return writeInt(value instanceof Enum ? ((Enum<?>) value).ordinal()
+          : schema.getEnumOrdinal(value.toString()));
+    case NULL:
+      return this;
+    case RECORD:
+      IndexedRecord record = (IndexedRecord) value;
+      for (Field field : schema.getFields()) {
+        writeValue(field.schema(), record.get(field.pos()));
+      }
+      return this;
+    case UNION:
+      Schema type = getOptionalType(schema);
+      ensure(1);
+      if (value == null) {
+        bytes[length++] = NULL;
+        return this;
+      }
+      bytes[length++] = NOT_NULL;
+      return writeValue(type, value);
+    default:
+      throw new IllegalArgumentException("Unsupported key schema: " + schema);
+    }
+  }
+
+  private static Schema getOptionalType(Schema union) {
+    List<Schema> types = union.getTypes();
+    if (types.size() == 2) {
+      if (types.get(0).getType() == Type.NULL) {
+        return types.get(1);
+      } else if (types.get(1).getType() == Type.NULL) {
+        return types.get(0);
+      }
+    }
+    throw new IllegalArgumentException("Unsupported key schema: " + union);
+  }
+
+  // reading
+
+  public boolean readBoolean() {
+    require(1);
+    return bytes[position++] != 0;
+  }
+
+  public byte readByte() {
+    require(1);
+    return toByte(bytes, position++);
+  }
+
+  public short readShort() {
+    require(2);
+    short s = toShort(bytes, position);
+    position += 2;
+    return s;
+  }
+
+  public int readInt() {
+    require(4);
+    int i = toInt(bytes, position);
+    position += 4;
+    return i;
+  }
+
+  public long readLong() {
+    require(8);
+    long l = toLong(bytes, position);
+    position += 8;
+    return l;
+  }
+
+  public float readFloat() {
+    require(4);
+    float f = toFloat(bytes, position);
+    position += 4;
+    return f;
+  }
+
+  public double readDouble() {
+    require(8);
+    double d = toDouble(bytes, position);
+    position += 8;
+    return d;
+  }
+
+  public String readString() {
+    return new String(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a string into a {@link Utf8}.
+   * @param reuse the instance to read into, or null.
+   */
+  public Utf8 readUtf8(Utf8 reuse) {
+    int count = unescapedLength();
+    Utf8 utf8 = reuse != null ? reuse : new Utf8();
+    utf8.setByteLength(count);
+    unescape(utf8.getBytes());
+    return utf8;
+  }
+
+  /**
+   * Reads escaped and terminated bytes.
+   */
+  public byte[] readBytes() {
+    byte[] b = new byte[unescapedLength()];
+    unescape(b);
+    return b;
+  }
+
+  /**
+   * Reads bytes of a fixed size.
+   */
+  public byte[] readFixed(int count) {
+    require(count);
+    byte[] b = Arrays.copyOfRange(bytes, position, position + count);
+    position += count;
+    return b;
+  }
+
+  private int unescapedLength() {
+    int count = 0;
+    for (int i = position; ; i++) {
+      if (i + 1 >= length) {
+        throw new IllegalArgumentException("Unterminated value at byte " + position);
+      }
+      if (bytes[i] == ESCAPE) {
+        if (bytes[++i] == TERMINATOR) {
+          return count;
+        } else if (bytes[i] != ESCAPED) {
+          throw new IllegalArgumentException("Invalid escape at byte " + i);
+        }
+      }
+      count++;
+    }
+  }
+
+  private void unescape(byte[] b) {
+    int i = 0;
+    while (true) {
+      byte value = bytes[position++];
+      if (value == ESCAPE && bytes[position++] == TERMINATOR) {
+        return;
+      }
+      b[i++] = value;
+    }
+  }
+
+  /**
+   * Reads a key.
+   * @param clazz the class of the key.
+   * @return the key.
+   * @throws IllegalArgumentException if the class is not supported or the
+   * bytes are not a key of the class.
+   */
+  @SuppressWarnings("unchecked")
+  public <K> K readKey(Class<K> clazz) {
+    if (clazz.equals(String.class)) {
+      return (K) readString();
+    } else if (clazz.equals(Utf8.class) || clazz.equals(CharSequence.class)) {
+      return (K) readUtf8(null);
+    } else if (clazz.equals(Long.TYPE) || clazz.equals(Long.class)) {
+      return (K) Long.valueOf(readLong());
+    } else if (clazz.equals(Integer.TYPE) || clazz.equals(Integer.class)) {
+      return (K) Integer.valueOf(readInt());
+    } else if (clazz.equals(Short.TYPE) || clazz.equals(Short.class)) {
+      return (K) Short.valueOf(readShort());
+    } else if (clazz.equals(Byte.TYPE) || clazz.equals(Byte.class)) {
+      return (K) Byte.valueOf(readByte());
+    } else if (clazz.equals(Boolean.TYPE) || clazz.equals(Boolean.class)) {
+      return (K) Boolean.valueOf(readBoolean());
+    } else if (clazz.equals(Float.TYPE) || clazz.equals(Float.class)) {
+      return (K) Float.valueOf(readFloat());
+    } else if (clazz.equals(Double.TYPE) || clazz.equals(Double.class)) {
+      return (K) Double.valueOf(readDouble());
+    } else if (clazz.isEnum()) {
+      int ordinal = readInt();
+      K[] constants = clazz.getEnumConstants();
+      if (ordinal < 0 || ordinal >= constants.length) {
+        throw new IllegalArgumentException("Invalid ordinal of " + clazz.getName() + ": " + ordinal);
+      }
+      return constants[ordinal];
+    } else if (clazz.equals(byte[].class)) {
+      return (K) readBytes();
+    } else if (clazz.equals(ByteBuffer.class)) {
+      return (K) ByteBuffer.wrap(readBytes());
+    } else if (IndexedRecord.class.isAssignableFrom(clazz)) {
+      IndexedRecord record;
+      try {
+        record = (IndexedRecord) ReflectionUtils.newInstance(clazz);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Can't instantiate key class " + clazz.getName(), e);
+      }
+      readRecord(record.getSchema(), record);
+      return (K) record;
+    }
+    throw new IllegalArgumentException("Unsupported key type: " + clazz.getName());
+  }
+
+  /**
+   * Reads a value of a key schema. Strings are read as {@link Utf8}, like
+   * Avro does.
+   * @throws IllegalArgumentException if the schema is not supported.
+   */
+  public Object readValue(Schema schema) {
+    switch (schema.getType()) {
+    case BOOLEAN: return readBoolean();
+    case INT:     return readInt();
+    case LONG:    return readLong();
+    case FLOAT:   return readFloat();
+    case DOUBLE:  return readDouble();
+    case STRING:  return readUtf8(null);
+    case BYTES:   return ByteBuffer.wrap(readBytes());
+    case FIXED:
+      return SpecificData.get().createFixed(null, readFixed(schema.getFixedSize()), schema);
+    case ENUM:
+      int ordinal = readInt();
+      if (ordinal < 0 || ordinal >= schema.getEnumSymbols().size()) {
+        throw new IllegalArgumentException("Invalid ordinal of " + schema.getFullName() + ": " + ordinal);
+      }
+      return AvroUtils.getEnumValue(schema, ordinal);
+    case NULL:
+      return null;
+    case RECORD:
+      Object record = SpecificData.get().newRecord(null, schema);
+      return readRecord(schema, (IndexedRecord) record);
+    case UNION:
+      Schema type = getOptionalType(schema);
+      return readBoolean() ? readValue(type) : null;
+    default:
+      throw new IllegalArgumentException("Unsupported key schema: " + schema);
+    }
+  }
+
+  private IndexedRecord readRecord(Schema schema, IndexedRecord record) {
+    for (Field field : schema.getFields()) {
+      record.put(field.pos(), readValue(field.schema()));
+    }
+    if (record instanceof PersistentBase) {
+      ((PersistentBase) record).clearDirty();
+    }
+    return record;
+  }
+}
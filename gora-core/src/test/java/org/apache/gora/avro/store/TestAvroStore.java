@@ -39,6 +39,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test case for {@link AvroStore}.
@@ -132,6 +135,30 @@ public class TestAvroStore {
     testQueryWebPages(webPageStore);
   }
 
+  @Test
+  public void testQueryFields() throws Exception {
+    webPageStore.setCodecType(CodecType.BINARY);
+    webPageStore.setInputPath(webPageStore.getOutputPath());
+
+    createWebPageData(webPageStore);
+    webPageStore.close();
+
+    Query<String, WebPage> query = webPageStore.newQuery();
+    query.setFields("url", "metadata");
+    Result<String, WebPage> result = query.execute();
+    int i = 0;
+    while (result.next()) {
+      WebPage page = result.get();
+      assertTrue(URL_INDEXES.containsKey(page.getUrl().toString()));
+      assertNotNull(page.getMetadata());
+      assertNull(page.getContent());
+      assertTrue(page.getParsedContent().isEmpty());
+      assertTrue(page.getOutlinks().isEmpty());
+      i++;
+    }
+    assertEquals(URLS.length, i);
+  }
+
   //AvroStore should be closed so that Hadoop file is completely flushed,
   //so below test is copied and modified to close the store after pushing data
   public static void testQueryWebPages(DataStore<String, WebPage> store)
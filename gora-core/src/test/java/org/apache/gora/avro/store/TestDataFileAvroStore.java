@@ -18,10 +18,22 @@
 
 package org.apache.gora.avro.store;
 
+import static org.apache.gora.examples.WebPageDataCreator.URLS;
+import static org.apache.gora.examples.WebPageDataCreator.URL_INDEXES;
+import static org.apache.gora.examples.WebPageDataCreator.createWebPageData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.avro.util.Utf8;
 import org.apache.gora.avro.store.AvroStore;
 import org.apache.gora.avro.store.DataFileAvroStore;
 import org.apache.gora.examples.generated.Employee;
 import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.persistency.impl.PersistentView;
+import org.apache.gora.query.ViewResult;
+import org.apache.gora.store.DataStoreFactory;
+import org.junit.Test;
 
 /**
  * Test case for {@link DataFileAvroStore}.
@@ -38,6 +50,30 @@ public class TestDataFileAvroStore extends TestAvroStore {
     return new DataFileAvroStore<>();
   }
   
+  @Test
+  public void testExecuteView() throws Exception {
+    DataFileAvroStore<String, WebPage> store = new DataFileAvroStore<>();
+    store.initialize(String.class, WebPage.class, DataStoreFactory.createProps());
+    store.setOutputPath(WEBPAGE_OUTPUT);
+    store.setInputPath(WEBPAGE_OUTPUT);
+    createWebPageData(store);
+    store.close();
+
+    ViewResult result = store.executeView(store.newQuery());
+    try {
+      PersistentView view = result.get();
+      int url = view.getFieldIndex("url");
+      Utf8 value = new Utf8();
+      while (result.next()) {
+        assertSame(view, result.get());
+        assertTrue(URL_INDEXES.containsKey(view.getString(url, value).toString()));
+      }
+      assertEquals(URLS.length, result.getOffset());
+    } finally {
+      result.close();
+    }
+  }
+
   //import all tests from super class
   
 }
@@ -0,0 +1,323 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.query.Query;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.store.DataStoreTestUtil;
+import org.apache.gora.util.GoraException;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CachingDataStore} decorator, wrapped around a
+ * {@link MemStore} by {@link DataStoreFactory}.
+ */
+public class TestCachingDataStore {
+
+  private Properties properties;
+  private CachingDataStore<String, Employee> store;
+
+  @Before
+  public void setUp() throws Exception {
+    properties = DataStoreFactory.createProps();
+    properties.setProperty("gora.datastore." + DataStoreFactory.CACHE_ENABLE, "true");
+    properties.setProperty("gora.memstore." + CachingDataStore.CACHE_MAX_WEIGHT, "2");
+    store = createStore();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.deleteSchema();
+    store.close();
+  }
+
+  private CachingDataStore<String, Employee> createStore() throws Exception {
+    DataStore<String, Employee> dataStore = DataStoreFactory.getDataStore(
+        MemStore.class.getName(), String.class.getName(), Employee.class.getName(),
+        properties, new Configuration());
+    assertTrue(dataStore instanceof CachingDataStore);
+    dataStore.deleteSchema();
+    return (CachingDataStore<String, Employee>) dataStore;
+  }
+
+  private static Employee createEmployee(String ssn) throws Exception {
+    Employee employee = DataStoreTestUtil.createEmployee();
+    employee.setSsn(new Utf8(ssn));
+    return employee;
+  }
+
+  @Test
+  public void testReadThrough() throws Exception {
+    store.put("ssn1", createEmployee("ssn1"));
+    Employee employee = store.get("ssn1");
+    assertNotNull(employee);
+    assertEquals(0, store.getHitCount());
+    assertEquals(1, store.getMissCount());
+
+    Employee cached = store.get("ssn1");
+    assertEquals(employee, cached);
+    assertEquals(1, store.getHitCount());
+    // records handed out are copies
+    cached.setName(new Utf8("changed"));
+    assertEquals(employee.getName(), store.get("ssn1").getName());
+    assertFalse(store.get("ssn1").isDirty());
+
+    // a full record serves projections
+    Employee projected = store.get("ssn1", new String[] {"name"});
+    assertEquals(store.getDelegate().get("ssn1", new String[] {"name"}), projected);
+    assertEquals(4, store.getHitCount());
+  }
+
+  @Test
+  public void testProjectionAwareEntries() throws Exception {
+    store.put("ssn1", createEmployee("ssn1"));
+    store.get("ssn1", new String[] {"name", "salary"});
+    store.get("ssn1", new String[] {"salary"});
+    assertEquals(1, store.getHitCount());
+    // the entry does not hold the ssn, the store is asked again
+    assertNotNull(store.get("ssn1", new String[] {"ssn"}).getSsn());
+    assertEquals(2, store.getMissCount());
+  }
+
+  @Test
+  public void testNegativeCaching() throws Exception {
+    assertNull(store.get("missing"));
+    assertFalse(store.exists("missing"));
+    assertEquals(1, store.getHitCount());
+    assertFalse(store.existsAll(Arrays.asList("missing")).get("missing"));
+    assertEquals(2, store.getHitCount());
+
+    store.put("missing", createEmployee("missing"));
+    assertTrue(store.exists("missing"));
+  }
+
+  @Test
+  public void testInvalidation() throws Exception {
+    store.put("ssn1", createEmployee("ssn1"));
+    store.get("ssn1");
+    Employee employee = createEmployee("ssn1");
+    employee.setSalary(42);
+    store.put("ssn1", employee);
+    assertEquals(42, store.get("ssn1").getSalary().intValue());
+
+    store.delete("ssn1");
+    assertNull(store.get("ssn1"));
+
+    store.put("ssn2", createEmployee("ssn2"));
+    store.get("ssn2");
+    assertEquals(2, store.size());
+    Query<String, Employee> query = store.newQuery();
+    query.setKey("ssn2");
+    store.deleteByQuery(query);
+    assertEquals(0, store.size());
+    assertNull(store.get("ssn2"));
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      store.put("ssn" + i, createEmployee("ssn" + i));
+    }
+    store.get("ssn0");
+    store.get("ssn1");
+    store.get("ssn0");
+    store.get("ssn2");
+    // ssn1 was the least recently used entry
+    assertEquals(2, store.size());
+    assertEquals(1, store.getEvictionCount());
+    store.get("ssn0");
+    assertEquals(2, store.getHitCount());
+  }
+
+  @Test
+  public void testGetAll() throws Exception {
+    store.put("ssn1", createEmployee("ssn1"));
+    store.put("ssn2", createEmployee("ssn2"));
+    store.get("ssn2");
+    Map<String, Employee> employees = store.getAll(
+        Arrays.asList("ssn1", "missing", "ssn2"), null);
+    assertEquals(Arrays.asList("ssn1", "ssn2"), Arrays.asList(employees.keySet().toArray()));
+    assertEquals(1, store.getHitCount());
+    assertEquals(3, store.getMissCount());
+  }
+
+  @Test
+  public void testWriteBehindCoalescesPuts() throws Exception {
+    store.close();
+    properties.setProperty("gora.datastore." + CachingDataStore.CACHE_WRITE_BEHIND, "true");
+    store = createStore();
+    DataStore<String, Employee> memStore = store.getDelegate();
+
+    Employee employee = Employee.newBuilder().build();
+    employee.setName(new Utf8("name"));
+    store.put("ssn1", employee);
+    employee = Employee.newBuilder().build();
+    employee.setSalary(42);
+    store.put("ssn1", employee);
+    assertEquals(1, store.getPendingCount());
+    assertFalse(memStore.exists("ssn1"));
+    assertTrue(store.exists("ssn1"));
+
+    store.flush();
+    assertEquals(0, store.getPendingCount());
+    Employee stored = memStore.get("ssn1");
+    assertEquals(new Utf8("name"), stored.getName());
+    assertEquals(42, stored.getSalary().intValue());
+
+    // reads of a buffered key write it first
+    employee = Employee.newBuilder().build();
+    employee.setSalary(43);
+    store.put("ssn1", employee);
+    assertEquals(43, store.get("ssn1").getSalary().intValue());
+    assertEquals(0, store.getPendingCount());
+  }
+
+  @Test
+  public void testWriteBehindKeepsFailedPuts() throws Exception {
+    store.close();
+    properties.setProperty("gora.datastore." + CachingDataStore.CACHE_WRITE_BEHIND, "true");
+    DataStore<String, Employee> dataStore = DataStoreFactory.getDataStore(
+        FailingMemStore.class.getName(), String.class.getName(), Employee.class.getName(),
+        properties, new Configuration());
+    store = (CachingDataStore<String, Employee>) dataStore;
+    FailingMemStore<String, Employee> memStore = (FailingMemStore<String, Employee>) store.getDelegate();
+
+    store.put("ssn1", createEmployee("ssn1"));
+    store.put("ssn2", createEmployee("ssn2"));
+    memStore.failing = true;
+    try {
+      store.flush();
+      fail("The failure of the store was not reported");
+    } catch (GoraException e) {
+      // expected
+    }
+    assertEquals(2, store.getPendingCount());
+    try {
+      store.get("ssn1");
+      fail("The failure of the store was not reported");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(2, store.getPendingCount());
+
+    // the buffered puts are written once the store recovers
+    memStore.failing = false;
+    store.flush();
+    assertEquals(0, store.getPendingCount());
+    assertTrue(memStore.exists("ssn1"));
+    assertTrue(memStore.exists("ssn2"));
+  }
+
+  @Test
+  public void testFlushInvalidatesBufferedWrites() throws Exception {
+    store.close();
+    DataStore<String, Employee> dataStore = DataStoreFactory.getDataStore(
+        BufferingMemStore.class.getName(), String.class.getName(), Employee.class.getName(),
+        properties, new Configuration());
+    store = (CachingDataStore<String, Employee>) dataStore;
+    store.put("ssn1", createEmployee("ssn1"));
+    store.flush();
+    assertNotNull(store.get("ssn1"));
+
+    Employee employee = createEmployee("ssn1");
+    employee.setName(new Utf8("changed"));
+    store.put("ssn1", employee);
+    // the store still serves the previous row, which gets cached
+    assertEquals(createEmployee("ssn1").getName(), store.get("ssn1").getName());
+    store.flush();
+    assertEquals(new Utf8("changed"), store.get("ssn1").getName());
+
+    store.delete("ssn1");
+    store.flush();
+    assertNull(store.get("ssn1"));
+  }
+
+  /**
+   * A {@link MemStore} whose puts are only visible once flushed, like the
+   * stores buffering their writes.
+   */
+  public static class BufferingMemStore<K, T extends PersistentBase> extends MemStore<K, T> {
+
+    private final Map<K, T> buffered = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void put(K key, T obj) {
+      buffered.put(key, obj);
+    }
+
+    @Override
+    public synchronized boolean delete(K key) {
+      buffered.remove(key);
+      return super.delete(key);
+    }
+
+    @Override
+    public synchronized void flush() {
+      for (Map.Entry<K, T> entry : buffered.entrySet()) {
+        super.put(entry.getKey(), entry.getValue());
+      }
+      buffered.clear();
+    }
+  }
+
+  /**
+   * A {@link MemStore} whose writes fail on demand. {@link MemStore#put}
+   * declares no checked exception, so single puts fail unchecked.
+   */
+  public static class FailingMemStore<K, T extends PersistentBase> extends MemStore<K, T> {
+
+    volatile boolean failing;
+
+    @Override
+    public void put(K key, T obj) {
+      if (failing) {
+        throw new IllegalStateException("put failed");
+      }
+      super.put(key, obj);
+    }
+
+    @Override
+    public void putAll(Map<K, T> objects) throws GoraException {
+      if (failing) {
+        throw new GoraException("putAll failed");
+      }
+      super.putAll(objects);
+    }
+  }
+}
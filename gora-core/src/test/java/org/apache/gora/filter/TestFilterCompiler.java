@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.filter.FilterList.Operator;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.junit.Test;
+
+/**
+ * Tests the {@link FilterCompiler}.
+ */
+public class TestFilterCompiler {
+
+  private static <T extends PersistentBase> SingleFieldValueFilter<String, T> fieldFilter(
+      String field, FilterOp filterOp, Object... operands) {
+    SingleFieldValueFilter<String, T> filter = new SingleFieldValueFilter<>();
+    filter.setFieldName(field);
+    filter.setFilterOp(filterOp);
+    filter.getOperands().addAll(Arrays.asList(operands));
+    return filter;
+  }
+
+  private static boolean passes(Filter<String, Employee> filter, Employee employee) {
+    CompiledFilter<String, Employee> compiled =
+        FilterCompiler.compile(filter, Employee.SCHEMA$);
+    boolean filtered = compiled.filter("key", employee);
+    // the filter itself must agree with its compiled form
+    assertEquals(filtered, filter.filter("key", employee));
+    return !filtered;
+  }
+
+  private static Employee employee(String name, int salary) {
+    Employee employee = Employee.newBuilder().build();
+    employee.setName(new Utf8(name));
+    employee.setSalary(salary);
+    employee.setDateOfBirth(1000L);
+    return employee;
+  }
+
+  @Test
+  public void testNumericComparisons() {
+    Employee employee = employee("Joe", 100);
+    assertTrue(passes(fieldFilter("salary", FilterOp.LESS, 101), employee));
+    assertFalse(passes(fieldFilter("salary", FilterOp.LESS, 100), employee));
+    assertTrue(passes(fieldFilter("salary", FilterOp.LESS_OR_EQUAL, 100), employee));
+    assertTrue(passes(fieldFilter("salary", FilterOp.GREATER, 99L), employee));
+    assertFalse(passes(fieldFilter("salary", FilterOp.GREATER_OR_EQUAL, 100.5), employee));
+    assertTrue(passes(fieldFilter("salary", FilterOp.BETWEEN, 50, 100), employee));
+    assertFalse(passes(fieldFilter("salary", FilterOp.BETWEEN, 101, 200), employee));
+    // an int operand widened to the long field, and a string one parsed
+    assertTrue(passes(fieldFilter("dateOfBirth", FilterOp.EQUALS, 1000), employee));
+    assertTrue(passes(fieldFilter("dateOfBirth", FilterOp.GREATER, new Utf8("999")), employee));
+  }
+
+  @Test
+  public void testStringComparisons() {
+    Employee employee = employee("Joe", 100);
+    assertTrue(passes(fieldFilter("name", FilterOp.EQUALS, new Utf8("Bob"), new Utf8("Joe")),
+        employee));
+    assertFalse(passes(fieldFilter("name", FilterOp.NOT_EQUALS, new Utf8("Joe")), employee));
+    assertTrue(passes(fieldFilter("name", FilterOp.GREATER, new Utf8("Jim")), employee));
+    assertTrue(passes(fieldFilter("name", FilterOp.STARTS_WITH, new Utf8("Jo")), employee));
+    assertFalse(passes(fieldFilter("name", FilterOp.STARTS_WITH, new Utf8("Joey")), employee));
+    // values set as String compare like Utf8 ones
+    employee.setName("Joe");
+    assertTrue(passes(fieldFilter("name", FilterOp.LESS_OR_EQUAL, new Utf8("Joe")), employee));
+  }
+
+  @Test
+  public void testMissingValues() {
+    Employee employee = Employee.newBuilder().build();
+    SingleFieldValueFilter<String, Employee> filter =
+        fieldFilter("name", FilterOp.LESS, new Utf8("Joe"));
+    assertTrue(passes(filter, employee));
+    filter.setFilterIfMissing(true);
+    assertFalse(passes(filter, employee));
+  }
+
+  @Test
+  public void testBytesAndMapComparisons() {
+    WebPage page = WebPage.newBuilder().build();
+    page.setContent(ByteBuffer.wrap("content".getBytes(StandardCharsets.UTF_8)));
+    page.getOutlinks().put(new Utf8("a"), new Utf8("http://b.org"));
+    CompiledFilter<String, WebPage> prefix = FilterCompiler.compile(
+        TestFilterCompiler.<WebPage>fieldFilter("content", FilterOp.STARTS_WITH,
+            "cont".getBytes(StandardCharsets.UTF_8)),
+        WebPage.SCHEMA$);
+    assertFalse(prefix.filter("key", page));
+
+    MapFieldValueFilter<String, WebPage> mapFilter = new MapFieldValueFilter<>();
+    mapFilter.setFieldName("outlinks");
+    mapFilter.setMapKey(new Utf8("a"));
+    mapFilter.setFilterOp(FilterOp.GREATER);
+    mapFilter.getOperands().add(new Utf8("http://a.org"));
+    assertFalse(FilterCompiler.compile(mapFilter, WebPage.SCHEMA$).filter("key", page));
+    mapFilter.setMapKey(new Utf8("missing"));
+    mapFilter.setFilterIfMissing(true);
+    assertTrue(FilterCompiler.compile(mapFilter, WebPage.SCHEMA$).filter("key", page));
+  }
+
+  @Test
+  public void testFilterListMirrorsFilterList() {
+    Employee employee = employee("Joe", 100);
+    for (Operator operator : Operator.values()) {
+      FilterList<String, Employee> list = new FilterList<>(operator);
+      list.addFilter(fieldFilter("salary", FilterOp.GREATER, 50));
+      list.addFilter(fieldFilter("name", FilterOp.EQUALS, new Utf8("Bob")));
+      assertEquals(list.filter("key", employee),
+          FilterCompiler.compile(list, Employee.SCHEMA$).filter("key", employee));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownField() {
+    FilterCompiler.compile(fieldFilter("missing", FilterOp.EQUALS, 1), Employee.SCHEMA$);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedOperation() {
+    FilterCompiler.compile(fieldFilter("salary", FilterOp.STARTS_WITH, 1), Employee.SCHEMA$);
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.flink;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.gora.examples.WebPageDataCreator;
+import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.util.AvroUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PersistentTypeSerializer}.
+ */
+public class TestPersistentTypeSerializer {
+
+  private List<WebPage> pages;
+  private PersistentTypeSerializer<WebPage> serializer;
+
+  @Before
+  public void setUp() throws Exception {
+    DataStore<String, WebPage> store = DataStoreFactory.getDataStore(MemStore.class,
+        String.class, WebPage.class, new Configuration());
+    store.deleteSchema();
+    WebPageDataCreator.createWebPageData(store);
+    pages = new ArrayList<>();
+    Result<String, WebPage> result = store.newQuery().execute();
+    while (result.next()) {
+      pages.add(AvroUtils.deepClonePersistent(result.get()));
+    }
+    result.close();
+    store.deleteSchema();
+    store.close();
+    // one dirty record
+    pages.get(0).setContent(pages.get(0).getContent());
+
+    serializer = new PersistentTypeSerializer<>(WebPage.class);
+  }
+
+  private byte[] serializeAll() throws Exception {
+    DataOutputSerializer out = new DataOutputSerializer(64);
+    for (WebPage page : pages) {
+      serializer.serialize(page, out);
+    }
+    return out.getCopyOfBuffer();
+  }
+
+  @Test
+  public void testSerializeDeserialize() throws Exception {
+    DataInputDeserializer in = new DataInputDeserializer(serializeAll());
+    for (WebPage page : pages) {
+      WebPage deserialized = serializer.deserialize(in);
+      assertEquals(page, deserialized);
+      assertEquals(page.isDirty(), deserialized.isDirty());
+    }
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testDeserializeReuse() throws Exception {
+    DataInputDeserializer in = new DataInputDeserializer(serializeAll());
+    WebPage reuse = WebPage.newBuilder().build();
+    for (WebPage page : pages) {
+      WebPage deserialized = serializer.deserialize(reuse, in);
+      assertSame(reuse, deserialized);
+      assertEquals(page, deserialized);
+      assertEquals(page.isDirty(), deserialized.isDirty());
+    }
+  }
+
+  @Test
+  public void testCopy() throws Exception {
+    byte[] serialized = serializeAll();
+    DataInputDeserializer in = new DataInputDeserializer(serialized);
+    DataOutputSerializer out = new DataOutputSerializer(64);
+    for (int i = 0; i < pages.size(); i++) {
+      serializer.copy(in, out);
+    }
+    assertEquals(0, in.available());
+    assertArrayEquals(serialized, out.getCopyOfBuffer());
+  }
+
+  @Test
+  public void testDuplicate() throws Exception {
+    PersistentTypeSerializer<WebPage> duplicate = serializer.duplicate();
+    assertNotSame(serializer, duplicate);
+    assertTrue(duplicate.equals(serializer));
+  }
+}
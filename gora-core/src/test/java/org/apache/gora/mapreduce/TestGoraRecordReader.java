@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.gora.examples.WebPageDataCreator;
+import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link GoraRecordReader}.
+ */
+public class TestGoraRecordReader {
+
+  private Configuration conf;
+  private DataStore<String, WebPage> store;
+
+  /**
+   * Counts the executions of the query.
+   */
+  private static class CountingRecordReader extends GoraRecordReader<String, WebPage> {
+    private int executions;
+
+    CountingRecordReader(DataStore<String, WebPage> store, Configuration conf) {
+      super(store.newQuery(), new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+    }
+
+    @Override
+    public void executeQuery() throws Exception {
+      executions++;
+      super.executeQuery();
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new Configuration();
+    store = DataStoreFactory.getDataStore(MemStore.class, String.class, WebPage.class, conf);
+    store.deleteSchema();
+    WebPageDataCreator.createWebPageData(store);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.deleteSchema();
+    store.close();
+  }
+
+  private List<String> readKeys(CountingRecordReader reader) throws Exception {
+    List<String> keys = new ArrayList<>();
+    while (reader.nextKeyValue()) {
+      assertEquals(reader.getCurrentKey(), reader.getCurrentValue().getUrl().toString());
+      keys.add(reader.getCurrentKey());
+    }
+    reader.close();
+    return keys;
+  }
+
+  @Test
+  public void testStreaming() throws Exception {
+    conf.setInt(GoraRecordReader.BUFFER_LIMIT_READ_NAME, 2);
+    CountingRecordReader reader = new CountingRecordReader(store, conf);
+    assertEquals(Arrays.asList(WebPageDataCreator.SORTED_URLS), readKeys(reader));
+    assertEquals(1, reader.executions);
+  }
+
+  @Test
+  public void testPaging() throws Exception {
+    conf.setInt(GoraRecordReader.BUFFER_LIMIT_READ_NAME, 2);
+    conf.setBoolean(GoraRecordReader.STREAMING_READ_NAME, false);
+    CountingRecordReader reader = new CountingRecordReader(store, conf);
+    assertEquals(Arrays.asList(WebPageDataCreator.SORTED_URLS), readKeys(reader));
+    // every page re-executes the query
+    assertTrue(reader.executions > 1);
+  }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.gora.mapreduce;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -26,6 +28,7 @@ import org.apache.gora.examples.WebPageDataCreator;
 import org.apache.gora.examples.generated.Employee;
 import org.apache.gora.examples.generated.WebPage;
 import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.persistency.MapDelta;
 import org.apache.gora.query.Result;
 import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.DataStoreTestUtil;
@@ -33,6 +36,9 @@ import org.apache.gora.util.TestIOUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class for {@link PersistentSerialization}, {@link PersistentSerializer}
@@ -141,5 +147,62 @@ public class TestPersistentSerialization {
     TestIOUtils.testSerializeDeserialize(page1, page2, page3);
   }
 
-}
+  /**
+   * Deserializes several records into the same object, the way
+   * {@link PersistentSerialization} does, and checks that the maps refilled
+   * by the reader are written as a whole by the stores instead of as an empty
+   * delta, even when the reused object was read from a store.
+   * @throws Exception
+   */
+  @Test
+  public void testSerdeReusedWebPageMaps() throws Exception {
+    WebPage[] pages = new WebPage[3];
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = WebPage.newBuilder().build();
+      pages[i].setUrl(new Utf8("url" + i));
+      pages[i].setOutlinks(new HashMap<CharSequence, CharSequence>());
+      pages[i].getOutlinks().put(new Utf8("anchor" + i), new Utf8("link" + i));
+    }
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    PersistentSerializer serializer = new PersistentSerializer();
+    serializer.open(os);
+    for (WebPage page : pages) {
+      serializer.serialize(page);
+    }
+    serializer.close();
+
+    PersistentDeserializer deserializer = new PersistentDeserializer(WebPage.class, true);
+    deserializer.open(new ByteArrayInputStream(os.toByteArray()));
+    WebPage page = (WebPage) deserializer.deserialize(null);
+    for (int i = 1; i < pages.length; i++) {
+      if (i == 2) {
+        // as if the reused record had been read from a store
+        page.trackChanges();
+      }
+      assertSame(page, deserializer.deserialize(page));
+      assertEquals(pages[i].getOutlinks(), page.getOutlinks());
+      assertTrue(page.isDirty(WebPage.Field.OUTLINKS.getIndex()));
+      assertFalse(((MapDelta<?>) page.getOutlinks()).isDeltaTracked());
+    }
+    deserializer.close();
+  }
 
+  /**
+   * Checks that a map shared by two records through a setter is written as a
+   * whole for the record it was set on.
+   */
+  @Test
+  public void testSharedMapIsNotDeltaTracked() throws Exception {
+    WebPage read = WebPage.newBuilder().build();
+    read.setOutlinks(new HashMap<CharSequence, CharSequence>());
+    read.getOutlinks().put(new Utf8("a"), new Utf8("1"));
+    read.trackChanges();
+    assertTrue(((MapDelta<?>) read.getOutlinks()).isDeltaTracked());
+
+    WebPage copy = WebPage.newBuilder().build();
+    copy.setOutlinks(read.getOutlinks());
+    read.getOutlinks().put(new Utf8("b"), new Utf8("2"));
+    assertTrue(copy.isDirty(WebPage.Field.OUTLINKS.getIndex()));
+    assertFalse(((MapDelta<?>) copy.getOutlinks()).isDeltaTracked());
+  }
+}
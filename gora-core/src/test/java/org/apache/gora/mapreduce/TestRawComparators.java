@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.mock.persistency.MockPersistent;
+import org.apache.gora.mock.store.MockDataStore;
+import org.apache.gora.store.DataStoreTestUtil;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.serializer.SerializationFactory;
+import org.apache.hadoop.io.serializer.Serializer;
+import org.apache.hadoop.mapreduce.Job;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PersistentComparator}, {@link StringComparator} and
+ * {@link Utf8Comparator}, and their registration by {@link GoraMapper}.
+ */
+public class TestRawComparators {
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    GoraMapReduceUtils.setIOSerializations(conf, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> byte[] serialize(Class<T> clazz, T object) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Serializer<T> serializer = new SerializationFactory(conf).getSerializer(clazz);
+    serializer.open(out);
+    serializer.serialize(object);
+    serializer.close();
+    return out.toByteArray();
+  }
+
+  private <T> void assertSameOrder(RawComparator<? super T> comparator, Class<T> clazz,
+      T o1, T o2) throws IOException {
+    byte[] b1 = serialize(clazz, o1);
+    byte[] serialized = serialize(clazz, o2);
+    // compare at an offset in a larger buffer, as in the shuffle
+    byte[] b2 = new byte[serialized.length + 3];
+    System.arraycopy(serialized, 0, b2, 2, serialized.length);
+    int expected = Integer.signum(comparator.compare(o1, o2));
+    assertEquals(expected, Integer.signum(comparator.compare(b1, 0, b1.length,
+        b2, 2, serialized.length)));
+  }
+
+  @Test
+  public void testPersistentComparator() throws Exception {
+    conf.setClass(Job.MAP_OUTPUT_KEY_CLASS, Employee.class, Object.class);
+    PersistentComparator comparator = new PersistentComparator();
+    comparator.setConf(conf);
+
+    Employee employee1 = DataStoreTestUtil.createEmployee();
+    Employee employee2 = DataStoreTestUtil.createEmployee();
+    assertSameOrder(comparator, Employee.class, employee1, employee2);
+
+    employee2.setSalary(employee1.getSalary() + 1);
+    assertSameOrder(comparator, Employee.class, employee1, employee2);
+    assertSameOrder(comparator, Employee.class, employee2, employee1);
+
+    employee2.setName(new Utf8("Aaron"));
+    assertSameOrder(comparator, Employee.class, employee1, employee2);
+    assertSameOrder(comparator, Employee.class, employee2, employee1);
+  }
+
+  @Test
+  public void testStringComparator() throws Exception {
+    StringComparator comparator = new StringComparator();
+    String[] strings = {"", "a", "aa", "b", "ab"};
+    for (String s1 : strings) {
+      for (String s2 : strings) {
+        assertSameOrder(comparator, String.class, s1, s2);
+      }
+    }
+  }
+
+  @Test
+  public void testUtf8Comparator() throws Exception {
+    Utf8Comparator comparator = new Utf8Comparator();
+    String[] strings = {"", "a", "aa", "b", "ab", "\u00e9"};
+    for (String s1 : strings) {
+      for (String s2 : strings) {
+        assertSameOrder(comparator, Utf8.class, new Utf8(s1), new Utf8(s2));
+      }
+    }
+  }
+
+  @Test
+  public void testSortComparatorRegistration() throws Exception {
+    Job job = Job.getInstance(conf);
+    GoraMapper.initMapperJob(job, MockDataStore.get().newQuery(), Employee.class,
+        MockPersistent.class, GoraMapper.class, true);
+    assertEquals(PersistentComparator.class, job.getSortComparator().getClass());
+
+    GoraMapper.initMapperJob(job, MockDataStore.get().newQuery(), Text.class,
+        MockPersistent.class, GoraMapper.class, true);
+    assertEquals(Text.Comparator.class, job.getSortComparator().getClass());
+
+    job.setSortComparatorClass(Text.Comparator.class);
+    GoraMapper.initMapperJob(job, MockDataStore.get().newQuery(), Utf8.class,
+        MockPersistent.class, GoraMapper.class, true);
+    assertEquals(Text.Comparator.class, job.getSortComparator().getClass());
+  }
+}
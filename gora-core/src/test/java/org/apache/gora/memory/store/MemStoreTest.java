@@ -20,17 +20,32 @@ package org.apache.gora.memory.store;
 import static org.apache.gora.examples.WebPageDataCreator.SORTED_URLS;
 import static org.apache.gora.examples.WebPageDataCreator.URLS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.avro.util.Utf8;
 import org.apache.gora.examples.WebPageDataCreator;
 import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.filter.FilterOp;
+import org.apache.gora.filter.SingleFieldValueFilter;
 import org.apache.gora.persistency.BeanFactory;
 import org.apache.gora.persistency.impl.BeanFactoryImpl;
 import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
 import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.DataStoreTestBase;
 import org.apache.gora.store.DataStoreTestUtil;
 import org.apache.gora.util.GoraException;
@@ -97,6 +112,77 @@ public class MemStoreTest extends DataStoreTestBase {
   @Test
   public void testDeleteByQueryFields() {}
 
+  @Test
+  public void testReadsDoNotAliasStoredRecords() throws Exception {
+    String key = "org.apache.gora:http:/";
+    DataStore<String, WebPage> store = new MemStore<>();
+    store.setBeanFactory(new BeanFactoryImpl<>(String.class, WebPage.class));
+    WebPage page = WebPage.newBuilder().build();
+    page.setUrl(new Utf8(key));
+    page.getOutlinks().put(new Utf8("a"), new Utf8("anchor"));
+    store.put(key, page);
+
+    WebPage read = store.get(key);
+    read.setUrl(new Utf8("modified"));
+    read.getOutlinks().put(new Utf8("b"), new Utf8("anchor"));
+
+    Query<String, WebPage> query = store.newQuery();
+    Result<String, WebPage> result = query.execute();
+    assertTrue(result.next());
+    read = result.get();
+    assertEquals(new Utf8(key), read.getUrl());
+    assertEquals(1, read.getOutlinks().size());
+    read.setUrl(new Utf8("modified"));
+    read.getOutlinks().clear();
+    result.close();
+
+    read = store.get(key);
+    assertEquals(new Utf8(key), read.getUrl());
+    assertEquals(1, read.getOutlinks().size());
+    store.close();
+  }
+
+  @Test
+  public void testWritesDoNotAliasStoredRecords() throws Exception {
+    String key = "org.apache.gora:http:/";
+    DataStore<String, WebPage> store = new MemStore<>();
+    store.setBeanFactory(new BeanFactoryImpl<>(String.class, WebPage.class));
+    WebPage page = WebPage.newBuilder().build();
+    page.setUrl(new Utf8(key));
+    page.getOutlinks().put(new Utf8("a"), new Utf8("anchor"));
+    page.getParsedContent().add(new Utf8("content"));
+    store.put(key, page);
+    WebPage read = store.get(key);
+
+    page.setUrl(new Utf8("modified"));
+    page.getOutlinks().put(new Utf8("b"), new Utf8("anchor"));
+    page.getParsedContent().clear();
+
+    assertEquals(new Utf8(key), read.getUrl());
+    assertEquals(1, read.getOutlinks().size());
+    assertEquals(1, read.getParsedContent().size());
+    read = store.get(key);
+    assertEquals(new Utf8(key), read.getUrl());
+    assertEquals(1, read.getOutlinks().size());
+    assertEquals(1, read.getParsedContent().size());
+    store.close();
+  }
+
+  @Test
+  public void testAsyncAfterClose() throws Exception {
+    String key = "org.apache.gora:http:/";
+    MemStore<String, WebPage> store = DataStoreFactory.getDataStore(MemStore.class,
+        String.class, WebPage.class, new Configuration());
+    store.putAsync(key, WebPage.newBuilder().build()).get();
+    store.close();
+    try {
+      store.getAsync(key).get();
+      fail("Async operation ran on a closed store");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof GoraException);
+    }
+  }
+
   @Test
   public void testGetWithFields() throws Exception {
 
@@ -202,6 +288,69 @@ public class MemStoreTest extends DataStoreTestBase {
     }
 
   }
-}
 
+  @Test
+  public void testFilterOnProjectedQuery() throws Exception {
+    DataStore<String, WebPage> store = new MemStore<>();
+    store.setBeanFactory(new BeanFactoryImpl<>(String.class, WebPage.class));
+    WebPageDataCreator.createWebPageData(store);
+
+    SingleFieldValueFilter<String, WebPage> filter = new SingleFieldValueFilter<>();
+    filter.setFieldName(WebPage.Field.URL.toString());
+    filter.setFilterOp(FilterOp.EQUALS);
+    filter.setFilterIfMissing(true);
+    filter.getOperands().add(new Utf8(URLS[1]));
+    Query<String, WebPage> query = store.newQuery();
+    query.setFields("content");
+    query.setFilter(filter);
+    query.setLocalFilterEnabled(true);
+
+    // the filter applies to the stored row, not to the projected fields
+    Result<String, WebPage> result = query.execute();
+    assertTrue(result.next());
+    assertEquals(URLS[1], result.getKey());
+    assertNull(result.get().getUrl());
+    assertNotNull(result.get().getContent());
+    assertFalse(result.next());
+    result.close();
+
+    query.setFields("url");
+    assertEquals(1, store.deleteByQuery(query));
+    assertNull(store.get(URLS[1]).getUrl());
+    assertNotNull(store.get(URLS[0]).getUrl());
+  }
 
+  @Test
+  public void testShardedTableScansInKeyOrder() {
+    MemTable<String, String> table = new MemTable<>(4);
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      keys.add(String.format(Locale.ROOT, "key%02d", i));
+    }
+    List<String> shuffled = new ArrayList<>(keys);
+    Collections.shuffle(shuffled);
+    for (String key : shuffled) {
+      table.put(key, key);
+    }
+
+    List<String> scanned = new ArrayList<>();
+    Iterator<Map.Entry<String, String>> iterator =
+        MemTable.iterator(table.range("key05", "key14"));
+    while (iterator.hasNext()) {
+      scanned.add(iterator.next().getKey());
+      iterator.remove();
+    }
+    assertEquals(keys.subList(5, 15), scanned);
+    assertNull(table.get("key10"));
+    assertNotNull(table.get("key15"));
+
+    scanned.clear();
+    iterator = MemTable.iterator(table.range(null, null));
+    while (iterator.hasNext()) {
+      scanned.add(iterator.next().getKey());
+    }
+    assertEquals(10, scanned.size());
+    assertEquals("key00", scanned.get(0));
+    assertEquals("key19", scanned.get(9));
+  }
+}
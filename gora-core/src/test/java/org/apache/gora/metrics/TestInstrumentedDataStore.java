@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.store.DataStoreTestUtil;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link InstrumentedDataStore} decorator, wrapped around a
+ * {@link MemStore} by {@link DataStoreFactory}.
+ */
+public class TestInstrumentedDataStore {
+
+  private DataStore<String, Employee> store;
+
+  @Before
+  public void setUp() throws Exception {
+    Properties properties = DataStoreFactory.createProps();
+    properties.setProperty("gora.datastore." + DataStoreFactory.METRICS_ENABLE, "true");
+    store = DataStoreFactory.getDataStore(MemStore.class.getName(),
+        String.class.getName(), Employee.class.getName(), properties, new Configuration());
+    store.deleteSchema();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.deleteSchema();
+    store.close();
+  }
+
+  @Test
+  public void testOperationsAreRecorded() throws Exception {
+    assertTrue(store instanceof InstrumentedDataStore);
+    DataStoreMetrics metrics = ((InstrumentedDataStore<String, Employee>) store).getMetrics();
+    assertEquals(MemStore.class.getName(), metrics.getStoreClass());
+
+    for (int i = 0; i < 3; i++) {
+      Employee employee = DataStoreTestUtil.createEmployee();
+      employee.setSsn(new Utf8("ssn" + i));
+      store.put("ssn" + i, employee);
+    }
+    store.flush();
+    assertEquals(3, metrics.put.getCount());
+    assertEquals(1, metrics.flush.getCount());
+    assertEquals(3, metrics.flushSize.getMax());
+
+    assertNotNull(store.get("ssn1"));
+    assertTrue(store.exists("ssn2"));
+    assertEquals(1, metrics.get.getCount());
+    assertEquals(1, metrics.exists.getCount());
+
+    Result<String, Employee> result = store.execute(store.newQuery());
+    int rows = 0;
+    while (result.next()) {
+      rows++;
+    }
+    result.close();
+    assertEquals(3, rows);
+    assertEquals(1, metrics.execute.getCount());
+    assertEquals(3, metrics.resultNext.getCount());
+    assertEquals(3, metrics.resultRows.getMax());
+  }
+
+  @Test
+  public void testJmxRegistration() throws Exception {
+    DataStoreMetrics metrics = ((InstrumentedDataStore<String, Employee>) store).getMetrics();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = JmxMetricsReporter.getObjectName(metrics);
+    assertTrue(server.isRegistered(name));
+
+    store.put("ssn", DataStoreTestUtil.createEmployee());
+    assertEquals(1L, server.getAttribute(name, "putCount"));
+    assertEquals(MemStore.class.getName(),
+        server.getAttribute(name, DataStoreMetrics.STORE_CLASS));
+
+    store.close();
+    assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  public void testHistogramPercentiles() {
+    Histogram histogram = new Histogram("test");
+    for (int i = 1; i <= 100; i++) {
+      histogram.update(i);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(100, histogram.getMax());
+    assertEquals(50.5, histogram.getMean(), 0.001);
+    // power of two buckets: the 50th value lies in [32, 63]
+    assertEquals(63, histogram.getPercentile(0.5));
+    assertEquals(100, histogram.getPercentile(0.99));
+  }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.persistency.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.WebPage;
+import org.junit.Test;
+
+/**
+ * Tests the delta tracking of {@link DirtyMapWrapper} and
+ * {@link DirtyListWrapper}.
+ */
+public class TestDirtyWrappers {
+
+  private static DirtyMapWrapper<CharSequence, CharSequence> newMap() {
+    Map<CharSequence, CharSequence> map = new HashMap<>();
+    map.put(new Utf8("a"), new Utf8("1"));
+    map.put(new Utf8("b"), new Utf8("2"));
+    return new DirtyMapWrapper<>(map);
+  }
+
+  @Test
+  public void testMapTracksPutsAndRemovals() {
+    DirtyMapWrapper<CharSequence, CharSequence> map = newMap();
+    assertFalse(map.isDeltaTracked());
+    map.startTracking();
+    assertTrue(map.isDeltaTracked());
+    assertFalse(map.isDirty());
+
+    map.put(new Utf8("a"), new Utf8("1"));
+    assertFalse(map.isDirty());
+    map.put(new Utf8("a"), new Utf8("3"));
+    map.put(new Utf8("c"), new Utf8("4"));
+    map.remove(new Utf8("b"));
+    assertTrue(map.isDirty());
+    assertTrue(map.isDeltaTracked());
+    assertEquals(new ArrayList<>(Arrays.asList(new Utf8("a"), new Utf8("c"))),
+        new ArrayList<>(map.getPutKeys()));
+    assertEquals(Collections.singleton(new Utf8("b")), map.getRemovedKeys());
+
+    map.remove(new Utf8("c"));
+    map.put(new Utf8("b"), new Utf8("5"));
+    assertEquals(new ArrayList<>(Arrays.asList(new Utf8("a"), new Utf8("b"))),
+        new ArrayList<>(map.getPutKeys()));
+    assertEquals(Collections.singleton(new Utf8("c")), map.getRemovedKeys());
+
+    map.clearDirty();
+    assertFalse(map.isDirty());
+    assertTrue(map.getPutKeys().isEmpty());
+    assertTrue(map.getRemovedKeys().isEmpty());
+  }
+
+  @Test
+  public void testClearDirtyDoesNotTrack() {
+    DirtyMapWrapper<CharSequence, CharSequence> map = newMap();
+    map.clearDirty();
+    map.put(new Utf8("c"), new Utf8("3"));
+    assertFalse(map.isDeltaTracked());
+    DirtyListWrapper<CharSequence> list = new DirtyListWrapper<CharSequence>(
+        new ArrayList<CharSequence>(Arrays.asList("a", "b")));
+    list.clearDirty();
+    list.add("c");
+    assertFalse(list.isDeltaTracked());
+
+    map.startTracking();
+    list.startTracking();
+    map.stopTracking();
+    list.stopTracking();
+    assertFalse(map.isDeltaTracked());
+    assertFalse(list.isDeltaTracked());
+  }
+
+  @Test
+  public void testMapUntrackedChanges() {
+    DirtyMapWrapper<CharSequence, CharSequence> map = newMap();
+    map.startTracking();
+    Iterator<CharSequence> keys = map.keySet().iterator();
+    keys.next();
+    keys.remove();
+    assertTrue(map.isDirty());
+    assertFalse(map.isDeltaTracked());
+
+    map.clearDirty();
+    assertTrue(map.isDeltaTracked());
+    map.clear();
+    assertTrue(map.isDirty());
+    assertFalse(map.isDeltaTracked());
+    map.put(new Utf8("d"), new Utf8("6"));
+    assertFalse(map.isDeltaTracked());
+  }
+
+  @Test
+  public void testMapDirtyValues() {
+    WebPage page = WebPage.newBuilder().setUrl("http://a").build();
+    Map<CharSequence, WebPage> delegate = new HashMap<>();
+    delegate.put(new Utf8("a"), page);
+    DirtyMapWrapper<CharSequence, WebPage> map = new DirtyMapWrapper<>(delegate);
+    map.startTracking();
+    assertFalse(map.isDirty());
+    page.setUrl("http://b");
+    assertTrue(map.isDirty());
+    assertTrue(map.isDeltaTracked());
+    assertEquals(Collections.singleton(new Utf8("a")), map.getPutKeys());
+  }
+
+  @Test
+  public void testListTracksAppends() {
+    DirtyListWrapper<CharSequence> list = new DirtyListWrapper<CharSequence>(
+        new ArrayList<CharSequence>(Arrays.asList("a", "b")));
+    assertFalse(list.isDeltaTracked());
+    list.startTracking();
+    assertEquals(2, list.getAppendIndex());
+    assertFalse(list.isDirty());
+
+    list.add("c");
+    list.addAll(Arrays.asList("d", "e"));
+    list.add(list.size(), "f");
+    assertTrue(list.isDirty());
+    assertTrue(list.isDeltaTracked());
+    assertEquals(2, list.getAppendIndex());
+
+    list.clearDirty();
+    assertEquals(6, list.getAppendIndex());
+    list.set(0, "z");
+    assertTrue(list.isDirty());
+    assertFalse(list.isDeltaTracked());
+
+    list.clearDirty();
+    list.clear();
+    list.add("y");
+    assertTrue(list.isDirty());
+    assertFalse(list.isDeltaTracked());
+  }
+
+  @Test
+  public void testListDirtyElements() {
+    WebPage page = WebPage.newBuilder().setUrl("http://a").build();
+    DirtyListWrapper<WebPage> list = new DirtyListWrapper<>(
+        new ArrayList<>(Collections.singletonList(page)));
+    list.startTracking();
+    page.setUrl("http://b");
+    assertTrue(list.isDirty());
+    assertFalse(list.isDeltaTracked());
+  }
+}
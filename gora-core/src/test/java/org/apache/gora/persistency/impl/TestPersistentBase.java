@@ -21,6 +21,7 @@ package org.apache.gora.persistency.impl;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.util.Utf8;
@@ -31,7 +32,11 @@ import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.DataStoreTestUtil;
 import org.apache.hadoop.conf.Configuration;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 /**
@@ -169,4 +174,112 @@ public class TestPersistentBase {
       assertEquals("The field " + field.name() + " is not dirty.", true, page.isDirty(field.name()));
     }
   }
+
+  /**
+   * Test that the dirty fields are counted by bit, and that the dirty
+   * bytes round trip the dirty bits.
+   */
+  @Test
+  public void testDirtyBits() {
+    WebPage page = WebPage.newBuilder().build();
+    page.clearDirty();
+    page.setUrl(new Utf8("http://foo.com"));
+    page.setUrl(new Utf8("http://bar.com"));
+    page.setDirty(7);
+    assertTrue(page.isDirty());
+    assertTrue(page.isDirty(0));
+    assertFalse(page.isDirty(1));
+    assertTrue(page.isDirty(7));
+
+    ByteBuffer dirtyBytes = page.getDirtyBytes();
+    assertEquals(page.getFieldsCount(), dirtyBytes.remaining());
+    assertEquals((byte) 0x81, dirtyBytes.get(0));
+
+    page.clearDirty(0);
+    assertTrue(page.isDirty());
+    page.clearDirty(7);
+    page.clearDirty(7);
+    assertFalse(page.isDirty());
+
+    WebPage copy = WebPage.newBuilder().build();
+    copy.setDirtyBytes(ByteBuffer.wrap(Arrays.copyOf(dirtyBytes.array(), dirtyBytes.limit())));
+    assertTrue(copy.isDirty(0));
+    assertTrue(copy.isDirty(7));
+    assertFalse(copy.isDirty(3));
+    copy.clearDirty(0);
+    copy.clearDirty(7);
+    assertFalse(copy.isDirty());
+  }
+
+  /**
+   * Test that the changes of the maps, arrays and records of a clean
+   * record make it dirty.
+   */
+  @Test
+  public void testNestedDirty() {
+    WebPage page = WebPage.newBuilder().build();
+    page.clearDirty();
+    assertFalse(page.isDirty());
+    page.getOutlinks().put(new Utf8("foo"), new Utf8("bar"));
+    assertTrue(page.isDirty());
+    assertTrue(page.isDirty("outlinks"));
+    assertFalse(page.isDirty("url"));
+
+    page.clearDirty();
+    assertFalse(page.isDirty());
+    page.getMetadata().setVersion(2);
+    assertTrue(page.isDirty());
+    assertTrue(page.isDirty("metadata"));
+    page.clearDirty("metadata");
+    assertFalse(page.isDirty());
+  }
+
+  /**
+   * Test that a copy on write clone shares the strings and collections of
+   * the source until they are modified through the clone.
+   */
+  @Test
+  public void testCopyOnWrite() {
+    WebPage page = WebPage.newBuilder().build();
+    page.setUrl(new Utf8("http://foo.com"));
+    page.setContent(ByteBuffer.wrap(new byte[] {1, 2}));
+    page.getParsedContent().add(new Utf8("foo"));
+    page.getOutlinks().put(new Utf8("http://bar.com"), new Utf8("bar"));
+    page.getMetadata().getData().put(new Utf8("lang"), new Utf8("en"));
+    page.getByteData().put(new Utf8("data"), ByteBuffer.wrap(new byte[] {3}));
+
+    WebPage copy = PersistentBase.PersistentData.get().copyOnWrite(page.getSchema(), page);
+    assertEquals(page, copy);
+    assertFalse(copy.isDirty());
+    assertSame(page.getUrl(), copy.getUrl());
+    assertNotSame(page.getContent(), copy.getContent());
+    assertNotSame(page.getByteData().get(new Utf8("data")),
+        copy.getByteData().get(new Utf8("data")));
+    assertNotSame(page.getMetadata(), copy.getMetadata());
+
+    copy.getParsedContent().add(new Utf8("bar"));
+    copy.getOutlinks().remove(new Utf8("http://bar.com"));
+    copy.getMetadata().getData().put(new Utf8("lang"), new Utf8("fr"));
+    assertTrue(copy.isDirty("parsedContent"));
+    assertTrue(copy.isDirty("outlinks"));
+    assertEquals(2, copy.getParsedContent().size());
+    assertEquals(1, page.getParsedContent().size());
+    assertTrue(copy.getOutlinks().isEmpty());
+    assertEquals(1, page.getOutlinks().size());
+    assertEquals(new Utf8("en"), page.getMetadata().getData().get(new Utf8("lang")));
+
+    // reading the bytes of the clone leaves the source readable
+    copy.getContent().get();
+    copy.getByteData().get(new Utf8("data")).get();
+    assertEquals(2, page.getContent().remaining());
+    assertEquals(1, page.getByteData().get(new Utf8("data")).remaining());
+
+    // a clone of a clone still copies on write
+    WebPage second = PersistentBase.PersistentData.get().copyOnWrite(copy.getSchema(), copy);
+    second.getParsedContent().clear();
+    assertEquals(2, copy.getParsedContent().size());
+    copy.getParsedContent().set(0, new Utf8("baz"));
+    assertTrue(second.getParsedContent().isEmpty());
+    assertEquals(new Utf8("foo"), page.getParsedContent().get(0));
+  }
 }
@@ -0,0 +1,215 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.persistency.Dirtyable;
+import org.junit.Test;
+
+/**
+ * Tests the generated {@link org.apache.gora.persistency.PersistentCodec}s
+ * against the specific Avro readers and writers.
+ */
+public class TestPersistentCodecs {
+
+  private static WebPage newWebPage() {
+    WebPage page = WebPage.newBuilder().build();
+    page.setUrl(new Utf8("http://gora.apache.org/"));
+    page.setContent(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    page.getParsedContent().add(new Utf8("gora"));
+    page.getOutlinks().put(new Utf8("http://avro.apache.org/"), new Utf8("avro"));
+    page.getOutlinks().put(new Utf8("http://hbase.apache.org/"), null);
+    Map<CharSequence, CharSequence> headers = new HashMap<>();
+    headers.put(new Utf8("Content-Type"), new Utf8("text/html"));
+    page.setHeaders(headers);
+    page.getMetadata().setVersion(2);
+    page.getMetadata().getData().put(new Utf8("lang"), new Utf8("en"));
+    page.getByteData().put(new Utf8("raw"), ByteBuffer.wrap(new byte[] {4}));
+    page.getStringData().put(new Utf8("title"), new Utf8("Gora"));
+    return page;
+  }
+
+  private static Employee newEmployee() {
+    Employee boss = Employee.newBuilder().setName(new Utf8("boss"))
+        .setSsn(new Utf8("1")).setBoss(new Utf8("none")).build();
+    return Employee.newBuilder().setName(new Utf8("employee"))
+        .setSsn(new Utf8("2")).setSalary(-100).setDateOfBirth(1234567890123L)
+        .setBoss(boss).setWebpage(newWebPage()).build();
+  }
+
+  private static <T> byte[] write(DatumWriter<T> writer, T datum) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    writer.write(datum, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testLookup() {
+    assertSame(WebPage.CODEC, PersistentCodecs.get(WebPage.class));
+    assertSame(WebPage.CODEC, PersistentCodecs.get(WebPage.SCHEMA$));
+    assertSame(Employee.CODEC, PersistentCodecs.get(Employee.SCHEMA$));
+    assertNull(PersistentCodecs.get(Schema.create(Schema.Type.STRING)));
+    assertNull(PersistentCodecs.get(new Schema.Parser().parse(
+        "{\"type\":\"record\",\"name\":\"NoCodec\",\"namespace\":\"org.apache.gora.examples\","
+        + "\"fields\":[{\"name\":\"f\",\"type\":\"int\"}]}")));
+  }
+
+  @Test
+  public void testEncodingMatchesAvro() throws IOException {
+    for (Object record : new Object[] {newWebPage(), newEmployee(),
+        WebPage.newBuilder().build(), Employee.newBuilder().build()}) {
+      Schema schema = ((PersistentBase) record).getSchema();
+      byte[] expected = write(new SpecificDatumWriter<>(schema), record);
+      assertArrayEquals(expected, write(new PersistentDatumWriter<>(schema), record));
+
+      Object decoded = new PersistentDatumReader<>(schema).read(null,
+          DecoderFactory.get().binaryDecoder(expected, null));
+      assertEquals(new SpecificDatumReader<>(schema).read(null,
+          DecoderFactory.get().binaryDecoder(expected, null)), decoded);
+    }
+  }
+
+  @Test
+  public void testNestedRecordsInFieldSchemas() throws IOException {
+    // stores serialize fields on their own, records inside unions included
+    Schema schema = Employee.SCHEMA$.getField("webpage").schema();
+    WebPage page = newWebPage();
+    assertArrayEquals(write(new SpecificDatumWriter<>(schema), page),
+        write(new PersistentDatumWriter<>(schema), page));
+  }
+
+  @Test
+  public void testDecodeReusesRecord() throws IOException {
+    byte[] bytes = write(new PersistentDatumWriter<>(WebPage.SCHEMA$), newWebPage());
+    PersistentDatumReader<WebPage> reader = new PersistentDatumReader<>(WebPage.SCHEMA$);
+    WebPage reuse = reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+    Map<CharSequence, CharSequence> outlinks = reuse.getOutlinks();
+    assertTrue(outlinks instanceof Dirtyable);
+
+    byte[] empty = write(new PersistentDatumWriter<>(WebPage.SCHEMA$), WebPage.newBuilder().build());
+    WebPage decoded = reader.read(reuse, DecoderFactory.get().binaryDecoder(empty, null));
+    assertSame(reuse, decoded);
+    assertSame(outlinks, decoded.getOutlinks());
+    assertTrue(decoded.getOutlinks().isEmpty());
+    assertNull(decoded.getUrl());
+  }
+
+  @Test
+  public void testProjection() throws IOException {
+    WebPage page = newWebPage();
+    byte[] bytes = write(new PersistentDatumWriter<>(WebPage.SCHEMA$), page);
+    String[] fields = {"url", "metadata", "stringData"};
+
+    PersistentDatumReader<WebPage> reader = new PersistentDatumReader<>(WebPage.SCHEMA$);
+    reader.setFields(fields);
+    WebPage projected = reader.read(WebPage.newBuilder().build(),
+        DecoderFactory.get().binaryDecoder(bytes, null));
+    assertProjected(page, projected);
+
+    // a schema no codec was generated for is read by the generic reader
+    Schema schema = new Schema.Parser().parse(WebPage.SCHEMA$.toString());
+    schema.addProp("origin", "test");
+    assertNull(PersistentCodecs.get(schema));
+    reader = new PersistentDatumReader<>(schema);
+    reader.setFields(fields);
+    projected = reader.read(WebPage.newBuilder().build(),
+        DecoderFactory.get().binaryDecoder(bytes, null));
+    assertProjected(page, projected);
+  }
+
+  private static void assertProjected(WebPage page, WebPage projected) {
+    assertEquals(page.getUrl().toString(), projected.getUrl().toString());
+    assertEquals(2, projected.getMetadata().getVersion().intValue());
+    assertEquals(new Utf8("Gora"), projected.getStringData().get(new Utf8("title")));
+    assertNull(projected.getContent());
+    assertTrue(projected.getParsedContent().isEmpty());
+    assertTrue(projected.getOutlinks().isEmpty());
+    assertNull(projected.getHeaders());
+    assertTrue(projected.getByteData().isEmpty());
+  }
+
+  @Test
+  public void testCopy() {
+    Employee employee = newEmployee();
+    Employee copy = Employee.CODEC.copy(employee);
+    assertEquals(employee, copy);
+    assertFalse(copy.isDirty());
+    WebPage page = employee.getWebpage();
+    WebPage pageCopy = copy.getWebpage();
+    assertNotSame(page, pageCopy);
+    assertNotSame(page.getUrl(), pageCopy.getUrl());
+    assertNotSame(page.getContent(), pageCopy.getContent());
+    assertTrue(pageCopy.getParsedContent() instanceof Dirtyable);
+    assertTrue(pageCopy.getOutlinks() instanceof Dirtyable);
+
+    // the copy is independent of the source
+    ((Utf8) page.getUrl()).set("http://gora.apache.org/changed");
+    page.getContent().put(0, (byte) 9);
+    page.getParsedContent().add(new Utf8("avro"));
+    page.getStringData().clear();
+    page.getMetadata().setVersion(3);
+    assertEquals(new Utf8("http://gora.apache.org/"), pageCopy.getUrl());
+    assertEquals(1, pageCopy.getContent().get(0));
+    assertEquals(1, pageCopy.getParsedContent().size());
+    assertEquals(1, pageCopy.getStringData().size());
+    assertEquals(2, pageCopy.getMetadata().getVersion().intValue());
+
+    // records without a codec are copied by Avro
+    assertEquals(employee.getBoss(), PersistentBase.PersistentData.get()
+        .deepCopy(Employee.SCHEMA$, employee.getBoss()));
+  }
+
+  @Test
+  public void testSchemaResolutionFallsBack() throws IOException {
+    WebPage page = newWebPage();
+    byte[] bytes = write(new SpecificDatumWriter<>(WebPage.SCHEMA$), page);
+    PersistentDatumReader<WebPage> reader = new PersistentDatumReader<>(WebPage.SCHEMA$);
+    // a compatible writer schema which is not equal to the one of the class
+    Schema writer = new Schema.Parser().parse(WebPage.SCHEMA$.toString());
+    writer.addProp("origin", "test");
+    reader.setSchema(writer);
+    WebPage decoded = reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+    assertEquals(new SpecificDatumReader<>(WebPage.SCHEMA$).read(null,
+        DecoderFactory.get().binaryDecoder(bytes, null)), decoded);
+  }
+}
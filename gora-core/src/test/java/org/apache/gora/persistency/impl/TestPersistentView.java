@@ -0,0 +1,123 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.gora.persistency.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.examples.generated.WebPage;
+import org.junit.Test;
+
+/**
+ * Tests {@link PersistentView} over heap and direct buffers.
+ */
+public class TestPersistentView {
+
+  private static Employee newEmployee(String name, int salary) {
+    WebPage page = WebPage.newBuilder().build();
+    page.setUrl(new Utf8("http://gora.apache.org/" + name));
+    page.getOutlinks().put(new Utf8("http://avro.apache.org/"), new Utf8("avro"));
+    page.getParsedContent().add(new Utf8(name));
+    return Employee.newBuilder().setName(new Utf8(name)).setSsn(new Utf8("ssn-" + name))
+        .setSalary(salary).setDateOfBirth(-1234567890123L).setWebpage(page).build();
+  }
+
+  private static byte[] write(Employee... employees) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    SpecificDatumWriter<Employee> writer = new SpecificDatumWriter<>(Employee.SCHEMA$);
+    for (Employee employee : employees) {
+      writer.write(employee, encoder);
+    }
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testHeapBuffer() throws IOException {
+    testView(ByteBuffer.wrap(write(newEmployee("alice", 100), newEmployee("bob", -5))));
+  }
+
+  @Test
+  public void testDirectBuffer() throws IOException {
+    byte[] bytes = write(newEmployee("alice", 100), newEmployee("bob", -5));
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes);
+    buffer.flip();
+    testView(buffer);
+  }
+
+  private void testView(ByteBuffer buffer) throws IOException {
+    PersistentView view = new PersistentView(Employee.SCHEMA$);
+    int name = view.getFieldIndex("name");
+    int salary = view.getFieldIndex("salary");
+    int dateOfBirth = view.getFieldIndex("dateOfBirth");
+    int boss = view.getFieldIndex("boss");
+    int webpage = view.getFieldIndex("webpage");
+
+    view.wrap(buffer);
+    Utf8 reuse = new Utf8();
+    assertSame(reuse, view.getString(name, reuse));
+    assertEquals("alice", reuse.toString());
+    assertEquals(100, view.getInt(salary));
+    assertEquals(-1234567890123L, view.getLong(dateOfBirth));
+    assertTrue(view.isNull(boss));
+    assertFalse(view.isNull(webpage));
+    WebPage page = (WebPage) view.get(webpage);
+    assertEquals("http://gora.apache.org/alice", page.getUrl().toString());
+    Map<CharSequence, CharSequence> outlinks = page.getOutlinks();
+    assertEquals(new Utf8("avro"), outlinks.get(new Utf8("http://avro.apache.org/")));
+
+    int next = view.getOffset() + view.getLength();
+    view.wrap(buffer, next);
+    // fields read out of order
+    assertEquals(-5, view.getInt(salary));
+    assertEquals("bob", view.getString(name, reuse).toString());
+    assertEquals("ssn-bob", view.getString(view.getFieldIndex("ssn"), null).toString());
+    assertEquals(buffer.limit(), view.getOffset() + view.getLength());
+  }
+
+  @Test(expected = AvroTypeException.class)
+  public void testWrongType() throws IOException {
+    PersistentView view = new PersistentView(Employee.SCHEMA$);
+    view.wrap(ByteBuffer.wrap(write(newEmployee("alice", 100))));
+    view.getLong(view.getFieldIndex("salary"));
+  }
+
+  @Test
+  public void testNullUnion() throws IOException {
+    PersistentView view = new PersistentView(Employee.SCHEMA$);
+    view.wrap(ByteBuffer.wrap(write(Employee.newBuilder().setSsn(new Utf8("1")).build())));
+    assertNull(view.getString(view.getFieldIndex("name"), null));
+    assertTrue(view.isNull(view.getFieldIndex("webpage")));
+  }
+}
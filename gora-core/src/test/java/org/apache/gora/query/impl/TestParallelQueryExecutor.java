@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.query.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.gora.examples.WebPageDataCreator;
+import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.query.PartitionQuery;
+import org.apache.gora.query.Query;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.gora.util.GoraException;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link ParallelQueryExecutor}.
+ */
+public class TestParallelQueryExecutor {
+
+  /**
+   * A MemStore splitting queries into three key ranges, returned in
+   * reverse key order.
+   */
+  public static class PartitionedMemStore<K, T extends WebPage> extends MemStore<K, T> {
+    @Override
+    public List<PartitionQuery<K, T>> getPartitions(Query<K, T> query) {
+      String[] urls = WebPageDataCreator.SORTED_URLS;
+      List<PartitionQuery<K, T>> partitions = new ArrayList<>();
+      partitions.add(partition(query, urls[6], null));
+      partitions.add(partition(query, urls[3], urls[5]));
+      partitions.add(partition(query, null, urls[2]));
+      return partitions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PartitionQuery<K, T> partition(Query<K, T> query, String startKey, String endKey) {
+      PartitionQueryImpl<K, T> partition = new PartitionQueryImpl<>(query,
+          (K) startKey, (K) endKey);
+      partition.setConf(getConf());
+      return partition;
+    }
+  }
+
+  private DataStore<String, WebPage> store;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    store = DataStoreFactory.getDataStore(PartitionedMemStore.class, String.class,
+        WebPage.class, new Configuration());
+    store.deleteSchema();
+    WebPageDataCreator.createWebPageData(store);
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdown();
+    store.deleteSchema();
+    store.close();
+  }
+
+  @Test
+  public void testUnordered() throws Exception {
+    final Set<String> keys = new ConcurrentSkipListSet<>();
+    long rows = new ParallelQueryExecutor<String, WebPage>(executor, 2).execute(
+        store.newQuery(), new ParallelQueryExecutor.RowConsumer<String, WebPage>() {
+          @Override
+          public void accept(String key, WebPage page) {
+            assertEquals(key, page.getUrl().toString());
+            keys.add(key);
+          }
+        });
+    assertEquals(WebPageDataCreator.URLS.length, rows);
+    assertEquals(new TreeSet<>(Arrays.asList(WebPageDataCreator.URLS)), keys);
+  }
+
+  @Test
+  public void testOrdered() throws Exception {
+    final List<String> keys = new ArrayList<>();
+    ParallelQueryExecutor<String, WebPage> parallelExecutor =
+        new ParallelQueryExecutor<>(executor, 2);
+    parallelExecutor.setOrdered(true);
+    long rows = parallelExecutor.execute(store.newQuery(),
+        new ParallelQueryExecutor.RowConsumer<String, WebPage>() {
+          @Override
+          public void accept(String key, WebPage page) {
+            keys.add(key);
+          }
+        });
+    assertEquals(WebPageDataCreator.URLS.length, rows);
+    assertEquals(Arrays.asList(WebPageDataCreator.SORTED_URLS), keys);
+  }
+
+  @Test
+  public void testLimit() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    query.setLimit(4);
+    final Set<String> keys = new ConcurrentSkipListSet<>();
+    ParallelQueryExecutor.RowConsumer<String, WebPage> consumer =
+        new ParallelQueryExecutor.RowConsumer<String, WebPage>() {
+          @Override
+          public void accept(String key, WebPage page) {
+            keys.add(key);
+          }
+        };
+    assertEquals(4, ParallelQueryExecutor.execute(query, 3, consumer));
+    assertEquals(4, keys.size());
+
+    keys.clear();
+    ParallelQueryExecutor<String, WebPage> parallelExecutor =
+        new ParallelQueryExecutor<>(executor, 2);
+    parallelExecutor.setOrdered(true);
+    assertEquals(4, parallelExecutor.execute(query, consumer));
+    assertEquals(new TreeSet<>(Arrays.asList(WebPageDataCreator.SORTED_URLS).subList(0, 4)),
+        keys);
+  }
+
+  @Test
+  public void testZeroLimit() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    // as for Query#execute(), only a positive limit limits the rows
+    query.setLimit(0);
+    ParallelQueryExecutor.RowConsumer<String, WebPage> consumer =
+        new ParallelQueryExecutor.RowConsumer<String, WebPage>() {
+          @Override
+          public void accept(String key, WebPage page) {
+          }
+        };
+    assertEquals(WebPageDataCreator.URLS.length,
+        new ParallelQueryExecutor<String, WebPage>(executor, 2).execute(query, consumer));
+    ParallelQueryExecutor<String, WebPage> parallelExecutor =
+        new ParallelQueryExecutor<>(executor, 2);
+    parallelExecutor.setOrdered(true);
+    assertEquals(WebPageDataCreator.URLS.length, parallelExecutor.execute(query, consumer));
+  }
+
+  @Test
+  public void testOrderedOnBusyExecutor() throws Exception {
+    final CountDownLatch busy = new CountDownLatch(1);
+    ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    singleThread.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          busy.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    try {
+      final List<String> keys = new ArrayList<>();
+      ParallelQueryExecutor<String, WebPage> parallelExecutor =
+          new ParallelQueryExecutor<>(singleThread, 2);
+      parallelExecutor.setOrdered(true);
+      // the partitions are read by the calling thread
+      parallelExecutor.execute(store.newQuery(),
+          new ParallelQueryExecutor.RowConsumer<String, WebPage>() {
+            @Override
+            public void accept(String key, WebPage page) {
+              keys.add(key);
+            }
+          });
+      assertEquals(Arrays.asList(WebPageDataCreator.SORTED_URLS), keys);
+    } finally {
+      busy.countDown();
+      singleThread.shutdown();
+    }
+  }
+
+  @Test
+  public void testConsumerFailure() throws Exception {
+    try {
+      new ParallelQueryExecutor<String, WebPage>(executor, 2).execute(store.newQuery(),
+          new ParallelQueryExecutor.RowConsumer<String, WebPage>() {
+            @Override
+            public void accept(String key, WebPage page) throws Exception {
+              throw new IllegalStateException("failure");
+            }
+          });
+      fail("the failure of the consumer was not thrown");
+    } catch (GoraException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+}
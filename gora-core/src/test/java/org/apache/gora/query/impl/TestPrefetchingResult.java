@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.query.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.WebPageDataCreator;
+import org.apache.gora.examples.generated.WebPage;
+import org.apache.gora.memory.store.MemStore;
+import org.apache.gora.query.Query;
+import org.apache.gora.query.Result;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PrefetchingResult}.
+ */
+public class TestPrefetchingResult {
+
+  private DataStore<String, WebPage> store;
+
+  @Before
+  public void setUp() throws Exception {
+    store = DataStoreFactory.getDataStore(MemStore.class, String.class, WebPage.class,
+        new Configuration());
+    store.deleteSchema();
+    WebPageDataCreator.createWebPageData(store);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.deleteSchema();
+    store.close();
+  }
+
+  @Test
+  public void testReadAhead() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    query.setPrefetch(2, 0);
+    Result<String, WebPage> result = query.execute();
+    assertTrue(result instanceof PrefetchingResult);
+
+    List<WebPage> pages = new ArrayList<>();
+    int i = 0;
+    while (result.next()) {
+      assertEquals(WebPageDataCreator.SORTED_URLS[i++], result.getKey());
+      assertEquals(new Utf8(result.getKey()), new Utf8(result.get().getUrl().toString()));
+      for (WebPage page : pages) {
+        assertNotSame(page, result.get());
+      }
+      pages.add(result.get());
+      assertEquals(i, result.getOffset());
+    }
+    assertEquals(WebPageDataCreator.URLS.length, i);
+    assertFalse(result.next());
+    result.close();
+  }
+
+  @Test
+  public void testMaxBytes() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    // every row exceeds the bound, rows are handed over one at a time
+    query.setPrefetch(4, 1);
+    Result<String, WebPage> result = query.execute();
+    int count = 0;
+    while (result.next()) {
+      count++;
+    }
+    result.close();
+    assertEquals(WebPageDataCreator.URLS.length, count);
+  }
+
+  @Test
+  public void testEarlyClose() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    query.setPrefetch(1, 0);
+    Result<String, WebPage> result = query.execute();
+    assertTrue(result.next());
+    result.close();
+    assertFalse(result.next());
+  }
+
+  @Test
+  public void testErrorPropagation() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    Result<String, WebPage> failing = new ResultBase<String, WebPage>(store, query) {
+      private int rows;
+
+      @Override
+      public float getProgress() {
+        return 0;
+      }
+
+      @Override
+      public int size() {
+        return -1;
+      }
+
+      @Override
+      protected boolean nextInner() throws IOException {
+        if (++rows > 2) {
+          throw new IOException("failure");
+        }
+        key = "key" + rows;
+        return true;
+      }
+    };
+    Result<String, WebPage> result = new PrefetchingResult<>(failing, 4, 0);
+    assertTrue(result.next());
+    assertTrue(result.next());
+    try {
+      result.next();
+      fail("the failure of the wrapped result was not thrown");
+    } catch (IOException e) {
+      assertEquals("failure", e.getMessage());
+    }
+    result.close();
+  }
+
+  @Test
+  public void testProgressReadByProducer() throws Exception {
+    Query<String, WebPage> query = store.newQuery();
+    final Thread consumer = Thread.currentThread();
+    Result<String, WebPage> counting = new ResultBase<String, WebPage>(store, query) {
+      private int rows;
+
+      @Override
+      public float getProgress() {
+        assertNotSame(consumer, Thread.currentThread());
+        return rows / 4f;
+      }
+
+      @Override
+      public int size() {
+        return 4;
+      }
+
+      @Override
+      protected boolean nextInner() throws IOException {
+        if (rows == 4) {
+          return false;
+        }
+        key = "key" + ++rows;
+        return true;
+      }
+    };
+    Result<String, WebPage> result = new PrefetchingResult<>(counting, 4, 0);
+    for (int i = 1; i <= 4; i++) {
+      assertTrue(result.next());
+      assertEquals(i / 4f, result.getProgress(), 0f);
+    }
+    assertFalse(result.next());
+    assertEquals(1f, result.getProgress(), 0f);
+    result.close();
+  }
+
+  @Test
+  public void testRejectedExecutor() throws Exception {
+    Executor rejecting = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    };
+    Result<String, WebPage> result = new PrefetchingResult<>(store.newQuery().execute(), 2, 0,
+        rejecting);
+    int i = 0;
+    while (result.next()) {
+      assertEquals(WebPageDataCreator.SORTED_URLS[i++], result.getKey());
+      assertEquals(i, result.getOffset());
+    }
+    assertEquals(WebPageDataCreator.URLS.length, i);
+    result.close();
+  }
+
+  @Test
+  public void testEstimateSize() {
+    WebPage page = WebPage.newBuilder().build();
+    long empty = PrefetchingResult.estimateSize(page);
+    page.setUrl(new Utf8("http://example.org/"));
+    assertTrue(PrefetchingResult.estimateSize(page) > empty);
+  }
+}
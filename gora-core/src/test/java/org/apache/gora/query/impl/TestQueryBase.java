@@ -22,8 +22,10 @@ import org.apache.gora.mock.query.MockQuery;
 import org.apache.gora.mock.store.MockDataStore;
 import org.apache.gora.query.impl.QueryBase;
 import org.apache.gora.util.TestIOUtils;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.junit.Before;
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 /**
@@ -56,6 +58,21 @@ public class TestQueryBase {
   public void testReadWrite2() throws Exception {
     query.setLimit(1000);
     query.setTimeRange(0, System.currentTimeMillis());
+    query.setPrefetch(8, 1 << 20);
+    TestIOUtils.testSerializeDeserialize(query);
+  }
+
+  @Test
+  public void testReadWriteWithoutPrefetch() throws Exception {
+    // without prefetch settings a query ends with the localFilterEnabled
+    // boolean, like before they were added
+    query.setLocalFilterEnabled(false);
+    DataOutputBuffer out = new DataOutputBuffer();
+    query.write(out);
+    assertEquals(0, out.getData()[out.getLength() - 1]);
+    TestIOUtils.testSerializeDeserialize(query);
+
+    query.setPrefetch(2, 0);
     TestIOUtils.testSerializeDeserialize(query);
   }
 
@@ -220,6 +220,18 @@ public abstract class DataStoreTestBase {
     DataStoreTestUtil.testExistsEmployee(employeeStore);
   }
 
+  @Test
+  public void testAsyncOperations() throws Exception {
+    log.info("test method: testAsyncOperations");
+    DataStoreTestUtil.testAsyncEmployee(employeeStore);
+  }
+
+  @Test
+  public void testBatchOperations() throws Exception {
+    log.info("test method: testBatchOperations");
+    DataStoreTestUtil.testBatchEmployee(employeeStore);
+  }
+
   @Test
   public void testBenchamarkExists() throws Exception {
     log.info("test method: testBenchamarkExists");
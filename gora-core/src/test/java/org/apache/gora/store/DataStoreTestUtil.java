@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
 
 import org.apache.avro.Schema.Field;
 import org.apache.avro.util.Utf8;
@@ -182,6 +184,71 @@ public class DataStoreTestUtil {
     assertFalse(dataStore.exists(uuid));
   }
 
+  public static void testAsyncEmployee(DataStore<String, Employee> dataStore)
+      throws Exception {
+    assumeTrue(dataStore instanceof AsyncDataStore);
+    AsyncDataStore<String, Employee> asyncStore = (AsyncDataStore<String, Employee>) dataStore;
+    dataStore.createSchema();
+    Employee employee = DataStoreTestUtil.createEmployee();
+    String ssn = employee.getSsn().toString();
+    asyncStore.putAsync(ssn, employee).get();
+    dataStore.flush();
+    assertTrue(asyncStore.existsAsync(ssn).get());
+
+    Employee after = asyncStore.getAsync(ssn,
+        AvroUtils.getSchemaFieldNames(Employee.SCHEMA$)).get();
+    assertEqualEmployeeObjects(employee, after);
+
+    // an async write issued after a blocking one must not be overtaken by it
+    employee.setSalary(1000);
+    dataStore.put(ssn, employee);
+    employee.setSalary(2000);
+    asyncStore.putAsync(ssn, employee).get();
+    dataStore.flush();
+    assertEquals(2000, asyncStore.getAsync(ssn).get().getSalary().intValue());
+
+    asyncStore.deleteAsync(ssn).get();
+    dataStore.flush();
+    assertFalse(asyncStore.existsAsync(ssn).get());
+    assertNull(asyncStore.getAsync(ssn).get());
+  }
+
+  public static void testBatchEmployee(DataStore<String, Employee> dataStore)
+      throws Exception {
+    dataStore.createSchema();
+    Map<String, Employee> employees = new LinkedHashMap<>();
+    for (int i = 0; i < 5; i++) {
+      Employee employee = DataStoreTestUtil.createEmployee();
+      employee.setSsn(new Utf8("10101010101" + i));
+      employees.put(employee.getSsn().toString(), employee);
+    }
+    dataStore.putAll(employees);
+    dataStore.flush();
+
+    List<String> keys = new ArrayList<>(employees.keySet());
+    keys.add(2, "missing");
+
+    Map<String, Boolean> exists = dataStore.existsAll(keys);
+    assertEquals(keys, new ArrayList<>(exists.keySet()));
+    for (String key : keys) {
+      assertEquals(employees.containsKey(key), exists.get(key));
+    }
+
+    Map<String, Employee> after = dataStore.getAll(keys,
+        AvroUtils.getSchemaFieldNames(Employee.SCHEMA$));
+    assertEquals(new ArrayList<>(employees.keySet()), new ArrayList<>(after.keySet()));
+    for (Map.Entry<String, Employee> entry : employees.entrySet()) {
+      assertEqualEmployeeObjects(entry.getValue(), after.get(entry.getKey()));
+    }
+
+    dataStore.deleteAll(keys);
+    dataStore.flush();
+    for (boolean exist : dataStore.existsAll(keys).values()) {
+      assertFalse(exist);
+    }
+    assertTrue(dataStore.getAll(keys, null).isEmpty());
+  }
+
   public static void testBenchmarkGetExists(DataStore<String, Employee> dataStore)
       throws Exception {
     dataStore.createSchema();
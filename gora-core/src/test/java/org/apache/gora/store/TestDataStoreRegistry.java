@@ -0,0 +1,109 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.apache.gora.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Properties;
+
+import org.apache.gora.mock.persistency.MockPersistent;
+import org.apache.gora.mock.store.MockDataStore;
+import org.apache.gora.store.impl.DataStoreDecorator;
+import org.apache.gora.util.GoraException;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the sharing and release of the stores of {@link DataStoreRegistry}.
+ */
+public class TestDataStoreRegistry {
+
+  private Configuration conf;
+  private DataStoreRegistry registry;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    registry = new DataStoreRegistry();
+  }
+
+  @After
+  public void tearDown() {
+    registry.close();
+  }
+
+  private static DataStore<?, ?> shared(DataStore<?, ?> handle) {
+    return ((DataStoreDecorator<?, ?>) handle).getDelegate();
+  }
+
+  private DataStore<String, MockPersistent> acquire(Properties properties)
+      throws GoraException {
+    return registry.acquire(MockDataStore.class, String.class, MockPersistent.class,
+        conf, properties);
+  }
+
+  @Test
+  public void testSharing() throws GoraException {
+    DataStore<String, MockPersistent> store1 = acquire(null);
+    DataStore<String, MockPersistent> store2 = acquire(DataStoreFactory.createProps());
+    assertSame(shared(store1), shared(store2));
+    assertEquals(1, registry.size());
+
+    Properties properties = DataStoreFactory.createProps();
+    DataStoreFactory.setDefaultSchemaName(properties, "other");
+    DataStore<String, MockPersistent> store3 = acquire(properties);
+    assertNotSame(shared(store1), shared(store3));
+    assertEquals(2, registry.size());
+    assertEquals(MockPersistent.class, store3.getPersistentClass());
+  }
+
+  @Test
+  public void testRelease() throws GoraException {
+    DataStore<String, MockPersistent> store1 = acquire(null);
+    DataStore<String, MockPersistent> store2 = acquire(null);
+    store1.close();
+    store1.close(); // released once
+    assertEquals(1, registry.size());
+    store2.close();
+    assertEquals(0, registry.size());
+
+    DataStore<String, MockPersistent> store3 = acquire(null);
+    assertNotSame(shared(store1), shared(store3));
+    store3.close();
+  }
+
+  @Test
+  public void testWarmUp() throws GoraException {
+    registry.warmUp(MockDataStore.class, String.class, MockPersistent.class, conf, null);
+    registry.warmUp(MockDataStore.class, String.class, MockPersistent.class, conf, null);
+    assertEquals(1, registry.size());
+    DataStore<String, MockPersistent> store1 = acquire(null);
+    store1.close();
+    assertEquals(1, registry.size());
+    DataStore<String, MockPersistent> store2 = acquire(null);
+    assertSame(shared(store1), shared(store2));
+    store2.close();
+    registry.close();
+    assertEquals(0, registry.size());
+  }
+}
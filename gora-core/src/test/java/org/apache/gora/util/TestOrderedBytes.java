@@ -0,0 +1,153 @@
+/**
+* Licensed to the Apache Software Foundation (ASF) under one
+* or more contributor license agreements. See the NOTICE file
+* distributed with this work for additional information
+* regarding copyright ownership. The ASF licenses this file
+* to you under the Apache License, Version 2.0 (the
+* "License"); you may not use this file except in compliance
+* with the License. You may obtain a copy of the License at
+*
+* http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+
+package org.apache.gora.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.gora.examples.generated.ImmutableFields;
+import org.apache.gora.examples.generated.V2;
+import org.junit.Test;
+
+/**
+ * Test case for {@link OrderedBytes} class.
+ */
+public class TestOrderedBytes {
+
+  private static void assertOrdered(Object... keys) {
+    for (int i = 0; i < keys.length; i++) {
+      byte[] bytes = OrderedBytes.toBytes(keys[i]);
+      assertEquals(keys[i], OrderedBytes.fromBytes(keys[i].getClass(), bytes));
+      if (i > 0) {
+        byte[] previous = OrderedBytes.toBytes(keys[i - 1]);
+        assertTrue(keys[i - 1] + " < " + keys[i],
+            ByteUtils.compareTo(previous, bytes) < 0);
+      }
+    }
+  }
+
+  @Test
+  public void testNumbers() {
+    assertOrdered((byte) -128, (byte) -1, (byte) 0, (byte) 127);
+    assertOrdered(Short.MIN_VALUE, (short) -1, (short) 0, Short.MAX_VALUE);
+    assertOrdered(Integer.MIN_VALUE, -256, -1, 0, 1, 256, Integer.MAX_VALUE);
+    assertOrdered(Long.MIN_VALUE, -1L, 0L, 1L << 40, Long.MAX_VALUE);
+    assertOrdered(Float.NEGATIVE_INFINITY, -Float.MAX_VALUE, -1.5f, -Float.MIN_VALUE,
+        0f, Float.MIN_VALUE, 1.5f, Float.MAX_VALUE, Float.POSITIVE_INFINITY);
+    assertOrdered(Double.NEGATIVE_INFINITY, -1e300, -1d, -Double.MIN_VALUE,
+        0d, Double.MIN_VALUE, 1d, 1e300, Double.POSITIVE_INFINITY);
+    assertOrdered(false, true);
+  }
+
+  @Test
+  public void testStrings() {
+    assertOrdered("", "\u0000", "\u0000\u0000", "\u0000a", "a", "a\u0000", "a\u0001",
+        "ab", "b", "é", "€", "😀");
+    assertEquals(new Utf8("a\u0000b"),
+        OrderedBytes.fromBytes(Utf8.class, OrderedBytes.toBytes(new Utf8("a\u0000b"))));
+    assertArrayEquals(new byte[] { 0, 1, (byte) 0xFF },
+        OrderedBytes.fromBytes(byte[].class, OrderedBytes.toBytes(new byte[] { 0, 1, (byte) 0xFF })));
+    assertEquals(ByteBuffer.wrap(new byte[] { 0, 0 }), OrderedBytes.fromBytes(ByteBuffer.class,
+        OrderedBytes.toBytes(ByteBuffer.wrap(new byte[] { 0, 0 }))));
+  }
+
+  @Test
+  public void testCompositeKeys() {
+    ImmutableFields[] keys = new ImmutableFields[] {
+        newKey(-5, null), newKey(-5, Integer.MIN_VALUE), newKey(-5, 7),
+        newKey(0, null), newKey(3, -1), newKey(3, 0) };
+    assertOrdered((Object[]) keys);
+    assertNull(OrderedBytes.fromBytes(ImmutableFields.class,
+        OrderedBytes.toBytes(keys[0])).getV2());
+    assertFalse(OrderedBytes.fromBytes(ImmutableFields.class,
+        OrderedBytes.toBytes(keys[1])).isDirty());
+  }
+
+  @Test
+  public void testGenericRecords() {
+    Schema schema = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Key\","
+        + "\"fields\":[{\"name\":\"host\",\"type\":\"string\"},"
+        + "{\"name\":\"time\",\"type\":\"long\"}]}");
+    IndexedRecord[] keys = new IndexedRecord[] {
+        newRecord(schema, "a", 5), newRecord(schema, "a", 6),
+        newRecord(schema, "a\u0000", -1), newRecord(schema, "ab", Long.MIN_VALUE) };
+    for (int i = 0; i < keys.length; i++) {
+      byte[] bytes = OrderedBytes.toBytes(keys[i]);
+      OrderedBytes buffer = OrderedBytes.wrap(bytes);
+      assertEquals(keys[i], buffer.readValue(schema));
+      assertEquals(0, buffer.remaining());
+      if (i > 0) {
+        assertTrue(ByteUtils.compareTo(OrderedBytes.toBytes(keys[i - 1]), bytes) < 0);
+      }
+    }
+  }
+
+  @Test
+  public void testReuse() {
+    OrderedBytes buffer = new OrderedBytes(1);
+    buffer.writeInt(1).writeString("key").writeLong(-2L);
+    byte[] first = buffer.toByteArray();
+    byte[] array = buffer.getBytes();
+    buffer.reset().writeInt(1).writeString("key").writeLong(-2L);
+    assertArrayEquals(first, buffer.toByteArray());
+    assertTrue(array == buffer.getBytes());
+
+    OrderedBytes reader = OrderedBytes.wrap(first);
+    assertEquals(1, reader.readInt());
+    assertEquals("key", reader.readString());
+    assertEquals(-2L, reader.readLong());
+    assertEquals(0, reader.remaining());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncated() {
+    byte[] bytes = OrderedBytes.toBytes("truncated");
+    OrderedBytes.fromBytes(String.class, Arrays.copyOf(bytes, bytes.length - 1));
+  }
+
+  private static ImmutableFields newKey(int v1, Integer v3) {
+    ImmutableFields key = new ImmutableFields();
+    key.setV1(v1);
+    if (v3 != null) {
+      V2 v2 = new V2();
+      v2.setV3(v3);
+      key.setV2(v2);
+    } else {
+      key.setV2(null);
+    }
+    return key;
+  }
+
+  private static IndexedRecord newRecord(Schema schema, String host, long time) {
+    GenericData.Record record = new GenericData.Record(schema);
+    record.put(0, new Utf8(host));
+    record.put(1, time);
+    return record;
+  }
+}
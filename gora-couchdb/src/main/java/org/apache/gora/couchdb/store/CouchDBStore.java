@@ -678,6 +678,7 @@ public class CouchDBStore<K, T extends PersistentBase> extends DataStoreBase<K,
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try {
       flush();
     } catch (GoraException e) {
@@ -58,6 +58,7 @@ DataStoreBase<K, T> implements IDynamoDB<K, T> {
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     // TODO Auto-generated method stub
 
   }
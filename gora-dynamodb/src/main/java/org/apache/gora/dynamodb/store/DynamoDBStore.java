@@ -30,6 +30,7 @@ import static org.apache.gora.dynamodb.store.DynamoDBUtils.WAIT_TIME;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -163,6 +164,31 @@ public class DynamoDBStore<K, T extends Persistent> implements DataStore<K, T> {
     return dynamoDbStore.get(key, fields);
   }
 
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    return dynamoDbStore.getAll(keys, fields);
+  }
+
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    dynamoDbStore.putAll(objects);
+  }
+
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    return dynamoDbStore.deleteAll(keys);
+  }
+
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    return dynamoDbStore.existsAll(keys);
+  }
+
+  @Override
+  public boolean supportsResultStreaming() {
+    return false;
+  }
+
   @Override
   public BeanFactory<K, T> getBeanFactory() {
     // TODO Auto-generated method stub
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.tool.LoadIncrementalHFiles;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Committer of {@link HBaseBulkLoadOutputFormat}. The HFiles of the tasks
+ * are committed as files of a {@link FileOutputCommitter}, then the job
+ * commit loads them into the table. The files of failed or killed tasks
+ * are never loaded.
+ */
+class HBaseBulkLoadCommitter extends FileOutputCommitter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseBulkLoadCommitter.class);
+
+  private final Path outputPath;
+
+  HBaseBulkLoadCommitter(Path outputPath, TaskAttemptContext context) throws IOException {
+    super(outputPath, context);
+    this.outputPath = outputPath;
+  }
+
+  @Override
+  public void commitJob(JobContext context) throws IOException {
+    super.commitJob(context);
+    Configuration conf = HBaseConfiguration.create(context.getConfiguration());
+    TableName tableName = TableName.valueOf(conf.get(HBaseBulkLoadOutputFormat.TABLE_NAME_KEY));
+    LOG.info("Bulk loading the HFiles of {} into {}", outputPath, tableName);
+    try (Connection connection = ConnectionFactory.createConnection(conf);
+        Admin admin = connection.getAdmin();
+        Table table = connection.getTable(tableName);
+        RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+      new LoadIncrementalHFiles(conf).doBulkLoad(outputPath, admin, table, regionLocator);
+    }
+  }
+}
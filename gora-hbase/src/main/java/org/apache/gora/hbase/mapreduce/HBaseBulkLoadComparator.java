@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.serializer.Deserializer;
+import org.apache.hadoop.io.serializer.SerializationFactory;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+
+/**
+ * Sort comparator of the jobs of {@link HBaseBulkLoadOutputFormat}, ordering
+ * the map output keys by their row keys, so that the reducers receive and
+ * write the rows of their regions in the order of the HFiles.
+ */
+public class HBaseBulkLoadComparator<K> implements RawComparator<K>, Configurable {
+
+  private Configuration conf;
+  private boolean orderedKeys;
+  private final DataInputBuffer buffer = new DataInputBuffer();
+  private Deserializer<K> deserializer;
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void setConf(Configuration conf) {
+    this.conf = conf;
+    orderedKeys = conf.getBoolean(HBaseBulkLoadPartitioner.KEY_ORDERED_KEY, false);
+    Class<K> keyClass = (Class<K>) conf.getClass(MRJobConfig.MAP_OUTPUT_KEY_CLASS,
+        conf.getClass(MRJobConfig.OUTPUT_KEY_CLASS, Object.class));
+    deserializer = new SerializationFactory(conf).getDeserializer(keyClass);
+    try {
+      deserializer.open(buffer);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  @Override
+  public Configuration getConf() {
+    return conf;
+  }
+
+  @Override
+  public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+    return Bytes.compareTo(toRowKey(b1, s1, l1), toRowKey(b2, s2, l2));
+  }
+
+  @Override
+  public int compare(K o1, K o2) {
+    return Bytes.compareTo(HBaseBulkLoadPartitioner.toRowKey(o1, orderedKeys),
+        HBaseBulkLoadPartitioner.toRowKey(o2, orderedKeys));
+  }
+
+  private byte[] toRowKey(byte[] b, int s, int l) {
+    try {
+      buffer.reset(b, s, l);
+      return HBaseBulkLoadPartitioner.toRowKey(deserializer.deserialize(null), orderedKeys);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.mapreduce;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.apache.gora.hbase.store.HBaseStore;
+import org.apache.gora.mapreduce.GoraMapReduceUtils;
+import org.apache.gora.mapreduce.GoraOutputFormat;
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.store.DataStore;
+import org.apache.gora.store.DataStoreFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.mapreduce.HFileOutputFormat2;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Output format bulk loading the job outputs into an {@link HBaseStore}:
+ * instead of sending puts to the region servers, the tasks write the cells
+ * of the records to HFiles, which are moved into the table when the job
+ * commits.
+ * <p>
+ * The records are converted to cells as {@link HBaseStore#put(Object, PersistentBase)}
+ * does, including the deletes of the null fields, and written through
+ * {@link HFileOutputFormat2}, starting new files at each region boundary, so
+ * that no HFile has to be split when it is loaded. At job commit the files
+ * of the successful tasks are loaded with
+ * {@link org.apache.hadoop.hbase.tool.LoadIncrementalHFiles}, which adds all
+ * the files of a region at once.
+ * <p>
+ * Like {@link HFileOutputFormat2#configureIncrementalLoad}, <code>setOutput()</code>
+ * sets up a shuffle by region: one reduce task per region, the
+ * {@link HBaseBulkLoadPartitioner} sending the map outputs of each region to
+ * its reducer and the {@link HBaseBulkLoadComparator} sorting them by row
+ * key. The map output keys must be the keys of the records, and the reducers
+ * must write the records of their keys. Each reducer then writes a single
+ * set of files, one per column family, for its region.
+ * <p>
+ * Every task also sorts the cells it receives in memory, up to
+ * <code>gora.hbase.bulkload.buffer.size</code> bytes, and rolls its files
+ * when a buffer does not follow the cells already written. Map-only jobs,
+ * or jobs changing the reducers, the partitioner or the sort comparator
+ * after <code>setOutput()</code>, work on unsorted input, but they write
+ * new files for each buffer and may exceed the number of files per region
+ * and family that a bulk load accepts,
+ * <code>hbase.mapreduce.bulkload.max.hfiles.perRegion.perFamily</code>.
+ * <p>
+ * The HFiles are staged under the output path of the job, which must not
+ * exist. Jobs are configured through the static <code>setOutput()</code>
+ * methods.
+ * @see GoraOutputFormat
+ */
+public class HBaseBulkLoadOutputFormat<K, T extends PersistentBase>
+  extends FileOutputFormat<K, T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseBulkLoadOutputFormat.class);
+
+  /** Bytes of cells sorted in memory by a task before they are written */
+  public static final String BUFFER_SIZE_KEY = "gora.hbase.bulkload.buffer.size";
+
+  public static final long BUFFER_SIZE_DEFAULT = 64 * 1024 * 1024;
+
+  /** Table the HFiles are loaded into */
+  public static final String TABLE_NAME_KEY = "gora.hbase.bulkload.table";
+
+  private HBaseBulkLoadCommitter committer;
+
+  @Override
+  public synchronized OutputCommitter getOutputCommitter(TaskAttemptContext context)
+  throws IOException {
+    if (committer == null) {
+      committer = new HBaseBulkLoadCommitter(getOutputPath(context), context);
+    }
+    return committer;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public RecordWriter<K, T> getRecordWriter(TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    Class<? extends HBaseStore<K, T>> dataStoreClass = (Class<? extends HBaseStore<K, T>>)
+      conf.getClass(GoraOutputFormat.DATA_STORE_CLASS, HBaseStore.class);
+    Class<K> keyClass = (Class<K>) conf.getClass(GoraOutputFormat.OUTPUT_KEY_CLASS, null);
+    Class<T> rowClass = (Class<T>) conf.getClass(GoraOutputFormat.OUTPUT_VALUE_CLASS, null);
+    HBaseStore<K, T> store =
+      DataStoreFactory.createDataStore(dataStoreClass, keyClass, rowClass, conf);
+
+    RecordWriter<ImmutableBytesWritable, Cell> writer;
+    try {
+      writer = new HFileOutputFormat2().getRecordWriter(context);
+    } catch (IOException | RuntimeException e) {
+      store.close();
+      throw e;
+    }
+    return new HBaseBulkLoadRecordWriter<>(store, writer,
+        conf.getLong(BUFFER_SIZE_KEY, BUFFER_SIZE_DEFAULT));
+  }
+
+  /**
+   * Sets the output parameters for the job. The table of the store must
+   * exist, its column family settings are applied to the HFiles. The job
+   * gets one reduce task per region of the table.
+   *
+   * @param job          the job to set the properties for
+   * @param dataStore    the store to load the outputs into
+   * @param outputPath   the directory staging the HFiles, which must not exist
+   * @param reuseObjects whether to reuse objects in serialization
+   * @param <K> key class for the {@link org.apache.gora.store.DataStore}
+   * @param <V> value class for the {@link org.apache.gora.store.DataStore}
+   * @throws IOException if the table cannot be described
+   */
+  public static <K, V extends PersistentBase> void setOutput(Job job,
+      HBaseStore<K, V> dataStore, Path outputPath, boolean reuseObjects)
+      throws IOException {
+    configureOutput(job, dataStore, dataStore.getClass(), dataStore.getSchemaName(),
+        outputPath, reuseObjects);
+  }
+
+  /**
+   * Sets the output parameters for the job. The table must exist, its
+   * column family settings are applied to the HFiles. The job gets one
+   * reduce task per region of the table.
+   *
+   * @param job             the job to set the properties for
+   * @param dataStoreClass  the store class, {@link HBaseStore} or a subclass
+   * @param keyClass        output key class
+   * @param persistentClass output value class
+   * @param tableName       the table to load the outputs into
+   * @param outputPath      the directory staging the HFiles, which must not exist
+   * @param reuseObjects    whether to reuse objects in serialization
+   * @param <K> key class for the {@link org.apache.gora.store.DataStore}
+   * @param <V> value class for the {@link org.apache.gora.store.DataStore}
+   * @throws IOException if the table cannot be described
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public static <K, V extends PersistentBase> void setOutput(Job job,
+      Class<? extends HBaseStore> dataStoreClass, Class<K> keyClass,
+      Class<V> persistentClass, String tableName, Path outputPath,
+      boolean reuseObjects) throws IOException {
+    HBaseStore<K, V> dataStore = DataStoreFactory.createDataStore(
+        (Class<HBaseStore<K, V>>) dataStoreClass, keyClass, persistentClass,
+        job.getConfiguration(), tableName);
+    try {
+      configureOutput(job, dataStore, dataStoreClass, tableName, outputPath, reuseObjects);
+    } finally {
+      dataStore.close();
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static <K, V extends PersistentBase> void configureOutput(Job job,
+      HBaseStore<K, V> dataStore, Class<? extends HBaseStore> dataStoreClass,
+      String tableName, Path outputPath, boolean reuseObjects) throws IOException {
+
+    Configuration conf = job.getConfiguration();
+    Class<K> keyClass = dataStore.getKeyClass();
+    Class<V> persistentClass = dataStore.getPersistentClass();
+
+    try (Connection connection = ConnectionFactory.createConnection(
+        HBaseConfiguration.create(conf)); Admin admin = connection.getAdmin()) {
+      // compression, bloom filters, block sizes and encodings of the families
+      HFileOutputFormat2.configureIncrementalLoadMap(job,
+          admin.getDescriptor(TableName.valueOf(tableName)));
+    }
+
+    GoraMapReduceUtils.setIOSerializations(conf, reuseObjects);
+
+    job.setOutputFormatClass(HBaseBulkLoadOutputFormat.class);
+    job.setOutputKeyClass(keyClass);
+    job.setOutputValueClass(persistentClass);
+    conf.setClass(GoraOutputFormat.DATA_STORE_CLASS, dataStoreClass,
+        DataStore.class);
+    conf.setClass(GoraOutputFormat.OUTPUT_KEY_CLASS, keyClass, Object.class);
+    conf.setClass(GoraOutputFormat.OUTPUT_VALUE_CLASS,
+        persistentClass, Persistent.class);
+    conf.set(TABLE_NAME_KEY, tableName);
+    FileOutputFormat.setOutputPath(job, outputPath);
+    configurePartitioner(job, dataStore);
+  }
+
+  /**
+   * Partitions the map outputs by region and sorts them by row key, with
+   * one reduce task per region.
+   */
+  private static void configurePartitioner(Job job, HBaseStore<?, ?> dataStore)
+      throws IOException {
+    Configuration conf = job.getConfiguration();
+    byte[][] startKeys = dataStore.getRegionStartKeys();
+    // staged like the partitions file of HFileOutputFormat2
+    Path partitionsPath = new Path(HBaseConfiguration.create(conf).get("hbase.fs.tmp.dir"),
+        "partitions_" + UUID.randomUUID());
+    FileSystem fs = partitionsPath.getFileSystem(conf);
+    partitionsPath = fs.makeQualified(partitionsPath);
+    HBaseBulkLoadPartitioner.writePartitions(conf, partitionsPath, startKeys);
+    fs.deleteOnExit(partitionsPath);
+    LOG.info("Configuring {} reduce partitions to match the regions of {}",
+        startKeys.length, dataStore.getSchemaName());
+
+    conf.set(HBaseBulkLoadPartitioner.PARTITIONS_FILE_KEY, partitionsPath.toString());
+    conf.setBoolean(HBaseBulkLoadPartitioner.KEY_ORDERED_KEY, dataStore.isKeyOrdered());
+    job.setPartitionerClass(HBaseBulkLoadPartitioner.class);
+    job.setSortComparatorClass(HBaseBulkLoadComparator.class);
+    job.setNumReduceTasks(startKeys.length);
+  }
+}
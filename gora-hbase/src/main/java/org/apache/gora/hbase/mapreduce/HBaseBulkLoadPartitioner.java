@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.gora.hbase.util.HBaseByteInterface;
+import org.apache.gora.util.OrderedBytes;
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+/**
+ * Partitioner of the jobs of {@link HBaseBulkLoadOutputFormat}, sending the
+ * map outputs of each region of the table to the same reducer, like the
+ * {@link org.apache.hadoop.mapreduce.lib.partition.TotalOrderPartitioner}
+ * of {@link org.apache.hadoop.hbase.mapreduce.HFileOutputFormat2}. The map
+ * output keys are the keys of the records, the region start keys are read
+ * from the partitions file written by the job setup.
+ * <p>
+ * With as many reducers as regions each reducer gets one region, with fewer
+ * each gets a range of consecutive regions.
+ */
+public class HBaseBulkLoadPartitioner<K, V> extends Partitioner<K, V>
+  implements Configurable {
+
+  /** Sequence file of the region start keys, in order */
+  public static final String PARTITIONS_FILE_KEY = "gora.hbase.bulkload.partitions";
+
+  /** Whether the row keys are encoded with {@link OrderedBytes} */
+  public static final String KEY_ORDERED_KEY = "gora.hbase.bulkload.key.ordered";
+
+  private Configuration conf;
+  private byte[][] startKeys;
+  private boolean orderedKeys;
+
+  @Override
+  public void setConf(Configuration conf) {
+    this.conf = conf;
+    orderedKeys = conf.getBoolean(KEY_ORDERED_KEY, false);
+    try {
+      startKeys = readPartitions(conf, new Path(conf.get(PARTITIONS_FILE_KEY)));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Can't read the partitions file", e);
+    }
+  }
+
+  @Override
+  public Configuration getConf() {
+    return conf;
+  }
+
+  @Override
+  public int getPartition(K key, V value, int numPartitions) {
+    byte[] row = toRowKey(key, orderedKeys);
+    // the region of the row is the last one starting at or before it
+    int low = 1;
+    int high = startKeys.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (Bytes.compareTo(startKeys[mid], row) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    int region = low - 1;
+    return (int) ((long) region * numPartitions / startKeys.length);
+  }
+
+  /**
+   * Encodes a key the way {@link org.apache.gora.hbase.store.HBaseStore#toRowKey(Object)}
+   * does.
+   */
+  static byte[] toRowKey(Object key, boolean orderedKeys) {
+    return orderedKeys ? OrderedBytes.toBytes(key) : HBaseByteInterface.toBytes(key);
+  }
+
+  /**
+   * Writes the region start keys to a partitions file.
+   */
+  static void writePartitions(Configuration conf, Path path, byte[][] startKeys)
+      throws IOException {
+    try (SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+        SequenceFile.Writer.file(path),
+        SequenceFile.Writer.keyClass(ImmutableBytesWritable.class),
+        SequenceFile.Writer.valueClass(NullWritable.class))) {
+      for (byte[] startKey : startKeys) {
+        writer.append(new ImmutableBytesWritable(startKey), NullWritable.get());
+      }
+    }
+  }
+
+  static byte[][] readPartitions(Configuration conf, Path path) throws IOException {
+    FileSystem fs = path.getFileSystem(conf);
+    List<byte[]> startKeys = new ArrayList<>();
+    try (SequenceFile.Reader reader = new SequenceFile.Reader(conf,
+        SequenceFile.Reader.file(fs.makeQualified(path)))) {
+      ImmutableBytesWritable startKey = new ImmutableBytesWritable();
+      while (reader.next(startKey)) {
+        startKeys.add(startKey.copyBytes());
+      }
+    }
+    if (startKeys.isEmpty()) {
+      throw new IOException("No region start key in " + path);
+    }
+    return startKeys.toArray(new byte[startKeys.size()][]);
+  }
+}
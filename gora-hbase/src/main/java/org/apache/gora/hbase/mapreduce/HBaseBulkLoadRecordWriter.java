@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.gora.hbase.store.HBaseStore;
+import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Record writer of {@link HBaseBulkLoadOutputFormat}. The cells of the
+ * records are buffered until the buffer is full, then sorted and written
+ * to HFiles, one set of files per region. The files are only rolled when
+ * the sorted cells of a buffer do not all follow the cells already written,
+ * so that a task receiving its records in row order, as the reducers of a
+ * job partitioned by region do, writes a single set of files per region.
+ */
+class HBaseBulkLoadRecordWriter<K, T extends PersistentBase> extends RecordWriter<K, T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseBulkLoadRecordWriter.class);
+
+  private final HBaseStore<K, T> store;
+  private final RecordWriter<ImmutableBytesWritable, Cell> writer;
+  private final long bufferSize;
+  private final byte[][] startKeys;
+
+  private final List<Cell> cells = new ArrayList<>();
+  private long bufferedBytes;
+  // the last cell written to the current files, and its region
+  private Cell lastCell;
+  private int region;
+
+  HBaseBulkLoadRecordWriter(HBaseStore<K, T> store,
+      RecordWriter<ImmutableBytesWritable, Cell> writer, long bufferSize) throws IOException {
+    this.store = store;
+    this.writer = writer;
+    this.bufferSize = bufferSize;
+    this.startKeys = store.getRegionStartKeys();
+  }
+
+  @Override
+  public void write(K key, T value) throws IOException, InterruptedException {
+    Pair<Put, Delete> mutations = store.createMutations(key, value);
+    add(mutations.getFirst());
+    add(mutations.getSecond());
+    if (bufferedBytes >= bufferSize) {
+      writeCells();
+    }
+  }
+
+  private void add(Mutation mutation) {
+    if (!mutation.isEmpty()) {
+      for (List<Cell> familyCells : mutation.getFamilyCellMap().values()) {
+        cells.addAll(familyCells);
+      }
+      bufferedBytes += mutation.heapSize();
+    }
+  }
+
+  /**
+   * Sorts the buffered cells and writes them, rolling the HFiles at every
+   * region boundary, and first if they do not follow the cells already
+   * written.
+   */
+  private void writeCells() throws IOException, InterruptedException {
+    if (cells.isEmpty()) {
+      return;
+    }
+    LOG.info("Writing {} cells to HFiles", cells.size());
+    CellComparator comparator = CellComparator.getInstance();
+    // stable sort: of equal cells, the last one written is kept
+    Collections.sort(cells, comparator);
+    if (lastCell != null && comparator.compare(cells.get(0), lastCell) <= 0) {
+      LOG.info("The cells are not written in row order, rolling the HFiles");
+      writer.write(null, null);
+      lastCell = null;
+      region = 0;
+    }
+
+    ImmutableBytesWritable row = new ImmutableBytesWritable();
+    for (int i = 0; i < cells.size(); i++) {
+      Cell cell = cells.get(i);
+      if (i + 1 < cells.size() && comparator.compare(cell, cells.get(i + 1)) == 0) {
+        continue;
+      }
+      boolean nextRegion = false;
+      while (region + 1 < startKeys.length && Bytes.compareTo(cell.getRowArray(),
+          cell.getRowOffset(), cell.getRowLength(), startKeys[region + 1], 0,
+          startKeys[region + 1].length) >= 0) {
+        region++;
+        nextRegion = true;
+      }
+      if (nextRegion && lastCell != null) {
+        writer.write(null, null);
+      }
+      row.set(cell.getRowArray(), cell.getRowOffset(), cell.getRowLength());
+      writer.write(row, cell);
+      lastCell = cell;
+    }
+    cells.clear();
+    bufferedBytes = 0;
+  }
+
+  @Override
+  public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+    try {
+      writeCells();
+      writer.write(null, null);
+      writer.close(context);
+    } finally {
+      store.close();
+    }
+  }
+}
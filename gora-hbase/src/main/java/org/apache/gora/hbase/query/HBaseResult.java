@@ -18,11 +18,10 @@
 
 package org.apache.gora.hbase.query;
 
-import static org.apache.gora.hbase.util.HBaseByteInterface.fromBytes;
-
 import java.io.IOException;
 
 import org.apache.gora.hbase.store.HBaseStore;
+import org.apache.gora.persistency.Persistent;
 import org.apache.gora.persistency.impl.PersistentBase;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.impl.ResultBase;
@@ -43,9 +42,24 @@ public abstract class HBaseResult<K, T extends PersistentBase>
     return (HBaseStore<K, T>) super.getDataStore();
   }
   
+  /**
+   * Keeps the persistent, which {@link #readNext(Result)} reads the next row
+   * into.
+   */
+  @Override
+  protected void clear() {
+    if (key instanceof Persistent) {
+      ((Persistent) key).clear();
+    }
+  }
+
+  /**
+   * Reads a row into the current persistent. Its strings, records and maps
+   * are reused, so the values of a row are only valid until the next one.
+   */
   protected void readNext(Result result) throws IOException {
-    key = fromBytes(getKeyClass(), result.getRow());
-    persistent = getDataStore().newInstance(result, query.getFields());
+    key = getDataStore().fromRowKey(result.getRow());
+    persistent = getDataStore().newInstance(result, query.getFields(), persistent);
   }
   
 }
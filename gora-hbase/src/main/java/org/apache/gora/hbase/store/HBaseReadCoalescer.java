@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.store;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Get;
+
+/**
+ * Groups the point reads of concurrent threads into multi-gets.
+ *
+ * <p>The first read of a batch waits up to the batching window for other
+ * reads, then sends them all at once; a batch reaching the maximum number of
+ * keys is sent right away by the read which fills it. The HBase client
+ * splits a multi-get into one request per region server. If a batch fails,
+ * every read of it is retried on its own, so that a failure only reaches
+ * the callers of the rows concerned. An interrupted read still waits for
+ * its batch, which is sent anyway, and returns with its interrupt status
+ * set.</p>
+ *
+ * @param <R> the result of a read.
+ */
+abstract class HBaseReadCoalescer<R> {
+
+  private final int maxKeys;
+  private final long windowNanos;
+
+  // the batch accepting reads, guarded by this
+  private Batch<R> open;
+
+  /**
+   * @param maxKeys the maximum number of reads of a batch.
+   * @param windowMicros the time the first read of a batch waits for others.
+   */
+  HBaseReadCoalescer(int maxKeys, long windowMicros) {
+    this.maxKeys = maxKeys;
+    this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+  }
+
+  /**
+   * Reads several rows at once.
+   * @return the results, in the order of the gets.
+   */
+  protected abstract List<R> read(List<Get> gets) throws IOException;
+
+  /**
+   * Reads a row, with the concurrent reads of other threads.
+   */
+  R get(Get get) throws IOException {
+    Batch<R> batch;
+    int index;
+    boolean first;
+    boolean full;
+    synchronized (this) {
+      first = open == null;
+      if (first) {
+        open = new Batch<>();
+      }
+      batch = open;
+      index = batch.gets.size();
+      batch.gets.add(get);
+      full = batch.gets.size() >= maxKeys;
+      if (full) {
+        open = null;
+      }
+    }
+    if (full) {
+      batch.wakeUp();
+      send(batch);
+    } else if (first) {
+      batch.awaitFull(windowNanos);
+      boolean send;
+      synchronized (this) {
+        send = open == batch;
+        if (send) {
+          open = null;
+        }
+      }
+      if (send) {
+        send(batch);
+      }
+    }
+    batch.awaitDone();
+    if (batch.failure == null) {
+      return batch.results.get(index);
+    } else if (batch.gets.size() == 1) {
+      throw batch.failure;
+    }
+    return read(Collections.singletonList(get)).get(0);
+  }
+
+  private void send(Batch<R> batch) {
+    try {
+      batch.results = read(batch.gets);
+    } catch (IOException e) {
+      batch.failure = e;
+    } catch (RuntimeException e) {
+      batch.failure = new IOException(e);
+    } finally {
+      batch.done.countDown();
+    }
+  }
+
+  /**
+   * The reads sent together.
+   */
+  private static final class Batch<R> {
+    // modified until the batch is closed, read once it is done
+    private final List<Get> gets = new ArrayList<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private boolean full;
+    private List<R> results;
+    private IOException failure;
+
+    synchronized void wakeUp() {
+      full = true;
+      notifyAll();
+    }
+
+    /**
+     * Waits for the batch to be full or the time to elapse. The batch is
+     * sent by the waiting read even if it is interrupted.
+     */
+    synchronized void awaitFull(long nanos) {
+      long deadline = System.nanoTime() + nanos;
+      long remaining = nanos;
+      boolean interrupted = false;
+      while (!full && remaining > 0) {
+        try {
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+        remaining = deadline - System.nanoTime();
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Waits for the batch to be sent and read, even if interrupted, as
+     * another read may be sending it.
+     */
+    void awaitDone() {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          done.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
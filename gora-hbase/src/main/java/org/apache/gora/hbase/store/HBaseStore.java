@@ -18,6 +18,7 @@
 package org.apache.gora.hbase.store;
 
 import static org.apache.gora.hbase.util.HBaseByteInterface.fromBytes;
+import static org.apache.gora.hbase.util.HBaseByteInterface.fromCell;
 import static org.apache.gora.hbase.util.HBaseByteInterface.toBytes;
 
 import java.io.FileNotFoundException;
@@ -28,14 +29,21 @@ import java.net.URLClassLoader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import javax.naming.ConfigurationException;
 
@@ -50,6 +58,9 @@ import org.apache.gora.hbase.query.HBaseScannerResult;
 import org.apache.gora.hbase.store.HBaseMapping.HBaseMappingBuilder;
 import org.apache.gora.hbase.util.HBaseByteInterface;
 import org.apache.gora.hbase.util.HBaseFilterUtil;
+import org.apache.gora.persistency.ListDelta;
+import org.apache.gora.persistency.MapDelta;
+import org.apache.gora.persistency.Persistent;
 import org.apache.gora.persistency.impl.DirtyListWrapper;
 import org.apache.gora.persistency.impl.DirtyMapWrapper;
 import org.apache.gora.persistency.impl.PersistentBase;
@@ -58,9 +69,17 @@ import org.apache.gora.query.Query;
 import org.apache.gora.query.impl.PartitionQueryImpl;
 import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.impl.DataStoreBase;
+import org.apache.gora.util.AsyncUtils;
 import org.apache.gora.util.GoraException;
+import org.apache.gora.util.OrderedBytes;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.RegionMetrics;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.Size;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
@@ -69,6 +88,9 @@ import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Pair;
 import org.jdom.Document;
@@ -101,6 +123,61 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   private static final String HBASE_CLIENT_AUTO_FLUSH_PROPERTIES_KEY = "hbase.client.autoflush.enabled";
   private static final boolean HBASE_CLIENT_AUTO_FLUSH_PROPERTIES_DEFAULT = false;
 
+  /**
+   * Without autoflush, the size in bytes of the write buffer, flushed in the
+   * background when full. Defaults to the hbase.client.write.buffer
+   * configuration.
+   */
+  private static final String WRITE_BUFFER_SIZE_PROPERTIES_KEY = "hbase.client.write.buffer.size";
+
+  /**
+   * Without autoflush, the bytes written and not flushed above which the
+   * writers wait. Defaults to four times the write buffer size.
+   */
+  private static final String WRITE_BUFFER_MAX_PENDING_PROPERTIES_KEY = "hbase.client.write.buffer.max.pending";
+
+  /**
+   * Without autoflush, the time in milliseconds after which the buffered
+   * mutations are flushed even if the buffer is not full. 0 to disable.
+   */
+  private static final String WRITE_BUFFER_FLUSH_PERIOD_PROPERTIES_KEY = "hbase.client.write.buffer.flush.period";
+
+  /**
+   * The maximum number of concurrent get and exists calls sent together in
+   * a multi-get. Reads are not coalesced unless it is set to 2 or more.
+   */
+  private static final String READ_COALESCING_MAX_KEYS_PROPERTIES_KEY = "hbase.client.read.coalescing.max.keys";
+
+  /**
+   * The time in microseconds a coalesced read waits for other reads.
+   */
+  private static final String READ_COALESCING_WINDOW_PROPERTIES_KEY = "hbase.client.read.coalescing.window";
+  private static final long READ_COALESCING_WINDOW_PROPERTIES_DEFAULT = 500;
+
+  /**
+   * Encodes all the row keys with {@link OrderedBytes}, so that negative
+   * numbers sort before positive ones. {@link Persistent} keys are always
+   * encoded this way. Off by default, for the tables written with the
+   * {@link HBaseByteInterface} encoding.
+   */
+  private static final String KEY_ORDERED_PROPERTIES_KEY = "key.ordered";
+  private static final boolean KEY_ORDERED_PROPERTIES_DEFAULT = false;
+
+  /**
+   * The number of partitions {@link #getPartitions(Query)} aims at: the
+   * regions larger than the total size of the table divided by this number
+   * are split into several partitions. 0, the default, returns one partition
+   * per region.
+   */
+  private static final String PARTITION_TARGET_COUNT_PROPERTIES_KEY = "partition.target.count";
+
+  /**
+   * The size in bytes below which the partitions of a region are not split
+   * further.
+   */
+  private static final String PARTITION_MIN_SIZE_PROPERTIES_KEY = "partition.min.size";
+  private static final long PARTITION_MIN_SIZE_PROPERTIES_DEFAULT = 256L * 1024 * 1024;
+
   private static final int PUTS_AND_DELETES_PUT_TS_OFFSET = 1;
   private static final int PUTS_AND_DELETES_DELETE_TS_OFFSET = 2;
   
@@ -113,6 +190,12 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   private HBaseFilterUtil<K, T> filterUtil;
 
   private int scannerCaching = SCANNER_CACHING_PROPERTIES_DEFAULT ;
+
+  private boolean orderedKeys = KEY_ORDERED_PROPERTIES_DEFAULT;
+
+  private int partitionTargetCount;
+
+  private long partitionMinSize = PARTITION_MIN_SIZE_PROPERTIES_DEFAULT;
   
   /**
    * Default constructor
@@ -184,11 +267,36 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
       this.setScannerCaching(SCANNER_CACHING_PROPERTIES_DEFAULT) ; // Default value if something is wrong
     }
 
+    orderedKeys = Boolean.valueOf(DataStoreFactory.findProperty(this.properties, this,
+        KEY_ORDERED_PROPERTIES_KEY, String.valueOf(KEY_ORDERED_PROPERTIES_DEFAULT)));
+
+    try {
+      partitionTargetCount = Integer.parseInt(DataStoreFactory.findProperty(this.properties,
+          this, PARTITION_TARGET_COUNT_PROPERTIES_KEY, "0"));
+      partitionMinSize = Long.parseLong(DataStoreFactory.findProperty(this.properties, this,
+          PARTITION_MIN_SIZE_PROPERTIES_KEY, String.valueOf(PARTITION_MIN_SIZE_PROPERTIES_DEFAULT)));
+    } catch (NumberFormatException e) {
+      throw new GoraException(e);
+    }
+
     try{
       boolean autoflush = Boolean.valueOf(DataStoreFactory.findProperty(this.properties, this,
               HBASE_CLIENT_AUTO_FLUSH_PROPERTIES_KEY,
               String.valueOf(HBASE_CLIENT_AUTO_FLUSH_PROPERTIES_DEFAULT)));
-      table = new HBaseTableConnection(getConf(), getSchemaName(), autoflush);
+      long writeBufferSize = Long.parseLong(DataStoreFactory.findProperty(this.properties, this,
+          WRITE_BUFFER_SIZE_PROPERTIES_KEY, "0"));
+      long maxPendingBytes = Long.parseLong(DataStoreFactory.findProperty(this.properties, this,
+          WRITE_BUFFER_MAX_PENDING_PROPERTIES_KEY, "0"));
+      long flushPeriod = Long.parseLong(DataStoreFactory.findProperty(this.properties, this,
+          WRITE_BUFFER_FLUSH_PERIOD_PROPERTIES_KEY, "0"));
+      table = new HBaseTableConnection(getConf(), getSchemaName(), autoflush,
+          writeBufferSize, maxPendingBytes, flushPeriod);
+      table.setReadCoalescing(
+          Integer.parseInt(DataStoreFactory.findProperty(this.properties, this,
+              READ_COALESCING_MAX_KEYS_PROPERTIES_KEY, "0")),
+          Long.parseLong(DataStoreFactory.findProperty(this.properties, this,
+              READ_COALESCING_WINDOW_PROPERTIES_KEY,
+              String.valueOf(READ_COALESCING_WINDOW_PROPERTIES_DEFAULT))));
     } catch (Exception e) {
       throw new GoraException(e);
     }
@@ -208,6 +316,30 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     return mapping;
   }
 
+  /**
+   * Encodes a key into a row key, with {@link OrderedBytes} if
+   * <code>key.ordered</code> is set and with {@link HBaseByteInterface}
+   * otherwise.
+   */
+  public byte[] toRowKey(K key) {
+    return orderedKeys ? OrderedBytes.toBytes(key) : toBytes(key);
+  }
+
+  /**
+   * Decodes a row key encoded by {@link #toRowKey(Object)}.
+   */
+  public K fromRowKey(byte[] row) {
+    return orderedKeys ? OrderedBytes.fromBytes(keyClass, row) : fromBytes(keyClass, row);
+  }
+
+  /**
+   * Returns whether the row keys are encoded with {@link OrderedBytes}, see
+   * {@link #toRowKey(Object)}.
+   */
+  public boolean isKeyOrdered() {
+    return orderedKeys;
+  }
+
   @Override
   public void createSchema() throws GoraException {
     Admin admin = null;
@@ -281,7 +413,7 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   public T get(K key, String[] fields) throws GoraException {
     try{
       fields = getFieldsToQuery(fields);
-      Get get = new Get(toBytes(key));
+      Get get = new Get(toRowKey(key));
       addFields(get, fields);
       Result result = table.get(get);
       return newInstance(result, fields);
@@ -295,7 +427,7 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   @Override
   public boolean exists(K key) throws GoraException {
     try {
-      Get get = new Get(toBytes(key));
+      Get get = new Get(toRowKey(key));
       return table.exists(get);
     } catch (GoraException e) {
       throw e;
@@ -304,6 +436,58 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     }
   }
 
+  /**
+   * {@inheritDoc} All rows are fetched with a single multi-get.
+   */
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    try {
+      fields = getFieldsToQuery(fields);
+      List<K> keyList = new ArrayList<>(keys);
+      List<Get> gets = new ArrayList<>(keyList.size());
+      for (K key : keyList) {
+        Get get = new Get(toRowKey(key));
+        addFields(get, fields);
+        gets.add(get);
+      }
+      Result[] results = table.get(gets);
+      Map<K, T> objects = new LinkedHashMap<>();
+      for (int i = 0; i < results.length; i++) {
+        T persistent = newInstance(results[i], fields);
+        if (persistent != null) {
+          objects.put(keyList.get(i), persistent);
+        }
+      }
+      return objects;
+    } catch (GoraException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc} Existence of all rows is checked with a single request.
+   */
+  @Override
+  public Map<K, Boolean> existsAll(Collection<K> keys) throws GoraException {
+    try {
+      List<K> keyList = new ArrayList<>(keys);
+      List<Get> gets = new ArrayList<>(keyList.size());
+      for (K key : keyList) {
+        gets.add(new Get(toRowKey(key)));
+      }
+      boolean[] exists = table.exists(gets);
+      Map<K, Boolean> existsMap = new LinkedHashMap<>();
+      for (int i = 0; i < exists.length; i++) {
+        existsMap.put(keyList.get(i), exists[i]);
+      }
+      return existsMap;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
   /**
    * {@inheritDoc} Serializes the Persistent data and saves in HBase. Topmost
    * fields of the record are persisted in "raw" format (not avro serialized).
@@ -319,32 +503,27 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   @Override
   public void put(K key, T persistent) throws GoraException {
     try {
-      Schema schema = persistent.getSchema();
-      byte[] keyRaw = toBytes(key);
-      long timeStamp = System.currentTimeMillis();
-      // Guarantee Put after Delete
-      Put put = new Put(keyRaw, timeStamp - PUTS_AND_DELETES_PUT_TS_OFFSET);
-      Delete delete = new Delete(keyRaw, timeStamp - PUTS_AND_DELETES_DELETE_TS_OFFSET);
-
-      List<Field> fields = schema.getFields();
-      for (int i = 0; i < fields.size(); i++) {
-        if (!persistent.isDirty(i)) {
-          continue;
-        }
-        Field field = fields.get(i);
-        Object o = persistent.get(i);
-        HBaseColumn hcol = mapping.getColumn(field.name());
-        if (hcol == null) {
-          String errorMsg = "HBase mapping for field ["
-                  + persistent.getClass().getName() + "#" + field.name()
-                  + "] not found. Wrong gora-hbase-mapping.xml?";
-          LOG.error(errorMsg);
-          throw new GoraException(errorMsg);
-        }
-        addPutsAndDeletes(put, delete, o, field.schema().getType(),
-                field.schema(), hcol, hcol.getQualifier());
+      byte[] keyRaw = toRowKey(key);
+      Pair<Put, Delete> mutations = createPutAndDelete(keyRaw, persistent);
+      table.updateRow(keyRaw, mutations.getFirst(), mutations.getSecond());
+    } catch (GoraException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc} With autoflush all rows are written in a single batch.
+   */
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    try {
+      List<Pair<Put, Delete>> mutations = new ArrayList<>(objects.size());
+      for (Map.Entry<K, T> entry : objects.entrySet()) {
+        mutations.add(createPutAndDelete(toRowKey(entry.getKey()), entry.getValue()));
       }
-      table.updateRow(keyRaw, put, delete);
+      table.updateRows(mutations);
     } catch (GoraException e) {
       throw e;
     } catch (Exception e) {
@@ -352,6 +531,163 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     }
   }
 
+  /**
+   * Builds the {@link Put} and {@link Delete} that {@link #put(Object, PersistentBase)}
+   * sends for a record, without sending them. Used by the bulk load output to
+   * write the same cells to HFiles.
+   * @param key the key of the record.
+   * @param persistent the record, of which the dirty fields are written.
+   * @return the put and delete, which may be empty.
+   * @throws GoraException if a field is not mapped or cannot be serialized.
+   */
+  public Pair<Put, Delete> createMutations(K key, T persistent) throws GoraException {
+    try {
+      return createPutAndDelete(toRowKey(key), persistent);
+    } catch (GoraException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * Returns the start keys of the regions of the table, in order. The first
+   * one is empty.
+   * @throws GoraException if the regions cannot be located.
+   */
+  public byte[][] getRegionStartKeys() throws GoraException {
+    try {
+      return table.getStartEndKeys().getFirst();
+    } catch (IOException e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * Builds the {@link Put} and {@link Delete} needed to persist the dirty
+   * fields of a record.
+   */
+  private Pair<Put, Delete> createPutAndDelete(byte[] keyRaw, T persistent) throws IOException {
+    Schema schema = persistent.getSchema();
+    long timeStamp = System.currentTimeMillis();
+    // Guarantee Put after Delete
+    Put put = new Put(keyRaw, timeStamp - PUTS_AND_DELETES_PUT_TS_OFFSET);
+    Delete delete = new Delete(keyRaw, timeStamp - PUTS_AND_DELETES_DELETE_TS_OFFSET);
+
+    List<Field> fields = schema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      if (!persistent.isDirty(i)) {
+        continue;
+      }
+      Field field = fields.get(i);
+      Object o = persistent.get(i);
+      HBaseColumn hcol = mapping.getColumn(field.name());
+      if (hcol == null) {
+        String errorMsg = "HBase mapping for field ["
+                + persistent.getClass().getName() + "#" + field.name()
+                + "] not found. Wrong gora-hbase-mapping.xml?";
+        LOG.error(errorMsg);
+        throw new GoraException(errorMsg);
+      }
+      addPutsAndDeletes(put, delete, o, field.schema().getType(),
+              field.schema(), hcol, hcol.getQualifier());
+    }
+    return new Pair<>(put, delete);
+  }
+
+  /**
+   * Native asynchronous get through the HBase {@link org.apache.hadoop.hbase.client.AsyncConnection}.
+   * The result is decoded on the async executor of the store rather than on
+   * the RPC threads of the HBase client.
+   */
+  @Override
+  public CompletableFuture<T> getAsync(K key, String[] fields) {
+    try {
+      final String[] queryFields = getFieldsToQuery(fields);
+      Get get = new Get(toRowKey(key));
+      addFields(get, queryFields);
+      return table.getAsync(get).handleAsync(new BiFunction<Result, Throwable, T>() {
+        @Override
+        public T apply(Result result, Throwable t) {
+          if (t != null) {
+            throw new CompletionException(AsyncUtils.toGoraException(t));
+          }
+          try {
+            return newInstance(result, queryFields);
+          } catch (Exception e) {
+            throw new CompletionException(AsyncUtils.toGoraException(e));
+          }
+        }
+      }, getAsyncExecutor());
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  /**
+   * Native asynchronous put through the HBase {@link org.apache.hadoop.hbase.client.AsyncConnection}.
+   * Without autoflush the mutations go to the same buffer as {@link #put(Object, PersistentBase)},
+   * keeping their order, and are written by {@link #flush()}.
+   */
+  @Override
+  public CompletableFuture<Void> putAsync(K key, T persistent) {
+    try {
+      byte[] keyRaw = toRowKey(key);
+      Pair<Put, Delete> mutations = createPutAndDelete(keyRaw, persistent);
+      return toGoraFuture(table.updateRowAsync(keyRaw, mutations.getFirst(), mutations.getSecond()));
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  /**
+   * Native asynchronous delete through the HBase {@link org.apache.hadoop.hbase.client.AsyncConnection},
+   * buffered like {@link #putAsync(Object, PersistentBase)} without autoflush.
+   * As {@link #delete(Object)}, the returned value is always true.
+   */
+  @Override
+  public CompletableFuture<Boolean> deleteAsync(K key) {
+    try {
+      return toGoraFuture(table.deleteAsync(new Delete(toRowKey(key))))
+          .thenApply(new Function<Void, Boolean>() {
+            @Override
+            public Boolean apply(Void v) {
+              return true;
+            }
+          });
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  /**
+   * Native asynchronous exists through the HBase {@link org.apache.hadoop.hbase.client.AsyncConnection}.
+   */
+  @Override
+  public CompletableFuture<Boolean> existsAsync(K key) {
+    try {
+      return toGoraFuture(table.existsAsync(new Get(toRowKey(key))));
+    } catch (Exception e) {
+      return AsyncUtils.failedFuture(e);
+    }
+  }
+
+  /**
+   * Makes the given future fail with a {@link GoraException} instead of the
+   * raw HBase client exception.
+   */
+  private static <V> CompletableFuture<V> toGoraFuture(CompletableFuture<V> future) {
+    return future.handle(new BiFunction<V, Throwable, V>() {
+      @Override
+      public V apply(V value, Throwable t) {
+        if (t != null) {
+          throw new CompletionException(AsyncUtils.toGoraException(t));
+        }
+        return value;
+      }
+    });
+  }
+
   private void addPutsAndDeletes(Put put, Delete delete, Object o, Type type,
       Schema schema, HBaseColumn hcol, byte[] qualifier) throws IOException {
     switch (type) {
@@ -376,6 +712,18 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
       }
       break;
     case MAP:
+      if (qualifier == null && o instanceof MapDelta && ((MapDelta<?>) o).isDeltaTracked()) {
+        // the map is stored one entry per column: write the changed entries only
+        MapDelta<?> delta = (MapDelta<?>) o;
+        for (Object key : delta.getRemovedKeys()) {
+          delete.addColumns(hcol.getFamily(), toBytes(key));
+        }
+        for (Object key : delta.getPutKeys()) {
+          addPutsAndDeletes(put, delete, ((Map<?, ?>) o).get(key), schema.getValueType()
+                  .getType(), schema.getValueType(), hcol, toBytes(key));
+        }
+        break;
+      }
       // if it's a map that has been modified, then the content should be replaced by the new one
       // This is because we don't know if the content has changed or not.
       if (qualifier == null) {
@@ -399,6 +747,11 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     case ARRAY:
       List<?> array = (List<?>) o;
       int j = 0;
+      if (o instanceof ListDelta && ((ListDelta) o).isDeltaTracked()) {
+        // only the appended elements are new
+        j = ((ListDelta) o).getAppendIndex();
+        array = array.subList(j, array.size());
+      }
       for (Object item : array) {
         addPutsAndDeletes(put, delete, item, schema.getElementType().getType(),
             schema.getElementType(), hcol, Bytes.toBytes(j++));
@@ -431,7 +784,7 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   @Override
   public boolean delete(K key) throws GoraException {
     try{
-      table.delete(new Delete(toBytes(key)));
+      table.delete(new Delete(toRowKey(key)));
       //HBase does not return success information and executing a get for
       //success is a bit costly
       return true;
@@ -440,6 +793,25 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     }
   }
 
+  /**
+   * Deletes the objects with the given keys in a single request.
+   * @return the number of keys, as HBase does not report which rows existed
+   */
+  @Override
+  public long deleteAll(Collection<K> keys) throws GoraException {
+    try {
+      List<Delete> deletes = new ArrayList<>(keys.size());
+      for (K key : keys) {
+        deletes.add(new Delete(toRowKey(key)));
+      }
+      int deleted = deletes.size();
+      table.delete(deletes);
+      return deleted;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
   @Override
   public long deleteByQuery(Query<K, T> query) throws GoraException {
     try {
@@ -452,7 +824,7 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
       result = query.execute();
       ArrayList<Delete> deletes = new ArrayList<>();
       while(result.next()) {
-        Delete delete = new Delete(toBytes(result.getKey()));
+        Delete delete = new Delete(toRowKey(result.getKey()));
         deletes.add(delete);
         if(!isAllFields) {
           addFields(delete, query);
@@ -481,6 +853,22 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     return new HBaseQuery<>(this);
   }
 
+  /**
+   * Scanner results fetch the rows by batches, of scanner.caching rows if
+   * set, otherwise as configured for the HBase client.
+   */
+  @Override
+  public boolean supportsResultStreaming() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc} Returns a partition per region in the range of the query,
+   * located on the region server of the region. If
+   * <code>partition.target.count</code> is set, the large regions are split
+   * into several partitions of about the same size, at row keys interpolated
+   * between the first and last rows of the region.
+   */
   @Override
   public List<PartitionQuery<K, T>> getPartitions(Query<K, T> query)
       throws IOException {
@@ -496,14 +884,15 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
       throw new IOException("Expecting at least one region.");
     }
 
-    List<PartitionQuery<K,T>> partitions = new ArrayList<>(keys.getFirst().length);
-    for (int i = 0; i < keys.getFirst().length; i++) {
-      String regionLocation = table.getRegionLocation(keys.getFirst()[i]).getHostname();
-      byte[] startRow = query.getStartKey() != null ? toBytes(query.getStartKey())
-          : HConstants.EMPTY_START_ROW;
-      byte[] stopRow = query.getEndKey() != null ? toBytes(query.getEndKey())
-          : HConstants.EMPTY_END_ROW;
+    byte[] startRow = query.getStartKey() != null ? toRowKey(query.getStartKey())
+        : HConstants.EMPTY_START_ROW;
+    byte[] stopRow = query.getEndKey() != null ? toRowKey(query.getEndKey())
+        : HConstants.EMPTY_END_ROW;
 
+    List<HRegionLocation> regions = new ArrayList<>(keys.getFirst().length);
+    List<byte[]> splitStarts = new ArrayList<>(keys.getFirst().length);
+    List<byte[]> splitStops = new ArrayList<>(keys.getFirst().length);
+    for (int i = 0; i < keys.getFirst().length; i++) {
       // determine if the given start an stop key fall into the region
       if ((startRow.length == 0 || keys.getSecond()[i].length == 0 ||
           Bytes.compareTo(startRow, keys.getSecond()[i]) < 0) &&
@@ -518,10 +907,42 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
             Bytes.compareTo(keys.getSecond()[i], stopRow) <= 0) && 
             keys.getSecond()[i].length > 0 ? keys.getSecond()[i] : stopRow;
 
-        K startKey = Arrays.equals(HConstants.EMPTY_START_ROW, splitStart) ?
-            null : HBaseByteInterface.fromBytes(keyClass, splitStart);
-        K endKey = Arrays.equals(HConstants.EMPTY_END_ROW, splitStop) ?
-            null : HBaseByteInterface.fromBytes(keyClass, splitStop);
+        regions.add(table.getRegionLocation(keys.getFirst()[i]));
+        splitStarts.add(splitStart);
+        splitStops.add(splitStop);
+      }
+    }
+
+    Map<byte[], Long> regionSizes = null;
+    long targetSize = 0;
+    if (partitionTargetCount > 0) {
+      regionSizes = getRegionSizes(regions);
+      long totalSize = 0;
+      for (HRegionLocation region : regions) {
+        totalSize += getRegionSize(regionSizes, region);
+      }
+      targetSize = Math.max(partitionMinSize, totalSize / partitionTargetCount);
+    }
+
+    List<PartitionQuery<K,T>> partitions = new ArrayList<>(regions.size());
+    for (int i = 0; i < regions.size(); i++) {
+      String regionLocation = regions.get(i).getHostname();
+      List<byte[]> bounds = new ArrayList<>();
+      bounds.add(splitStarts.get(i));
+      if (regionSizes != null && targetSize > 0) {
+        long pieces = (getRegionSize(regionSizes, regions.get(i)) + targetSize - 1) / targetSize;
+        if (pieces > 1) {
+          bounds.addAll(getSplitRows(splitStarts.get(i), splitStops.get(i),
+              (int) Math.min(pieces, Integer.MAX_VALUE)));
+        }
+      }
+      bounds.add(splitStops.get(i));
+
+      for (int j = 0; j + 1 < bounds.size(); j++) {
+        K startKey = Arrays.equals(HConstants.EMPTY_START_ROW, bounds.get(j)) ?
+            null : fromRowKey(bounds.get(j));
+        K endKey = Arrays.equals(HConstants.EMPTY_END_ROW, bounds.get(j + 1)) ?
+            null : fromRowKey(bounds.get(j + 1));
 
         PartitionQueryImpl<K, T> partition = new PartitionQueryImpl<>(
             query, startKey, endKey, regionLocation);
@@ -533,6 +954,104 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     return partitions;
   }
 
+  /**
+   * Returns the sizes in bytes of the store files and memstores of the
+   * regions of the table, by region name, from the metrics of the region
+   * servers hosting the given regions.
+   */
+  private Map<byte[], Long> getRegionSizes(List<HRegionLocation> regions) throws IOException {
+    Set<ServerName> servers = new HashSet<>();
+    for (HRegionLocation region : regions) {
+      servers.add(region.getServerName());
+    }
+    Map<byte[], Long> sizes = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    Admin admin = null;
+    try {
+      admin = table.getAdmin();
+      for (ServerName server : servers) {
+        for (RegionMetrics metrics : admin.getRegionMetrics(server, table.getName())) {
+          sizes.put(metrics.getRegionName(),
+              (long) (metrics.getStoreFileSize().get(Size.Unit.BYTE)
+                  + metrics.getMemStoreSize().get(Size.Unit.BYTE)));
+        }
+      }
+    } finally {
+      if (admin != null) {
+        admin.close();
+      }
+    }
+    return sizes;
+  }
+
+  private static long getRegionSize(Map<byte[], Long> regionSizes, HRegionLocation region) {
+    Long size = regionSizes.get(region.getRegion().getRegionName());
+    return size == null ? 0 : size;
+  }
+
+  /**
+   * Returns up to <code>pieces - 1</code> rows splitting a key range into
+   * ranges of about the same width, interpolated between its first and last
+   * rows. Only the row keys of keys are returned, so that the partitions
+   * ending and starting at a split row meet exactly.
+   */
+  private List<byte[]> getSplitRows(byte[] startRow, byte[] stopRow, int pieces)
+      throws IOException {
+    List<byte[]> rows = new ArrayList<>();
+    byte[] low = startRow.length > 0 ? startRow : getBoundaryRow(startRow, stopRow, false);
+    byte[] high = stopRow.length > 0 ? stopRow : getBoundaryRow(startRow, stopRow, true);
+    if (low == null || high == null || Bytes.compareTo(low, high) >= 0) {
+      return rows; // empty region
+    }
+    byte[][] points;
+    try {
+      points = Bytes.split(low, high, pieces - 1);
+    } catch (IllegalArgumentException e) {
+      return rows;
+    }
+    if (points == null) {
+      return rows;
+    }
+    byte[] previous = low;
+    for (int i = 1; i < points.length - 1; i++) {
+      byte[] row;
+      try {
+        row = toRowKey(fromRowKey(points[i]));
+      } catch (RuntimeException e) {
+        continue; // not the row key of a key
+      }
+      if (Bytes.compareTo(row, previous) > 0 && Bytes.compareTo(row, high) < 0) {
+        rows.add(row);
+        previous = row;
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the first or last row of a key range, reading the keys only.
+   */
+  private byte[] getBoundaryRow(byte[] startRow, byte[] stopRow, boolean last)
+      throws IOException {
+    Scan scan = new Scan();
+    if (last) {
+      scan.setReversed(true);
+      scan.withStartRow(stopRow);
+      scan.withStopRow(startRow);
+    } else {
+      scan.withStartRow(startRow);
+      scan.withStopRow(stopRow);
+    }
+    scan.setLimit(1);
+    scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+    ResultScanner scanner = table.getScanner(scan);
+    try {
+      Result result = scanner.next();
+      return result == null ? null : result.getRow();
+    } finally {
+      scanner.close();
+    }
+  }
+
   @Override
   public org.apache.gora.query.Result<K, T> execute(Query<K, T> query) throws GoraException {
     try{
@@ -541,7 +1060,7 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   
       if(query.getStartKey() != null && query.getStartKey().equals(
           query.getEndKey())) {
-        Get get = new Get(toBytes(query.getStartKey()));
+        Get get = new Get(toRowKey(query.getStartKey()));
         addFields(get, query.getFields());
         addTimeRange(get, query);
         Result result = table.get(get);
@@ -562,15 +1081,21 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   public ResultScanner createScanner(Query<K, T> query) throws IOException {
     final Scan scan = new Scan();
     scan.setMaxResultSize(query.getLimit());
-    scan.setCaching(this.getScannerCaching()) ; 
+    if (this.getScannerCaching() > 0) {
+      // otherwise keep hbase.client.scanner.caching and the max result size batching
+      scan.setCaching(this.getScannerCaching());
+    }
     
     if (query.getStartKey() != null) {
-      scan.withStartRow(toBytes(query.getStartKey()));
+      scan.withStartRow(toRowKey(query.getStartKey()));
     }
     if (query.getEndKey() != null) {
       // In HBase the end key is exclusive, so we make it inclusive by explicitly passing
-      // boolean 'true' as the Gora's query interface declares.
-      scan.withStopRow(toBytes(query.getEndKey()), true);
+      // boolean 'true' as the Gora's query interface declares. The end key of a partition
+      // is the start key of the next one, unless it is the end key of the whole query.
+      boolean inclusive = !(query instanceof PartitionQueryImpl) || Objects.deepEquals(
+          query.getEndKey(), ((PartitionQueryImpl<K, T>) query).getBaseQuery().getEndKey());
+      scan.withStopRow(toRowKey(query.getEndKey()), inclusive);
     }
     addFields(scan, query);
     if (query.getFilter() != null) {
@@ -714,11 +1239,35 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
    * @throws IOException
    */
   public T newInstance(Result result, String[] fields)
+  throws IOException {
+    return newInstance(result, fields, null);
+  }
+
+  /**
+   * Reads a row into a persistent, decoding the values straight from the
+   * cells of the result.
+   * @param result the row.
+   * @param fields the fields to read.
+   * @param reuse a persistent to read the row into, or null to read it into
+   * a new one. The strings, records and maps of its fields are reused when
+   * possible, and its fields modified since they were read are reset.
+   * @return the persistent, or null if the row is empty.
+   */
+  public T newInstance(Result result, String[] fields, T reuse)
   throws IOException {
     if(result == null || result.isEmpty())
       return null;
 
-    T persistent = newPersistent();
+    T persistent = reuse;
+    if (persistent == null) {
+      persistent = newPersistent();
+    } else {
+      for (Field field : persistent.getSchema().getFields()) {
+        if (persistent.isDirty(field.pos())) {
+          resetField(persistent, field);
+        }
+      }
+    }
     for (String f : fields) {
       HBaseColumn col = mapping.getColumn(f);
       if (col == null) {
@@ -727,71 +1276,97 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
       }
       Field field = fieldMap.get(f);
       Schema fieldSchema = field.schema();
-      setField(result,persistent, col, field, fieldSchema);
+      if (!setField(result, persistent, col, field, fieldSchema) && reuse != null) {
+        resetField(persistent, field);
+      }
     }
-    persistent.clearDirty();
+    persistent.trackChanges();
     return persistent;
   }
 
-  private void setField(Result result, T persistent, HBaseColumn col,
+  /**
+   * Sets a field from the cells of the result.
+   * @return false if the result has no cell for the field.
+   */
+  private boolean setField(Result result, T persistent, HBaseColumn col,
       Field field, Schema fieldSchema) throws IOException {
     switch (fieldSchema.getType()) {
     case UNION:
       int index = getResolvedUnionIndex(fieldSchema);
       if (index > 1) { //if more than 2 type in union, deserialize directly for now
-        byte[] val = result.getValue(col.getFamily(), col.getQualifier());
-        if (val == null) {
-          return;
-        }
-        setField(persistent, field, val);
-      } else {
-        Schema resolvedSchema = fieldSchema.getTypes().get(index);
-        setField(result, persistent, col, field, resolvedSchema);
+        return setField(result, persistent, col, field);
       }
-      break;
+      Schema resolvedSchema = fieldSchema.getTypes().get(index);
+      return setField(result, persistent, col, field, resolvedSchema);
     case MAP:
       if (Objects.nonNull(col.getQualifier())) {
-        byte[] val = result.getValue(col.getFamily(), col.getQualifier());
-        if (val == null) {
-          return;
-        }
-        setField(persistent, field, val);
-      } else {
-        NavigableMap<byte[], byte[]> qualMap = result.getNoVersionMap().get(
-                col.getFamily());
-        if (qualMap == null) {
-          return;
-        }
-        Schema valueSchema = fieldSchema.getValueType();
-        Map<Utf8, Object> map = new HashMap<>();
-        for (Entry<byte[], byte[]> e : qualMap.entrySet()) {
-          map.put(new Utf8(Bytes.toString(e.getKey())),
-                  fromBytes(valueSchema, e.getValue()));
-        }
-        setField(persistent, field, map);
+        return setField(result, persistent, col, field);
       }
-      break;
+      Schema valueSchema = fieldSchema.getValueType();
+      Map<Utf8, Object> map = new HashMap<>();
+      for (Cell cell : getLatestCells(result, col.getFamily())) {
+        map.put(new Utf8(CellUtil.cloneQualifier(cell)), fromCell(valueSchema, cell, null));
+      }
+      if (map.isEmpty()) {
+        return false;
+      }
+      setField(persistent, field, map);
+      return true;
     case ARRAY:
-      NavigableMap<byte[], byte[]> qualMap = result.getFamilyMap(col.getFamily());
-      if (qualMap == null) {
-        return;
+      Schema elementSchema = fieldSchema.getElementType();
+      List<Object> list = new ArrayList<>();
+      for (Cell cell : getLatestCells(result, col.getFamily())) {
+        list.add(fromCell(elementSchema, cell, null));
       }
-      Schema valueSchema = fieldSchema.getElementType();
-      ArrayList<Object> arrayList = new ArrayList<>();
-      DirtyListWrapper<Object> dirtyListWrapper = new DirtyListWrapper<>(arrayList);
-      for (Entry<byte[], byte[]> e : qualMap.entrySet()) {
-        dirtyListWrapper.add(fromBytes(valueSchema, e.getValue()));
+      if (list.isEmpty()) {
+        return false;
       }
-      setField(persistent, field, arrayList);
-      break;
+      setField(persistent, field, list);
+      return true;
     default:
-      byte[] val = result.getValue(col.getFamily(), col.getQualifier());
-      if (val == null) {
-        return;
+      return setField(result, persistent, col, field);
+    }
+  }
+
+  /**
+   * Sets a field from the latest cell of its column, reading it into the
+   * current value of the field when possible.
+   * @return false if the result has no cell for the column.
+   */
+  private boolean setField(Result result, T persistent, HBaseColumn col, Field field)
+  throws IOException {
+    Cell cell = result.getColumnLatestCell(col.getFamily(), col.getQualifier());
+    if (cell == null) {
+      return false;
+    }
+    persistent.put(field.pos(), fromCell(field.schema(), cell, persistent.get(field.pos())));
+    return true;
+  }
+
+  /**
+   * Returns the latest cell of every column of a family, in qualifier order.
+   */
+  private static List<Cell> getLatestCells(Result result, byte[] family) {
+    List<Cell> cells = new ArrayList<>();
+    Cell previous = null;
+    for (Cell cell : result.rawCells()) {
+      if (!CellUtil.matchingFamily(cell, family)) {
+        if (previous != null) {
+          break; // the cells are sorted by family
+        }
+        continue;
       }
-      setField(persistent, field, val);
-      break;
+      if (previous == null || !CellUtil.matchingQualifier(cell, previous)) {
+        cells.add(cell); // the versions of a column are sorted newest first
+      }
+      previous = cell;
     }
+    return cells;
+  }
+
+  private void resetField(T persistent, Field field) {
+    PersistentBase.PersistentData data = PersistentBase.PersistentData.get();
+    persistent.put(field.pos(), data.deepCopy(field.schema(), data.getDefaultValue(field)));
   }
 
   //TODO temporary solution, has to be changed after implementation of saving the index of union type
@@ -821,11 +1396,6 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
     persistent.put(field.pos(), new DirtyMapWrapper(map));
   }
 
-  private void setField(T persistent, Field field, byte[] val)
-  throws IOException {
-    persistent.put(field.pos(), fromBytes(field.schema(), val));
-  }
-
   @SuppressWarnings({ "rawtypes", "unchecked" })
   private void setField(T persistent, Field field, List list) {
     persistent.put(field.pos(), new DirtyListWrapper(list));
@@ -922,6 +1492,7 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try{
       table.close();
     }catch(IOException ex){
@@ -931,7 +1502,8 @@ public class HBaseStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
 
   /**
    * Gets the Scanner Caching optimization value
-   * @return The value used internally in {@link Scan#setCaching(int)}
+   * @return The value used internally in {@link Scan#setCaching(int)}, or 0
+   * for the default of the HBase client
    */
   public int getScannerCaching() {
     return this.scannerCaching ;
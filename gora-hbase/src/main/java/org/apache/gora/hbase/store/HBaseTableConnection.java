@@ -18,16 +18,25 @@
 package org.apache.gora.hbase.store;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.AsyncTable;
 import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Delete;
@@ -37,14 +46,24 @@ import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.RegionLocator;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
 import org.apache.hadoop.hbase.client.RowMutations;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Thread safe implementation to connect to a HBase table.
  *
+ * <p>Without autoflush, the mutations are written to a single
+ * {@link BufferedMutator} kept open until {@link #close()}. A background
+ * thread flushes it whenever the write buffer size is reached, and the
+ * writers wait while more than the maximum pending bytes are not flushed
+ * yet. The mutations failing in the background are reported by the next
+ * {@link #flushCommits()}.</p>
  */
 public class HBaseTableConnection {
   /*
@@ -55,17 +74,52 @@ public class HBaseTableConnection {
    * drawbacks that are only solved in later releases.
    */
 
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseTableConnection.class);
+
+  /** Write buffer size of HBase, used unless set on the connection */
+  private static final String WRITE_BUFFER_SIZE_KEY = "hbase.client.write.buffer";
+  private static final long WRITE_BUFFER_SIZE_DEFAULT = 2 * 1024 * 1024;
+
   private final Configuration conf;
   private final Connection connection;
   private final RegionLocator regionLocator;
-  // BufferedMutator used for doing async flush i.e. autoflush = false
-  private final ConcurrentLinkedQueue<Mutation> buffer = new ConcurrentLinkedQueue<>();
   private final ThreadLocal<Table> table;
 
+  // BufferedMutator used for doing async flush i.e. autoflush = false,
+  // created on first write
+  private volatile BufferedMutator mutator;
+  private final long writeBufferSize;
+  private final long maxPendingBytes;
+  private final long flushPeriodMs;
+  // bytes written to the mutator, and flushed, since it was created, and
+  // bytes being written, guarded by writeLock
+  private long writtenBytes;
+  private long flushedBytes;
+  private long reservedBytes;
+  private boolean flushRequested;
+  private boolean closed;
+  // set when the background flusher died, the writers then fail
+  private Throwable flusherFailure;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Condition flushNeeded = writeLock.newCondition();
+  private final Condition belowLimit = writeLock.newCondition();
+  private Thread flusher;
+  // failures of the background writes, guarded by failedRows
+  private final List<Throwable> failureCauses = new ArrayList<>();
+  private final List<Row> failedRows = new ArrayList<>();
+  private final List<String> failureHosts = new ArrayList<>();
+  private IOException flushFailure;
+
+  // set when the point reads are coalesced
+  private volatile HBaseReadCoalescer<Result> getCoalescer;
+  private volatile HBaseReadCoalescer<Boolean> existsCoalescer;
+
   private final BlockingQueue<Table> tPool = new LinkedBlockingQueue<>();
-  @SuppressWarnings("unused")
   private final boolean autoFlush;
   private final TableName tableName;
+  // Created on first asynchronous operation
+  private volatile AsyncConnection asyncConnection;
+  private volatile AsyncTable<?> asyncTable;
 
   /**
    * Instantiate new connection.
@@ -77,12 +131,80 @@ public class HBaseTableConnection {
    */
   public HBaseTableConnection(Configuration conf, String tableName, boolean autoflush)
           throws IOException {
+    this(conf, tableName, autoflush, 0, 0, 0);
+  }
+
+  /**
+   * Instantiate new connection.
+   *
+   * @param conf
+   * @param tableName
+   * @param autoflush
+   * @param writeBufferSize the size of the write buffer in bytes, or 0 for
+   *          the <code>hbase.client.write.buffer</code> configuration.
+   * @param maxPendingBytes the bytes written and not flushed above which the
+   *          writers wait, or 0 for four times the write buffer size.
+   * @param flushPeriodMs the time after which the buffered mutations are
+   *          flushed regardless of their size, or 0 to flush on size only.
+   * @throws IOException
+   */
+  public HBaseTableConnection(Configuration conf, String tableName, boolean autoflush,
+      long writeBufferSize, long maxPendingBytes, long flushPeriodMs) throws IOException {
+    this(conf, ConnectionFactory.createConnection(conf), tableName, autoflush,
+        writeBufferSize, maxPendingBytes, flushPeriodMs);
+  }
+
+  /**
+   * Instantiate new connection over an open HBase connection, which is closed
+   * with this one.
+   */
+  HBaseTableConnection(Configuration conf, Connection connection, String tableName,
+      boolean autoflush, long writeBufferSize, long maxPendingBytes, long flushPeriodMs)
+      throws IOException {
     this.conf = conf;
     this.table = new ThreadLocal<>();
-    this.connection = ConnectionFactory.createConnection(conf);
+    this.connection = connection;
     this.tableName = TableName.valueOf(tableName);
     this.regionLocator = this.connection.getRegionLocator(this.tableName);
     this.autoFlush = autoflush;
+    this.writeBufferSize = writeBufferSize > 0 ? writeBufferSize
+        : conf.getLong(WRITE_BUFFER_SIZE_KEY, WRITE_BUFFER_SIZE_DEFAULT);
+    this.maxPendingBytes = maxPendingBytes > 0 ? Math.max(maxPendingBytes, this.writeBufferSize)
+        : 4 * this.writeBufferSize;
+    this.flushPeriodMs = flushPeriodMs;
+  }
+
+  /**
+   * Groups the concurrent {@link #get(Get)} and {@link #exists(Get)} calls
+   * into multi-gets, see {@link HBaseReadCoalescer}.
+   *
+   * @param maxKeys the maximum number of rows read at once, coalescing is
+   *          disabled if lower than 2.
+   * @param windowMicros the time a read waits for others, in microseconds.
+   */
+  public void setReadCoalescing(int maxKeys, long windowMicros) {
+    if (maxKeys < 2) {
+      getCoalescer = null;
+      existsCoalescer = null;
+      return;
+    }
+    getCoalescer = new HBaseReadCoalescer<Result>(maxKeys, windowMicros) {
+      @Override
+      protected List<Result> read(List<Get> gets) throws IOException {
+        return Arrays.asList(getTable().get(gets));
+      }
+    };
+    existsCoalescer = new HBaseReadCoalescer<Boolean>(maxKeys, windowMicros) {
+      @Override
+      protected List<Boolean> read(List<Get> gets) throws IOException {
+        boolean[] exists = getTable().exists(gets);
+        List<Boolean> results = new ArrayList<>(exists.length);
+        for (boolean exist : exists) {
+          results.add(exist);
+        }
+        return results;
+      }
+    };
   }
 
   public Table getTable() throws IOException {
@@ -95,14 +217,228 @@ public class HBaseTableConnection {
     return tableInstance;
   }
 
+  /**
+   * Returns the mutator of the table, creating it and its flusher thread on
+   * first use.
+   */
+  private BufferedMutator getMutator() throws IOException {
+    if (mutator == null) {
+      synchronized (this) {
+        if (mutator == null) {
+          BufferedMutatorParams params = new BufferedMutatorParams(tableName)
+              .writeBufferSize(writeBufferSize)
+              .listener(new BufferedMutator.ExceptionListener() {
+                @Override
+                public void onException(RetriesExhaustedWithDetailsException e,
+                    BufferedMutator bufferedMutator) {
+                  addFailures(e);
+                }
+              });
+          if (flushPeriodMs > 0) {
+            params.setWriteBufferPeriodicFlushTimeoutMs(flushPeriodMs);
+          }
+          BufferedMutator created = connection.getBufferedMutator(params);
+          flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+              flushInBackground();
+            }
+          }, "gora-hbase-flusher-" + tableName.getNameAsString());
+          flusher.setDaemon(true);
+          mutator = created;
+          flusher.start();
+        }
+      }
+    }
+    return mutator;
+  }
+
+  /**
+   * Writes mutations to the mutator, waiting while too many bytes are
+   * pending. The bytes are reserved under the write lock but written
+   * outside of it, as the mutator may send its buffer while writing, so
+   * that the writers and the flusher do not wait for each other's calls.
+   */
+  private void mutate(List<? extends Mutation> mutations) throws IOException {
+    if (mutations.isEmpty()) {
+      return;
+    }
+    long size = 0;
+    for (Mutation mutation : mutations) {
+      size += mutation.heapSize();
+    }
+    BufferedMutator bufMutator = getMutator();
+    writeLock.lock();
+    try {
+      long pending;
+      checkFlusher();
+      while ((pending = writtenBytes + reservedBytes - flushedBytes) > 0
+          && pending + size > maxPendingBytes && !closed) {
+        if (writtenBytes > flushedBytes) {
+          // otherwise only reserved bytes are pending, wait for them to be written
+          flushRequested = true;
+          flushNeeded.signal();
+        }
+        belowLimit.await();
+        checkFlusher();
+      }
+      reservedBytes += size;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } finally {
+      writeLock.unlock();
+    }
+    boolean written = false;
+    try {
+      bufMutator.mutate(mutations);
+      written = true;
+    } finally {
+      writeLock.lock();
+      try {
+        reservedBytes -= size;
+        if (written) {
+          writtenBytes += size;
+          if (writtenBytes - flushedBytes >= writeBufferSize) {
+            flushNeeded.signal();
+          }
+        }
+        belowLimit.signalAll();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Throws if the background flusher died, as the writers waiting for it
+   * would never be woken up. Called with the write lock held.
+   */
+  private void checkFlusher() throws IOException {
+    if (flusherFailure != null) {
+      throw new IOException("The mutations of table " + tableName
+          + " are no longer flushed in the background", flusherFailure);
+    }
+  }
+
+  private void flushInBackground() {
+    try {
+      while (true) {
+        long flushing;
+        writeLock.lock();
+        try {
+          while (!closed && !flushRequested && writtenBytes - flushedBytes < writeBufferSize) {
+            flushNeeded.await();
+          }
+          if (closed) {
+            return;
+          }
+          flushRequested = false;
+          flushing = writtenBytes;
+        } catch (InterruptedException e) {
+          return;
+        } finally {
+          writeLock.unlock();
+        }
+        try {
+          mutator.flush();
+        } catch (IOException e) {
+          LOG.warn("Error flushing the mutations of table {}", tableName, e);
+          addFlushFailure(e);
+        }
+        flushed(flushing);
+      }
+    } catch (Throwable t) {
+      LOG.error("The background flusher of table {} failed", tableName, t);
+      addFlushFailure(t instanceof IOException ? (IOException) t : new IOException(t));
+      writeLock.lock();
+      try {
+        flusherFailure = t;
+        belowLimit.signalAll();
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  private void addFlushFailure(IOException e) {
+    synchronized (failedRows) {
+      if (flushFailure == null) {
+        flushFailure = e;
+      }
+    }
+  }
+
+  /**
+   * Records that the bytes written before a flush are flushed.
+   */
+  private void flushed(long written) {
+    writeLock.lock();
+    try {
+      flushedBytes = Math.max(flushedBytes, written);
+      belowLimit.signalAll();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void addFailures(RetriesExhaustedWithDetailsException e) {
+    LOG.warn("{} mutations of table {} failed", e.getNumExceptions(), tableName);
+    synchronized (failedRows) {
+      for (int i = 0; i < e.getNumExceptions(); i++) {
+        failureCauses.add(e.getCause(i));
+        failedRows.add(e.getRow(i));
+        failureHosts.add(e.getHostnamePort(i));
+      }
+    }
+  }
+
+  /**
+   * Throws the failures of the background writes since the last call.
+   */
+  private void throwFailures() throws IOException {
+    synchronized (failedRows) {
+      IOException failure = flushFailure;
+      flushFailure = null;
+      if (!failedRows.isEmpty()) {
+        RetriesExhaustedWithDetailsException e = new RetriesExhaustedWithDetailsException(
+            new ArrayList<>(failureCauses), new ArrayList<>(failedRows),
+            new ArrayList<>(failureHosts));
+        failureCauses.clear();
+        failedRows.clear();
+        failureHosts.clear();
+        if (failure != null) {
+          e.addSuppressed(failure);
+        }
+        throw e;
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Flushes the buffered mutations and waits for them to be written.
+   *
+   * @throws IOException if some mutations written since the last call failed,
+   *           a {@link RetriesExhaustedWithDetailsException} listing them if
+   *           they were rejected by the region servers.
+   */
   public void flushCommits() throws IOException {
-    BufferedMutator bufMutator = connection.getBufferedMutator(this.tableName);
-    while (!buffer.isEmpty()) {
-      Mutation m = buffer.poll();
-      bufMutator.mutate(m);
+    BufferedMutator bufMutator = mutator;
+    if (bufMutator != null) {
+      long flushing;
+      writeLock.lock();
+      try {
+        flushing = writtenBytes;
+      } finally {
+        writeLock.unlock();
+      }
+      bufMutator.flush();
+      flushed(flushing);
     }
-    bufMutator.flush();
-    bufMutator.close();
+    throwFailures();
   }
 
   public void close() throws IOException {
@@ -110,12 +446,36 @@ public class HBaseTableConnection {
     // (As an extra safeguard one might employ a shared variable i.e. 'closed'
     //  in order to prevent further table creation but for now we assume that
     //  once close() is called, clients are no longer using it).
-    flushCommits();
+    try {
+      flushCommits();
+    } finally {
+      writeLock.lock();
+      try {
+        closed = true;
+        flushNeeded.signalAll();
+        belowLimit.signalAll();
+      } finally {
+        writeLock.unlock();
+      }
+      if (mutator != null) {
+        try {
+          // let the running background flush end
+          flusher.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        mutator.close();
+      }
+    }
 
     for (Table table : tPool) {
       table.close();
     }
 
+    if (asyncConnection != null) {
+      asyncConnection.close();
+    }
+
     if (!connection.isClosed()) {
       connection.close();
     }
@@ -144,6 +504,10 @@ public class HBaseTableConnection {
   }
 
   public boolean exists(Get get) throws IOException {
+    HBaseReadCoalescer<Boolean> coalescer = existsCoalescer;
+    if (coalescer != null) {
+      return coalescer.get(get);
+    }
     return getTable().exists(get);
   }
 
@@ -152,6 +516,10 @@ public class HBaseTableConnection {
   }
 
   public Result get(Get get) throws IOException {
+    HBaseReadCoalescer<Result> coalescer = getCoalescer;
+    if (coalescer != null) {
+      return coalescer.get(get);
+    }
     return getTable().get(get);
   }
 
@@ -181,13 +549,65 @@ public class HBaseTableConnection {
         }
       }
     } else {
+      List<Mutation> mutations = new ArrayList<>(2);
       if (delete.size() > 0) {
-        buffer.add(delete);
+        mutations.add(delete);
       }
 
       if (put.size() > 0) {
-        buffer.add(put);
+        mutations.add(put);
+      }
+      mutate(mutations);
+    }
+  }
+
+  /**
+   * Updates several rows at once. With autoflush every row is sent in a single
+   * batch call, otherwise the mutations are buffered like in
+   * {@link #updateRow(byte[], Mutation, Mutation)}.
+   *
+   * @param mutations pairs of put and delete, each pair targeting one row
+   * @throws IOException
+   */
+  public void updateRows(List<Pair<Put, Delete>> mutations) throws IOException {
+    if (autoFlush) {
+      List<Row> actions = new ArrayList<>(mutations.size());
+      for (Pair<Put, Delete> mutation : mutations) {
+        Put put = mutation.getFirst();
+        Delete delete = mutation.getSecond();
+        if (put.size() > 0) {
+          if (delete.size() > 0) {
+            RowMutations update = new RowMutations(put.getRow());
+            update.add(delete);
+            update.add(put);
+            actions.add(update);
+          } else {
+            actions.add(put);
+          }
+        } else if (delete.size() > 0) {
+          actions.add(delete);
+        }
+      }
+      if (actions.isEmpty()) {
+        return;
+      }
+      try {
+        getTable().batch(actions, new Object[actions.size()]);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(e.getMessage());
+      }
+    } else {
+      List<Mutation> buffered = new ArrayList<>(2 * mutations.size());
+      for (Pair<Put, Delete> mutation : mutations) {
+        if (mutation.getSecond().size() > 0) {
+          buffered.add(mutation.getSecond());
+        }
+        if (mutation.getFirst().size() > 0) {
+          buffered.add(mutation.getFirst());
+        }
       }
+      mutate(buffered);
     }
   }
 
@@ -196,7 +616,7 @@ public class HBaseTableConnection {
       Table tableInstance = getTable();
       tableInstance.put(put);
     } else {
-      buffer.add(put);
+      mutate(Collections.singletonList(put));
     }
   }
 
@@ -205,7 +625,7 @@ public class HBaseTableConnection {
       Table tableInstance = getTable();
       tableInstance.put(puts);
     } else {
-      buffer.addAll(puts);
+      mutate(puts);
     }
   }
 
@@ -214,7 +634,7 @@ public class HBaseTableConnection {
       Table tableInstance = getTable();
       tableInstance.delete(delete);
     } else {
-      buffer.add(delete);
+      mutate(Collections.singletonList(delete));
     }
   }
 
@@ -223,10 +643,103 @@ public class HBaseTableConnection {
       Table tableInstance = getTable();
       tableInstance.delete(deletes);
     } else {
-      buffer.addAll(deletes);
+      mutate(deletes);
     }
   }
 
+  /**
+   * Returns the {@link AsyncTable} for this table, creating the shared
+   * {@link AsyncConnection} on first use.
+   */
+  private AsyncTable<?> getAsyncTable() throws IOException {
+    if (asyncTable == null) {
+      synchronized (this) {
+        if (asyncTable == null) {
+          try {
+            asyncConnection = ConnectionFactory.createAsyncConnection(conf).get();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+          } catch (Exception e) {
+            throw new IOException(e);
+          }
+          asyncTable = asyncConnection.getTable(tableName);
+        }
+      }
+    }
+    return asyncTable;
+  }
+
+  public CompletableFuture<Result> getAsync(Get get) {
+    try {
+      return getAsyncTable().get(get);
+    } catch (IOException e) {
+      return failedFuture(e);
+    }
+  }
+
+  public CompletableFuture<Boolean> existsAsync(Get get) {
+    try {
+      return getAsyncTable().exists(get);
+    } catch (IOException e) {
+      return failedFuture(e);
+    }
+  }
+
+  /**
+   * Asynchronous counterpart of {@link #updateRow(byte[], Mutation, Mutation)}.
+   * With autoflush the mutations are sent right away. Otherwise they are
+   * buffered in the mutator like the blocking writes, so that they keep their
+   * order and are sent by the next {@link #flushCommits()}, and the caller
+   * waits while too many bytes are pending.
+   */
+  public CompletableFuture<Void> updateRowAsync(byte[] keyRaw, Mutation put, Mutation delete) {
+    try {
+      if (!autoFlush) {
+        updateRow(keyRaw, put, delete);
+        return CompletableFuture.completedFuture(null);
+      }
+      AsyncTable<?> tableInstance = getAsyncTable();
+      if (put.size() > 0) {
+        if (delete.size() > 0) {
+          RowMutations update = new RowMutations(keyRaw);
+          update.add(delete);
+          update.add(put);
+          return tableInstance.mutateRow(update);
+        } else {
+          return tableInstance.put((Put) put);
+        }
+      } else if (delete.size() > 0) {
+        return tableInstance.delete((Delete) delete);
+      }
+      return CompletableFuture.completedFuture(null);
+    } catch (IOException e) {
+      return failedFuture(e);
+    }
+  }
+
+  /**
+   * Asynchronous counterpart of {@link #delete(Delete)}, buffered like
+   * {@link #updateRowAsync(byte[], Mutation, Mutation)} without autoflush.
+   */
+  public CompletableFuture<Void> deleteAsync(Delete delete) {
+    try {
+      if (!autoFlush) {
+        delete(delete);
+        return CompletableFuture.completedFuture(null);
+      }
+      return getAsyncTable().delete(delete);
+    } catch (IOException e) {
+      return failedFuture(e);
+    }
+  }
+
+  private static <V> CompletableFuture<V> failedFuture(Throwable t) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    future.completeExceptionally(t);
+    return future;
+  }
+
   public TableName getName() {
     return tableName;
   }
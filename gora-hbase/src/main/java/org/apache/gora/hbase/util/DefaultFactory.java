@@ -60,9 +60,11 @@ public class DefaultFactory <K, T extends PersistentBase> extends BaseFactory<K,
           return null;
         }
         org.apache.hadoop.hbase.filter.Filter hbaseRowFilter = factory.createFilter(rowFitler, store);
-        if (hbaseRowFilter != null) {
-          hbaseFilter.addFilter(hbaseRowFilter);
+        if (hbaseRowFilter == null) {
+          // the whole list is evaluated locally
+          return null;
         }
+        hbaseFilter.addFilter(hbaseRowFilter);
       }
       return hbaseFilter;
     } else if (filter instanceof SingleFieldValueFilter) {
@@ -70,6 +72,9 @@ public class DefaultFactory <K, T extends PersistentBase> extends BaseFactory<K,
 
       HBaseColumn column = store.getMapping().getColumn(fieldFilter.getFieldName());
       CompareOperator compareOp = getCompareOp(fieldFilter.getFilterOp());
+      if (compareOp == null) {
+        return null;
+      }
       byte[] family = column.getFamily();
       byte[] qualifier = column.getQualifier();
       byte[] value = HBaseByteInterface.toBytes(fieldFilter.getOperands().get(0));
@@ -82,6 +87,9 @@ public class DefaultFactory <K, T extends PersistentBase> extends BaseFactory<K,
 
       HBaseColumn column = store.getMapping().getColumn(mapFilter.getFieldName());
       CompareOperator compareOp = getCompareOp(mapFilter.getFilterOp());
+      if (compareOp == null) {
+        return null;
+      }
       byte[] family = column.getFamily();
       byte[] qualifier = HBaseByteInterface.toBytes(mapFilter.getMapKey());
       byte[] value = HBaseByteInterface.toBytes(mapFilter.getOperands().get(0));
@@ -109,6 +117,10 @@ public class DefaultFactory <K, T extends PersistentBase> extends BaseFactory<K,
         return CompareOperator.GREATER;
       case GREATER_OR_EQUAL:
         return CompareOperator.GREATER_OR_EQUAL;
+      case BETWEEN:
+      case STARTS_WITH:
+        LOG.warn(filterOp + " is evaluated locally, no single HBase comparison");
+        return null;
       default:
         throw new IllegalArgumentException(filterOp + " no HBase equivalent yet");
     }
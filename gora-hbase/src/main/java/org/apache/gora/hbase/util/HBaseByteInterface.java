@@ -21,6 +21,7 @@ package org.apache.gora.hbase.util;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.avro.Schema;
@@ -33,8 +34,13 @@ import org.apache.avro.specific.SpecificDatumReader;
 import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.avro.util.Utf8;
 
+import org.apache.gora.persistency.Persistent;
+import org.apache.gora.persistency.impl.PersistentDatumReader;
+import org.apache.gora.persistency.impl.PersistentDatumWriter;
 import org.apache.gora.util.AvroUtils;
+import org.apache.gora.util.OrderedBytes;
 
+import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.util.Bytes;
 
 /**
@@ -46,6 +52,9 @@ public class HBaseByteInterface {
    */
   private static ThreadLocal<ByteArrayOutputStream> outputStream =
       new ThreadLocal<>();
+
+  /** Serialized size above which the output stream of a thread is released */
+  private static final int MAX_REUSED_OUTPUT_SIZE = 1024 * 1024;
   
   public static final ThreadLocal<BinaryDecoder> decoders =
       new ThreadLocal<>();
@@ -75,18 +84,50 @@ public class HBaseByteInterface {
    * @return Enum|Utf8|ByteBuffer|Integer|Long|Float|Double|Boolean|Persistent|Null
    * @throws IOException
    */
-  @SuppressWarnings({ "rawtypes" })
   public static Object fromBytes(Schema schema, byte[] val) throws IOException {
+    return fromBytes(schema, val, 0, val.length, null);
+  }
+
+  /**
+   * Deserializes the value of a cell, without copying it out of the cell.
+   * @see #fromBytes(Schema, byte[], int, int, Object)
+   */
+  public static Object fromCell(Schema schema, Cell cell, Object reuse) throws IOException {
+    return fromBytes(schema, cell.getValueArray(), cell.getValueOffset(),
+        cell.getValueLength(), reuse);
+  }
+
+  /**
+   * Deserializes a slice of an array of bytes like {@link #fromBytes(Schema, byte[])},
+   * reading it in place. A {@link Utf8} is decoded into <code>reuse</code> if it
+   * is one, records and maps are read into <code>reuse</code> by the datum
+   * reader of the schema, and the binary decoder of the thread is reused.
+   *
+   * @param schema Avro schema describing the expected data
+   * @param val array of bytes with the data serialized
+   * @param offset offset of the data in <code>val</code>
+   * @param length length of the data
+   * @param reuse an object to read the data into if possible, or null
+   * @return Enum|Utf8|ByteBuffer|Integer|Long|Float|Double|Boolean|Persistent|Null
+   * @throws IOException
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public static Object fromBytes(Schema schema, byte[] val, int offset, int length,
+      Object reuse) throws IOException {
     Type type = schema.getType();
     switch (type) {
-    case ENUM:    return AvroUtils.getEnumValue(schema, val[0]);
-    case STRING:  return new Utf8(Bytes.toString(val));
-    case BYTES:   return ByteBuffer.wrap(val);
-    case INT:     return Bytes.toInt(val);
-    case LONG:    return Bytes.toLong(val);
-    case FLOAT:   return Bytes.toFloat(val);
-    case DOUBLE:  return Bytes.toDouble(val);
-    case BOOLEAN: return val[0] != 0;
+    case ENUM:    return AvroUtils.getEnumValue(schema, val[offset]);
+    case STRING:
+      Utf8 utf8 = reuse instanceof Utf8 ? (Utf8) reuse : new Utf8();
+      utf8.setByteLength(length);
+      System.arraycopy(val, offset, utf8.getBytes(), 0, length);
+      return utf8;
+    case BYTES:   return ByteBuffer.wrap(Arrays.copyOfRange(val, offset, offset + length));
+    case INT:     return Bytes.toInt(val, offset);
+    case LONG:    return Bytes.toLong(val, offset);
+    case FLOAT:   return Bytes.toFloat(val, offset);
+    case DOUBLE:  return Bytes.toDouble(val, offset);
+    case BOOLEAN: return val[offset] != 0;
     case UNION:
       // XXX Special case: When reading the top-level field of a record we must handle the
       // special case ["null","type"] definitions: this will be written as if it was ["type"]
@@ -109,7 +150,7 @@ public class HBaseByteInterface {
           else 
             schema = schema.getTypes().get(0) ;
           
-          return fromBytes(schema, val) ; // Deserialize as if schema was ["type"] 
+          return fromBytes(schema, val, offset, length, reuse) ; // Deserialize as if schema was ["type"] 
         }
         
       }
@@ -125,30 +166,28 @@ public class HBaseByteInterface {
       // (key name in map will be "UNION-type-type-...")
       // String schemaId = schema.getType().equals(Schema.Type.UNION) ? String.valueOf(schema.hashCode()) : schema.getFullName();
       
-      SpecificDatumReader<?> reader = readerMap.get(schema);
+      SpecificDatumReader reader = readerMap.get(schema);
       if (reader == null) {
-        reader = new SpecificDatumReader(schema);// ignore dirty bits
+        reader = new PersistentDatumReader(schema);// ignore dirty bits
         SpecificDatumReader localReader=null;
         if((localReader=readerMap.putIfAbsent(schema, reader))!=null) {
           reader = localReader;
         }
       }
       
-      // initialize a decoder, possibly reusing previous one
-      BinaryDecoder decoderFromCache = decoders.get();
-      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(val, null);
-      // put in threadlocal cache if the initial get was empty
-      if (decoderFromCache==null) {
-        decoders.set(decoder);
-      }
-      return reader.read(null, decoder);
+      // reuse the decoder of the thread, pointing it to the data
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(val, offset, length,
+          decoders.get());
+      decoders.set(decoder);
+      return reader.read(reuse, decoder);
     default: throw new RuntimeException("Unknown type: "+type);
     }
   }
 
   /**
-   * Converts an array of bytes to the target <em>basic class</em>.
-   * @param clazz (Byte|Boolean|Short|Integer|Long|Float|Double|String|Utf8).class
+   * Converts an array of bytes to the target <em>basic class</em>, or to a
+   * {@link Persistent} key encoded with {@link OrderedBytes}.
+   * @param clazz (Byte|Boolean|Short|Integer|Long|Float|Double|String|Utf8|Persistent).class
    * @param val array of bytes with the value
    * @return an instance of <code>clazz</code> with the bytes in <code>val</code>
    *         deserialized with org.apache.hadoop.hbase.util.Bytes
@@ -173,13 +212,16 @@ public class HBaseByteInterface {
       return (K) Bytes.toString(val);
     } else if (clazz.equals(Utf8.class)) {
       return (K) new Utf8(Bytes.toString(val));
+    } else if (Persistent.class.isAssignableFrom(clazz)) {
+      return OrderedBytes.fromBytes(clazz, val);
     }
     throw new RuntimeException("Can't parse data as class: " + clazz);
   }
 
   /**
-   * Converts an instance of a <em>basic class</em> to an array of bytes.
-   * @param o Instance of Enum|Byte|Boolean|Short|Integer|Long|Float|Double|String|Utf8
+   * Converts an instance of a <em>basic class</em> to an array of bytes, or
+   * a {@link Persistent} key with {@link OrderedBytes}.
+   * @param o Instance of Enum|Byte|Boolean|Short|Integer|Long|Float|Double|String|Utf8|Persistent
    * @return array of bytes with <code>o</code> serialized with org.apache.hadoop.hbase.util.Bytes
    */
   public static byte[] toBytes(Object o) {
@@ -203,9 +245,11 @@ public class HBaseByteInterface {
     } else if (clazz.equals(String.class)) {
       return Bytes.toBytes((String) o);
     } else if (clazz.equals(Utf8.class)) {
-      return ((Utf8) o).getBytes();
+      return getBytes((Utf8) o);
     } else if (clazz.isArray() && clazz.getComponentType().equals(Byte.TYPE)) {
       return (byte[])o;
+    } else if (o instanceof Persistent) {
+      return OrderedBytes.toBytes(o);
     }
     throw new RuntimeException("Can't parse data as class: " + clazz);
   }
@@ -222,7 +266,7 @@ public class HBaseByteInterface {
   public static byte[] toBytes(Object o, Schema schema) throws IOException {
     Type type = schema.getType();
     switch (type) {
-    case STRING:  return Bytes.toBytes(((CharSequence)o).toString()); // TODO: maybe ((Utf8)o).getBytes(); ?
+    case STRING:  return o instanceof Utf8 ? getBytes((Utf8) o) : Bytes.toBytes(o.toString());
     case BYTES:   return ((ByteBuffer)o).array();
     case INT:     return Bytes.toBytes((Integer)o);
     case LONG:    return Bytes.toBytes((Long)o);
@@ -233,28 +277,43 @@ public class HBaseByteInterface {
     case UNION:
     case MAP:
     case RECORD:
-      SpecificDatumWriter writer = writerMap.get(schema.getFullName());
+      SpecificDatumWriter writer = writerMap.get(schema);
       if (writer == null) {
-        writer = new SpecificDatumWriter(schema);// ignore dirty bits
-        writerMap.put(schema,writer);
-      }
-
-      BinaryEncoder encoderFromCache = encoders.get();
-      ByteArrayOutputStream bos = new ByteArrayOutputStream();
-      outputStream.set(bos);
-      BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(bos, null);
-      if (encoderFromCache == null) {
-        encoders.set(encoder);
+        writer = new PersistentDatumWriter(schema);// ignore dirty bits
+        SpecificDatumWriter localWriter = writerMap.putIfAbsent(schema, writer);
+        if (localWriter != null) {
+          writer = localWriter;
+        }
       }
 
-      //reset the buffers
+      // reuse the output stream and the encoder of the thread
       ByteArrayOutputStream os = outputStream.get();
-      os.reset();
+      if (os == null) {
+        os = new ByteArrayOutputStream();
+        outputStream.set(os);
+      } else {
+        os.reset();
+      }
+      BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(os, encoders.get());
+      encoders.set(encoder);
 
       writer.write(o, encoder);
       encoder.flush();
+      if (os.size() > MAX_REUSED_OUTPUT_SIZE) {
+        outputStream.remove();
+      }
       return os.toByteArray();
     default: throw new RuntimeException("Unknown type: "+type);
     }
   }
+
+  /**
+   * Returns the bytes of a {@link Utf8}, of which the backing array may be
+   * longer than the string.
+   */
+  private static byte[] getBytes(Utf8 utf8) {
+    byte[] bytes = utf8.getBytes();
+    int length = utf8.getByteLength();
+    return bytes.length == length ? bytes : Arrays.copyOf(bytes, length);
+  }
 }
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.gora.hbase.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.gora.mapreduce.GoraMapReduceUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.serializer.SerializationFactory;
+import org.apache.hadoop.io.serializer.Serializer;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the shuffle by region of {@link HBaseBulkLoadOutputFormat}: the
+ * {@link HBaseBulkLoadPartitioner} and the {@link HBaseBulkLoadComparator},
+ * for a table with the regions "", "g", "p".
+ */
+public class TestHBaseBulkLoadPartitioner {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    GoraMapReduceUtils.setIOSerializations(conf, false);
+    conf.setClass(MRJobConfig.MAP_OUTPUT_KEY_CLASS, String.class, Object.class);
+    Path partitions = new Path(new File(folder.getRoot(), "partitions").toURI());
+    HBaseBulkLoadPartitioner.writePartitions(conf, partitions,
+        new byte[][] { new byte[0], Bytes.toBytes("g"), Bytes.toBytes("p") });
+    conf.set(HBaseBulkLoadPartitioner.PARTITIONS_FILE_KEY, partitions.toString());
+  }
+
+  @Test
+  public void testPartitionPerRegion() {
+    HBaseBulkLoadPartitioner<String, Object> partitioner = new HBaseBulkLoadPartitioner<>();
+    partitioner.setConf(conf);
+    assertEquals(0, partitioner.getPartition("", null, 3));
+    assertEquals(0, partitioner.getPartition("a", null, 3));
+    assertEquals(1, partitioner.getPartition("g", null, 3));
+    assertEquals(1, partitioner.getPartition("o", null, 3));
+    assertEquals(2, partitioner.getPartition("p", null, 3));
+    assertEquals(2, partitioner.getPartition("z", null, 3));
+
+    // fewer reducers than regions get consecutive regions
+    assertEquals(0, partitioner.getPartition("a", null, 2));
+    assertEquals(0, partitioner.getPartition("o", null, 2));
+    assertEquals(1, partitioner.getPartition("z", null, 2));
+  }
+
+  @Test
+  public void testSortedByRowKey() throws IOException {
+    HBaseBulkLoadComparator<Object> comparator = new HBaseBulkLoadComparator<>();
+    comparator.setConf(conf);
+    // the row keys of negative longs follow the positive ones
+    assertTrue(comparator.compare(1L, -1L) < 0);
+    assertEquals(0, comparator.compare(2L, 2L));
+
+    byte[] a = serialize("ab");
+    byte[] b = serialize("b");
+    assertTrue(comparator.compare(a, 0, a.length, b, 0, b.length) < 0);
+    assertTrue(comparator.compare(b, 0, b.length, a, 0, a.length) > 0);
+    assertEquals(0, comparator.compare(a, 0, a.length, a, 0, a.length));
+  }
+
+  private byte[] serialize(String key) throws IOException {
+    DataOutputBuffer out = new DataOutputBuffer();
+    Serializer<String> serializer = new SerializationFactory(conf).getSerializer(String.class);
+    serializer.open(out);
+    serializer.serialize(key);
+    serializer.close();
+    return Arrays.copyOf(out.getData(), out.getLength());
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.hbase.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.gora.examples.generated.Employee;
+import org.apache.gora.hbase.store.HBaseStore;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.junit.Test;
+
+/**
+ * Tests the sorting, the region boundaries and the rolls of the HFiles
+ * written by {@link HBaseBulkLoadRecordWriter}, against a store stub with
+ * two regions.
+ */
+public class TestHBaseBulkLoadRecordWriter {
+
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+
+  /**
+   * Writes a cell "row" -> "value" at the timestamp of the key
+   * "row:value:timestamp".
+   */
+  private static class StoreStub extends HBaseStore<String, Employee> {
+    private boolean closed;
+
+    @Override
+    public Pair<Put, Delete> createMutations(String key, Employee persistent) {
+      String[] parts = key.split(":");
+      byte[] row = Bytes.toBytes(parts[0]);
+      long timestamp = Long.parseLong(parts[2]);
+      Put put = new Put(row, timestamp);
+      put.addColumn(FAMILY, FAMILY, Bytes.toBytes(parts[1]));
+      return new Pair<>(put, new Delete(row, timestamp));
+    }
+
+    @Override
+    public byte[][] getRegionStartKeys() {
+      return new byte[][] { new byte[0], Bytes.toBytes("m") };
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  /**
+   * Records the written cells as "row=value", and the file rolls as "roll".
+   */
+  private static class CellRecorder extends RecordWriter<ImmutableBytesWritable, Cell> {
+    private final List<String> writes = new ArrayList<>();
+
+    @Override
+    public void write(ImmutableBytesWritable row, Cell cell) {
+      if (row == null && cell == null) {
+        writes.add("roll");
+      } else {
+        writes.add(Bytes.toString(row.copyBytes()) + "="
+            + Bytes.toString(CellUtil.cloneValue(cell)));
+      }
+    }
+
+    @Override
+    public void close(TaskAttemptContext context) {
+    }
+  }
+
+  @Test
+  public void testSortedByRegion() throws Exception {
+    StoreStub store = new StoreStub();
+    CellRecorder recorder = new CellRecorder();
+    HBaseBulkLoadRecordWriter<String, Employee> writer =
+        new HBaseBulkLoadRecordWriter<>(store, recorder, Long.MAX_VALUE);
+    for (String key : new String[] {"x:1:1", "b:2:1", "m:3:1", "a:4:1"}) {
+      writer.write(key, null);
+    }
+    assertEquals(0, recorder.writes.size());
+    writer.close(null);
+
+    assertEquals(Arrays.asList("a=4", "b=2", "roll", "m=3", "x=1", "roll"), recorder.writes);
+    assertEquals(true, store.closed);
+  }
+
+  @Test
+  public void testLastEqualCellWins() throws Exception {
+    CellRecorder recorder = new CellRecorder();
+    HBaseBulkLoadRecordWriter<String, Employee> writer =
+        new HBaseBulkLoadRecordWriter<>(new StoreStub(), recorder, Long.MAX_VALUE);
+    writer.write("a:1:5", null);
+    writer.write("a:2:5", null);
+    writer.write("a:3:4", null);
+    writer.close(null);
+
+    // newest version first
+    assertEquals(Arrays.asList("a=2", "a=3", "roll"), recorder.writes);
+  }
+
+  @Test
+  public void testBufferSize() throws IOException, InterruptedException {
+    CellRecorder recorder = new CellRecorder();
+    HBaseBulkLoadRecordWriter<String, Employee> writer =
+        new HBaseBulkLoadRecordWriter<>(new StoreStub(), recorder, 1);
+    writer.write("x:1:1", null);
+    writer.write("a:2:1", null);
+    // the second buffer does not follow the first one
+    assertEquals(Arrays.asList("x=1", "roll", "a=2"), recorder.writes);
+    writer.close(null);
+    assertEquals(Arrays.asList("x=1", "roll", "a=2", "roll"), recorder.writes);
+  }
+
+  @Test
+  public void testSortedBuffersShareFiles() throws Exception {
+    CellRecorder recorder = new CellRecorder();
+    HBaseBulkLoadRecordWriter<String, Employee> writer =
+        new HBaseBulkLoadRecordWriter<>(new StoreStub(), recorder, 1);
+    for (String key : new String[] {"a:1:1", "b:2:1", "n:3:1", "x:4:1"}) {
+      writer.write(key, null);
+    }
+    writer.close(null);
+
+    // rolled at the region boundary and at the end only
+    assertEquals(Arrays.asList("a=1", "b=2", "roll", "n=3", "x=4", "roll"), recorder.writes);
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.hbase.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+/**
+ * Tests the grouping of concurrent reads by {@link HBaseReadCoalescer},
+ * against an in-memory reader.
+ */
+public class TestHBaseReadCoalescer {
+
+  /**
+   * Returns the rows read, failing the batches containing the row "bad".
+   */
+  private static class RowReader extends HBaseReadCoalescer<String> {
+    private final AtomicInteger batches = new AtomicInteger();
+
+    RowReader(int maxKeys, long windowMicros) {
+      super(maxKeys, windowMicros);
+    }
+
+    @Override
+    protected List<String> read(List<Get> gets) throws IOException {
+      batches.incrementAndGet();
+      List<String> rows = new ArrayList<>(gets.size());
+      for (Get get : gets) {
+        String row = Bytes.toString(get.getRow());
+        if (row.equals("bad")) {
+          throw new IOException("bad row");
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+  }
+
+  private static List<Future<String>> readConcurrently(final RowReader reader,
+      ExecutorService executor, List<String> rows) {
+    List<Future<String>> results = new ArrayList<>();
+    for (final String row : rows) {
+      results.add(executor.submit(new Callable<String>() {
+        @Override
+        public String call() throws Exception {
+          return reader.get(new Get(Bytes.toBytes(row)));
+        }
+      }));
+    }
+    return results;
+  }
+
+  @Test
+  public void testCoalescing() throws Exception {
+    RowReader reader = new RowReader(8, 10000000);
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<String> rows = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        rows.add("row" + i);
+      }
+      List<Future<String>> results = readConcurrently(reader, executor, rows);
+      for (int i = 0; i < rows.size(); i++) {
+        assertEquals(rows.get(i), results.get(i).get());
+      }
+      // full batches are sent without waiting for the window
+      assertEquals(2, reader.batches.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWindow() throws Exception {
+    RowReader reader = new RowReader(100, 1000);
+    assertEquals("row", reader.get(new Get(Bytes.toBytes("row"))));
+    assertEquals(1, reader.batches.get());
+  }
+
+  @Test
+  public void testInterruptedFirstRead() throws Exception {
+    final RowReader reader = new RowReader(100, 100000);
+    final Object[] result = new Object[2];
+    Thread first = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          result[0] = reader.get(new Get(Bytes.toBytes("row")));
+        } catch (IOException e) {
+          result[0] = e;
+        }
+        result[1] = Thread.currentThread().isInterrupted();
+      }
+    });
+    first.start();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (first.getState() != Thread.State.TIMED_WAITING
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    first.interrupt();
+    first.join(10000);
+    assertEquals("row", result[0]);
+    assertEquals(Boolean.TRUE, result[1]);
+    assertEquals(1, reader.batches.get());
+  }
+
+  @Test
+  public void testFailureIsolation() throws Exception {
+    RowReader reader = new RowReader(4, 10000000);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<String> rows = new ArrayList<>();
+      rows.add("row0");
+      rows.add("bad");
+      rows.add("row2");
+      rows.add("row3");
+      List<Future<String>> results = readConcurrently(reader, executor, rows);
+      assertEquals("row0", results.get(0).get());
+      assertEquals("row2", results.get(2).get());
+      assertEquals("row3", results.get(3).get());
+      try {
+        results.get(1).get();
+        fail("The read of a bad row must fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IOException);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
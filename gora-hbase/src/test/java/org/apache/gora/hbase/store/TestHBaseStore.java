@@ -29,16 +29,24 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.avro.util.Utf8;
 import org.apache.gora.examples.generated.Employee;
 import org.apache.gora.examples.generated.WebPage;
 import org.apache.gora.hbase.GoraHBaseTestDriver;
+import org.apache.gora.query.PartitionQuery;
+import org.apache.gora.query.Query;
+import org.apache.gora.store.DataStore;
 import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.DataStoreMetadataFactory;
 import org.apache.gora.store.DataStoreTestBase;
+import org.apache.gora.store.DataStoreTestUtil;
 <<<<<<< HEAD
 =======
 import org.apache.gora.store.impl.DataStoreMetadataAnalyzer;
@@ -348,6 +356,107 @@ public class TestHBaseStore extends DataStoreTestBase {
   public void testResultSizeKeyRange() throws Exception {
   }
 
+  /**
+   * Checks that with key.ordered=true the rows written by put and putAll are
+   * found by get and queries, and that deleteByQuery deletes the queried rows.
+   */
+  @Test
+  public void testOrderedKeys() throws Exception {
+    Properties properties = DataStoreFactory.createProps();
+    properties.setProperty("gora.hbasestore.key.ordered", "true");
+    DataStore<String, Employee> store = DataStoreFactory.getDataStore(
+        HBaseStore.class.getName(), String.class.getName(), Employee.class.getName(),
+        properties, conf);
+    try {
+      store.createSchema();
+      Map<String, Employee> employees = new LinkedHashMap<>();
+      for (int i = 0; i < 4; i++) {
+        Employee employee = DataStoreTestUtil.createEmployee();
+        employee.setSsn(new Utf8("ssn" + i));
+        employees.put("ssn" + i, employee);
+      }
+      store.put("ssn0", employees.remove("ssn0"));
+      store.putAll(employees);
+      store.flush();
+      for (int i = 0; i < 4; i++) {
+        assertNotNull(store.get("ssn" + i));
+      }
+
+      Query<String, Employee> query = store.newQuery();
+      org.apache.gora.query.Result<String, Employee> result = query.execute();
+      List<String> keys = new ArrayList<>();
+      while (result.next()) {
+        keys.add(result.getKey());
+      }
+      result.close();
+      assertEquals(Arrays.asList("ssn0", "ssn1", "ssn2", "ssn3"), keys);
+
+      query = store.newQuery();
+      query.setKeyRange("ssn1", "ssn2");
+      assertEquals(2, store.deleteByQuery(query));
+      store.flush();
+      assertNotNull(store.get("ssn0"));
+      assertNull(store.get("ssn1"));
+      assertNull(store.get("ssn2"));
+      assertNotNull(store.get("ssn3"));
+    } finally {
+      store.deleteSchema();
+      store.close();
+    }
+  }
+
+  /**
+   * Checks that with partition.target.count set a region is split into
+   * several partitions, which together read every row once, including the
+   * rows at their boundaries.
+   */
+  @Test
+  public void testRegionSplitIntoPartitions() throws Exception {
+    Properties properties = DataStoreFactory.createProps();
+    properties.setProperty("gora.hbasestore.partition.target.count", "4");
+    properties.setProperty("gora.hbasestore.partition.min.size", "1");
+    DataStore<Long, Employee> store = DataStoreFactory.getDataStore(
+        HBaseStore.class.getName(), Long.class.getName(), Employee.class.getName(),
+        properties, conf);
+    try {
+      store.createSchema();
+      Set<Long> keys = new TreeSet<>();
+      for (long i = 0; i < 100; i++) {
+        keys.add(i * 1000);
+        store.put(i * 1000, DataStoreTestUtil.createEmployee());
+      }
+      store.flush();
+
+      // a new table has a single region
+      List<PartitionQuery<Long, Employee>> partitions = store.getPartitions(store.newQuery());
+      assertTrue(partitions.size() > 1);
+      assertNull(partitions.get(0).getStartKey());
+      assertNull(partitions.get(partitions.size() - 1).getEndKey());
+      for (int i = 0; i + 1 < partitions.size(); i++) {
+        Long splitKey = partitions.get(i).getEndKey();
+        assertNotNull(splitKey);
+        assertEquals(splitKey, partitions.get(i + 1).getStartKey());
+        if (keys.add(splitKey)) {
+          store.put(splitKey, DataStoreTestUtil.createEmployee());
+        }
+      }
+      store.flush();
+
+      List<Long> read = new ArrayList<>();
+      for (PartitionQuery<Long, Employee> partition : partitions) {
+        org.apache.gora.query.Result<Long, Employee> result = store.execute(partition);
+        while (result.next()) {
+          read.add(result.getKey());
+        }
+        result.close();
+      }
+      assertEquals(new ArrayList<>(keys), read);
+    } finally {
+      store.deleteSchema();
+      store.close();
+    }
+  }
+
   @Test
   public void testNewVersionBehavior() throws IOException {
     // Following Test fails in HBase 2.0.5 when NEW_VERSION_BEHAVIOR == true
@@ -0,0 +1,300 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.gora.hbase.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+/**
+ * Tests the buffered writes of {@link HBaseTableConnection}, against an
+ * in-memory mutator.
+ */
+public class TestHBaseTableConnection {
+
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final byte[] QUALIFIER = Bytes.toBytes("q");
+
+  /**
+   * Keeps the mutations in memory. Its flushes block while {@link #blocked}
+   * is set, fail while {@link #failing} is set and throw {@link #crash}
+   * while it is set.
+   */
+  private static class MemMutator implements BufferedMutator {
+    private final BufferedMutatorParams params;
+    private final List<Mutation> mutations = Collections.synchronizedList(new ArrayList<Mutation>());
+    private final CountDownLatch flushing = new CountDownLatch(1);
+    private final CountDownLatch failed = new CountDownLatch(1);
+    private volatile CountDownLatch blocked;
+    private volatile boolean failing;
+    private volatile RuntimeException crash;
+
+    MemMutator(BufferedMutatorParams params) {
+      this.params = params;
+    }
+
+    @Override
+    public TableName getName() {
+      return params.getTableName();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+      return new Configuration(false);
+    }
+
+    @Override
+    public void mutate(Mutation mutation) throws IOException {
+      mutations.add(mutation);
+    }
+
+    @Override
+    public void mutate(List<? extends Mutation> list) throws IOException {
+      mutations.addAll(list);
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public void flush() throws IOException {
+      flushing.countDown();
+      CountDownLatch latch = blocked;
+      if (latch != null) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (failing) {
+        failed.countDown();
+        throw new IOException("flush failed");
+      }
+      RuntimeException e = crash;
+      if (e != null) {
+        failed.countDown();
+        throw e;
+      }
+    }
+
+    @Override
+    public long getWriteBufferSize() {
+      return params.getWriteBufferSize();
+    }
+
+    @Override
+    public void setRpcTimeout(int timeout) {
+    }
+
+    @Override
+    public void setOperationTimeout(int timeout) {
+    }
+  }
+
+  /**
+   * Returns a connection whose mutator is the given one.
+   */
+  private static Connection connection(final MemMutator[] mutator) {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] { Connection.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+            case "getBufferedMutator":
+              mutator[0] = new MemMutator((BufferedMutatorParams) args[0]);
+              return mutator[0];
+            case "isClosed":
+              return false;
+            default:
+              return null;
+            }
+          }
+        });
+  }
+
+  private static Put put(int row) {
+    return new Put(Bytes.toBytes(String.format("row%03d", row)))
+        .addColumn(FAMILY, QUALIFIER, Bytes.toBytes(row));
+  }
+
+  private static void write(HBaseTableConnection table, int row) throws IOException {
+    Put put = put(row);
+    table.updateRow(put.getRow(), put, new Delete(put.getRow()));
+  }
+
+  @Test
+  public void testWritersWaitForFlush() throws Exception {
+    long putSize = put(0).heapSize();
+    MemMutator[] mutator = new MemMutator[1];
+    final HBaseTableConnection table = new HBaseTableConnection(new Configuration(false),
+        connection(mutator), "test", false, 2 * putSize, 2 * putSize, 0);
+    write(table, 1);
+    mutator[0].blocked = new CountDownLatch(1);
+    // reaches the write buffer size, the flusher then blocks
+    write(table, 2);
+    assertTrue(mutator[0].flushing.await(10, TimeUnit.SECONDS));
+
+    final IOException[] failure = new IOException[1];
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          write(table, 3);
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      }
+    });
+    writer.start();
+    long deadline = System.currentTimeMillis() + 10000;
+    while (writer.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(Thread.State.WAITING, writer.getState());
+    assertEquals(2, mutator[0].mutations.size());
+
+    mutator[0].blocked.countDown();
+    writer.join(10000);
+    assertEquals(Thread.State.TERMINATED, writer.getState());
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    assertEquals(3, mutator[0].mutations.size());
+    table.close();
+  }
+
+  @Test
+  public void testFailuresReportedOnNextFlush() throws Exception {
+    long putSize = put(0).heapSize();
+    MemMutator[] mutator = new MemMutator[1];
+    HBaseTableConnection table = new HBaseTableConnection(new Configuration(false),
+        connection(mutator), "test", false, 2 * putSize, 0, 0);
+    write(table, 1);
+    Put rejected = put(1);
+    mutator[0].params.getListener().onException(new RetriesExhaustedWithDetailsException(
+        Collections.<Throwable>singletonList(new IOException("rejected")),
+        Collections.<Row>singletonList(rejected),
+        Collections.singletonList("localhost:16020")), mutator[0]);
+    try {
+      table.flushCommits();
+      fail("The rejected mutation was not reported");
+    } catch (RetriesExhaustedWithDetailsException e) {
+      assertEquals(1, e.getNumExceptions());
+      assertSame(rejected, e.getRow(0));
+    }
+    // reported once
+    table.flushCommits();
+
+    // a failing background flush is reported by the next flush
+    mutator[0].failing = true;
+    write(table, 2);
+    write(table, 3);
+    assertTrue(mutator[0].failed.await(10, TimeUnit.SECONDS));
+    mutator[0].failing = false;
+    long deadline = System.currentTimeMillis() + 10000;
+    IOException failure = null;
+    while (failure == null && System.currentTimeMillis() < deadline) {
+      try {
+        table.flushCommits();
+        Thread.sleep(10);
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    assertEquals("flush failed", failure == null ? null : failure.getMessage());
+    table.flushCommits();
+    table.close();
+  }
+
+  @Test
+  public void testWritersFailWhenFlusherDies() throws Exception {
+    long putSize = put(0).heapSize();
+    MemMutator[] mutator = new MemMutator[1];
+    final HBaseTableConnection table = new HBaseTableConnection(new Configuration(false),
+        connection(mutator), "test", false, 2 * putSize, 2 * putSize, 0);
+    write(table, 1);
+    IllegalStateException crash = new IllegalStateException("flusher crashed");
+    mutator[0].crash = crash;
+    // reaches the write buffer size, the flusher then dies
+    write(table, 2);
+    assertTrue(mutator[0].failed.await(10, TimeUnit.SECONDS));
+
+    // the writers waiting for the flusher, or coming after it died, fail
+    final IOException[] failure = new IOException[1];
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          write(table, 3);
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      }
+    });
+    writer.start();
+    writer.join(10000);
+    assertEquals(Thread.State.TERMINATED, writer.getState());
+    assertNotNull(failure[0]);
+    assertSame(crash, failure[0].getCause());
+    try {
+      write(table, 4);
+      fail("The write did not fail after the flusher died");
+    } catch (IOException e) {
+      assertSame(crash, e.getCause());
+    }
+
+    // the failure is reported by the next flush
+    mutator[0].crash = null;
+    try {
+      table.flushCommits();
+      fail("The failure of the flusher was not reported");
+    } catch (IOException e) {
+      assertSame(crash, e.getCause());
+    }
+    assertEquals(2, mutator[0].mutations.size());
+    table.close();
+  }
+}
@@ -28,12 +28,16 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.apache.avro.Schema;
 import org.apache.avro.util.Utf8;
 
 import org.apache.gora.examples.generated.Employee;
 import org.apache.gora.examples.generated.Metadata;
+import org.apache.hadoop.hbase.util.Bytes;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -122,4 +126,49 @@ public class TestHBaseByteInterface {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testDecodingInPlace() throws Exception {
+    Employee e = Employee.newBuilder().build();
+    e.setName(new Utf8("john"));
+    e.setDateOfBirth(42L);
+    e.setSalary(1337);
+    byte[] employeeBytes = HBaseByteInterface.toBytes(e, Employee.SCHEMA$);
+
+    // the value is a slice of a larger array, as in a cell
+    byte[] block = new byte[employeeBytes.length + 8];
+    System.arraycopy(employeeBytes, 0, block, 4, employeeBytes.length);
+    Employee reuse = Employee.newBuilder().build();
+    Object e2 = HBaseByteInterface.fromBytes(Employee.SCHEMA$, block, 4,
+        employeeBytes.length, reuse);
+    assertSame(reuse, e2);
+    assertEquals(new Utf8("john"), reuse.getName());
+    assertEquals(1337, reuse.getSalary().intValue());
+
+    byte[] intBlock = Bytes.add(new byte[] {9}, Bytes.toBytes(1337));
+    assertEquals(1337, HBaseByteInterface.fromBytes(Schema.create(Schema.Type.INT),
+        intBlock, 1, 4, null));
+  }
+
+  @Test
+  public void testStringReuse() throws Exception {
+    Schema schema = Schema.create(Schema.Type.STRING);
+    Utf8 reuse = new Utf8("a longer string");
+    byte[] block = Bytes.toBytes("--short--");
+    Object value = HBaseByteInterface.fromBytes(schema, block, 2, 5, reuse);
+    assertSame(reuse, value);
+    assertEquals("short", value.toString());
+
+    // the backing array of the reused string is longer than the string
+    assertArrayEquals(Bytes.toBytes("short"), HBaseByteInterface.toBytes(value));
+    assertArrayEquals(Bytes.toBytes("short"), HBaseByteInterface.toBytes(value, schema));
+  }
+
+  @Test
+  public void testWriterCache() throws Exception {
+    Metadata m = Metadata.newBuilder().build();
+    HBaseByteInterface.toBytes(m, Metadata.SCHEMA$);
+    Object writer = HBaseByteInterface.writerMap.get(Metadata.SCHEMA$);
+    HBaseByteInterface.toBytes(m, Metadata.SCHEMA$);
+    assertSame(writer, HBaseByteInterface.writerMap.get(Metadata.SCHEMA$));
+  }
+}
@@ -420,6 +420,7 @@ public class IgniteStore<K, T extends PersistentBase> extends DataStoreBase<K, T
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try {
       connection.close();
       LOG.info("Ignite datastore destroyed successfully.");
@@ -561,7 +562,7 @@ public class IgniteStore<K, T extends PersistentBase> extends DataStoreBase<K, T
   private SpecificDatumReader getDatumReader(Schema fieldSchema) {
     SpecificDatumReader<?> reader = readerMap.get(fieldSchema);
     if (reader == null) {
-      reader = new SpecificDatumReader(fieldSchema);// ignore dirty bits
+      reader = new PersistentDatumReader(fieldSchema);// ignore dirty bits
       SpecificDatumReader localReader = null;
       if ((localReader = readerMap.putIfAbsent(fieldSchema, reader)) != null) {
         reader = localReader;
@@ -574,7 +575,7 @@ public class IgniteStore<K, T extends PersistentBase> extends DataStoreBase<K, T
   private SpecificDatumWriter getDatumWriter(Schema fieldSchema) {
     SpecificDatumWriter writer = writerMap.get(fieldSchema);
     if (writer == null) {
-      writer = new SpecificDatumWriter(fieldSchema);// ignore dirty bits
+      writer = new PersistentDatumWriter(fieldSchema);// ignore dirty bits
       writerMap.put(fieldSchema, writer);
     }
     return writer;
@@ -109,6 +109,7 @@ public class InfinispanStore<K, T extends PersistentBase> extends DataStoreBase<
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     LOG.debug("close()");
     infinispanClient.close();
   }
@@ -20,9 +20,13 @@ package org.apache.gora.jcache.store;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentSkipListSet;
@@ -46,6 +50,7 @@ import org.apache.avro.Schema;
 import org.apache.gora.jcache.query.JCacheQuery;
 import org.apache.gora.jcache.query.JCacheResult;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentBase.PersistentData;
 import org.apache.gora.query.PartitionQuery;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
@@ -53,7 +58,6 @@ import org.apache.gora.query.impl.PartitionQueryImpl;
 import org.apache.gora.store.DataStore;
 import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.impl.DataStoreBase;
-import org.apache.gora.util.AvroUtils;
 import org.apache.gora.util.GoraException;
 import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
@@ -99,19 +103,22 @@ public class JCacheStore<K, T extends PersistentBase> extends DataStoreBase<K, T
     if (Arrays.equals(fields, otherFieldStrings)) {
       return persitent;
     }
-    T clonedPersistent = AvroUtils.deepClonePersistent(persitent);
+    @SuppressWarnings("unchecked")
+    T clonedPersistent = (T) persitent.newInstance();
     clonedPersistent.clear();
     if (fields != null && fields.length > 0) {
       for (String field : fields) {
         Schema.Field otherField = persitent.getSchema().getField(field);
         int index = otherField.pos();
-        clonedPersistent.put(index, persitent.get(index));
+        clonedPersistent.put(index, PersistentData.get()
+            .copyOnWrite(otherField.schema(), persitent.get(index)));
       }
     } else {
       for (String field : otherFieldStrings) {
         Schema.Field otherField = persitent.getSchema().getField(field);
         int index = otherField.pos();
-        clonedPersistent.put(index, persitent.get(index));
+        clonedPersistent.put(index, PersistentData.get()
+            .copyOnWrite(otherField.schema(), persitent.get(index)));
       }
     }
     return clonedPersistent;
@@ -296,6 +303,32 @@ public class JCacheStore<K, T extends PersistentBase> extends DataStoreBase<K, T
     }
   }
 
+  @Override
+  public Map<K, T> getAll(Collection<K> keys, String[] fields) throws GoraException {
+    try {
+      Map<K, T> cached = cache.getAll(new LinkedHashSet<>(keys));
+      Map<K, T> objects = new LinkedHashMap<>();
+      for (K key : keys) {
+        T persitent = cached.get(key);
+        if (persitent != null) {
+          objects.put(key, getPersistent(persitent, fields));
+        }
+      }
+      return objects;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  @Override
+  public void putAll(Map<K, T> objects) throws GoraException {
+    try {
+      cache.putAll(objects);
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
   @Override
   public boolean delete(K key) throws GoraException {
     try {
@@ -396,6 +429,7 @@ public class JCacheStore<K, T extends PersistentBase> extends DataStoreBase<K, T
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try{
       flush();
     } catch (GoraException e) {
@@ -36,6 +36,8 @@ import org.apache.avro.util.Utf8;
 import org.apache.gora.lucene.query.LuceneQuery;
 import org.apache.gora.lucene.query.LuceneResult;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentDatumReader;
+import org.apache.gora.persistency.impl.PersistentDatumWriter;
 import org.apache.gora.query.PartitionQuery;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
@@ -343,7 +345,7 @@ public class LuceneStore<K, T extends PersistentBase>
 
   private SpecificDatumReader getDatumReader(Schema fieldSchema) {
     // reuse
-    return new SpecificDatumReader(fieldSchema);
+    return new PersistentDatumReader(fieldSchema);
   }
 
   private Object convertToIndexableFieldToAvroField(final Document doc,
@@ -487,7 +489,7 @@ public class LuceneStore<K, T extends PersistentBase>
   }
 
   private SpecificDatumWriter getDatumWriter(Schema fieldSchema) {
-    return new SpecificDatumWriter(fieldSchema);
+    return new PersistentDatumWriter(fieldSchema);
   }
 
   private IndexableField convertToIndexableField(String sf, Schema fieldSchema, Object o) {
@@ -620,6 +622,7 @@ public class LuceneStore<K, T extends PersistentBase>
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try {
       searcherManager.close();
       writer.close();
@@ -19,6 +19,7 @@ package org.apache.gora.mongodb.filters;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -144,6 +145,16 @@ public class DefaultFactory<K, T extends PersistentBase> extends
     case GREATER_OR_EQUAL:
       builder.greaterThanEquals(operands);
       break;
+    case BETWEEN:
+      builder.greaterThanEquals(operands.get(0)).lessThanEquals(operands.get(1));
+      break;
+    case STARTS_WITH:
+      StringBuilder prefixes = new StringBuilder();
+      for (String operand : operands) {
+        prefixes.append(prefixes.length() == 0 ? "^(?:" : "|").append(Pattern.quote(operand));
+      }
+      builder.regex(Pattern.compile(prefixes.append(')').toString()));
+      break;
     default:
       throw new IllegalArgumentException(filterOp
           + " no MongoDB equivalent yet");
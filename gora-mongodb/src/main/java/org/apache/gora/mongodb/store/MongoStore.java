@@ -31,12 +31,15 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -53,6 +56,8 @@ import org.apache.gora.mongodb.query.MongoDBResult;
 import org.apache.gora.mongodb.store.MongoMapping.DocumentFieldType;
 import org.apache.gora.mongodb.utils.BSONDecorator;
 import org.apache.gora.mongodb.utils.GoraDBEncoder;
+import org.apache.gora.persistency.ListDelta;
+import org.apache.gora.persistency.MapDelta;
 import org.apache.gora.persistency.impl.BeanFactoryImpl;
 import org.apache.gora.persistency.impl.DirtyListWrapper;
 import org.apache.gora.persistency.impl.DirtyMapWrapper;
@@ -61,6 +66,7 @@ import org.apache.gora.query.PartitionQuery;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
 import org.apache.gora.query.impl.PartitionQueryImpl;
+import org.apache.gora.store.DataStoreFactory;
 import org.apache.gora.store.impl.DataStoreBase;
 import org.apache.gora.util.AvroUtils;
 import org.apache.gora.util.ClassLoadingUtils;
@@ -72,6 +78,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Splitter;
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
 import com.mongodb.Bytes;
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
@@ -106,6 +113,12 @@ DataStoreBase<K, T> {
    */
   public static final String DEFAULT_MAPPING_FILE = "/gora-mongodb-mapping.xml";
 
+  /**
+   * Number of documents fetched at once by the query cursors
+   */
+  private static final String CURSOR_BATCH_SIZE_PROPERTIES_KEY = "cursor.batch.size";
+  private static final int CURSOR_BATCH_SIZE_PROPERTIES_DEFAULT = 100;
+
   /**
    * MongoDB client
    */
@@ -122,6 +135,8 @@ DataStoreBase<K, T> {
 
   private MongoFilterUtil<K, T> filterUtil;
 
+  private int cursorBatchSize = CURSOR_BATCH_SIZE_PROPERTIES_DEFAULT;
+
   public MongoStore() {
     // Create a default mapping that will be overriden in initialize method
     this.mapping = new MongoMapping();
@@ -140,6 +155,15 @@ DataStoreBase<K, T> {
 
       filterUtil = new MongoFilterUtil<>(getConf());
 
+      try {
+        cursorBatchSize = Integer.parseInt(DataStoreFactory.findProperty(properties, this,
+            CURSOR_BATCH_SIZE_PROPERTIES_KEY, String.valueOf(CURSOR_BATCH_SIZE_PROPERTIES_DEFAULT)));
+      } catch (NumberFormatException e) {
+        LOG.info("Can not load {} from gora.properties. Setting to default value: {}.",
+            CURSOR_BATCH_SIZE_PROPERTIES_KEY, CURSOR_BATCH_SIZE_PROPERTIES_DEFAULT);
+        cursorBatchSize = CURSOR_BATCH_SIZE_PROPERTIES_DEFAULT;
+      }
+
       // Load the mapping
       MongoMappingBuilder<K, T> builder = new MongoMappingBuilder<>(this);
       LOG.debug("Initializing Mongo store with mapping {}.",
@@ -349,6 +373,7 @@ DataStoreBase<K, T> {
    */
   @Override
   public void close() {
+    closeAsyncExecutor();
   }
 
   /**
@@ -365,13 +390,7 @@ DataStoreBase<K, T> {
       String[] dbFields = getFieldsToQuery(fields);
       // Prepare the MongoDB query
       BasicDBObject q = new BasicDBObject("_id", key);
-      BasicDBObject proj = new BasicDBObject();
-      for (String field : dbFields) {
-        String docf = mapping.getDocumentField(field);
-        if (docf != null) {
-          proj.put(docf, true);
-        }
-      }
+      BasicDBObject proj = newProjection(dbFields);
       // Execute the query
       DBObject res = mongoClientColl.findOne(q, proj);
       // Build the corresponding persistent
@@ -395,6 +414,81 @@ DataStoreBase<K, T> {
     }
   }
 
+  /**
+   * Retrieve several entries from the store with a single <code>$in</code>
+   * query on <code>_id</code>.
+   * 
+   * @param keys
+   *          identifiers of the documents in the database
+   * @param fields
+   *          list of fields to be loaded from the database
+   */
+  @Override
+  public Map<K, T> getAll(final Collection<K> keys, final String[] fields)
+      throws GoraException {
+    try {
+      String[] dbFields = getFieldsToQuery(fields);
+      // Prepare the MongoDB query
+      BasicDBObject q = new BasicDBObject("_id", new BasicDBObject("$in", keys));
+      BasicDBObject proj = newProjection(dbFields);
+      // Execute the query
+      Map<Object, DBObject> documents = new HashMap<>();
+      try (DBCursor cursor = mongoClientColl.find(q, proj)) {
+        for (DBObject res : cursor) {
+          documents.put(res.get("_id"), res);
+        }
+      }
+      // Build the corresponding persistents, in the order of the keys
+      Map<K, T> objects = new LinkedHashMap<>();
+      for (K key : keys) {
+        DBObject res = documents.get(key);
+        if (res != null) {
+          objects.put(key, newInstance(res, dbFields));
+        }
+      }
+      return objects;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  @Override
+  public Map<K, Boolean> existsAll(final Collection<K> keys) throws GoraException {
+    try {
+      // Prepare the MongoDB query, only fetching _id
+      BasicDBObject q = new BasicDBObject("_id", new BasicDBObject("$in", keys));
+      BasicDBObject proj = new BasicDBObject("_id", true);
+      // Execute the query
+      Set<Object> found = new HashSet<>();
+      try (DBCursor cursor = mongoClientColl.find(q, proj)) {
+        for (DBObject res : cursor) {
+          found.add(res.get("_id"));
+        }
+      }
+      Map<K, Boolean> exists = new LinkedHashMap<>();
+      for (K key : keys) {
+        exists.put(key, found.contains(key));
+      }
+      return exists;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * Build the projection selecting the document fields of the given fields.
+   */
+  private BasicDBObject newProjection(final String[] dbFields) {
+    BasicDBObject proj = new BasicDBObject();
+    for (String field : dbFields) {
+      String docf = mapping.getDocumentField(field);
+      if (docf != null) {
+        proj.put(docf, true);
+      }
+    }
+    return proj;
+  }
+
   /**
    * Persist an object into the store.
    * 
@@ -432,6 +526,61 @@ DataStoreBase<K, T> {
     DBObject qSel = new BasicDBObject("_id", key);
 
     // Build the update query
+    BasicDBObject qUpdate = newUpdateInstance(obj);
+
+    // Execute the update (if there is at least one $set ot $unset
+    if (!qUpdate.isEmpty()) {
+      mongoClientColl.update(qSel, qUpdate, true, false);
+      obj.clearDirty();
+    } else {
+      LOG.debug("No update to perform, skip {}", key);
+    }
+  }
+
+  /**
+   * Persist several objects into the store with a single unordered bulk
+   * write of upserts.
+   * 
+   * @param objects
+   *          the objects to be inserted, by identifier
+   */
+  @Override
+  public void putAll(final Map<K, T> objects) throws GoraException {
+    try {
+      BulkWriteOperation bulk = mongoClientColl.initializeUnorderedBulkOperation();
+      List<T> updated = new ArrayList<>();
+      for (Entry<K, T> entry : objects.entrySet()) {
+        T obj = entry.getValue();
+        if (!obj.isDirty()) {
+          LOG.info("Ignored putting object {} in the store as it is neither "
+              + "new, neither dirty.", new Object[] { obj });
+          continue;
+        }
+        BasicDBObject qUpdate = newUpdateInstance(obj);
+        if (qUpdate.isEmpty()) {
+          LOG.debug("No update to perform, skip {}", entry.getKey());
+          continue;
+        }
+        bulk.find(new BasicDBObject("_id", entry.getKey())).upsert().updateOne(qUpdate);
+        updated.add(obj);
+      }
+      if (!updated.isEmpty()) {
+        bulk.execute();
+        for (T obj : updated) {
+          obj.clearDirty();
+        }
+      }
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
+  /**
+   * Build the <code>$set</code>, <code>$unset</code> and <code>$push</code>
+   * update of an object. The maps and arrays tracking their changes are
+   * updated entry by entry.
+   */
+  private BasicDBObject newUpdateInstance(final T obj) {
     BasicDBObject qUpdate = new BasicDBObject();
 
     BasicDBObject qUpdateSet = newUpdateSetInstance(obj);
@@ -444,13 +593,11 @@ DataStoreBase<K, T> {
       qUpdate.put("$unset", qUpdateUnset);
     }
 
-    // Execute the update (if there is at least one $set ot $unset
-    if (!qUpdate.isEmpty()) {
-      mongoClientColl.update(qSel, qUpdate, true, false);
-      obj.clearDirty();
-    } else {
-      LOG.debug("No update to perform, skip {}", key);
+    BasicDBObject qUpdatePush = newUpdatePushInstance(obj);
+    if (qUpdatePush.size() > 0) {
+      qUpdate.put("$push", qUpdatePush);
     }
+    return qUpdate;
   }
 
   @Override
@@ -464,6 +611,17 @@ DataStoreBase<K, T> {
     }
   }
 
+  @Override
+  public long deleteAll(final Collection<K> keys) throws GoraException {
+    try {
+      DBObject removeKeys = new BasicDBObject("_id", new BasicDBObject("$in", keys));
+      WriteResult writeResult = mongoClientColl.remove(removeKeys);
+      return writeResult != null ? writeResult.getN() : 0;
+    } catch (Exception e) {
+      throw new GoraException(e);
+    }
+  }
+
   @Override
   public long deleteByQuery(final Query<K, T> query) throws GoraException {
     try {
@@ -502,7 +660,7 @@ DataStoreBase<K, T> {
       DBCursor cursor = mongoClientColl.find(q, p);
       if (query.getLimit() > 0)
         cursor = cursor.limit((int) query.getLimit());
-      cursor.batchSize(100);
+      cursor.batchSize(cursorBatchSize);
       cursor.addOption(Bytes.QUERYOPTION_NOTIMEOUT);
   
       // Build the result
@@ -525,6 +683,14 @@ DataStoreBase<K, T> {
     return query;
   }
 
+  /**
+   * Results read the documents through a cursor, by batches of 100.
+   */
+  @Override
+  public boolean supportsResultStreaming() {
+    return true;
+  }
+
   /**
    * Partitions the given query and returns a list of PartitionQuerys, which
    * will execute on local data.
@@ -582,7 +748,7 @@ DataStoreBase<K, T> {
           easybson);
       persistent.put(field.pos(), result);
     }
-    persistent.clearDirty();
+    persistent.trackChanges();
     return persistent;
   }
 
@@ -786,6 +952,20 @@ DataStoreBase<K, T> {
         String docf = mapping.getDocumentField(f.name());
         Object value = persistent.get(f.pos());
         DocumentFieldType storeType = mapping.getDocumentFieldType(docf);
+        Schema schema = getCollectionSchema(f.schema());
+        if (isMapDelta(schema, value)) {
+          // set the changed entries only
+          Schema valueSchema = schema.getValueType();
+          for (Object key : ((MapDelta<?>) value).getPutKeys()) {
+            result.put(docf + "." + encodeFieldKey(key.toString()),
+                toDBObject(docf, valueSchema, valueSchema.getType(), storeType,
+                    ((Map<?, ?>) value).get(key)));
+          }
+          continue;
+        } else if (isListDelta(schema, value)) {
+          // appended elements are pushed, see newUpdatePushInstance()
+          continue;
+        }
         LOG.debug(
             "Transform value to DBObject (MAIN), docField:{}, schemaType:{}, storeType:{}",
             new Object[] { docf, f.schema().getType(), storeType });
@@ -797,6 +977,62 @@ DataStoreBase<K, T> {
     return result;
   }
 
+  /**
+   * Build the <code>$push</code> parameter appending the new elements of the
+   * dirty arrays which only were appended to.
+   *
+   * @param persistent
+   *          a persistence class instance which content is to be serialized
+   * @return a {@link DBObject} which content corresponds to the elements that
+   *         have to be appended, formatted to be passed in parameter of a
+   *         $push operator
+   */
+  private BasicDBObject newUpdatePushInstance(final T persistent) {
+    BasicDBObject result = new BasicDBObject();
+    for (Field f : persistent.getSchema().getFields()) {
+      Object value = persistent.get(f.pos());
+      Schema schema = getCollectionSchema(f.schema());
+      if (persistent.isDirty(f.pos()) && isListDelta(schema, value)) {
+        List<?> list = (List<?>) value;
+        int appendIndex = ((ListDelta) value).getAppendIndex();
+        if (appendIndex < list.size()) {
+          String docf = mapping.getDocumentField(f.name());
+          BasicDBList elements = listToMongo(docf,
+              list.subList(appendIndex, list.size()), schema.getElementType(),
+              schema.getElementType().getType());
+          result.put(docf, new BasicDBObject("$each", elements));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the schema of a field, or of the non null type of a nullable
+   * union field.
+   */
+  private static Schema getCollectionSchema(final Schema fieldSchema) {
+    if (fieldSchema.getType() == Type.UNION
+        && fieldSchema.getTypes().size() == 2) {
+      for (Schema type : fieldSchema.getTypes()) {
+        if (type.getType() != Type.NULL) {
+          return type;
+        }
+      }
+    }
+    return fieldSchema;
+  }
+
+  private static boolean isMapDelta(final Schema schema, final Object value) {
+    return schema.getType() == Type.MAP && value instanceof MapDelta
+        && ((MapDelta<?>) value).isDeltaTracked();
+  }
+
+  private static boolean isListDelta(final Schema schema, final Object value) {
+    return schema.getType() == Type.ARRAY && value instanceof ListDelta
+        && ((ListDelta) value).isDeltaTracked();
+  }
+
   /**
    * Build a new instance of {@link DBObject} from the persistence class
    * instance in parameter. Limit the {@link DBObject} to the fields that are
@@ -813,6 +1049,15 @@ DataStoreBase<K, T> {
   private BasicDBObject newUpdateUnsetInstance(final T persistent) {
     BasicDBObject result = new BasicDBObject();
     for (Field f : persistent.getSchema().getFields()) {
+      Object entries = persistent.get(f.pos());
+      if (persistent.isDirty(f.pos())
+          && isMapDelta(getCollectionSchema(f.schema()), entries)) {
+        // unset the removed entries of the map
+        String docf = mapping.getDocumentField(f.name());
+        for (Object key : ((MapDelta<?>) entries).getRemovedKeys()) {
+          result.put(docf + "." + encodeFieldKey(key.toString()), "");
+        }
+      }
       if (persistent.isDirty(f.pos()) && (persistent.get(f.pos()) == null)) {
         String docf = mapping.getDocumentField(f.name());
         Object value = persistent.get(f.pos());
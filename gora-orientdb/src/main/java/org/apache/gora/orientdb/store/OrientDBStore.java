@@ -434,6 +434,7 @@ public class OrientDBStore<K, T extends PersistentBase> extends DataStoreBase<K,
    */
   @Override
   public void close() {
+    closeAsyncExecutor();
     try {
       flush();
     } catch (Exception ex) {
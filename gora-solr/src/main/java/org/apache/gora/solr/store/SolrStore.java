@@ -33,6 +33,8 @@ import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.avro.util.Utf8;
 import org.apache.gora.persistency.Persistent;
 import org.apache.gora.persistency.impl.PersistentBase;
+import org.apache.gora.persistency.impl.PersistentDatumReader;
+import org.apache.gora.persistency.impl.PersistentDatumWriter;
 import org.apache.gora.query.PartitionQuery;
 import org.apache.gora.query.Query;
 import org.apache.gora.query.Result;
@@ -609,7 +611,7 @@ public class SolrStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   private SpecificDatumReader getDatumReader(Schema fieldSchema) {
     SpecificDatumReader<?> reader = readerMap.get(fieldSchema);
     if (reader == null) {
-      reader = new SpecificDatumReader(fieldSchema);// ignore dirty bits
+      reader = new PersistentDatumReader(fieldSchema);// ignore dirty bits
       SpecificDatumReader localReader = null;
       if ((localReader = readerMap.putIfAbsent(fieldSchema, reader)) != null) {
         reader = localReader;
@@ -622,7 +624,7 @@ public class SolrStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
   private SpecificDatumWriter getDatumWriter(Schema fieldSchema) {
     SpecificDatumWriter writer = writerMap.get(fieldSchema);
     if (writer == null) {
-      writer = new SpecificDatumWriter(fieldSchema);// ignore dirty bits
+      writer = new PersistentDatumWriter(fieldSchema);// ignore dirty bits
       writerMap.put(fieldSchema, writer);
     }
 
@@ -920,6 +922,7 @@ public class SolrStore<K, T extends PersistentBase> extends DataStoreBase<K, T>
 
   @Override
   public void close() {
+    closeAsyncExecutor();
     try {
       flush();
     } catch (Exception e) {
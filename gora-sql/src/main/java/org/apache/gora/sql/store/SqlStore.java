@@ -165,6 +165,7 @@ public class SqlStore<K, T extends PersistentBase> extends DataStoreBase<K, T> {
 
   @Override
   public void close() {
+    closeAsyncExecutor();
   //TODO
   }
 